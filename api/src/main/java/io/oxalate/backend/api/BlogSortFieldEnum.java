@@ -0,0 +1,29 @@
+package io.oxalate.backend.api;
+
+public enum BlogSortFieldEnum {
+    CREATED_AT("createdAt"),
+    TITLE("title"),
+    RELEVANCE("relevance");
+
+    public final String fieldName;
+
+    BlogSortFieldEnum(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    /**
+     * Resolves the sort field from the sort_by value of a paged request. Unknown or missing values fall back to the creation time.
+     *
+     * @param fieldName Field name as given by the client, case-insensitive
+     * @return Matching sort field, or CREATED_AT if none matched
+     */
+    public static BlogSortFieldEnum fromFieldName(String fieldName) {
+        for (var sortField : values()) {
+            if (sortField.fieldName.equalsIgnoreCase(fieldName)) {
+                return sortField;
+            }
+        }
+
+        return CREATED_AT;
+    }
+}
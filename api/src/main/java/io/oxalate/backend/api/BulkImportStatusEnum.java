@@ -0,0 +1,7 @@
+package io.oxalate.backend.api;
+
+public enum BulkImportStatusEnum {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -71,7 +71,8 @@ public enum PortalConfigEnum {
         ENABLED_LANGUAGES("enabled-language"),
         ORG_NAME("org-name"),
         TOP_DIVER_LIST_SIZE("top-divers-list-size"),
-        BLOG_ENABLED("blog-enabled");
+        BLOG_ENABLED("blog-enabled"),
+        EVENT_WAITLIST_ENABLED("event-waitlist-enabled");
 
         public final String key;
 
@@ -6,6 +6,7 @@ public class UploadDirectoryConstants {
     public static final String DIVE_FILES = "dive-files";
     public static final String DOCUMENTS = "documents";
     public static final String PAGE_FILES = "page-files";
+    public static final String PRERENDERED_PAGES = "prerendered-pages";
 
     // Method to return all directory constants as an array
     public static String[] getAllDirectories() {
@@ -14,7 +15,8 @@ public class UploadDirectoryConstants {
                 CERTIFICATES,
                 DIVE_FILES,
                 DOCUMENTS,
-                PAGE_FILES
+                PAGE_FILES,
+                PRERENDERED_PAGES
         };
     }
 }
@@ -17,4 +17,9 @@ public class EmailNotificationSubscriptionRequest {
     @Schema(description = "Type of subscription", example = "EVENT_NEW", requiredMode = Schema.RequiredMode.REQUIRED)
     @JsonProperty("subscriptionList")
     private List<EmailNotificationTypeEnum> subscriptionList;
+
+    @Schema(description = "Whether the notifications of all the subscriptions are sent as a digest, one email per digest window, instead of one email "
+            + "each", example = "false", requiredMode = Schema.RequiredMode.NOT_REQUIRED)
+    @JsonProperty("digest")
+    private boolean digest;
 }
@@ -1,5 +1,6 @@
 package io.oxalate.backend.api.request;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.oxalate.backend.api.SortDirectionEnum;
 import jakarta.validation.constraints.Min;
@@ -40,4 +41,18 @@ public class PagedRequest {
     @Size(min = 2, max = 2, message = "Language code is given with 2 characters as per ISO-639-1")
     @JsonProperty("language")
     private String language;
+
+    // Opaque continuation token from the next_cursor of the previous response. When given, the listing continues right after the last item of the
+    // previous response and page is ignored
+    @JsonProperty("cursor")
+    private String cursor;
+
+    // Whether the total number of elements should be counted, defaults to true. Cursor-based clients can set this to false to skip the count
+    @JsonProperty("include_total")
+    private Boolean includeTotal;
+
+    @JsonIgnore
+    public boolean isTotalRequested() {
+        return !Boolean.FALSE.equals(includeTotal);
+    }
 }
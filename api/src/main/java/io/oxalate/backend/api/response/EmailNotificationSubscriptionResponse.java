@@ -18,4 +18,6 @@ public class EmailNotificationSubscriptionResponse {
     private EmailNotificationTypeEnum emailNotificationType;
     @JsonProperty("userId")
     private long userId;
+    @JsonProperty("digest")
+    private boolean digest;
 }
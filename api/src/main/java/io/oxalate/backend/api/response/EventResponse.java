@@ -21,6 +21,9 @@ public class EventResponse extends AbstractEvent {
     @JsonProperty("participants")
     private List<ListUserResponse> participants;
 
+    @JsonProperty("waitlist")
+    private List<Long> waitlist;
+
     @JsonProperty("eventCommentId")
     private long eventCommentId;
 
@@ -0,0 +1,39 @@
+package io.oxalate.backend.api.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.oxalate.backend.api.BulkImportStatusEnum;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder(toBuilder = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageBulkImportResponse {
+    @JsonProperty("status")
+    private BulkImportStatusEnum status;
+
+    @JsonProperty("pageGroups")
+    private long pageGroups;
+
+    @JsonProperty("pages")
+    private long pages;
+
+    @JsonProperty("pageVersions")
+    private long pageVersions;
+
+    @JsonProperty("rolePermissions")
+    private long rolePermissions;
+
+    @JsonProperty("startedAt")
+    private Instant startedAt;
+
+    @JsonProperty("finishedAt")
+    private Instant finishedAt;
+
+    @JsonProperty("message")
+    private String message;
+}
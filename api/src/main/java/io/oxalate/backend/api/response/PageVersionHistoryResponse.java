@@ -0,0 +1,29 @@
+package io.oxalate.backend.api.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageVersionHistoryResponse {
+    @JsonProperty("pageId")
+    private long pageId;
+
+    @JsonProperty("language")
+    private String language;
+
+    @JsonProperty("revision")
+    private int revision;
+
+    @JsonProperty("replacedBy")
+    private long replacedBy;
+
+    @JsonProperty("replacedAt")
+    private Instant replacedAt;
+}
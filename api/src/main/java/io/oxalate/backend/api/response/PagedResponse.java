@@ -37,6 +37,10 @@ public class PagedResponse<T> {
     @JsonProperty("empty")
     private boolean empty;
 
+    // Continuation token for fetching the items following this response, null when there are no more items
+    @JsonProperty("next_cursor")
+    private String nextCursor;
+
     public static <T> PagedResponse<T> of(List<T> content, int page, int size, long totalElements) {
         int totalPages = size > 0 ? (int) Math.ceil((double) totalElements / size) : 0;
         return PagedResponse.<T>builder()
@@ -50,4 +54,31 @@ public class PagedResponse<T> {
                             .empty(content == null || content.isEmpty())
                             .build();
     }
+
+    /**
+     * Creates a response of a cursor-based listing. The page number has no meaning in cursor mode and is always 0, and if the total was not counted then
+     * both total_elements and total_pages are -1.
+     *
+     * @param content       Items of this response
+     * @param size          Requested size of the response
+     * @param first         Whether this is the first window of the listing, ie. no cursor was given in the request
+     * @param nextCursor    Continuation token for the following items, null if this is the last window
+     * @param totalElements Total number of items, null if not counted
+     * @return Paged response
+     */
+    public static <T> PagedResponse<T> ofCursor(List<T> content, int size, boolean first, String nextCursor, Long totalElements) {
+        var total = totalElements != null ? totalElements : -1L;
+        var totalPages = totalElements == null ? -1 : (size > 0 ? (int) Math.ceil((double) totalElements / size) : 0);
+        return PagedResponse.<T>builder()
+                            .content(content)
+                            .page(0)
+                            .size(size)
+                            .totalElements(total)
+                            .totalPages(totalPages)
+                            .first(first)
+                            .last(nextCursor == null)
+                            .empty(content == null || content.isEmpty())
+                            .nextCursor(nextCursor)
+                            .build();
+    }
 }
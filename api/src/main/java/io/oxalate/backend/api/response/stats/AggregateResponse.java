@@ -3,6 +3,7 @@ package io.oxalate.backend.api.response.stats;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import java.util.List;
+import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -28,4 +29,12 @@ public class AggregateResponse {
     @Schema(description = "List of yearly dive counts per type")
     @JsonProperty("diverTypesPerYear")
     List<MultiYearValueResponse> diverTypesPerYear;
+
+    @Schema(description = "Duration of each aggregate query in milliseconds, an aggregate which failed or timed out has no duration")
+    @JsonProperty("queryDurations")
+    Map<String, Long> queryDurations;
+
+    @Schema(description = "Aggregates whose query failed or timed out, with the reason, their lists are empty", example = "{\"eventsPerYear\": \"timeout\"}")
+    @JsonProperty("failedQueries")
+    Map<String, String> failedQueries;
 }
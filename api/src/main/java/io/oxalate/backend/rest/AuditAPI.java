@@ -3,6 +3,7 @@ package io.oxalate.backend.rest;
 import static io.oxalate.backend.api.SecurityConstants.JWT_COOKIE;
 import static io.oxalate.backend.api.UrlConstants.API;
 import io.oxalate.backend.api.response.AuditEntryResponse;
+import io.oxalate.backend.api.response.PagedResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -59,4 +60,49 @@ public interface AuditAPI {
             @RequestParam(name = "pageSize", defaultValue = "10") int pageSize,
             @RequestParam(name = "sorting", defaultValue = "createdAt,desc") String sorting
     );
+
+    @Operation(description = "Get audit entries using a continuation cursor instead of a page index. The cost of fetching a window does not depend on "
+            + "how far in the listing it is, and counting the total can be skipped", tags = "AuditAPI")
+    @Parameter(name = "cursor", description = "The next_cursor of the previous response, omitted for the first window", example = "Y3JlYXRlZEF0H0k")
+    @Parameter(name = "pageSize", description = "Size of the window to be retrieved", example = "10")
+    @Parameter(name = "sorting", description = "What field the page should be sorted by, and which direction. The two values should be comma separated",
+            example = "createdAt,desc")
+    @Parameter(name = "filter", description = "Filter the column by the string", example = "Find me")
+    @Parameter(name = "filterColumn", description = "By which column should the filtering be done", example = "message")
+    @Parameter(name = "includeTotal", description = "Whether the total number of entries should be counted", example = "false")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of audit entries retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Cursor is invalid or does not match the sorting"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = JWT_COOKIE)
+    @GetMapping(value = BASE_PATH + "/cursor", produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<PagedResponse<AuditEntryResponse>> getAuditEventsByCursor(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageSize", defaultValue = "10") int pageSize,
+            @RequestParam(name = "sorting", defaultValue = "createdAt,desc") String sorting,
+            @RequestParam(name = "filter", defaultValue = "") String filter,
+            @RequestParam(name = "filterColumn", defaultValue = "") String filterColumn,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal);
+
+    @Operation(description = "Get audit entries of a user using a continuation cursor instead of a page index", tags = "AuditAPI")
+    @Parameter(name = "userId", description = "User ID who's audit entries should be retrieved", example = "123", required = true)
+    @Parameter(name = "cursor", description = "The next_cursor of the previous response, omitted for the first window", example = "Y3JlYXRlZEF0H0k")
+    @Parameter(name = "pageSize", description = "Size of the window to be retrieved", example = "10")
+    @Parameter(name = "sorting", description = "What field the page should be sorted by, and which direction. The two values should be comma separated",
+            example = "createdAt,desc")
+    @Parameter(name = "includeTotal", description = "Whether the total number of entries should be counted", example = "false")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List of audit entries for a user retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Cursor is invalid or does not match the sorting"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = JWT_COOKIE)
+    @GetMapping(value = BASE_PATH + "/{userId}/cursor", produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<PagedResponse<AuditEntryResponse>> getAuditEventsByUserIdAndCursor(
+            @PathVariable("userId") long userId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageSize", defaultValue = "10") int pageSize,
+            @RequestParam(name = "sorting", defaultValue = "createdAt,desc") String sorting,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal);
 }
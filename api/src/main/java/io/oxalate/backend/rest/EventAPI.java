@@ -59,6 +59,26 @@ public interface EventAPI {
     @GetMapping(path = BASE_PATH + "/past", produces = MediaType.APPLICATION_JSON_VALUE)
     ResponseEntity<List<EventResponse>> getPastEvents();
 
+    @Operation(description = "Get a list of all future events without the participant details. The visibility of the events depends on the role of the "
+            + "user in the same way as for the full future event list", tags = "EventAPI")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = JWT_COOKIE)
+    @GetMapping(path = BASE_PATH + "/list", produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<List<EventListResponse>> getFutureEventList();
+
+    @Operation(description = "Get a list of all past events without the participant details, with the organizer name and participant count of each event",
+            tags = "EventAPI")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "List retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = JWT_COOKIE)
+    @GetMapping(path = BASE_PATH + "/past/list", produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<List<EventListResponse>> getPastEventList();
+
     @Operation(description = "Get a list of all events for a specific user", tags = "EventAPI")
     @Parameter(name = "userId", description = "User ID for which all events should be fetched", example = "123")
     @ApiResponses(value = {
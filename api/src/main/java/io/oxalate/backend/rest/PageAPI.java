@@ -10,13 +10,16 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.List;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 
 @Tag(name = "PageAPI", description = "Page REST endpoints")
@@ -32,10 +35,12 @@ public interface PageAPI {
     @GetMapping(path = BASE_PATH + "/navigation-elements", produces = MediaType.APPLICATION_JSON_VALUE)
     ResponseEntity<List<PageGroupResponse>> getNavigationElements(@RequestParam(name = "language") String language);
 
-    @Operation(description = "Get all pages from the blogs page group for a given language with pagination, sorting and search support", tags = "PageAPI")
+    @Operation(description = "Get all pages from the blogs page group for a given language with pagination, sorting and full-text search support. "
+            + "Articles can be sorted by createdAt (default), title or relevance. Instead of a page index the next_cursor of the previous response can be "
+            + "given as cursor, and include_total set to false skips counting the matches", tags = "PageAPI")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "List retrieved successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid request parameters"),
+            @ApiResponse(responseCode = "400", description = "Invalid request parameters, or the cursor is invalid or does not match the sorting"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping(path = BASE_PATH + "/blogs", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
@@ -44,13 +49,16 @@ public interface PageAPI {
     @Operation(description = "Get page by the given page ID", tags = "PageAPI")
     @Parameter(name = "pageId", description = "Page ID to be retrieved", example = "1", required = true)
     @Parameter(name = "language", description = "Language, optional. If not given then will default to fi", example = "en")
+    @Parameter(name = "If-None-Match", description = "ETag of a previously retrieved version of the page, optional", example = "\"12-en-1718000000000-5f2a\"")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Page retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Page has not changed since the version identified by If-None-Match"),
             @ApiResponse(responseCode = "403", description = "User has not permission to view page"),
             @ApiResponse(responseCode = "404", description = "Page not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping(path = BASE_PATH + "/{pageId}", produces = MediaType.APPLICATION_JSON_VALUE)
     ResponseEntity<PageResponse> getPageById(@PathVariable(name = "pageId") long pageId,
-            @RequestParam(name = "language", required = false) String language);
+            @RequestParam(name = "language", required = false) String language,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch, HttpServletResponse response);
 }
@@ -4,14 +4,19 @@ import static io.oxalate.backend.api.SecurityConstants.JWT_COOKIE;
 import static io.oxalate.backend.api.UrlConstants.API;
 import io.oxalate.backend.api.request.PageGroupRequest;
 import io.oxalate.backend.api.request.PageRequest;
+import io.oxalate.backend.api.response.PageBulkImportResponse;
 import io.oxalate.backend.api.response.PageGroupResponse;
 import io.oxalate.backend.api.response.PageResponse;
+import io.oxalate.backend.api.response.PageVersionHistoryResponse;
+import io.oxalate.backend.api.response.PageVersionResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.List;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -140,4 +145,64 @@ public interface PageManagementAPI {
     @SecurityRequirement(name = JWT_COOKIE)
     @DeleteMapping(path = BASE_PATH + "/pages/{pageId}", produces = MediaType.APPLICATION_JSON_VALUE)
     ResponseEntity<HttpStatus> closePage(@PathVariable(name = "pageId") long pageId);
+
+    @Operation(description = "List the stored earlier revisions of a language version of a page, newest first. Revisions are only stored when the page "
+            + "history is enabled", tags = "PageManagementAPI")
+    @Parameter(name = "pageId", description = "Page ID of which history should be listed", example = "1")
+    @Parameter(name = "language", description = "Language of the page version", example = "en")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "History retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = JWT_COOKIE)
+    @GetMapping(path = BASE_PATH + "/pages/{pageId}/history", produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<List<PageVersionHistoryResponse>> getPageHistory(@PathVariable(name = "pageId") long pageId,
+            @RequestParam(name = "language") String language);
+
+    @Operation(description = "Get the texts of an earlier revision of a language version of a page", tags = "PageManagementAPI")
+    @Parameter(name = "pageId", description = "Page ID of the revision", example = "1")
+    @Parameter(name = "revision", description = "Revision number as given in the history listing", example = "3")
+    @Parameter(name = "language", description = "Language of the page version", example = "en")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Revision retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Revision not found or can no longer be reconstructed"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = JWT_COOKIE)
+    @GetMapping(path = BASE_PATH + "/pages/{pageId}/history/{revision}", produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<PageVersionResponse> getPageRevision(@PathVariable(name = "pageId") long pageId, @PathVariable(name = "revision") int revision,
+            @RequestParam(name = "language") String language);
+
+    // Bulk transfer
+    @Operation(description = "Export all page groups with their pages, page versions and role permissions as a JSON array. The response is streamed "
+            + "and can be given as such to the import", tags = "PageManagementAPI")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pages exported successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = JWT_COOKIE)
+    @GetMapping(path = BASE_PATH + "/bulk/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<Void> exportPages(HttpServletResponse response);
+
+    @Operation(description = "Import page groups with their pages from a JSON array in the export format. The pages are created as new pages and the "
+            + "import runs in the background, its progress and result can be followed from the progress endpoint", tags = "PageManagementAPI")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import started"),
+            @ApiResponse(responseCode = "400", description = "Import could not be read or started"),
+            @ApiResponse(responseCode = "409", description = "Another import is already running"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = JWT_COOKIE)
+    @PostMapping(path = BASE_PATH + "/bulk/import", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<PageBulkImportResponse> importPages(HttpServletRequest request);
+
+    @Operation(description = "Get the progress of the running page import, or the result of the latest import", tags = "PageManagementAPI")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Progress retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "No import has been run"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @SecurityRequirement(name = JWT_COOKIE)
+    @GetMapping(path = BASE_PATH + "/bulk/import/progress", produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<PageBulkImportResponse> getImportProgress();
 }
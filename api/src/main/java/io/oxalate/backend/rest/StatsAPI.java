@@ -7,14 +7,18 @@ import io.oxalate.backend.api.response.stats.EventPeriodReportResponse;
 import io.oxalate.backend.api.response.stats.MultiYearValueResponse;
 import io.oxalate.backend.api.response.stats.YearlyDiversListResponse;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDate;
 import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @Tag(name = "StatsAPI", description = "Statistics REST endpoints")
 public interface StatsAPI {
@@ -60,22 +64,29 @@ public interface StatsAPI {
     // Aggregate endpoints
     @Operation(description = "Aggregated data of events and dives", tags = "StatsAPI")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Aggregates retrieved successfully"),
-            @ApiResponse(responseCode = "500", description = "Internal server error")
+            @ApiResponse(responseCode = "200", description = "Aggregates retrieved successfully, the ones which failed or timed out are listed in failedQueries"),
+            @ApiResponse(responseCode = "500", description = "Internal server error"),
+            @ApiResponse(responseCode = "503", description = "Every aggregate query failed or timed out")
     })
     @SecurityRequirement(name = JWT_COOKIE)
     @GetMapping(value = BASE_PATH + "/yearly-aggregates", produces = MediaType.APPLICATION_JSON_VALUE)
     ResponseEntity<AggregateResponse> getAggregateStats();
 
     // Report endpoints
-    @Operation(description = "Produces the 6 months report of events for every year since the data begins", tags = "StatsAPI")
+    @Operation(description = "Produces the 6 months report of events for every year since the data begins, or for the periods overlapping the given "
+            + "date range", tags = "StatsAPI")
+    @Parameter(name = "from", description = "First date of the events to include, defaults to the beginning of the data", example = "2024-01-01")
+    @Parameter(name = "to", description = "Last date of the events to include, defaults to the end of the current year", example = "2025-06-30")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Reports retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "The from date is after the to date"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @SecurityRequirement(name = JWT_COOKIE)
     @GetMapping(value = BASE_PATH + "/event-report", produces = MediaType.APPLICATION_JSON_VALUE)
-    ResponseEntity<List<EventPeriodReportResponse>> getEventReports();
+    ResponseEntity<List<EventPeriodReportResponse>> getEventReports(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to);
 
     // Top lists
     @Operation(description = "List of top 20 divers, per year", tags = "StatsAPI")
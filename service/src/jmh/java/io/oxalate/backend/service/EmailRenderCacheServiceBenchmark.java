@@ -0,0 +1,96 @@
+package io.oxalate.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+/**
+ * Compares rendering a notification body for every subscriber with rendering it through {@link EmailRenderCacheService}. Each invocation renders the
+ * body once per language for the given number of subscribers, which is what a fan-out of one event notification does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailRenderCacheServiceBenchmark {
+    private static final String TEMPLATE_NAME = "eventNotificationTemplate_new_";
+    private static final Locale[] LOCALES = { Locale.ENGLISH, Locale.GERMAN, Locale.of("fi"), Locale.of("sv") };
+
+    @Param({ "10", "100", "1000" })
+    private int subscribers;
+
+    private TemplateEngine templateEngine;
+    private EmailRenderCacheService emailRenderCacheService;
+
+    @Setup
+    public void setUp() {
+        var templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setCharacterEncoding("UTF-8");
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        emailRenderCacheService = new EmailRenderCacheService(templateEngine, new SimpleMeterRegistry(), 1000L, Duration.ofHours(1));
+    }
+
+    @Benchmark
+    public int renderEverySubscriber() {
+        var length = 0;
+
+        for (var i = 0; i < subscribers; i++) {
+            var locale = LOCALES[i % LOCALES.length];
+            length += templateEngine.process(TEMPLATE_NAME + locale.getLanguage(), context(locale))
+                                    .length();
+        }
+
+        return length;
+    }
+
+    @Benchmark
+    public int renderCached() {
+        var length = 0;
+
+        for (var i = 0; i < subscribers; i++) {
+            var locale = LOCALES[i % LOCALES.length];
+            length += emailRenderCacheService.render(TEMPLATE_NAME + locale.getLanguage(), 1L, context(locale))
+                                             .length();
+        }
+
+        return length;
+    }
+
+    private Context context(Locale locale) {
+        var context = new Context(locale);
+        context.setVariable("orgName", "Test Divers");
+        context.setVariable("frontendUrl", "https://portal.test.tld");
+        context.setVariable("eventTitle", "Night dive");
+        context.setVariable("eventDate", "01.06.2026 19:00");
+        return context;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmailRenderCacheServiceBenchmark.class.getSimpleName())
+                                       .build()).run();
+    }
+}
@@ -1,8 +1,11 @@
 package io.oxalate.backend.configuration;
 
 import java.util.concurrent.ThreadPoolExecutor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -20,4 +23,77 @@ public class ThreadPoolConfiguration {
         executor.initialize();
         return executor;
     }
+
+    @Bean("PagePrerenderExecutor")
+    public TaskExecutor pagePrerenderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // A single thread renders the pages in the order they were modified, so that an older rendering does not overwrite a newer one
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1000);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("Prerender_Thread_");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean("PageImportExecutor")
+    public TaskExecutor pageImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // Only one import runs at a time, the caller rejects the imports started while one is running
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("Page_Import_Thread_");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean("StatsQueryExecutor")
+    public AsyncTaskExecutor statsQueryExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Stats_Query_Thread_");
+        // The submitting request thread never waits here, the number of queries running at the same time is limited by StatsService within the
+        // deadline of the request
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    @Bean("EmailDispatchTriggerExecutor")
+    public TaskExecutor emailDispatchTriggerExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // A single thread runs the dispatches one after another, the requests made meanwhile are coalesced by the caller
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("Email_Trigger_Thread_");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean("EmailQueueListenerExecutor")
+    public TaskExecutor emailQueueListenerExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        // The single listener runs for as long as the application, and is interrupted on shutdown
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setDaemon(true);
+        executor.setThreadNamePrefix("Email_Queue_Listener_");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean("EmailDispatchExecutor")
+    public AsyncTaskExecutor emailDispatchExecutor(@Value("${oxalate.email.dispatch.max-connections:4}") int maxConnections) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Email_Dispatch_Thread_");
+        executor.setVirtualThreads(true);
+        // Each running batch holds its own connection to the mail server
+        executor.setConcurrencyLimit(maxConnections);
+        return executor;
+    }
 }
@@ -1,12 +1,15 @@
 package io.oxalate.backend.controller;
 
 import io.oxalate.backend.api.response.AuditEntryResponse;
+import io.oxalate.backend.api.response.PagedResponse;
 import io.oxalate.backend.audit.AuditSource;
 import io.oxalate.backend.audit.Audited;
+import static io.oxalate.backend.events.AppAuditMessages.AUDIT_GET_INVALID_CURSOR;
 import static io.oxalate.backend.events.AppAuditMessages.AUDIT_GET_OK;
 import static io.oxalate.backend.events.AppAuditMessages.AUDIT_GET_START;
 import static io.oxalate.backend.events.AppAuditMessages.AUDIT_GET_USER_OK;
 import static io.oxalate.backend.events.AppAuditMessages.AUDIT_GET_USER_START;
+import io.oxalate.backend.exception.OxalateValidationException;
 import io.oxalate.backend.rest.AuditAPI;
 import io.oxalate.backend.service.ApplicationAuditEventService;
 import lombok.RequiredArgsConstructor;
@@ -90,4 +93,57 @@ public class AuditController implements AuditAPI {
         return ResponseEntity.status(HttpStatus.OK)
                              .body(auditEvents);
     }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    @Audited(startMessage = AUDIT_GET_START, okMessage = AUDIT_GET_OK)
+    public ResponseEntity<PagedResponse<AuditEntryResponse>> getAuditEventsByCursor(String cursor, int pageSize, String sorting, String filter,
+            String filterColumn, boolean includeTotal) {
+        log.debug("getAuditEventsByCursor: cursor: {}, pageSize: {}, sorting: {}, filter: {}, filterColumn: {}", cursor, pageSize, sorting, filter,
+                filterColumn);
+
+        if (filterColumn.equals("userName")) {
+            filterColumn = "userId";
+        }
+
+        if (filter.trim()
+                  .isEmpty()) {
+            filterColumn = "";
+        }
+
+        try {
+            var auditEvents = applicationAuditEventService.getAuditEventsByCursor(cursor, pageSize, toSort(sorting), filter, filterColumn, includeTotal);
+            return ResponseEntity.status(HttpStatus.OK)
+                                 .body(auditEvents);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid audit cursor {}: {}", cursor, e.getMessage());
+            throw new OxalateValidationException(AUDIT_GET_INVALID_CURSOR);
+        }
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    @Audited(startMessage = AUDIT_GET_USER_START, okMessage = AUDIT_GET_USER_OK)
+    public ResponseEntity<PagedResponse<AuditEntryResponse>> getAuditEventsByUserIdAndCursor(long userId, String cursor, int pageSize, String sorting,
+            boolean includeTotal) {
+        try {
+            var auditEvents = applicationAuditEventService.getAuditEventsForUserByCursor(userId, cursor, pageSize, toSort(sorting), includeTotal);
+            return ResponseEntity.status(HttpStatus.OK)
+                                 .body(auditEvents);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid audit cursor {} for user ID {}: {}", cursor, userId, e.getMessage());
+            throw new OxalateValidationException(AUDIT_GET_INVALID_CURSOR);
+        }
+    }
+
+    private Sort toSort(String sorting) {
+        var column = sorting.split(",")[0];
+        var direction = sorting.split(",")[1].equals("ascend") ? Sort.Direction.ASC : Sort.Direction.DESC;
+
+        if (column.equals("userName")) {
+            column = "userId";
+        }
+
+        return Sort.by(direction, column);
+    }
 }
@@ -46,7 +46,7 @@ public class EmailNotificationSubscriptionController implements EmailNotificatio
         emailNotificationSubscriptionService.removeAllSubscriptionsForUser(userId);
 
         for (var emailNotificationType : subscriptions.getSubscriptionList()) {
-            var subscriptionResponse = emailNotificationSubscriptionService.subscribeToNotification(userId, emailNotificationType);
+            var subscriptionResponse = emailNotificationSubscriptionService.subscribeToNotification(userId, emailNotificationType, subscriptions.isDigest());
             subscriptionResponses.add(subscriptionResponse);
         }
 
@@ -31,9 +31,13 @@ import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_DIVES_OK;
 import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_DIVES_START;
 import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_DIVES_UNAUTHORIZED;
 import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_FUTURE_FAIL;
+import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_FUTURE_LIST_OK;
+import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_FUTURE_LIST_START;
 import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_FUTURE_OK;
 import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_FUTURE_START;
 import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_FUTURE_TERMS_NOT_ACCEPTED;
+import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_PAST_LIST_OK;
+import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_PAST_LIST_START;
 import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_PAST_OK;
 import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_PAST_START;
 import static io.oxalate.backend.events.AppAuditMessages.EVENTS_GET_PAST_TERMS_NOT_ACCEPTED;
@@ -144,6 +148,34 @@ public class EventController implements EventAPI {
         return ResponseEntity.ok().body(eventResponses);
     }
 
+    @Override
+    @PreAuthorize("hasAnyRole('USER', 'ORGANIZER', 'ADMIN')")
+    @Audited(startMessage = EVENTS_GET_FUTURE_LIST_START, okMessage = EVENTS_GET_FUTURE_LIST_OK)
+    public ResponseEntity<List<EventListResponse>> getFutureEventList() {
+        if (AuthTools.currentUserHasNotAcceptedTerms()) {
+            log.error("User ID {} has not accepted terms and conditions", AuthTools.getCurrentUserId());
+            throw new OxalateValidationException(AuditLevelEnum.WARN, EVENTS_GET_FUTURE_TERMS_NOT_ACCEPTED, HttpStatus.NO_CONTENT);
+        }
+
+        var events = eventService.findEventListAfter(Instant.now(), AuthTools.currentUserHasAnyRole(ROLE_ORGANIZER, ROLE_ADMIN));
+        return ResponseEntity.status(HttpStatus.OK)
+                             .body(events);
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('USER', 'ORGANIZER', 'ADMIN')")
+    @Audited(startMessage = EVENTS_GET_PAST_LIST_START, okMessage = EVENTS_GET_PAST_LIST_OK)
+    public ResponseEntity<List<EventListResponse>> getPastEventList() {
+        if (AuthTools.currentUserHasNotAcceptedTerms()) {
+            log.error("User ID {} has not accepted terms and conditions", AuthTools.getCurrentUserId());
+            throw new OxalateValidationException(AuditLevelEnum.WARN, EVENTS_GET_PAST_TERMS_NOT_ACCEPTED, HttpStatus.NO_CONTENT);
+        }
+
+        var events = eventService.findEventListBefore(Instant.now());
+        return ResponseEntity.status(HttpStatus.OK)
+                             .body(events);
+    }
+
     @Override
     @PreAuthorize("hasAnyRole('USER', 'ORGANIZER', 'ADMIN')")
     @Audited(startMessage = EVENTS_GET_USER_START, okMessage = EVENTS_GET_USER_OK)
@@ -1,12 +1,14 @@
 package io.oxalate.backend.controller;
 
 import io.oxalate.backend.api.AuditLevelEnum;
+import io.oxalate.backend.api.RoleEnum;
 import io.oxalate.backend.api.request.PagedRequest;
 import io.oxalate.backend.api.response.PageGroupResponse;
 import io.oxalate.backend.api.response.PageResponse;
 import io.oxalate.backend.api.response.PagedResponse;
 import io.oxalate.backend.audit.AuditSource;
 import io.oxalate.backend.audit.Audited;
+import static io.oxalate.backend.events.AppAuditMessages.PAGES_GET_BLOGS_INVALID_CURSOR;
 import static io.oxalate.backend.events.AppAuditMessages.PAGES_GET_BLOGS_OK;
 import static io.oxalate.backend.events.AppAuditMessages.PAGES_GET_BLOGS_START;
 import static io.oxalate.backend.events.AppAuditMessages.PAGES_GET_NAVIGATION_ELEMENTS_OK;
@@ -17,13 +19,27 @@ import static io.oxalate.backend.events.AppAuditMessages.PAGES_GET_PAGE_START;
 import static io.oxalate.backend.events.AppAuditMessages.PAGES_GET_PAGE_UNAUTHORIZED;
 import io.oxalate.backend.exception.OxalateNotFoundException;
 import io.oxalate.backend.exception.OxalateUnauthorizedException;
+import io.oxalate.backend.exception.OxalateValidationException;
+import io.oxalate.backend.model.PrerenderedPage;
 import io.oxalate.backend.rest.PageAPI;
+import io.oxalate.backend.service.PagePrerenderService;
 import io.oxalate.backend.service.PageService;
 import io.oxalate.backend.tools.AuthTools;
+import io.oxalate.backend.tools.FileTools;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.RestController;
@@ -34,7 +50,10 @@ import org.springframework.web.bind.annotation.RestController;
 @AuditSource("PageController")
 public class PageController implements PageAPI {
 
+    private static final Set<RoleEnum> ANONYMOUS_ROLES = Set.of(RoleEnum.ROLE_ANONYMOUS);
+
     private final PageService pageService;
+    private final PagePrerenderService pagePrerenderService;
 
     @Override
     @Audited(startMessage = PAGES_GET_NAVIGATION_ELEMENTS_START, okMessage = PAGES_GET_NAVIGATION_ELEMENTS_OK)
@@ -51,29 +70,111 @@ public class PageController implements PageAPI {
     public ResponseEntity<PagedResponse<PageResponse>> getBlogArticles(PagedRequest pagedRequest) {
         var userRoles = AuthTools.getUserRoles();
         log.debug("Fetch blogs with request {}", pagedRequest);
-        var pagedResponse = pageService.getBlogArticles(pagedRequest, userRoles);
-        return ResponseEntity.status(HttpStatus.OK)
-                             .body(pagedResponse);
+
+        try {
+            var pagedResponse = pageService.getBlogArticles(pagedRequest, userRoles);
+            return ResponseEntity.status(HttpStatus.OK)
+                                 .body(pagedResponse);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid blog cursor {}: {}", pagedRequest.getCursor(), e.getMessage());
+            throw new OxalateValidationException(PAGES_GET_BLOGS_INVALID_CURSOR);
+        }
     }
 
     @Override
     @Audited(startMessage = PAGES_GET_PAGE_START, okMessage = PAGES_GET_PAGE_OK)
-    public ResponseEntity<PageResponse> getPageById(long pageId, String language) {
+    public ResponseEntity<PageResponse> getPageById(long pageId, String language, String ifNoneMatch, HttpServletResponse response) {
         var userRoles = AuthTools.getUserRoles();
         var selectedLanguage = language == null ? AuthTools.getLanguage() : language;
         log.debug("Called with page ID {}", pageId);
 
+        // Anonymous visitors are served the pre-rendered page straight from the disk when there is one
+        if (userRoles.equals(ANONYMOUS_ROLES)) {
+            var prerenderedPage = pagePrerenderService.getPrerenderedPage(pageId, selectedLanguage);
+
+            if (prerenderedPage != null && writePrerenderedPage(prerenderedPage, ifNoneMatch, response)) {
+                return null;
+            }
+        }
+
         try {
-            var pageResponse = pageService.getPage(pageId, userRoles, selectedLanguage);
+            var cachedPage = pageService.getCachedPage(pageId, userRoles, selectedLanguage);
 
-            if (pageResponse == null) {
+            if (cachedPage == null) {
                 throw new OxalateNotFoundException(PAGES_GET_PAGE_NOT_FOUND);
             }
 
+            // The client must revalidate every time, as the page may change or the access to it may be revoked
+            var cacheControl = CacheControl.noCache()
+                                           .cachePrivate();
+
+            if (eTagMatches(ifNoneMatch, cachedPage.getETag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                     .eTag(cachedPage.getETag())
+                                     .cacheControl(cacheControl)
+                                     .build();
+            }
+
             return ResponseEntity.status(HttpStatus.OK)
-                                 .body(pageResponse);
+                                 .eTag(cachedPage.getETag())
+                                 .cacheControl(cacheControl)
+                                 .body(cachedPage.getPageResponse());
         } catch (AccessDeniedException e) {
             throw new OxalateUnauthorizedException(AuditLevelEnum.WARN, PAGES_GET_PAGE_UNAUTHORIZED, HttpStatus.FORBIDDEN);
         }
     }
+
+    /**
+     * Writes the pre-rendered page, or the not modified status, directly to the response.
+     *
+     * @return True if the response was written, false if the file disappeared and the page should be read from the database instead
+     */
+    private boolean writePrerenderedPage(PrerenderedPage prerenderedPage, String ifNoneMatch, HttpServletResponse response) {
+        if (eTagMatches(ifNoneMatch, prerenderedPage.getETag())) {
+            setPrerenderedPageHeaders(prerenderedPage, response, HttpStatus.NOT_MODIFIED);
+            return true;
+        }
+
+        try (var fileChannel = FileChannel.open(prerenderedPage.getPath(), StandardOpenOption.READ)) {
+            setPrerenderedPageHeaders(prerenderedPage, response, HttpStatus.OK);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLengthLong(fileChannel.size());
+            FileTools.transferFile(fileChannel, response.getOutputStream());
+            return true;
+        } catch (NoSuchFileException e) {
+            log.debug("Pre-rendered page {} was removed before it could be read", prerenderedPage.getPath());
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write pre-rendered page " + prerenderedPage.getPath(), e);
+        }
+    }
+
+    private void setPrerenderedPageHeaders(PrerenderedPage prerenderedPage, HttpServletResponse response, HttpStatus httpStatus) {
+        response.setStatus(httpStatus.value());
+        response.setHeader(HttpHeaders.ETAG, prerenderedPage.getETag());
+        // Same policy as for the pages read from the database, the visitor must revalidate every time
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache()
+                                                                  .cachePrivate()
+                                                                  .getHeaderValue());
+    }
+
+    private boolean eTagMatches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+
+        for (var candidate : ifNoneMatch.split(",")) {
+            var trimmed = candidate.trim();
+            // If-None-Match uses the weak comparison, so a weak version of the same tag matches as well
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+
+            if (trimmed.equals("*") || trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
 }
@@ -1,12 +1,26 @@
 package io.oxalate.backend.controller;
 
 import io.oxalate.backend.api.AuditLevelEnum;
+import io.oxalate.backend.api.BulkImportStatusEnum;
 import io.oxalate.backend.api.request.PageGroupRequest;
 import io.oxalate.backend.api.request.PageRequest;
+import io.oxalate.backend.api.response.PageBulkImportResponse;
 import io.oxalate.backend.api.response.PageGroupResponse;
 import io.oxalate.backend.api.response.PageResponse;
+import io.oxalate.backend.api.response.PageVersionHistoryResponse;
+import io.oxalate.backend.api.response.PageVersionResponse;
 import io.oxalate.backend.audit.AuditSource;
 import io.oxalate.backend.audit.Audited;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_BULK_EXPORT_FAIL;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_BULK_EXPORT_OK;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_BULK_EXPORT_START;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_BULK_IMPORT_FAIL;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_BULK_IMPORT_OK;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_BULK_IMPORT_PROGRESS_NOT_FOUND;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_BULK_IMPORT_PROGRESS_OK;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_BULK_IMPORT_PROGRESS_START;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_BULK_IMPORT_RUNNING;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_BULK_IMPORT_START;
 import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_CLOSE_PAGE_GROUP_NOT_FOUND;
 import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_CLOSE_PAGE_GROUP_OK;
 import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_CLOSE_PAGE_GROUP_START;
@@ -26,7 +40,12 @@ import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_GET_PAGES_O
 import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_GET_PAGES_START;
 import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_GET_PAGE_GROUP_OK;
 import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_GET_PAGE_GROUP_START;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_GET_PAGE_HISTORY_OK;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_GET_PAGE_HISTORY_START;
 import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_GET_PAGE_OK;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_GET_PAGE_REVISION_NOT_FOUND;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_GET_PAGE_REVISION_OK;
+import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_GET_PAGE_REVISION_START;
 import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_GET_PAGE_START;
 import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_UPDATE_PAGE_GROUP_NONE_UPDATED;
 import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_UPDATE_PAGE_GROUP_OK;
@@ -36,12 +55,19 @@ import static io.oxalate.backend.events.AppAuditMessages.MGMNT_PAGES_UPDATE_PAGE
 import io.oxalate.backend.exception.OxalateNotFoundException;
 import io.oxalate.backend.exception.OxalateValidationException;
 import io.oxalate.backend.rest.PageManagementAPI;
+import io.oxalate.backend.service.PageBulkTransferService;
 import io.oxalate.backend.service.PageService;
+import io.oxalate.backend.service.PageVersionHistoryService;
 import io.oxalate.backend.tools.AuthTools;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RestController;
@@ -53,6 +79,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class PageManagementController implements PageManagementAPI {
 
     private final PageService pageService;
+    private final PageVersionHistoryService pageVersionHistoryService;
+    private final PageBulkTransferService pageBulkTransferService;
 
     // Paths
     @Override
@@ -174,4 +202,83 @@ public class PageManagementController implements PageManagementAPI {
 
         return null;
     }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ORGANIZER', 'ADMIN')")
+    @Audited(startMessage = MGMNT_PAGES_GET_PAGE_HISTORY_START, okMessage = MGMNT_PAGES_GET_PAGE_HISTORY_OK)
+    public ResponseEntity<List<PageVersionHistoryResponse>> getPageHistory(long pageId, String language) {
+        var history = pageVersionHistoryService.getHistory(pageId, language);
+        return ResponseEntity.status(HttpStatus.OK)
+                             .body(history);
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ORGANIZER', 'ADMIN')")
+    @Audited(startMessage = MGMNT_PAGES_GET_PAGE_REVISION_START, okMessage = MGMNT_PAGES_GET_PAGE_REVISION_OK)
+    public ResponseEntity<PageVersionResponse> getPageRevision(long pageId, int revision, String language) {
+        var pageVersionResponse = pageVersionHistoryService.getRevision(pageId, language, revision);
+
+        if (pageVersionResponse == null) {
+            throw new OxalateNotFoundException(MGMNT_PAGES_GET_PAGE_REVISION_NOT_FOUND + pageId + "/" + language + "/" + revision);
+        }
+
+        return ResponseEntity.status(HttpStatus.OK)
+                             .body(pageVersionResponse);
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    @Audited(startMessage = MGMNT_PAGES_BULK_EXPORT_START, okMessage = MGMNT_PAGES_BULK_EXPORT_OK)
+    public ResponseEntity<Void> exportPages(HttpServletResponse response) {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"pages.json\"");
+
+        try {
+            pageBulkTransferService.exportPages(response.getOutputStream());
+        } catch (IOException e) {
+            throw new OxalateValidationException(AuditLevelEnum.ERROR, MGMNT_PAGES_BULK_EXPORT_FAIL + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+
+        return null;
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    @Audited(startMessage = MGMNT_PAGES_BULK_IMPORT_START, okMessage = MGMNT_PAGES_BULK_IMPORT_OK)
+    public ResponseEntity<PageBulkImportResponse> importPages(HttpServletRequest request) {
+        PageBulkImportResponse pageBulkImportResponse;
+
+        try {
+            pageBulkImportResponse = pageBulkTransferService.startImport(request.getInputStream(), AuthTools.getCurrentUserId());
+        } catch (IOException e) {
+            throw new OxalateValidationException(AuditLevelEnum.ERROR, MGMNT_PAGES_BULK_IMPORT_FAIL + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+
+        if (pageBulkImportResponse == null) {
+            throw new OxalateValidationException(AuditLevelEnum.WARN, MGMNT_PAGES_BULK_IMPORT_RUNNING, HttpStatus.CONFLICT);
+        }
+
+        if (pageBulkImportResponse.getStatus() == BulkImportStatusEnum.FAILED) {
+            throw new OxalateValidationException(AuditLevelEnum.ERROR, MGMNT_PAGES_BULK_IMPORT_FAIL + pageBulkImportResponse.getMessage(),
+                    HttpStatus.BAD_REQUEST);
+        }
+
+        // The import runs in the background, its result is reported by the progress endpoint
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                             .body(pageBulkImportResponse);
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    @Audited(startMessage = MGMNT_PAGES_BULK_IMPORT_PROGRESS_START, okMessage = MGMNT_PAGES_BULK_IMPORT_PROGRESS_OK)
+    public ResponseEntity<PageBulkImportResponse> getImportProgress() {
+        var pageBulkImportResponse = pageBulkTransferService.getImportProgress();
+
+        if (pageBulkImportResponse == null) {
+            throw new OxalateNotFoundException(MGMNT_PAGES_BULK_IMPORT_PROGRESS_NOT_FOUND);
+        }
+
+        return ResponseEntity.status(HttpStatus.OK)
+                             .body(pageBulkImportResponse);
+    }
 }
@@ -18,6 +18,7 @@ import static io.oxalate.backend.events.AppAuditMessages.STATS_GET_YEARLY_DIVER_
 import static io.oxalate.backend.events.AppAuditMessages.STATS_GET_YEARLY_EVENTS_OK;
 import static io.oxalate.backend.events.AppAuditMessages.STATS_GET_YEARLY_EVENTS_START;
 import static io.oxalate.backend.events.AppAuditMessages.STATS_GET_YEARLY_EVENTS_UNAUTHORIZED;
+import static io.oxalate.backend.events.AppAuditMessages.STATS_GET_YEARLY_EVENT_REPORTS_INVALID_RANGE;
 import static io.oxalate.backend.events.AppAuditMessages.STATS_GET_YEARLY_EVENT_REPORTS_OK;
 import static io.oxalate.backend.events.AppAuditMessages.STATS_GET_YEARLY_EVENT_REPORTS_START;
 import static io.oxalate.backend.events.AppAuditMessages.STATS_GET_YEARLY_EVENT_REPORTS_UNAUTHORIZED;
@@ -31,9 +32,11 @@ import static io.oxalate.backend.events.AppAuditMessages.STATS_GET_YEARLY_REGIST
 import static io.oxalate.backend.events.AppAuditMessages.STATS_GET_YEARLY_REGISTRATION_START;
 import static io.oxalate.backend.events.AppAuditMessages.STATS_GET_YEARLY_REGISTRATION_UNAUTHORIZED;
 import io.oxalate.backend.exception.OxalateUnauthorizedException;
+import io.oxalate.backend.exception.OxalateValidationException;
 import io.oxalate.backend.rest.StatsAPI;
 import io.oxalate.backend.service.StatsService;
 import io.oxalate.backend.tools.AuthTools;
+import java.time.LocalDate;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -110,6 +113,16 @@ public class StatsController implements StatsAPI {
         }
 
         var aggregateResponse = statsService.getAggregateData();
+
+        // Every aggregate query failed, so the empty lists are not data
+        if (aggregateResponse.getQueryDurations()
+                             .isEmpty() && !aggregateResponse.getFailedQueries()
+                                                             .isEmpty()) {
+            log.error("All the aggregate queries failed: {}", aggregateResponse.getFailedQueries());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                 .body(aggregateResponse);
+        }
+
         return ResponseEntity.ok()
                              .body(aggregateResponse);
     }
@@ -117,13 +130,18 @@ public class StatsController implements StatsAPI {
     @Override
     @PreAuthorize("hasAnyRole('ORGANIZER', 'ADMIN')")
     @Audited(startMessage = STATS_GET_YEARLY_EVENT_REPORTS_START, okMessage = STATS_GET_YEARLY_EVENT_REPORTS_OK)
-    public ResponseEntity<List<EventPeriodReportResponse>> getEventReports() {
+    public ResponseEntity<List<EventPeriodReportResponse>> getEventReports(LocalDate from, LocalDate to) {
         if (!AuthTools.currentUserHasAnyRole(ROLE_ADMIN, ROLE_ORGANIZER)) {
             log.error("User ID {} tried to access event reports without proper permission", AuthTools.getCurrentUserId());
             throw new OxalateUnauthorizedException(STATS_GET_YEARLY_EVENT_REPORTS_UNAUTHORIZED, HttpStatus.NOT_FOUND);
         }
 
-        var reports = statsService.getEventReports();
+        if (from != null && to != null && from.isAfter(to)) {
+            log.warn("Invalid event report date range from {} to {}", from, to);
+            throw new OxalateValidationException(STATS_GET_YEARLY_EVENT_REPORTS_INVALID_RANGE);
+        }
+
+        var reports = statsService.getEventReports(from, to);
         return ResponseEntity.ok().body(reports);
     }
 
@@ -120,6 +120,12 @@ public class AppAuditMessages {
     public static final String EVENTS_GET_PAST_TERMS_NOT_ACCEPTED = "User has not accepted terms and conditions";
     public static final String EVENTS_GET_PAST_OK = "Past events retrieved";
 
+    public static final String EVENTS_GET_FUTURE_LIST_START = "Retrieving list of future events";
+    public static final String EVENTS_GET_FUTURE_LIST_OK = "List of future events retrieved";
+
+    public static final String EVENTS_GET_PAST_LIST_START = "Retrieving list of past events";
+    public static final String EVENTS_GET_PAST_LIST_OK = "List of past events retrieved";
+
     public static final String EVENTS_GET_USER_START = "Retrieving events for user ID: ";
     public static final String EVENTS_GET_USER_UNAUTHORIZED = "User was not authorized to retrieve events for user ID: ";
     public static final String EVENTS_GET_USER_OK = "Past events retrieved for user ID: ";
@@ -251,6 +257,7 @@ public class AppAuditMessages {
     // AuditController
     public static final String AUDIT_GET_START = "Getting audit logs";
     public static final String AUDIT_GET_OK = "Audit logs retrieved";
+    public static final String AUDIT_GET_INVALID_CURSOR = "Invalid audit log cursor";
 
     public static final String AUDIT_GET_USER_START = "Getting audit log for user ID: ";
     public static final String AUDIT_GET_USER_OK = "Audit log retrieved for user ID: ";
@@ -286,6 +293,7 @@ public class AppAuditMessages {
     public static final String STATS_GET_YEARLY_EVENT_REPORTS_START = "Fetching yearly event reports";
     public static final String STATS_GET_YEARLY_EVENT_REPORTS_UNAUTHORIZED = "User not authorized to get list of yearly event reports";
     public static final String STATS_GET_YEARLY_EVENT_REPORTS_OK = "Return yearly event reports";
+    public static final String STATS_GET_YEARLY_EVENT_REPORTS_INVALID_RANGE = "Event report date range ends before it starts";
 
     public static final String STATS_GET_YEARLY_DIVER_LIST_START = "Fetching yearly top divers list";
     public static final String STATS_GET_YEARLY_DIVER_LIST_UNAUTHORIZED = "User not authorized to get list of yearly top divers list";
@@ -299,6 +307,7 @@ public class AppAuditMessages {
     public static final String PAGES_GET_BLOGS_START = "Fetching list of all blog pages";
     public static final String PAGES_GET_BLOGS_UNAUTHORIZED = "User not authorized to get list of blogs";
     public static final String PAGES_GET_BLOGS_OK = "Return blogs";
+    public static final String PAGES_GET_BLOGS_INVALID_CURSOR = "Invalid blog cursor";
 
     public static final String PAGES_GET_PAGE_START = "Fetching specific page by id: ";
     public static final String PAGES_GET_PAGE_NOT_FOUND = "Requested non-existing page";
@@ -350,6 +359,26 @@ public class AppAuditMessages {
     public static final String MGMNT_PAGES_CLOSE_PAGE_NOT_FOUND = "Fail to close non-existing page: ";
     public static final String MGMNT_PAGES_CLOSE_PAGE_OK = "Page closed";
 
+    public static final String MGMNT_PAGES_GET_PAGE_HISTORY_START = "Fetching page history";
+    public static final String MGMNT_PAGES_GET_PAGE_HISTORY_OK = "Return page history";
+
+    public static final String MGMNT_PAGES_GET_PAGE_REVISION_START = "Fetching page revision";
+    public static final String MGMNT_PAGES_GET_PAGE_REVISION_NOT_FOUND = "Page revision not found: ";
+    public static final String MGMNT_PAGES_GET_PAGE_REVISION_OK = "Return page revision";
+
+    public static final String MGMNT_PAGES_BULK_EXPORT_START = "Exporting pages";
+    public static final String MGMNT_PAGES_BULK_EXPORT_FAIL = "Failed to export pages: ";
+    public static final String MGMNT_PAGES_BULK_EXPORT_OK = "Pages exported";
+
+    public static final String MGMNT_PAGES_BULK_IMPORT_START = "Importing pages";
+    public static final String MGMNT_PAGES_BULK_IMPORT_FAIL = "Failed to read the page import: ";
+    public static final String MGMNT_PAGES_BULK_IMPORT_RUNNING = "Page import is already running";
+    public static final String MGMNT_PAGES_BULK_IMPORT_OK = "Page import started";
+
+    public static final String MGMNT_PAGES_BULK_IMPORT_PROGRESS_START = "Fetching page import progress";
+    public static final String MGMNT_PAGES_BULK_IMPORT_PROGRESS_NOT_FOUND = "No page import has been run";
+    public static final String MGMNT_PAGES_BULK_IMPORT_PROGRESS_OK = "Return page import progress";
+
     // EmailNotificationSubscriptionController
     public static final String EMAIL_SUBSCRIPTION_GET_ALL_START = "";
     public static final String EMAIL_SUBSCRIPTION_GET_ALL_UNAUTHORIZED = "";
@@ -0,0 +1,13 @@
+package io.oxalate.backend.events;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Published when emails have been added to the email queue.
+ */
+@Builder
+@Data
+public class EmailsQueuedEvent {
+    private final int count;
+}
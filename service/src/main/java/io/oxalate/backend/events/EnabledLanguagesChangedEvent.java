@@ -0,0 +1,14 @@
+package io.oxalate.backend.events;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Published when the list of the enabled languages of the portal is changed.
+ */
+@Builder
+@Data
+public class EnabledLanguagesChangedEvent {
+    private final List<String> languages;
+}
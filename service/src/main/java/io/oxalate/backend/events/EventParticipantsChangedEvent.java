@@ -0,0 +1,20 @@
+package io.oxalate.backend.events;
+
+import io.oxalate.backend.api.EventStatusEnum;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Published when participants have been added to or removed from an event, with the net change of the number of participants. The status is the one the
+ * event had before the change, so that an update which also changes the status counts the participants with the old status, while the start time is the
+ * one after the change. The status of a new event, or of an event whose status does not change, is its current status.
+ */
+@Builder
+@Data
+public class EventParticipantsChangedEvent {
+    private final long eventId;
+    private final EventStatusEnum status;
+    private final Instant startTime;
+    private final long participantDelta;
+}
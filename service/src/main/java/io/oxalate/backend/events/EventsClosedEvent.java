@@ -0,0 +1,14 @@
+package io.oxalate.backend.events;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Published once per batch of past events which the closing schedule has marked as held, and when an event is marked as held by hand.
+ */
+@Builder
+@Data
+public class EventsClosedEvent {
+    private final List<Long> eventIds;
+}
@@ -0,0 +1,14 @@
+package io.oxalate.backend.events;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Published when held events have been moved to another status, the counterpart of {@link EventsClosedEvent}.
+ */
+@Builder
+@Data
+public class EventsReopenedEvent {
+    private final List<Long> eventIds;
+}
@@ -0,0 +1,13 @@
+package io.oxalate.backend.events;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Published whenever the status or the language versions of a page group are modified, or the page group is closed.
+ */
+@Builder
+@Data
+public class PageGroupModifiedEvent {
+    private final long pageGroupId;
+}
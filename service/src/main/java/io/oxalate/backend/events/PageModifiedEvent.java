@@ -0,0 +1,13 @@
+package io.oxalate.backend.events;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Published whenever a page, its language versions or its role accesses are created, modified or closed.
+ */
+@Builder
+@Data
+public class PageModifiedEvent {
+    private final long pageId;
+}
@@ -0,0 +1,17 @@
+package io.oxalate.backend.events;
+
+import io.oxalate.backend.api.PaymentTypeEnum;
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Published for every new payment entry. Changes to the count or the validity of an existing payment are not published.
+ */
+@Builder
+@Data
+public class PaymentCreatedEvent {
+    private final long userId;
+    private final PaymentTypeEnum paymentType;
+    private final Instant created;
+}
@@ -0,0 +1,15 @@
+package io.oxalate.backend.events;
+
+import java.time.Instant;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Published when a new user has registered.
+ */
+@Builder
+@Data
+public class UserRegisteredEvent {
+    private final long userId;
+    private final Instant registered;
+}
@@ -0,0 +1,41 @@
+package io.oxalate.backend.model;
+
+import io.oxalate.backend.api.BlogSortFieldEnum;
+import io.oxalate.backend.api.SortDirectionEnum;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Parameters of a single blog article search. The search is either offset based (offset), or keyset based where the page starts right after the row
+ * identified by afterSortValue and afterId in the requested sort order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlogArticleSearchCriteria {
+    private long pageGroupId;
+    private String language;
+    private List<String> roles;
+    // Prefix tsquery built from the search words, null when no full-text filtering is done
+    private String tsQuery;
+    // LIKE pattern additionally applied to the full-text matches when the search is case-sensitive
+    private String caseSensitivePattern;
+    private BlogSortFieldEnum sortField;
+    private SortDirectionEnum direction;
+    private int limit;
+    private int offset;
+    // The sort key (Instant, String or Float depending on the sort field) and page ID of the last row of the previous page
+    private Object afterSortValue;
+    private Long afterId;
+    // Whether the total number of matches is counted
+    @Builder.Default
+    private boolean includeTotal = true;
+
+    public boolean isKeyset() {
+        return afterId != null && afterSortValue != null;
+    }
+}
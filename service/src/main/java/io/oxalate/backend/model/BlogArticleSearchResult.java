@@ -0,0 +1,20 @@
+package io.oxalate.backend.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlogArticleSearchResult {
+    // Pages populated with the page version of the searched language
+    private List<Page> pages;
+    // Sort key value of each page in the same order as the pages, used as the keyset continuation point
+    private List<Object> sortValues;
+    // Number of all matching articles, regardless of the requested window, -1 if the total was not requested
+    private long totalElements;
+}
@@ -0,0 +1,20 @@
+package io.oxalate.backend.model;
+
+import io.oxalate.backend.api.response.PageResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedPageResponse {
+    // Page with the requested language version and the role permissions of the requester
+    private PageResponse pageResponse;
+    // Strong entity tag of the response, quoted as it is sent in the ETag header
+    private String eTag;
+    // Approximate memory footprint of the response in bytes
+    private long weight;
+}
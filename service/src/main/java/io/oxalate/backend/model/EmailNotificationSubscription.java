@@ -39,11 +39,15 @@ public class EmailNotificationSubscription {
     @Column(name = "notification_type")
     private EmailNotificationTypeEnum emailNotificationType;
 
+    @Column(name = "digest", nullable = false)
+    private boolean digest;
+
     public EmailNotificationSubscriptionResponse toResponse() {
         return EmailNotificationSubscriptionResponse.builder()
                                                     .id(this.getId())
                                                     .emailNotificationType(this.getEmailNotificationType())
                                                     .userId(this.getUserId())
+                                                    .digest(this.isDigest())
                                                     .build();
     }
 }
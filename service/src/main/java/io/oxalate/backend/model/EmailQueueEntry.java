@@ -62,6 +62,10 @@ public class EmailQueueEntry {
     @Column(name = "counter", nullable = false)
     private int counter = 0;
 
+    @Builder.Default
+    @Column(name = "digest", nullable = false)
+    private boolean digest = false;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,62 @@
+package io.oxalate.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * An earlier revision of a page version. When the revision is not a snapshot, the texts are deltas which turn the texts of the next revision into the
+ * texts of this one.
+ */
+@Builder
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "page_version_history")
+public class PageVersionHistory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "page_id", nullable = false)
+    private Long pageId;
+
+    @Column(name = "language", nullable = false)
+    private String language;
+
+    @Column(name = "revision", nullable = false)
+    private int revision;
+
+    @Column(name = "snapshot", nullable = false)
+    private boolean snapshot;
+
+    @Column(name = "title", nullable = false)
+    private String title;
+
+    @Column(name = "ingress", nullable = false)
+    private String ingress;
+
+    @Column(name = "body", nullable = false)
+    private String body;
+
+    @Column(name = "replaced_by", nullable = false)
+    private Long replacedBy;
+
+    @Column(name = "replaced_at", nullable = false)
+    private Instant replacedAt;
+}
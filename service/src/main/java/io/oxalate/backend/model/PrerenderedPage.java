@@ -0,0 +1,18 @@
+package io.oxalate.backend.model;
+
+import java.nio.file.Path;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PrerenderedPage {
+    // File containing the serialized page response as seen by an anonymous user
+    private Path path;
+    // Strong entity tag of the file, quoted as it is sent in the ETag header
+    private String eTag;
+}
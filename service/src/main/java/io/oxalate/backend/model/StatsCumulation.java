@@ -0,0 +1,13 @@
+package io.oxalate.backend.model;
+
+/**
+ * How the running totals of a yearly statistic are added to its series. Each cumulative row follows the row it sums up to.
+ */
+public enum StatsCumulation {
+    // Only the yearly values
+    NONE,
+    // A "cumulative" row summing all the values up to the year
+    TOTAL,
+    // A "cumulative-<type>" row summing the values of the same type up to the year
+    PER_TYPE
+}
@@ -0,0 +1,111 @@
+package io.oxalate.backend.model;
+
+/**
+ * Yearly statistics which are materialized for the closed years. Each query returns the year, type and value columns of the rows which fall between
+ * the two timestamp parameters, the first inclusive and the second exclusive, so the same query serves both the snapshot and the live current year. The
+ * queries are constant strings with bind parameters only, so the driver can reuse their prepared statements and plans.
+ */
+public enum StatsMetric {
+    REGISTRATIONS("registrations", StatsCumulation.TOTAL, """
+            SELECT EXTRACT(YEAR FROM u.registered)::INTEGER AS year,
+                   'registrations' AS type,
+                   COUNT(u.id) AS value
+            FROM users u
+            WHERE u.registered >= ?
+              AND u.registered < ?
+            GROUP BY year
+            """),
+    HELD_EVENTS("held-events", StatsCumulation.TOTAL, """
+            SELECT EXTRACT(YEAR FROM e.start_time)::INTEGER AS year,
+                   'events' AS type,
+                   COUNT(e.id) AS value
+            FROM events e
+            WHERE e.start_time < NOW()
+              AND e.status = 'HELD'
+              AND e.start_time >= ?
+              AND e.start_time < ?
+            GROUP BY year
+            """),
+    ORGANIZERS("organizers", StatsCumulation.PER_TYPE, """
+            SELECT EXTRACT(YEAR FROM e.start_time)::INTEGER AS year,
+                   CONCAT(u.first_name, ' ', u.last_name) AS type,
+                   COUNT(e.id) AS value
+            FROM events e
+                     JOIN users u ON u.id = e.organizer_id
+            WHERE e.status = 'HELD'
+              AND e.start_time < NOW()
+              AND e.start_time >= ?
+              AND e.start_time < ?
+            GROUP BY year, e.organizer_id, u.first_name, u.last_name
+            """),
+    PAYMENTS("payments", StatsCumulation.NONE, """
+            SELECT EXTRACT(YEAR FROM p.created)::INTEGER AS year,
+                   p.payment_type AS type,
+                   COUNT(p.id) AS value
+            FROM payments p
+            WHERE p.created >= ?
+              AND p.created < ?
+            GROUP BY year, p.payment_type
+            """),
+    EVENTS("events", StatsCumulation.NONE, """
+            SELECT EXTRACT(YEAR FROM e.start_time)::INTEGER AS year,
+                   'events' AS type,
+                   COUNT(e.id) AS value
+            FROM events e
+            WHERE e.status = 'HELD'
+              AND e.start_time >= ?
+              AND e.start_time < ?
+            GROUP BY year
+            """),
+    EVENT_TYPES("event-types", StatsCumulation.NONE, """
+            SELECT EXTRACT(YEAR FROM e.start_time)::INTEGER AS year,
+                   e.type AS type,
+                   COUNT(e.id) AS value
+            FROM events e
+            WHERE e.status = 'HELD'
+              AND e.start_time >= ?
+              AND e.start_time < ?
+            GROUP BY year, e.type
+            """),
+    DIVERS("divers", StatsCumulation.NONE, """
+            SELECT EXTRACT(YEAR FROM e.start_time)::INTEGER AS year,
+                   'divers' AS type,
+                   COUNT(e.id) AS value
+            FROM events e
+                     JOIN event_participants ep ON ep.event_id = e.id
+            WHERE e.status = 'HELD'
+              AND e.start_time >= ?
+              AND e.start_time < ?
+            GROUP BY year
+            """),
+    DIVER_TYPES("diver-types", StatsCumulation.NONE, """
+            SELECT EXTRACT(YEAR FROM e.start_time)::INTEGER AS year,
+                   ep.event_user_type AS type,
+                   COUNT(e.id) AS value
+            FROM events e
+                     JOIN event_participants ep ON ep.event_id = e.id
+            WHERE e.status = 'HELD'
+              AND e.start_time >= ?
+              AND e.start_time < ?
+            GROUP BY year, ep.event_user_type
+            """);
+
+    public final String key;
+    public final StatsCumulation cumulation;
+    public final String query;
+
+    StatsMetric(String key, StatsCumulation cumulation, String query) {
+        this.key = key;
+        this.cumulation = cumulation;
+        this.query = query;
+    }
+
+    public static StatsMetric fromKey(String key) {
+        for (StatsMetric statsMetric : StatsMetric.values()) {
+            if (statsMetric.key.equals(key)) {
+                return statsMetric;
+            }
+        }
+        return null;
+    }
+}
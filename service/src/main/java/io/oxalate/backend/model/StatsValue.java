@@ -0,0 +1,16 @@
+package io.oxalate.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsValue {
+    private long year;
+    private String type;
+    private long value;
+}
@@ -3,8 +3,12 @@ package io.oxalate.backend.repository;
 import io.oxalate.backend.model.ApplicationAuditEvent;
 import java.time.Instant;
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.ListPagingAndSortingRepository;
@@ -27,4 +31,31 @@ public interface ApplicationAuditEventRepository extends ListPagingAndSortingRep
     Page<ApplicationAuditEvent> findBySourceContainingIgnoreCase(String filter, PageRequest pageRequest);
 
     Page<ApplicationAuditEvent> findAllByUserIdIn(List<Long> userIds, PageRequest pageRequest);
+
+    // Keyset scrolling variants of the listings above, these do not run a count query
+    Window<ApplicationAuditEvent> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<ApplicationAuditEvent> findByUserId(Long userId, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<ApplicationAuditEvent> findByTraceIdContainingIgnoreCase(String filter, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<ApplicationAuditEvent> findByMessageContainingIgnoreCase(String filter, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<ApplicationAuditEvent> findByIpAddressContainingIgnoreCase(String filter, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<ApplicationAuditEvent> findBySourceContainingIgnoreCase(String filter, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<ApplicationAuditEvent> findAllByUserIdIn(List<Long> userIds, ScrollPosition position, Sort sort, Limit limit);
+
+    long countByUserId(Long userId);
+
+    long countByTraceIdContainingIgnoreCase(String filter);
+
+    long countByMessageContainingIgnoreCase(String filter);
+
+    long countByIpAddressContainingIgnoreCase(String filter);
+
+    long countBySourceContainingIgnoreCase(String filter);
+
+    long countByUserIdIn(List<Long> userIds);
 }
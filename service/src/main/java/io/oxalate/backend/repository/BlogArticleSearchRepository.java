@@ -0,0 +1,232 @@
+package io.oxalate.backend.repository;
+
+import io.oxalate.backend.api.PageStatusEnum;
+import io.oxalate.backend.api.SortDirectionEnum;
+import io.oxalate.backend.model.BlogArticleSearchCriteria;
+import io.oxalate.backend.model.BlogArticleSearchResult;
+import io.oxalate.backend.model.Page;
+import io.oxalate.backend.model.PageVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Full-text search over the blog articles. Matching uses the weighted page_versions.search_vector column maintained by the database, and both the requested
+ * window of articles as well as the total number of matches are returned by the same statement.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Repository
+public class BlogArticleSearchRepository {
+
+    private static final String MATCHES_CTE = """
+            WITH matches AS (
+                SELECT p.id,
+                       p.page_group_id,
+                       p.creator,
+                       p.created_at,
+                       p.modifier,
+                       p.modified_at,
+                       pv.id AS version_id,
+                       pv.title,
+                       pv.ingress,
+                       pv.body,
+                       %s AS rank,
+                       %s AS total_count
+                FROM pages p
+                         JOIN page_versions pv ON pv.page_id = p.id AND pv.language = :language
+                WHERE p.page_group_id = :pageGroupId
+                  AND p.status = 'PUBLISHED'
+                  AND EXISTS (SELECT 1
+                              FROM page_role_access pra
+                              WHERE pra.page_id = p.id
+                                AND pra.role IN (:roles)
+                                AND pra.read_permission = true)
+                %s
+            )
+            """;
+    private static final String RANK_EXPRESSION = "ts_rank_cd(pv.search_vector, to_tsquery(page_search_config(:language), :tsQuery))";
+    private static final String NO_RANK_EXPRESSION = "CAST(0 AS REAL)";
+    private static final String TOTAL_COUNT_EXPRESSION = "COUNT(*) OVER ()";
+    // Without the window count the CTE gets inlined and the scan can stop as soon as the requested rows are found
+    private static final String NO_TOTAL_COUNT_EXPRESSION = "CAST(-1 AS BIGINT)";
+    private static final String FULL_TEXT_CONDITION = "  AND pv.search_vector @@ to_tsquery(page_search_config(:language), :tsQuery)\n";
+    private static final String CASE_SENSITIVE_CONDITION = """
+                  AND (pv.title LIKE :pattern OR pv.ingress LIKE :pattern OR pv.body LIKE :pattern)
+            """;
+
+    private final EntityManager entityManager;
+
+    public BlogArticleSearchResult search(BlogArticleSearchCriteria criteria) {
+        var query = entityManager.createNativeQuery(buildSearchQuery(criteria));
+        bindParameters(query, criteria);
+        query.setParameter("limit", criteria.getLimit());
+
+        if (criteria.isKeyset()) {
+            var afterSortValue = criteria.getAfterSortValue();
+            // Timestamps are stored as UTC without a time zone, so the instant is bound the same way to avoid any session time zone conversion
+            if (afterSortValue instanceof Instant instant) {
+                afterSortValue = LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+            }
+
+            query.setParameter("afterSortValue", afterSortValue);
+            query.setParameter("afterId", criteria.getAfterId());
+        } else {
+            query.setParameter("offset", criteria.getOffset());
+        }
+
+        query.unwrap(NativeQuery.class)
+             .addScalar("id", StandardBasicTypes.LONG)
+             .addScalar("page_group_id", StandardBasicTypes.LONG)
+             .addScalar("creator", StandardBasicTypes.LONG)
+             .addScalar("created_at", StandardBasicTypes.INSTANT)
+             .addScalar("modifier", StandardBasicTypes.LONG)
+             .addScalar("modified_at", StandardBasicTypes.INSTANT)
+             .addScalar("version_id", StandardBasicTypes.LONG)
+             .addScalar("title", StandardBasicTypes.STRING)
+             .addScalar("ingress", StandardBasicTypes.STRING)
+             .addScalar("body", StandardBasicTypes.STRING)
+             .addScalar("rank", StandardBasicTypes.FLOAT)
+             .addScalar("total_count", StandardBasicTypes.LONG);
+
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+
+        var pages = new ArrayList<Page>();
+        var sortValues = new ArrayList<Object>();
+        var totalElements = 0L;
+
+        for (var row : rows) {
+            var pageId = (Long) row[0];
+            var pageVersion = PageVersion.builder()
+                                         .id((Long) row[6])
+                                         .pageId(pageId)
+                                         .language(criteria.getLanguage())
+                                         .title((String) row[7])
+                                         .ingress((String) row[8])
+                                         .body((String) row[9])
+                                         .build();
+            var page = Page.builder()
+                           .id(pageId)
+                           .pageGroupId((Long) row[1])
+                           .status(PageStatusEnum.PUBLISHED)
+                           .creator((Long) row[2])
+                           .createdAt((Instant) row[3])
+                           .modifier((Long) row[4])
+                           .modifiedAt((Instant) row[5])
+                           .pageVersions(List.of(pageVersion))
+                           .build();
+            pages.add(page);
+
+            sortValues.add(switch (criteria.getSortField()) {
+                case CREATED_AT -> page.getCreatedAt();
+                case TITLE -> pageVersion.getTitle();
+                case RELEVANCE -> criteria.getTsQuery() != null ? row[10] : page.getCreatedAt();
+            });
+            totalElements = (Long) row[11];
+        }
+
+        // The total is carried by the rows themselves, so only when the window falls beyond the last match do we need to count separately
+        if (!criteria.isIncludeTotal()) {
+            totalElements = -1L;
+        } else if (rows.isEmpty() && (criteria.getOffset() > 0 || criteria.isKeyset())) {
+            totalElements = count(criteria);
+        }
+
+        log.debug("Blog search with criteria {} returned {} articles out of {}", criteria, pages.size(), totalElements);
+
+        return BlogArticleSearchResult.builder()
+                                      .pages(pages)
+                                      .sortValues(sortValues)
+                                      .totalElements(totalElements)
+                                      .build();
+    }
+
+    public long count(BlogArticleSearchCriteria criteria) {
+        var query = entityManager.createNativeQuery(buildMatchesCte(criteria) + "SELECT COUNT(*) FROM matches");
+        bindParameters(query, criteria);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    String buildSearchQuery(BlogArticleSearchCriteria criteria) {
+        var sortColumn = switch (criteria.getSortField()) {
+            case CREATED_AT -> "m.created_at";
+            case TITLE -> "m.title";
+            // Without search words every article has the same rank, so relevance falls back to the publication order
+            case RELEVANCE -> criteria.getTsQuery() != null ? "m.rank" : "m.created_at";
+        };
+        var ascending = criteria.getDirection() == SortDirectionEnum.ASC;
+        var direction = ascending ? "ASC" : "DESC";
+
+        var sql = new StringBuilder(buildMatchesCte(criteria));
+        sql.append("SELECT m.* FROM matches m\n");
+
+        if (criteria.isKeyset()) {
+            var castType = switch (criteria.getSortField()) {
+                case CREATED_AT -> "TIMESTAMP";
+                case TITLE -> "TEXT";
+                case RELEVANCE -> criteria.getTsQuery() != null ? "REAL" : "TIMESTAMP";
+            };
+            sql.append("WHERE (")
+               .append(sortColumn)
+               .append(", m.id) ")
+               .append(ascending ? ">" : "<")
+               .append(" (CAST(:afterSortValue AS ")
+               .append(castType)
+               .append("), :afterId)\n");
+        }
+
+        sql.append("ORDER BY ")
+           .append(sortColumn)
+           .append(" ")
+           .append(direction)
+           .append(", m.id ")
+           .append(direction)
+           .append("\nLIMIT :limit");
+
+        if (!criteria.isKeyset()) {
+            sql.append(" OFFSET :offset");
+        }
+
+        return sql.toString();
+    }
+
+    private String buildMatchesCte(BlogArticleSearchCriteria criteria) {
+        var fullText = criteria.getTsQuery() != null;
+        var conditions = new StringBuilder();
+
+        if (fullText) {
+            conditions.append(FULL_TEXT_CONDITION);
+        }
+
+        if (criteria.getCaseSensitivePattern() != null) {
+            conditions.append(CASE_SENSITIVE_CONDITION);
+        }
+
+        return String.format(MATCHES_CTE, fullText ? RANK_EXPRESSION : NO_RANK_EXPRESSION,
+                criteria.isIncludeTotal() ? TOTAL_COUNT_EXPRESSION : NO_TOTAL_COUNT_EXPRESSION, conditions);
+    }
+
+    private void bindParameters(Query query, BlogArticleSearchCriteria criteria) {
+        query.setParameter("pageGroupId", criteria.getPageGroupId());
+        query.setParameter("language", criteria.getLanguage());
+        query.setParameter("roles", criteria.getRoles());
+
+        if (criteria.getTsQuery() != null) {
+            query.setParameter("tsQuery", criteria.getTsQuery());
+        }
+
+        if (criteria.getCaseSensitivePattern() != null) {
+            query.setParameter("pattern", criteria.getCaseSensitivePattern());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.oxalate.backend.repository;
 
 import io.oxalate.backend.api.EmailStatusEnum;
 import io.oxalate.backend.model.EmailQueueEntry;
+import java.time.Instant;
 import java.util.List;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,10 +13,57 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface EmailQueueRepository extends ListCrudRepository<EmailQueueEntry, Long> {
     List<EmailQueueEntry> findByStatus(EmailStatusEnum status);
-    @Query("SELECT e FROM EmailQueueEntry e WHERE e.status = 'QUEUED' AND e.nextSendTimestamp <= CURRENT_TIMESTAMP")
-    List<EmailQueueEntry> findUnprosessedNotifications();
 
+    /**
+     * Deletes the entries of the email type and type ID with the given status. The digest entries of the subscribers still in digest mode are kept, they
+     * are coalesced into one item when the digest is sent.
+     */
     @Modifying
-    @Query(nativeQuery = true, value = "DELETE FROM email_queue WHERE type_id = :typeId AND status = :status")
-	void deleteByTypeIdAndStatus(@Param("typeId") long typeId, @Param("status") String status);
+    @Query(nativeQuery = true, value = """
+            DELETE FROM email_queue q
+            WHERE q.email_type = :emailType
+              AND q.type_id = :typeId
+              AND q.status = :status
+              AND NOT (q.digest AND EXISTS (SELECT 1
+                                            FROM email_notification_subscriptions s
+                                            WHERE s.user_id = q.user_id
+                                              AND s.notification_type = q.email_type
+                                              AND s.digest))
+            """)
+    void deleteByEmailTypeAndTypeIdAndStatus(@Param("emailType") String emailType, @Param("typeId") long typeId, @Param("status") String status);
+
+    /**
+     * Queues the notification for every subscriber of the email type, limited for a page to the subscribers who can read it, and adds them as the
+     * receivers of one shared in-app message informing about the email. The message is only created if at least one email was queued. The email of a
+     * subscriber in digest mode is due at the given digest due time, the others right away.
+     *
+     * @param now       Current time, used as the creation time of the rows
+     * @param digestDue Time at which the emails of the subscribers in digest mode are due
+     * @return Number of queued emails
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            WITH recipients AS (SELECT reader.user_id, BOOL_OR(reader.digest) AS digest
+                                FROM (SELECT s.user_id, s.digest, s.notification_type, :typeId AS page_id
+                                      FROM email_notification_subscriptions s
+                                      WHERE s.notification_type = :emailType) reader
+                                WHERE reader.notification_type <> 'PAGE'
+                                   OR """ + PageRoleAccessRepository.READER_CAN_READ_PAGE + """
+                                GROUP BY reader.user_id),
+                 queued AS (INSERT INTO email_queue (user_id, email_type, email_detail, type_id, status, created_at, counter, next_send_timestamp, digest)
+                            SELECT r.user_id, :emailType, :emailDetail, :typeId, 'QUEUED', :now, 0, CASE WHEN r.digest THEN :digestDue ELSE :now END, r.digest
+                            FROM recipients r
+                            RETURNING user_id),
+                 message AS (INSERT INTO messages (description, title, message, creator, created_at)
+                             SELECT :description, :title, :message, :creator, :now
+                             WHERE EXISTS (SELECT 1 FROM queued)
+                             RETURNING id)
+            INSERT INTO message_receivers (message_id, user_id, read)
+            SELECT m.id, q.user_id, false
+            FROM message m
+                     CROSS JOIN queued q
+            """)
+    int queueSubscriberNotifications(@Param("emailType") String emailType, @Param("emailDetail") String emailDetail, @Param("typeId") long typeId,
+            @Param("creator") long creator, @Param("title") String title, @Param("description") String description, @Param("message") String message,
+            @Param("now") Instant now, @Param("digestDue") Instant digestDue);
 }
@@ -0,0 +1,32 @@
+package io.oxalate.backend.repository;
+
+import java.time.Instant;
+
+public interface EventListEntry {
+    long getId();
+
+    String getType();
+
+    String getTitle();
+
+    String getDescription();
+
+    Instant getStartTime();
+
+    int getEventDuration();
+
+    int getMaxDuration();
+
+    int getMaxDepth();
+
+    int getMaxParticipants();
+
+    String getOrganizerName();
+
+    long getParticipantCount();
+
+    long getEventCommentId();
+
+    // Comma separated tag IDs of the event, null if the event has no tags
+    String getTagIds();
+}
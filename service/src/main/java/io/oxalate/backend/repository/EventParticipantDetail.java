@@ -0,0 +1,19 @@
+package io.oxalate.backend.repository;
+
+import java.time.Instant;
+
+public interface EventParticipantDetail {
+    long getUserId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    Instant getCreatedAt();
+
+    String getEventUserType();
+
+    long getEventDiveCount();
+
+    boolean getMembershipActive();
+}
@@ -1,8 +1,11 @@
 package io.oxalate.backend.repository;
 
 import io.oxalate.backend.model.EventsParticipant;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
@@ -17,6 +20,35 @@ public interface EventParticipantsRepository extends CrudRepository<EventsPartic
 
     EventsParticipant findByEventIdAndUserId(long eventId, Long userId);
 
+    /**
+     * Fetches the participants of the event with the user details needed for the event response, ordered by the subscription time. The membership
+     * status is resolved the same way as in {@link MembershipRepository#findAllCurrentAndFutureActiveByUserId(long)}.
+     *
+     * @param eventId          Event of which participants are fetched
+     * @param participantTypes Participant types to include
+     * @return Participant details
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT ep.user_id AS userId,
+                   u.first_name AS firstName,
+                   u.last_name AS lastName,
+                   ep.created_at AS createdAt,
+                   ep.event_user_type AS eventUserType,
+                   ep.dive_count AS eventDiveCount,
+                   EXISTS (SELECT 1
+                           FROM membership m
+                           WHERE m.user_id = ep.user_id
+                             AND m.status = 'ACTIVE'
+                             AND (m.end_date >= NOW()
+                                  OR m.end_date IS NULL)) AS membershipActive
+            FROM event_participants ep
+                     JOIN users u ON u.id = ep.user_id
+            WHERE ep.event_id = :eventId
+              AND ep.participant_type IN (:participantTypes)
+            ORDER BY ep.created_at
+            """)
+    List<EventParticipantDetail> findEventParticipantDetails(@Param("eventId") long eventId, @Param("participantTypes") List<String> participantTypes);
+
     List<EventsParticipant> findAllByEventId(long eventId);
 
     @Query(nativeQuery = true, value = """
@@ -29,4 +61,62 @@ public interface EventParticipantsRepository extends CrudRepository<EventsPartic
             ORDER BY ep.event_id
             """)
 	List<Long> findOneTimeFutureEventParticipantsByUserId(long userId);
+
+    /**
+     * Adds the user as a regular participant of the event if the event still has a free place. The capacity is checked against the participant count
+     * row of the event which is locked for the rest of the transaction, so concurrent subscriptions to the same event are checked one after another
+     * against the committed count and the maximum number of participants can never be exceeded. The count is kept up to date by a database trigger.
+     *
+     * @return 1 if the user was added, 0 if the event is full, does not exist or the user already takes part in it
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO event_participants (user_id, event_id, participant_type, payment_type, created_at, event_user_type)
+            SELECT :userId, c.event_id, 'USER', :paymentType, :createTime, :eventUserType
+            FROM event_participant_counts c
+                     JOIN events e ON e.id = c.event_id
+            WHERE c.event_id = :eventId
+              AND c.participant_count < e.max_participants
+            FOR UPDATE OF c
+            ON CONFLICT DO NOTHING
+            """)
+    int addParticipantWithinCapacity(@Param("userId") long userId, @Param("eventId") long eventId, @Param("paymentType") String paymentType,
+            @Param("createTime") Instant createTime, @Param("eventUserType") String eventUserType);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO event_waitlist (event_id, user_id, event_user_type, created_at)
+            SELECT :eventId, :userId, :eventUserType, :createTime
+            WHERE NOT EXISTS (SELECT 1 FROM event_participants ep WHERE ep.event_id = :eventId AND ep.user_id = :userId)
+            ON CONFLICT DO NOTHING
+            """)
+    int addToWaitlist(@Param("eventId") long eventId, @Param("userId") long userId, @Param("eventUserType") String eventUserType,
+            @Param("createTime") Instant createTime);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM event_waitlist WHERE event_id = :eventId AND user_id = :userId")
+    int removeFromWaitlist(@Param("eventId") long eventId, @Param("userId") long userId);
+
+    @Query(nativeQuery = true, value = """
+            SELECT w.user_id
+            FROM event_waitlist w
+            WHERE w.event_id = :eventId
+              AND NOT EXISTS (SELECT 1 FROM event_participants ep WHERE ep.event_id = w.event_id AND ep.user_id = w.user_id)
+            ORDER BY w.created_at, w.user_id
+            """)
+    List<Long> findWaitlistUserIds(@Param("eventId") long eventId);
+
+    /**
+     * Fetches and locks the first waitlisted subscriber of the event who is not yet a participant. Entries locked by a concurrent promotion are skipped.
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT w.user_id AS userId,
+                   w.event_user_type AS eventUserType
+            FROM event_waitlist w
+            WHERE w.event_id = :eventId
+              AND NOT EXISTS (SELECT 1 FROM event_participants ep WHERE ep.event_id = w.event_id AND ep.user_id = w.user_id)
+            ORDER BY w.created_at, w.user_id
+            LIMIT 1 FOR UPDATE OF w SKIP LOCKED
+            """)
+    Optional<EventWaitlistEntry> findFirstOnWaitlist(@Param("eventId") long eventId);
 }
@@ -3,6 +3,7 @@ package io.oxalate.backend.repository;
 import io.oxalate.backend.api.EventStatusEnum;
 import io.oxalate.backend.model.Event;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -12,6 +13,27 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface EventRepository extends CrudRepository<Event, Long> {
+    // Event list entries with the organizer name, participant count, comment topic and tags aggregated in the same query
+    String EVENT_LIST_SELECT = """
+            SELECT e.id,
+                   e.type,
+                   e.title,
+                   e.description,
+                   e.start_time AS startTime,
+                   e.event_duration AS eventDuration,
+                   e.max_duration AS maxDuration,
+                   e.max_depth AS maxDepth,
+                   e.max_participants AS maxParticipants,
+                   o.first_name || ' ' || o.last_name AS organizerName,
+                   COUNT(ep.user_id) AS participantCount,
+                   COALESCE((SELECT MIN(ec.comment_id) FROM event_comments ec WHERE ec.event_id = e.id), 0) AS eventCommentId,
+                   (SELECT STRING_AGG(et.tag_id::text, ',') FROM event_tags et WHERE et.event_id = e.id) AS tagIds
+            FROM events e
+                     JOIN users o ON o.id = e.organizer_id
+                     LEFT JOIN event_participants ep ON ep.event_id = e.id AND ep.participant_type = 'USER'
+            """;
+    String EVENT_LIST_GROUP_BY = " GROUP BY e.id, o.first_name, o.last_name ";
+
     List<Event> findByStartTimeAfterOrderByStartTimeAsc(Instant instant);
 
     List<Event> findByStatusAndStartTimeAfterOrderByStartTimeAsc(EventStatusEnum status, Instant instant);
@@ -23,13 +45,22 @@ public interface EventRepository extends CrudRepository<Event, Long> {
             "SELECT e.* FROM events e, event_participants ep WHERE e.id = ep.event_id AND ep.user_id = :userId ORDER BY e.start_time ASC")
     List<Event> findByUserId(@Param("userId") long userId);
 
-    @Query(nativeQuery = true, value =
-            "SELECT e.* FROM events e, event_participants ep WHERE e.id = ep.event_id AND ep.user_id = :userId AND e.start_time > NOW() ORDER BY e.start_time ASC")
-    List<Event> findFutureEventsByUserId(@Param("userId") long userId);
-
     @Query(nativeQuery = true, value = "SELECT * FROM events e WHERE e.organizer_id = :userId ORDER BY e.start_time ASC")
     List<Event> findByOrganizer(@Param("userId") long userId);
 
+    @Query(nativeQuery = true, value = EVENT_LIST_SELECT + "WHERE e.start_time > :after AND e.status IN (:statuses)" + EVENT_LIST_GROUP_BY
+            + "ORDER BY e.start_time ASC")
+    List<EventListEntry> findEventListAfter(@Param("after") Instant after, @Param("statuses") Collection<String> statuses);
+
+    @Query(nativeQuery = true, value = EVENT_LIST_SELECT + "WHERE e.start_time < :until" + EVENT_LIST_GROUP_BY + "ORDER BY e.start_time DESC")
+    List<EventListEntry> findEventListBefore(@Param("until") Instant until);
+
+    @Query(nativeQuery = true, value = EVENT_LIST_SELECT + """
+            WHERE e.organizer_id = :userId
+               OR EXISTS (SELECT 1 FROM event_participants uep WHERE uep.event_id = e.id AND uep.user_id = :userId)
+            """ + EVENT_LIST_GROUP_BY + "ORDER BY e.start_time ASC")
+    List<EventListEntry> findEventListForUser(@Param("userId") long userId);
+
     @Modifying
     @Query(nativeQuery = true, value = "INSERT INTO event_participants (user_id, event_id, participant_type, payment_type, created_at, event_user_type)  " +
             "VALUES(:userId, :eventId, :participantType, :paymentType, :createTime, :eventUserType)")
@@ -40,11 +71,21 @@ public interface EventRepository extends CrudRepository<Event, Long> {
     @Query(nativeQuery = true, value = "DELETE FROM event_participants WHERE user_id = :userId AND event_id = :eventId")
     void removeParticipantFromEvent(@Param("userId") long userId, @Param("eventId") long eventId);
 
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            DELETE FROM event_participants ep
+            USING events e
+            WHERE e.id = ep.event_id
+              AND ep.user_id = :userId
+              AND e.start_time > NOW()
+            """)
+    int removeParticipantFromFutureEvents(@Param("userId") long userId);
+
     @Modifying
     @Query(nativeQuery = true, value = "DELETE FROM event_participants WHERE event_id = :eventId AND participant_type = :participantType")
     void removeAllParticipantsFromEvent(@Param("eventId") long eventId, @Param("participantType") String participantType);
 
-    @Query(nativeQuery = true, value = "SELECT COALESCE(SUM(ep.dive_count), 0) AS dive_count FROM event_participants ep WHERE ep.user_id = :userId")
+    @Query(nativeQuery = true, value = "SELECT COALESCE(SUM(t.dive_count), 0) AS dive_count FROM user_dive_totals t WHERE t.user_id = :userId")
     long countDivesByUserId(@Param("userId") long userId);
 
     @Modifying
@@ -54,19 +95,16 @@ public interface EventRepository extends CrudRepository<Event, Long> {
     @Query(nativeQuery = true, value = "SELECT * FROM events e WHERE e.start_time < NOW() AND NOW() < (e.start_time + e.event_duration * INTERVAL '1 hour') ORDER BY e.start_time ASC")
     List<Event> findAllCurrentEvents();
 
-    @Query(value = "SELECT ep.user_id AS id, " +
+    @Query(value = "SELECT t.user_id AS id, " +
             "u.first_name AS first_name, " +
             "u.last_name AS last_name, " +
-            "COALESCE(SUM(ep.dive_count), 0) AS dive_count " +
-            "FROM event_participants ep, users u " +
-            "WHERE u.id = ep.user_id " +
-            "GROUP BY ep.user_id, u.first_name, u.last_name " +
+            "COALESCE(SUM(t.dive_count), 0) AS dive_count " +
+            "FROM user_dive_totals t, users u " +
+            "WHERE u.id = t.user_id " +
+            "GROUP BY t.user_id, u.first_name, u.last_name " +
             "ORDER BY dive_count DESC", nativeQuery = true)
     List<Object[]> getMemberDiveCount();
 
-    @Query(nativeQuery = true, value = "SELECT * FROM events WHERE status = 'PUBLISHED' AND (start_time + (event_duration * interval '1 hour')) < NOW()")
-    List<Event> findEventsToMarkAsHeld();
-
     @Modifying
     @Query("UPDATE Event e SET e.status = :status WHERE e.id = :eventId")
     void updateEventStatus(@Param("eventId") long eventId, @Param("status") EventStatusEnum status);
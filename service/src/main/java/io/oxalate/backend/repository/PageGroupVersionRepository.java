@@ -1,6 +1,7 @@
 package io.oxalate.backend.repository;
 
 import io.oxalate.backend.model.PageGroupVersion;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,4 +12,8 @@ public interface PageGroupVersionRepository extends JpaRepository<PageGroupVersi
     List<PageGroupVersion> findAllByPageGroupIdOrderByLanguageAsc(Long pageGroupId);
 
     Optional<PageGroupVersion> findByPageGroupIdAndLanguage(Long id, String language);
+
+    List<PageGroupVersion> findAllByPageGroupIdInOrderByLanguageAsc(Collection<Long> pageGroupIds);
+
+    List<PageGroupVersion> findAllByPageGroupIdInAndLanguage(Collection<Long> pageGroupIds, String language);
 }
@@ -2,13 +2,36 @@ package io.oxalate.backend.repository;
 
 import io.oxalate.backend.api.RoleEnum;
 import io.oxalate.backend.model.PageRoleAccess;
+import java.util.Collection;
 import java.util.Set;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface PageRoleAccessRepository extends JpaRepository<PageRoleAccess, Long> {
+    /**
+     * Condition for a reader being able to read a page, either because the page is readable by ROLE_ANONYMOUS or because the reader has one of the
+     * roles with read permission to it. The query using the condition provides the reader as a row source aliased {@code reader}, with the columns
+     * {@code user_id} and {@code page_id}.
+     */
+    String READER_CAN_READ_PAGE = """
+            (EXISTS (SELECT 1
+                     FROM page_role_access pra
+                     WHERE pra.page_id = reader.page_id
+                       AND pra.role = 'ROLE_ANONYMOUS'
+                       AND pra.read_permission = true)
+              OR EXISTS (SELECT 1
+                         FROM user_roles ur
+                                  JOIN roles r ON r.id = ur.role_id
+                                  JOIN page_role_access pra ON pra.role = r.name
+                         WHERE ur.user_id = reader.user_id
+                           AND pra.page_id = reader.page_id
+                           AND pra.read_permission = true))
+            """;
+
     Set<PageRoleAccess> findByPageIdAndRoleIn(Long pageId, Set<RoleEnum> roles);
 
     Set<PageRoleAccess> findByPageIdAndRoleInAndWritePermission(long pageId, Set<RoleEnum> role, boolean writePermission);
@@ -17,4 +40,22 @@ public interface PageRoleAccessRepository extends JpaRepository<PageRoleAccess,
     void deleteAllByPageId(Long pageId);
 
     Set<PageRoleAccess> findAllByPageId(Long id);
+
+    Set<PageRoleAccess> findAllByPageIdIn(Collection<Long> pageIds);
+
+    /**
+     * Resolves which of the given users can read the page, either because the page is readable by ROLE_ANONYMOUS or because the user has one of the
+     * roles with read permission to it.
+     *
+     * @param pageId  Page to check
+     * @param userIds Users to check
+     * @return IDs of the users who can read the page
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT reader.user_id
+            FROM (SELECT u.id AS user_id, :pageId AS page_id
+                  FROM users u
+                  WHERE u.id IN (:userIds)) reader
+            WHERE """ + READER_CAN_READ_PAGE)
+    Set<Long> findReaderUserIds(@Param("pageId") long pageId, @Param("userIds") Collection<Long> userIds);
 }
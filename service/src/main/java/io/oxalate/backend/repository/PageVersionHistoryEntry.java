@@ -0,0 +1,13 @@
+package io.oxalate.backend.repository;
+
+import java.time.Instant;
+
+public interface PageVersionHistoryEntry {
+    int getRevision();
+
+    boolean getSnapshot();
+
+    long getReplacedBy();
+
+    Instant getReplacedAt();
+}
@@ -0,0 +1,28 @@
+package io.oxalate.backend.repository;
+
+import io.oxalate.backend.model.PageVersionHistory;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PageVersionHistoryRepository extends JpaRepository<PageVersionHistory, Long> {
+    // Only the metadata is selected so that listing the history does not read the texts
+    List<PageVersionHistoryEntry> findAllByPageIdAndLanguageOrderByRevisionDesc(long pageId, String language);
+
+    Optional<PageVersionHistoryEntry> findFirstByPageIdAndLanguageOrderByRevisionDesc(long pageId, String language);
+
+    Optional<PageVersionHistory> findByPageIdAndLanguageAndRevision(long pageId, String language, int revision);
+
+    Optional<PageVersionHistory> findFirstByPageIdAndLanguageAndRevisionGreaterThanEqualAndSnapshotTrueOrderByRevisionAsc(long pageId, String language,
+            int revision);
+
+    List<PageVersionHistory> findAllByPageIdAndLanguageAndRevisionBetweenOrderByRevisionDesc(long pageId, String language, int fromRevision,
+            int toRevision);
+
+    @Query(value = "SELECT id FROM pages WHERE id = :pageId FOR UPDATE", nativeQuery = true)
+    Long lockPage(@Param("pageId") long pageId);
+}
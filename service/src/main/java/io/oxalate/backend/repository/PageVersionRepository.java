@@ -1,6 +1,7 @@
 package io.oxalate.backend.repository;
 
 import io.oxalate.backend.model.PageVersion;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -11,4 +12,8 @@ public interface PageVersionRepository extends JpaRepository<PageVersion, Long>
     List<PageVersion> findAllByPageIdOrderByLanguage(long pageId);
 
     Optional<PageVersion> findByPageIdAndLanguage(Long pageId, String language);
+
+    List<PageVersion> findAllByPageIdInOrderByLanguage(Collection<Long> pageIds);
+
+    List<PageVersion> findAllByPageIdInAndLanguage(Collection<Long> pageIds, String language);
 }
@@ -2,6 +2,7 @@ package io.oxalate.backend.repository;
 
 import io.oxalate.backend.api.PaymentTypeEnum;
 import io.oxalate.backend.model.Payment;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -30,6 +31,8 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     List<Payment> findAllByUserIdOrderByStartDateDesc(long userId);
 
+    List<Payment> findAllByUserIdInOrderByStartDateDesc(Collection<Long> userIds);
+
     @Query(nativeQuery = true, value = """
             SELECT * FROM payments
             WHERE user_id = :userId
@@ -94,4 +97,72 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
                    OR end_date IS NULL)
             """)
     List<Payment> findAllCurrentPaymentsByUserId(long userId);
+
+    /**
+     * Resolves the best available payment type of each of the given users with the same rules as PaymentService.getBestAvailablePaymentType:
+     * a current periodical payment wins, any other current payment or an active one-time payment, even if used up, gives one-time. Users without either
+     * are left out of the result.
+     *
+     * @param userIds Users to resolve the payment type for
+     * @return User IDs with their best available payment type
+     */
+    @Query(nativeQuery = true, value = """
+            SELECT p.user_id AS userId,
+                   CASE
+                       WHEN BOOL_OR(p.payment_type = 'PERIODICAL'
+                           AND p.start_date <= NOW()
+                           AND (p.end_date >= NOW()
+                               OR p.end_date IS NULL)) THEN 'PERIODICAL'
+                       ELSE 'ONE_TIME'
+                       END AS paymentType
+            FROM payments p
+            WHERE p.user_id IN (:userIds)
+              AND ((p.start_date <= NOW()
+                  AND (p.end_date >= NOW()
+                      OR p.end_date IS NULL))
+                OR (p.payment_type = 'ONE_TIME'
+                    AND (p.end_date > NOW()
+                        OR p.end_date IS NULL)))
+            GROUP BY p.user_id
+            """)
+    List<UserPaymentType> findBestAvailablePaymentTypes(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            UPDATE payments
+            SET payment_count = payment_count - 1
+            WHERE id IN (SELECT DISTINCT ON (p.user_id) p.id
+                         FROM payments p
+                         WHERE p.user_id IN (:userIds)
+                           AND p.payment_type = 'ONE_TIME'
+                           AND p.payment_count > 0
+                           AND (p.end_date > NOW()
+                               OR p.end_date IS NULL)
+                         ORDER BY p.user_id, p.id)
+            """)
+    int decreaseOneTimePayments(@Param("userIds") Collection<Long> userIds);
+
+    @Query(nativeQuery = true, value = """
+            SELECT DISTINCT p.user_id
+            FROM payments p
+            WHERE p.user_id IN (:userIds)
+              AND p.payment_type = 'ONE_TIME'
+              AND (p.end_date > NOW()
+                  OR p.end_date IS NULL)
+            """)
+    Set<Long> findUserIdsWithActiveOneTimePayment(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            UPDATE payments
+            SET payment_count = payment_count + :count
+            WHERE id IN (SELECT DISTINCT ON (p.user_id) p.id
+                         FROM payments p
+                         WHERE p.user_id IN (:userIds)
+                           AND p.payment_type = 'ONE_TIME'
+                           AND (p.end_date > NOW()
+                               OR p.end_date IS NULL)
+                         ORDER BY p.user_id, p.id)
+            """)
+    int increaseOneTimePayments(@Param("userIds") Collection<Long> userIds, @Param("count") int count);
 }
@@ -2,6 +2,7 @@ package io.oxalate.backend.repository;
 
 import io.oxalate.backend.model.Tag;
 import io.oxalate.backend.model.TagGroup;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -29,6 +30,12 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
     @Query("SELECT t FROM Tag t JOIN t.users u WHERE u.id = :userId")
     Set<Tag> findByUserId(@Param("userId") Long userId);
 
+    @Query(nativeQuery = true, value = "SELECT ut.user_id AS userId, ut.tag_id AS tagId FROM user_tags ut WHERE ut.user_id IN (:userIds)")
+    List<UserTagId> findUserTagIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT DISTINCT t FROM Tag t LEFT JOIN FETCH t.translations LEFT JOIN FETCH t.tagGroup WHERE t.id IN :ids")
+    List<Tag> findAllWithTranslationsByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT t FROM Tag t JOIN t.events e WHERE e.id = :eventId")
     Set<Tag> findByEventId(@Param("eventId") Long eventId);
 }
@@ -0,0 +1,7 @@
+package io.oxalate.backend.repository;
+
+public interface UserTagId {
+    long getUserId();
+
+    long getTagId();
+}
@@ -1,32 +1,68 @@
 package io.oxalate.backend.schedule;
 
-import io.oxalate.backend.api.EventStatusEnum;
-import io.oxalate.backend.model.Event;
-import io.oxalate.backend.repository.EventRepository;
+import io.oxalate.backend.events.EventsClosedEvent;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Marks the published events which have ended as held. Each batch is closed with a single statement in its own transaction, and a
+ * {@link EventsClosedEvent} with the IDs of the closed events is published for it.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class ClosingEventSchedule {
+    private static final String CLOSE_PAST_EVENTS = """
+            UPDATE events
+            SET status = 'HELD'
+            WHERE id IN (SELECT id
+                         FROM events
+                         WHERE status = 'PUBLISHED'
+                           AND (start_time + (event_duration * INTERVAL '1 hour')) < NOW()
+                         ORDER BY id
+                         LIMIT ? FOR UPDATE SKIP LOCKED)
+            RETURNING id
+            """;
 
-    private final EventRepository eventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final int batchSize;
 
-    @Scheduled(fixedRate = 30 * 60 * 1_000)
-    @Transactional
+    public ClosingEventSchedule(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ApplicationEventPublisher applicationEventPublisher,
+            @Value("${oxalate.event.closing.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedRateString = "${oxalate.event.closing.interval:PT30M}")
     public void closePastEvents() {
-        List<Event> eventsToMarkAsHeld = eventRepository.findEventsToMarkAsHeld();
         var counter = 0;
+        List<Long> closedEventIds;
+
+        do {
+            closedEventIds = transactionTemplate.execute(status -> {
+                var eventIds = jdbcTemplate.queryForList(CLOSE_PAST_EVENTS, Long.class, batchSize);
+
+                if (!eventIds.isEmpty()) {
+                    applicationEventPublisher.publishEvent(EventsClosedEvent.builder()
+                                                                            .eventIds(eventIds)
+                                                                            .build());
+                }
+
+                return eventIds;
+            });
 
-        for (Event event : eventsToMarkAsHeld) {
-            eventRepository.updateEventStatus(event.getId(), EventStatusEnum.HELD);
-            counter++;
-        }
+            counter += closedEventIds.size();
+        } while (closedEventIds.size() == batchSize);
 
         log.info("Closed {} events", counter);
     }
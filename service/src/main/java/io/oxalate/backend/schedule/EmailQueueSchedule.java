@@ -1,22 +1,204 @@
 package io.oxalate.backend.schedule;
 
-import io.oxalate.backend.service.EmailQueueService;
-import lombok.RequiredArgsConstructor;
+import io.oxalate.backend.events.EmailsQueuedEvent;
+import io.oxalate.backend.service.EmailDispatchService;
+import jakarta.annotation.PreDestroy;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * Runs the email dispatch as soon as there is something to send. A dispatch is requested after a transaction which queued emails has committed, both on
+ * this node and, through PostgreSQL LISTEN/NOTIFY, on the other nodes, and when the next failed email is due for a retry. The periodic run is only a
+ * safety sweep for anything missed. Requests made while a dispatch is running are coalesced into one more run.
+ * <p>
+ * The listener holds a database connection for as long as the application runs, so it opens a connection of its own outside the connection pool,
+ * and runs on the email queue listener executor.
+ */
 @Slf4j
-@RequiredArgsConstructor
-@Service
+@Component
 public class EmailQueueSchedule {
+    static final String CHANNEL = "email_queue";
+    // How long the listener waits for notifications at a time, and before reconnecting after a failure
+    private static final int LISTEN_TIMEOUT_MILLIS = 10_000;
 
-    private final EmailQueueService emailQueueService;
+    private final EmailDispatchService emailDispatchService;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final TaskScheduler taskScheduler;
+    private final TaskExecutor emailDispatchTriggerExecutor;
+    private final TaskExecutor emailQueueListenerExecutor;
+    private final boolean listenEnabled;
+    private final Duration sweepInterval;
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
+    private final AtomicBoolean dispatchRunning = new AtomicBoolean();
+    private volatile boolean stopped;
+    private ScheduledFuture<?> retryWakeUp;
+    private Instant retryWakeUpAt;
 
-    @Transactional
-    @Scheduled(fixedRate = 15 * 60_000)
+    public EmailQueueSchedule(EmailDispatchService emailDispatchService, JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+            TaskScheduler taskScheduler, @Qualifier("EmailDispatchTriggerExecutor") TaskExecutor emailDispatchTriggerExecutor,
+            @Qualifier("EmailQueueListenerExecutor") TaskExecutor emailQueueListenerExecutor,
+            @Value("${oxalate.email.dispatch.listen:true}") boolean listenEnabled,
+            @Value("${oxalate.email.dispatch.sweep-interval:PT1H}") Duration sweepInterval) {
+        this.emailDispatchService = emailDispatchService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.taskScheduler = taskScheduler;
+        this.emailDispatchTriggerExecutor = emailDispatchTriggerExecutor;
+        this.emailQueueListenerExecutor = emailQueueListenerExecutor;
+        this.listenEnabled = listenEnabled;
+        this.sweepInterval = sweepInterval;
+    }
+
+    @Scheduled(fixedRateString = "${oxalate.email.dispatch.sweep-interval:PT1H}")
     public void processQueuedEmails() {
-        emailQueueService.flushQueue();
+        requestDispatch();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleEmailsQueued(EmailsQueuedEvent event) {
+        log.debug("{} emails queued, requesting dispatch", event.getCount());
+
+        try {
+            // Wakes up the other nodes, and this one too, which is coalesced with the request below
+            jdbcTemplate.execute("NOTIFY " + CHANNEL);
+        } catch (DataAccessException e) {
+            log.warn("Failed to notify the other nodes of the queued emails", e);
+        }
+
+        requestDispatch();
+    }
+
+    /**
+     * Requests a dispatch, which is started right away unless one is already running, in which case another run follows it.
+     */
+    public void requestDispatch() {
+        dispatchRequested.set(true);
+
+        if (dispatchRunning.compareAndSet(false, true)) {
+            emailDispatchTriggerExecutor.execute(this::runDispatches);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        if (!listenEnabled) {
+            return;
+        }
+
+        emailQueueListenerExecutor.execute(this::listen);
+    }
+
+    @PreDestroy
+    public void stopListening() {
+        stopped = true;
+    }
+
+    private void runDispatches() {
+        try {
+            while (dispatchRequested.getAndSet(false)) {
+                try {
+                    emailDispatchService.dispatch();
+                    scheduleRetryWakeUp();
+                } catch (RuntimeException e) {
+                    log.error("Dispatching the queued emails failed", e);
+                }
+            }
+        } finally {
+            dispatchRunning.set(false);
+        }
+
+        // A request made after the last check but before the running flag was cleared would otherwise wait for the next one
+        if (dispatchRequested.get() && dispatchRunning.compareAndSet(false, true)) {
+            emailDispatchTriggerExecutor.execute(this::runDispatches);
+        }
+    }
+
+    /**
+     * Schedules a dispatch for when the next entry of the queue is due, unless the sweep or an earlier wake-up comes first.
+     */
+    private synchronized void scheduleRetryWakeUp() {
+        var timeUntilNextDue = emailDispatchService.getTimeUntilNextDue();
+
+        if (timeUntilNextDue == null || timeUntilNextDue.compareTo(sweepInterval) >= 0) {
+            return;
+        }
+
+        var wakeUpAt = Instant.now()
+                              .plus(timeUntilNextDue.isZero() ? Duration.ofSeconds(1) : timeUntilNextDue);
+
+        if (retryWakeUp != null && !retryWakeUp.isDone() && !retryWakeUpAt.isAfter(wakeUpAt)) {
+            return;
+        }
+
+        if (retryWakeUp != null) {
+            retryWakeUp.cancel(false);
+        }
+
+        retryWakeUpAt = wakeUpAt;
+        retryWakeUp = taskScheduler.schedule(this::requestDispatch, wakeUpAt);
+        log.debug("Next email dispatch scheduled at {}", wakeUpAt);
+    }
+
+    /**
+     * Listens to the notifications of the queued emails on a connection of its own, reconnecting after a failure. Every reconnect requests a dispatch
+     * for the notifications missed meanwhile. The connection is not taken from the pool, so that the listener never holds one of the connections
+     * needed by the requests.
+     */
+    private void listen() {
+        while (!stopped) {
+            try (var connection = DriverManager.getConnection(dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (var statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+
+                var pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening to notifications of queued emails");
+                requestDispatch();
+
+                try {
+                    while (!stopped) {
+                        var notifications = pgConnection.getNotifications(LISTEN_TIMEOUT_MILLIS);
+
+                        if (notifications != null && notifications.length > 0) {
+                            requestDispatch();
+                        }
+                    }
+                } finally {
+                    try (var statement = connection.createStatement()) {
+                        statement.execute("UNLISTEN " + CHANNEL);
+                    }
+                }
+            } catch (SQLException e) {
+                log.warn("Listening to notifications of queued emails failed, reconnecting in {} ms", LISTEN_TIMEOUT_MILLIS, e);
+
+                try {
+                    Thread.sleep(LISTEN_TIMEOUT_MILLIS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread()
+                          .interrupt();
+                    return;
+                }
+            }
+        }
     }
 }
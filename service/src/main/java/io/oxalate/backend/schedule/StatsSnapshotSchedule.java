@@ -0,0 +1,30 @@
+package io.oxalate.backend.schedule;
+
+import io.oxalate.backend.service.StatsCounterService;
+import io.oxalate.backend.service.StatsSnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class StatsSnapshotSchedule {
+
+    private final StatsSnapshotService statsSnapshotService;
+    private final StatsCounterService statsCounterService;
+
+    // Runs first right after the startup, later refreshes pick up the year change and any corrections made to the past years. The counters are rebuilt
+    // along with the snapshot.
+    @Scheduled(fixedDelayString = "${oxalate.stats.snapshot.refresh-interval:PT6H}")
+    public void refreshStatsSnapshot() {
+        statsSnapshotService.refresh();
+        statsCounterService.rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${oxalate.stats.counters.checkpoint-interval:PT5M}", initialDelayString = "${oxalate.stats.counters.checkpoint-interval:PT5M}")
+    public void checkpointStatsCounters() {
+        statsCounterService.checkpoint();
+    }
+}
@@ -0,0 +1,22 @@
+package io.oxalate.backend.schedule;
+
+import io.oxalate.backend.service.UserDiveTotalsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class UserDiveTotalsRebuildSchedule {
+
+    private final UserDiveTotalsService userDiveTotalsService;
+
+    @Scheduled(fixedDelayString = "${oxalate.dive-totals.check-interval:PT24H}", initialDelayString = "${oxalate.dive-totals.check-interval:PT24H}")
+    public void checkDiveTotals() {
+        log.info("User dive totals consistency check started");
+        var mismatches = userDiveTotalsService.verifyAndRebuild();
+        log.info("User dive totals consistency check finished, fixed {} totals", mismatches);
+    }
+}
@@ -1,19 +1,27 @@
 package io.oxalate.backend.service;
 
+import io.oxalate.backend.api.AuditLevelEnum;
 import io.oxalate.backend.api.response.AuditEntryResponse;
+import io.oxalate.backend.api.response.PagedResponse;
 import io.oxalate.backend.events.AppAuditEvent;
 import io.oxalate.backend.model.ApplicationAuditEvent;
 import io.oxalate.backend.model.User;
 import io.oxalate.backend.repository.ApplicationAuditEventRepository;
+import io.oxalate.backend.tools.CursorTools;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +32,9 @@ public class ApplicationAuditEventService {
     private final ApplicationAuditEventRepository applicationAuditEventRepository;
     private final UserService userService;
 
+    private static final String ID_PROPERTY = "id";
+    private static final String LEVEL_PROPERTY = "level";
+
     @Value("${oxalate.audit.retention.days:30}")
     private int auditRetentionDays;
 
@@ -62,15 +73,7 @@ public class ApplicationAuditEventService {
 
         log.debug("getAllAuditEventsFiltered: filter: {}, filterColumn: {}", filter, filterColumn);
 
-        var userIdList = new ArrayList<Long>();
-        if (filterColumn.equals("userId")) {
-            var users = userService.findUsersByName(filter);
-            // Get the user ID from the list of users
-            userIdList.addAll(users.stream()
-                                   .map(User::getId)
-                                   .toList());
-            log.debug("Found {} users with name {}: {}", userIdList.size(), filter, userIdList);
-        }
+        var userIdList = findFilterUserIds(filter, filterColumn);
 
         Page<ApplicationAuditEvent> auditEvents = switch (filterColumn) {
             case "traceId" -> applicationAuditEventRepository.findByTraceIdContainingIgnoreCase(filter, pageRequest);
@@ -97,7 +100,140 @@ public class ApplicationAuditEventService {
         return auditEntryResponses;
     }
 
-    private void insertUsernames(Page<AuditEntryResponse> auditEntryResponses) {
+    /**
+     * Cursor-based variant of {@link #getAllAuditEventsFiltered(int, int, Sort, String, String)}. Each window is fetched with a keyset condition on the
+     * sort columns and the ID instead of an offset, so the cost stays the same regardless of how deep in the listing the window is.
+     *
+     * @param cursor       Continuation token from the previous response, null for the first window
+     * @param pageSize     Number of entries in the window
+     * @param sort         Sort order, the ID is appended to it as a tie-breaker
+     * @param filter       Filter string, ignored if the filter column is empty
+     * @param filterColumn Column to filter by, empty for no filtering
+     * @param includeTotal Whether the matching entries should be counted
+     * @return Window of audit entries
+     * @throws IllegalArgumentException if the cursor is malformed or does not match the sort order
+     */
+    public PagedResponse<AuditEntryResponse> getAuditEventsByCursor(String cursor, int pageSize, Sort sort, String filter, String filterColumn,
+            boolean includeTotal) {
+        var keysetSort = toKeysetSort(sort);
+        var position = toScrollPosition(cursor, keysetSort);
+        var limit = Limit.of(pageSize);
+
+        log.debug("getAuditEventsByCursor: cursor: {}, filter: {}, filterColumn: {}", cursor, filter, filterColumn);
+
+        var userIdList = findFilterUserIds(filter, filterColumn);
+
+        Window<ApplicationAuditEvent> auditEvents = switch (filterColumn) {
+            case "traceId" -> applicationAuditEventRepository.findByTraceIdContainingIgnoreCase(filter, position, keysetSort, limit);
+            case "message" -> applicationAuditEventRepository.findByMessageContainingIgnoreCase(filter, position, keysetSort, limit);
+            case "ipAddress" -> applicationAuditEventRepository.findByIpAddressContainingIgnoreCase(filter, position, keysetSort, limit);
+            case "source" -> applicationAuditEventRepository.findBySourceContainingIgnoreCase(filter, position, keysetSort, limit);
+            case "userId" -> applicationAuditEventRepository.findAllByUserIdIn(userIdList, position, keysetSort, limit);
+            default -> applicationAuditEventRepository.findAllBy(position, keysetSort, limit);
+        };
+
+        Long totalElements = null;
+
+        if (includeTotal) {
+            totalElements = switch (filterColumn) {
+                case "traceId" -> applicationAuditEventRepository.countByTraceIdContainingIgnoreCase(filter);
+                case "message" -> applicationAuditEventRepository.countByMessageContainingIgnoreCase(filter);
+                case "ipAddress" -> applicationAuditEventRepository.countByIpAddressContainingIgnoreCase(filter);
+                case "source" -> applicationAuditEventRepository.countBySourceContainingIgnoreCase(filter);
+                case "userId" -> applicationAuditEventRepository.countByUserIdIn(userIdList);
+                default -> applicationAuditEventRepository.count();
+            };
+        }
+
+        return toCursorResponse(auditEvents, pageSize, cursor == null, totalElements);
+    }
+
+    /**
+     * Cursor-based variant of {@link #getAllAuditEventsForUser(long, int, int, Sort)}.
+     *
+     * @param userId       User whose audit entries are listed
+     * @param cursor       Continuation token from the previous response, null for the first window
+     * @param pageSize     Number of entries in the window
+     * @param sort         Sort order, the ID is appended to it as a tie-breaker
+     * @param includeTotal Whether the entries of the user should be counted
+     * @return Window of audit entries
+     * @throws IllegalArgumentException if the cursor is malformed or does not match the sort order
+     */
+    public PagedResponse<AuditEntryResponse> getAuditEventsForUserByCursor(long userId, String cursor, int pageSize, Sort sort, boolean includeTotal) {
+        var keysetSort = toKeysetSort(sort);
+        var position = toScrollPosition(cursor, keysetSort);
+        var auditEvents = applicationAuditEventRepository.findByUserId(userId, position, keysetSort, Limit.of(pageSize));
+        var totalElements = includeTotal ? applicationAuditEventRepository.countByUserId(userId) : null;
+
+        return toCursorResponse(auditEvents, pageSize, cursor == null, totalElements);
+    }
+
+    private ArrayList<Long> findFilterUserIds(String filter, String filterColumn) {
+        var userIdList = new ArrayList<Long>();
+        if (filterColumn.equals("userId")) {
+            var users = userService.findUsersByName(filter);
+            // Get the user ID from the list of users
+            userIdList.addAll(users.stream()
+                                   .map(User::getId)
+                                   .toList());
+            log.debug("Found {} users with name {}: {}", userIdList.size(), filter, userIdList);
+        }
+
+        return userIdList;
+    }
+
+    private Sort toKeysetSort(Sort sort) {
+        if (sort.getOrderFor(ID_PROPERTY) != null) {
+            return sort;
+        }
+
+        // The ID follows the direction of the primary sort so that the database can walk a single index in one direction
+        var direction = sort.stream()
+                            .findFirst()
+                            .map(Sort.Order::getDirection)
+                            .orElse(Sort.Direction.DESC);
+        return sort.and(Sort.by(direction, ID_PROPERTY));
+    }
+
+    private ScrollPosition toScrollPosition(String cursor, Sort keysetSort) {
+        if (cursor == null) {
+            return ScrollPosition.keyset();
+        }
+
+        var keys = CursorTools.decode(cursor);
+        var sortProperties = keysetSort.stream()
+                                       .map(Sort.Order::getProperty)
+                                       .toList();
+
+        if (keys == null || !List.copyOf(keys.keySet())
+                                 .equals(sortProperties)) {
+            throw new IllegalArgumentException("Cursor does not match the sort order " + sortProperties);
+        }
+
+        // Enums are carried by name in the cursor
+        if (keys.get(LEVEL_PROPERTY) instanceof String level) {
+            keys.put(LEVEL_PROPERTY, AuditLevelEnum.valueOf(level));
+        }
+
+        return ScrollPosition.forward(keys);
+    }
+
+    private PagedResponse<AuditEntryResponse> toCursorResponse(Window<ApplicationAuditEvent> auditEvents, int pageSize, boolean first, Long totalElements) {
+        var auditEntryResponses = auditEvents.map(ApplicationAuditEvent::toAuditEntryResponse)
+                                             .getContent();
+        insertUsernames(auditEntryResponses);
+
+        String nextCursor = null;
+
+        if (auditEvents.hasNext() && !auditEvents.isEmpty()) {
+            var lastPosition = (KeysetScrollPosition) auditEvents.positionAt(auditEvents.size() - 1);
+            nextCursor = CursorTools.encode(lastPosition.getKeys());
+        }
+
+        return PagedResponse.ofCursor(auditEntryResponses, pageSize, first, nextCursor, totalElements);
+    }
+
+    private void insertUsernames(Iterable<AuditEntryResponse> auditEntryResponses) {
         for (var entry : auditEntryResponses) {
             if (entry.getUserId() > 0) {
                 var user = userService.findUserEntityById(entry.getUserId());
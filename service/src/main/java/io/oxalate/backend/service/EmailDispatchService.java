@@ -0,0 +1,465 @@
+package io.oxalate.backend.service;
+
+import com.google.common.util.concurrent.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.oxalate.backend.api.EmailNotificationDetailEnum;
+import io.oxalate.backend.api.EmailNotificationTypeEnum;
+import static io.oxalate.backend.api.PortalConfigEnum.EMAIL;
+import static io.oxalate.backend.api.PortalConfigEnum.EmailConfigEnum.EMAIL_NOTIFICATION_RETRIES;
+import static io.oxalate.backend.api.PortalConfigEnum.GENERAL;
+import static io.oxalate.backend.api.PortalConfigEnum.GeneralConfigEnum.DEFAULT_LANGUAGE;
+import io.oxalate.backend.api.UserStatusEnum;
+import io.oxalate.backend.model.EmailQueueEntry;
+import io.oxalate.backend.model.Event;
+import io.oxalate.backend.model.PageVersion;
+import io.oxalate.backend.model.User;
+import io.oxalate.backend.repository.EventRepository;
+import io.oxalate.backend.repository.PageVersionRepository;
+import io.oxalate.backend.repository.UserRepository;
+import io.oxalate.backend.service.EmailService.DigestEntry;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Sends the queued emails. The due entries are claimed in chunks with {@code FOR UPDATE SKIP LOCKED}, so that several instances can dispatch the queue at
+ * the same time, and a claimed entry is leased for the claim lease after which it is claimed again if its status was never committed. Claiming an
+ * entry with an expired lease counts as a failed attempt, so that an entry whose sending never completes reaches the retry limit. The emails of a
+ * chunk are rendered and sent on the email dispatch executor in batches, each batch over a single connection to the mail server, and the sending rate
+ * over all the batches is limited to the configured messages per second. The status of the entries is committed once per chunk.
+ * <p>
+ * The entries queued for a subscriber in digest mode share the due time at the end of their digest window. A chunk always holds all the due entries
+ * of the users it claims, the users being taken in the order of their earliest due entry until the chunk size is reached, so a chunk may exceed the
+ * chunk size by the entries of its last user. The digest entries of a user are thus sent as one digest email, and share its outcome. The queue keeps
+ * every digest entry of a subscriber in digest mode, and the entries about the same event or page are coalesced into one item of the digest.
+ */
+@Slf4j
+@Service
+public class EmailDispatchService {
+    private static final String METRIC_QUEUE_DEPTH = "oxalate.email.queue.depth";
+    private static final String METRIC_SEND_LATENCY = "oxalate.email.send.latency";
+    private static final String METRIC_EMAILS = "oxalate.email.dispatched";
+
+    static final String CLAIM_CHUNK = """
+            UPDATE email_queue
+            SET status = 'SENDING',
+                counter = CASE WHEN status = 'SENDING' THEN counter + 1 ELSE counter END,
+                next_send_timestamp = CURRENT_TIMESTAMP + ? * INTERVAL '1 second'
+            WHERE id IN (SELECT id
+                         FROM email_queue
+                         WHERE status IN ('QUEUED', 'FAILED', 'SENDING')
+                           AND next_send_timestamp <= CURRENT_TIMESTAMP
+                           AND user_id IN (SELECT user_id
+                                           FROM (SELECT user_id,
+                                                        SUM(COUNT(*)) OVER (ORDER BY MIN(next_send_timestamp), user_id) - COUNT(*) AS preceding
+                                                 FROM email_queue
+                                                 WHERE status IN ('QUEUED', 'FAILED', 'SENDING')
+                                                   AND next_send_timestamp <= CURRENT_TIMESTAMP
+                                                 GROUP BY user_id) due_users
+                                           WHERE preceding < ?)
+                         FOR UPDATE SKIP LOCKED)
+            RETURNING id, user_id, email_type, email_detail, type_id, counter, digest
+            """;
+    static final String MARK_SENT = "UPDATE email_queue SET status = 'SENT' WHERE id = ANY (?)";
+    // Retry period doubles for each failed attempt, starting from the base delay and capped at the maximum delay, until limit is reached
+    static final String MARK_FAILED = """
+            UPDATE email_queue
+            SET status = 'FAILED',
+                counter = counter + 1,
+                next_send_timestamp = CURRENT_TIMESTAMP + LEAST(? * POWER(2, counter), ?) * INTERVAL '1 second'
+            WHERE id = ANY (?)
+            """;
+    // An entry whose lease expired is purged as well, as its sender was lost before the outcome was committed
+    private static final String DELETE_RETRIES_EXCEEDED = """
+            DELETE FROM email_queue
+            WHERE counter >= ?
+              AND (status IN ('QUEUED', 'FAILED')
+                OR (status = 'SENDING' AND next_send_timestamp <= CURRENT_TIMESTAMP))
+            """;
+    private static final String COUNT_QUEUED = "SELECT COUNT(*) FROM email_queue WHERE status IN ('QUEUED', 'FAILED', 'SENDING')";
+    private static final String SELECT_NEXT_DUE = """
+            SELECT EXTRACT(EPOCH FROM MIN(next_send_timestamp) - CURRENT_TIMESTAMP)
+            FROM email_queue
+            WHERE status IN ('QUEUED', 'FAILED', 'SENDING')
+            """;
+    private static final RowMapper<EmailQueueEntry> CLAIMED_ENTRY_MAPPER = (resultSet, rowNumber) -> {
+        var emailType = EmailNotificationTypeEnum.valueOf(resultSet.getString("email_type"));
+        var emailDetail = EmailNotificationDetailEnum.valueOf(resultSet.getString("email_detail"));
+        return EmailQueueEntry.builder()
+                              .id(resultSet.getLong("id"))
+                              .userId(resultSet.getLong("user_id"))
+                              .emailType(emailType)
+                              .emailDetail(emailDetail)
+                              .typeId(resultSet.getLong("type_id"))
+                              .counter(resultSet.getInt("counter"))
+                              .digest(resultSet.getBoolean("digest"))
+                              .build();
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EmailService emailService;
+    private final UserRepository userRepository;
+    private final EventRepository eventRepository;
+    private final PageVersionRepository pageVersionRepository;
+    private final PortalConfigurationService portalConfigurationService;
+    private final AsyncTaskExecutor emailDispatchExecutor;
+    private final RateLimiter rateLimiter;
+    private final int chunkSize;
+    private final int messagesPerConnection;
+    private final Duration claimLease;
+    private final Duration retryBaseDelay;
+    private final Duration retryMaxDelay;
+    private final AtomicLong queueDepth = new AtomicLong();
+    private final Timer sendTimer;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+
+    public EmailDispatchService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, EmailService emailService,
+            UserRepository userRepository, EventRepository eventRepository, PageVersionRepository pageVersionRepository,
+            PortalConfigurationService portalConfigurationService, @Qualifier("EmailDispatchExecutor") AsyncTaskExecutor emailDispatchExecutor,
+            MeterRegistry meterRegistry, @Value("${oxalate.email.dispatch.chunk-size:100}") int chunkSize,
+            @Value("${oxalate.email.dispatch.messages-per-connection:20}") int messagesPerConnection,
+            @Value("${oxalate.email.dispatch.messages-per-second:10}") double messagesPerSecond,
+            @Value("${oxalate.email.dispatch.claim-lease:PT15M}") Duration claimLease,
+            @Value("${oxalate.email.dispatch.retry-base-delay:PT5M}") Duration retryBaseDelay,
+            @Value("${oxalate.email.dispatch.retry-max-delay:PT6H}") Duration retryMaxDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.emailService = emailService;
+        this.userRepository = userRepository;
+        this.eventRepository = eventRepository;
+        this.pageVersionRepository = pageVersionRepository;
+        this.portalConfigurationService = portalConfigurationService;
+        this.emailDispatchExecutor = emailDispatchExecutor;
+        this.rateLimiter = RateLimiter.create(messagesPerSecond);
+        this.chunkSize = chunkSize;
+        this.messagesPerConnection = messagesPerConnection;
+        this.claimLease = claimLease;
+        this.retryBaseDelay = retryBaseDelay;
+        this.retryMaxDelay = retryMaxDelay;
+        this.sendTimer = Timer.builder(METRIC_SEND_LATENCY)
+                              .description("Time to send a batch of emails over one connection to the mail server")
+                              .register(meterRegistry);
+        this.sentCounter = Counter.builder(METRIC_EMAILS)
+                                  .description("Dispatched queued emails")
+                                  .tag("result", "sent")
+                                  .register(meterRegistry);
+        this.failedCounter = Counter.builder(METRIC_EMAILS)
+                                    .description("Dispatched queued emails")
+                                    .tag("result", "failed")
+                                    .register(meterRegistry);
+        Gauge.builder(METRIC_QUEUE_DEPTH, queueDepth, AtomicLong::get)
+             .description("Number of emails waiting to be sent, as of the latest dispatch")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Sends all the due emails of the queue, one chunk at a time, until there are no more due entries.
+     *
+     * @return Number of processed entries
+     */
+    public int dispatch() {
+        var retryLimit = portalConfigurationService.getNumericConfiguration(EMAIL.group, EMAIL_NOTIFICATION_RETRIES.key);
+        var removed = jdbcTemplate.update(DELETE_RETRIES_EXCEEDED, retryLimit);
+
+        if (removed > 0) {
+            log.info("Removed {} emails which have reached the retry limit({}) from the queue", removed, retryLimit);
+        }
+
+        var counter = 0;
+        List<EmailQueueEntry> chunk;
+
+        while (!(chunk = jdbcTemplate.query(CLAIM_CHUNK, CLAIMED_ENTRY_MAPPER, claimLease.toSeconds(), chunkSize)).isEmpty()) {
+            var failedIds = sendChunk(chunk);
+            var sentIds = chunk.stream()
+                               .map(EmailQueueEntry::getId)
+                               .filter(id -> !failedIds.contains(id))
+                               .toArray(Long[]::new);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(MARK_SENT, (Object) sentIds);
+                jdbcTemplate.update(MARK_FAILED, retryBaseDelay.toSeconds(), retryMaxDelay.toSeconds(), failedIds.toArray(new Long[0]));
+            });
+
+            sentCounter.increment(sentIds.length);
+            failedCounter.increment(failedIds.size());
+            counter += chunk.size();
+        }
+
+        var queued = jdbcTemplate.queryForObject(COUNT_QUEUED, Long.class);
+        queueDepth.set(queued != null ? queued : 0L);
+
+        if (counter == 0) {
+            log.info("No email notifications found to be send");
+        } else {
+            log.info("Processed {} email notifications", counter);
+        }
+
+        return counter;
+    }
+
+    /**
+     * Returns how long it is until the next entry of the queue is due to be sent.
+     *
+     * @return Time until the next due entry, zero if an entry is already due, or null if the queue is empty
+     */
+    public Duration getTimeUntilNextDue() {
+        var seconds = jdbcTemplate.queryForObject(SELECT_NEXT_DUE, Double.class);
+
+        if (seconds == null) {
+            return null;
+        }
+
+        return seconds > 0 ? Duration.ofMillis((long) Math.ceil(seconds * 1000)) : Duration.ZERO;
+    }
+
+    /**
+     * Renders and sends the emails of the chunk in batches on the email dispatch executor.
+     *
+     * @return IDs of the entries which failed
+     */
+    private Set<Long> sendChunk(List<EmailQueueEntry> chunk) {
+        var users = userRepository.findAllById(chunk.stream()
+                                                    .map(EmailQueueEntry::getUserId)
+                                                    .collect(Collectors.toSet()))
+                                  .stream()
+                                  .collect(Collectors.toMap(User::getId, Function.identity()));
+        // The entries of a chunk mostly notify about the same event or page, each is read only once
+        var events = new HashMap<Long, Optional<Event>>();
+        var pageVersions = new HashMap<String, Optional<PageVersion>>();
+        var composers = new ArrayList<MailComposer>(chunk.size());
+        var digests = new LinkedHashMap<Long, List<EmailQueueEntry>>();
+
+        for (var emailQueueEntry : chunk) {
+            if (emailQueueEntry.isDigest()) {
+                digests.computeIfAbsent(emailQueueEntry.getUserId(), userId -> new ArrayList<>())
+                       .add(emailQueueEntry);
+            } else {
+                composers.add(composeMail(List.of(emailQueueEntry), users, events, pageVersions));
+            }
+        }
+
+        for (var digest : digests.values()) {
+            composers.add(composeMail(digest, users, events, pageVersions));
+        }
+
+        var failedIds = ConcurrentHashMap.<Long>newKeySet();
+        var batches = new ArrayList<List<MailComposer>>();
+        var futures = new ArrayList<Future<?>>();
+
+        for (var start = 0; start < composers.size(); start += messagesPerConnection) {
+            var batch = composers.subList(start, Math.min(start + messagesPerConnection, composers.size()));
+            batches.add(batch);
+            futures.add(emailDispatchExecutor.submit(() -> sendBatch(batch, failedIds)));
+        }
+
+        for (var i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i)
+                       .get();
+            } catch (InterruptedException e) {
+                Thread.currentThread()
+                      .interrupt();
+                // The outcome of the rest of the batches is unknown, they are retried as failed
+                for (var remaining : batches.subList(i, batches.size())) {
+                    failBatch(remaining, failedIds);
+                }
+
+                break;
+            } catch (ExecutionException e) {
+                log.error("Sending a batch of emails failed", e.getCause());
+                failBatch(batches.get(i), failedIds);
+            }
+        }
+
+        return failedIds;
+    }
+
+    private void sendBatch(List<MailComposer> batch, Set<Long> failedIds) {
+        var mails = new ArrayList<MimeMessage>(batch.size());
+        var entryIds = new IdentityHashMap<Object, List<Long>>();
+
+        for (var composer : batch) {
+            try {
+                var mail = composer.mail()
+                                   .get();
+
+                if (mail != null) {
+                    mails.add(mail);
+                    entryIds.put(mail, composer.entryIds());
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to create email with IDs {}", composer.entryIds(), e);
+                failedIds.addAll(composer.entryIds());
+            }
+        }
+
+        if (mails.isEmpty()) {
+            return;
+        }
+
+        rateLimiter.acquire(mails.size());
+        var failedMails = sendTimer.record(() -> emailService.sendMails(mails));
+
+        for (var failedMail : failedMails.entrySet()) {
+            var failedEntryIds = entryIds.get(failedMail.getKey());
+            log.error("Failed to send email with IDs {}", failedEntryIds, failedMail.getValue());
+            failedIds.addAll(failedEntryIds);
+        }
+    }
+
+    private void failBatch(List<MailComposer> batch, Set<Long> failedIds) {
+        for (var composer : batch) {
+            failedIds.addAll(composer.entryIds());
+        }
+    }
+
+    private MailComposer composeMail(List<EmailQueueEntry> entries, Map<Long, User> users, Map<Long, Optional<Event>> events,
+            Map<String, Optional<PageVersion>> pageVersions) {
+        var entryIds = entries.stream()
+                              .map(EmailQueueEntry::getId)
+                              .toList();
+        var userId = entries.getFirst()
+                            .getUserId();
+        return new MailComposer(entryIds, resolveMail(coalesce(entries), userId, users.get(userId), events, pageVersions));
+    }
+
+    /**
+     * Coalesces the entries about the same event or page into one, in the order they were queued. The earliest detail is kept so that a digest tells
+     * about a new event or page even if it was updated afterward, unless the event or page was cancelled or deleted later on.
+     */
+    private List<EmailQueueEntry> coalesce(List<EmailQueueEntry> entries) {
+        if (entries.size() < 2) {
+            return entries;
+        }
+
+        var coalesced = new LinkedHashMap<String, EmailQueueEntry>();
+
+        for (var emailQueueEntry : entries.stream()
+                                          .sorted(Comparator.comparing(EmailQueueEntry::getId))
+                                          .toList()) {
+            coalesced.merge(emailQueueEntry.getEmailType() + ":" + emailQueueEntry.getTypeId(), emailQueueEntry,
+                    (earlier, later) -> isFinal(earlier.getEmailDetail()) || isFinal(later.getEmailDetail()) ? later : earlier);
+        }
+
+        return List.copyOf(coalesced.values());
+    }
+
+    private boolean isFinal(EmailNotificationDetailEnum detail) {
+        return detail == EmailNotificationDetailEnum.CANCELLED || detail == EmailNotificationDetailEnum.DELETED;
+    }
+
+    /**
+     * Resolves the recipient and the subjects of the entries and returns the renderer of their email, which returns null if the email is not to be sent.
+     * A single entry is sent as its own notification, several as a digest.
+     */
+    private Supplier<MimeMessage> resolveMail(List<EmailQueueEntry> entries, long userId, User user, Map<Long, Optional<Event>> events,
+            Map<String, Optional<PageVersion>> pageVersions) {
+        if (user == null) {
+            log.error("User with ID {} not found when attempting to send event email notification", userId);
+            return () -> null;
+        }
+
+        // We only send notifications to active users
+        if (!user.getStatus()
+                 .equals(UserStatusEnum.ACTIVE)) {
+            log.debug("User with ID {} is not active, skipping email notification", user.getId());
+            return () -> null;
+        }
+
+        var digestEntries = new ArrayList<DigestEntry>(entries.size());
+
+        for (var emailQueueEntry : entries) {
+            resolveEntry(emailQueueEntry, user, events, pageVersions).ifPresent(digestEntries::add);
+        }
+
+        if (digestEntries.isEmpty()) {
+            return () -> null;
+        }
+
+        if (digestEntries.size() > 1) {
+            return () -> emailService.createDigestMail(user.getUsername(), user.getLanguage(), digestEntries);
+        }
+
+        var digestEntry = digestEntries.getFirst();
+
+        if (digestEntry.event() != null) {
+            return () -> emailService.createEventNotificationMail(user.getUsername(), user.getLanguage(), digestEntry.detail(), digestEntry.event());
+        }
+
+        return () -> emailService.createPageNotificationMail(user.getUsername(), user.getLanguage(), digestEntry.detail(), digestEntry.pageVersion());
+    }
+
+    /**
+     * Resolves the event or the page version the entry notifies about, or empty if the notification is not to be sent.
+     */
+    private Optional<DigestEntry> resolveEntry(EmailQueueEntry emailQueueEntry, User user, Map<Long, Optional<Event>> events,
+            Map<String, Optional<PageVersion>> pageVersions) {
+        switch (emailQueueEntry.getEmailType()) {
+        case EVENT:
+            var optionalEvent = events.computeIfAbsent(emailQueueEntry.getTypeId(), eventRepository::findById);
+
+            if (optionalEvent.isEmpty()) {
+                log.error("Event with ID {} not found when attempting to send event email notification", emailQueueEntry.getTypeId());
+                return Optional.empty();
+            }
+
+            return Optional.of(new DigestEntry(emailQueueEntry.getEmailDetail(), optionalEvent.get(), null));
+        case PAGE:
+            var optionalPageVersion = findPageVersion(pageVersions, emailQueueEntry.getTypeId(), user.getLanguage());
+
+            if (optionalPageVersion.isEmpty()) {
+                var defaultLanguage = portalConfigurationService.getStringConfiguration(GENERAL.group, DEFAULT_LANGUAGE.key);
+                log.warn("Could not find language {} of page version {} for user ID {}, fetching with default language {}",
+                        user.getLanguage(), emailQueueEntry.getTypeId(), user.getId(), defaultLanguage);
+
+                optionalPageVersion = findPageVersion(pageVersions, emailQueueEntry.getTypeId(), defaultLanguage);
+
+                if (optionalPageVersion.isEmpty()) {
+                    log.error("Default page version with page ID {} not found when attempting to send page email notification", emailQueueEntry.getTypeId());
+                    return Optional.empty();
+                }
+            }
+
+            return Optional.of(new DigestEntry(emailQueueEntry.getEmailDetail(), null, optionalPageVersion.get()));
+        default:
+            log.error("Unknown email type {}", emailQueueEntry.getEmailType());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<PageVersion> findPageVersion(Map<String, Optional<PageVersion>> pageVersions, long pageId, String language) {
+        return pageVersions.computeIfAbsent(pageId + ":" + language, key -> pageVersionRepository.findByPageIdAndLanguage(pageId, language));
+    }
+
+    private record MailComposer(List<Long> entryIds, Supplier<MimeMessage> mail) {
+    }
+}
@@ -27,18 +27,26 @@ public class EmailNotificationSubscriptionService {
         return subscriptionResponses;
     }
 
-    public EmailNotificationSubscriptionResponse subscribeToNotification(long userId, EmailNotificationTypeEnum emailNotificationType) {
+    public EmailNotificationSubscriptionResponse subscribeToNotification(long userId, EmailNotificationTypeEnum emailNotificationType, boolean digest) {
         // First check whether the subscription already exists
         var subscription = emailNotificationSubscriptionRepository.findByEmailNotificationTypeAndUserId(emailNotificationType, userId);
 
         if (subscription.isPresent()) {
             log.warn("Email notification for {} subscription for user {} already exists.", emailNotificationType, userId);
-            return subscription.get().toResponse();
+            var existingSubscription = subscription.get();
+
+            if (existingSubscription.isDigest() != digest) {
+                existingSubscription.setDigest(digest);
+                existingSubscription = emailNotificationSubscriptionRepository.save(existingSubscription);
+            }
+
+            return existingSubscription.toResponse();
         }
 
         var emailNotificationSubscription = EmailNotificationSubscription.builder()
                                                                          .userId(userId)
                                                                          .emailNotificationType(emailNotificationType)
+                                                                         .digest(digest)
                                                                          .build();
         var newEmailNotificationSubscription = emailNotificationSubscriptionRepository.save(emailNotificationSubscription);
 
@@ -3,76 +3,94 @@ package io.oxalate.backend.service;
 import io.oxalate.backend.api.EmailNotificationDetailEnum;
 import io.oxalate.backend.api.EmailNotificationTypeEnum;
 import io.oxalate.backend.api.EmailStatusEnum;
-import static io.oxalate.backend.api.PortalConfigEnum.EMAIL;
-import static io.oxalate.backend.api.PortalConfigEnum.EmailConfigEnum.EMAIL_NOTIFICATION_RETRIES;
-import static io.oxalate.backend.api.PortalConfigEnum.GENERAL;
-import static io.oxalate.backend.api.PortalConfigEnum.GeneralConfigEnum.DEFAULT_LANGUAGE;
-import io.oxalate.backend.api.RoleEnum;
-import io.oxalate.backend.api.UserStatusEnum;
+import io.oxalate.backend.events.EmailsQueuedEvent;
 import io.oxalate.backend.model.EmailQueueEntry;
-import io.oxalate.backend.model.Role;
-import io.oxalate.backend.repository.EmailNotificationSubscriptionRepository;
 import io.oxalate.backend.repository.EmailQueueRepository;
-import io.oxalate.backend.repository.EventRepository;
 import io.oxalate.backend.repository.PageRoleAccessRepository;
-import io.oxalate.backend.repository.PageVersionRepository;
-import io.oxalate.backend.repository.RoleRepository;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
-import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class EmailQueueService {
 
     private static final long SYSTEM_USER_ID = 1L;
+    private static final String NOTIFICATION_TITLE = "New email notification";
+    private static final String NOTIFICATION_DESCRIPTION = "Email notification";
 
     final private EmailQueueRepository emailQueueRepository;
-    final private EmailService emailService;
-    final private EmailNotificationSubscriptionRepository emailNotificationSubscriptionRepository;
-    final private UserService userService;
-    final private EventRepository eventRepository;
-    final private PageVersionRepository pageVersionRepository;
     final private PageRoleAccessRepository pageRoleAccessRepository;
-    final private RoleRepository roleRepository;
-    final private PortalConfigurationService portalConfigurationService;
     final private MessageService messageService;
+    final private ApplicationEventPublisher applicationEventPublisher;
+    final private Duration digestWindow;
+
+    public EmailQueueService(EmailQueueRepository emailQueueRepository, PageRoleAccessRepository pageRoleAccessRepository, MessageService messageService,
+            ApplicationEventPublisher applicationEventPublisher, @Value("${oxalate.email.digest.window:PT1H}") Duration digestWindow) {
+        this.emailQueueRepository = emailQueueRepository;
+        this.pageRoleAccessRepository = pageRoleAccessRepository;
+        this.messageService = messageService;
+        this.applicationEventPublisher = applicationEventPublisher;
+
+        // The windows are counted in whole seconds
+        if (digestWindow.toSeconds() < 1L) {
+            throw new IllegalArgumentException("Email digest window must be at least one second: " + digestWindow);
+        }
+
+        this.digestWindow = digestWindow;
+    }
 
+    /**
+     * Queues the notification for all the subscribers of the email type, and for a page only for those who can read it. The emails, the in-app message
+     * and its receivers are all created with a single statement. For the subscribers in digest mode the email is held until the end of the digest window
+     * and sent in one digest with their other notifications of the window.
+     *
+     * @param emailType Type of the notification
+     * @param detail    What happened to the event or page
+     * @param typeId    ID of the event or page
+     */
     @Transactional
     public void addNotification(EmailNotificationTypeEnum emailType, EmailNotificationDetailEnum detail, long typeId) {
-        var subscriptions = emailNotificationSubscriptionRepository.findByEmailNotificationType(emailType);
+        // First we flush out of the queue any notifications for the same type ID which have yet not been sent, except those waiting for a digest
+        emailQueueRepository.deleteByEmailTypeAndTypeIdAndStatus(emailType.name(), typeId, EmailStatusEnum.QUEUED.name());
 
-        // First we flush out of the queue any notifications for the same type ID which have yet not been sent
-        emailQueueRepository.deleteByTypeIdAndStatus(typeId, EmailStatusEnum.QUEUED.name());
+        var now = Instant.now();
+        var queued = emailQueueRepository.queueSubscriberNotifications(emailType.name(), detail.name(), typeId, SYSTEM_USER_ID, NOTIFICATION_TITLE,
+                NOTIFICATION_DESCRIPTION, notificationContent(emailType, detail), now, digestDue(now));
+        log.debug("Queued {} {} email notifications for type ID {}", queued, emailType, typeId);
 
-        for (var subscription : subscriptions) {
-            createEmailQueueEntry(subscription.getUserId(), emailType, detail, typeId);
+        if (queued > 0) {
+            publishEmailsQueued(queued);
         }
     }
 
+    /**
+     * Returns the end of the digest window the given time falls in. The windows are aligned to the epoch, so that every notification within a window is
+     * sent in the same digest.
+     */
+    Instant digestDue(Instant now) {
+        var windowSeconds = digestWindow.toSeconds();
+        return Instant.ofEpochSecond((now.getEpochSecond() / windowSeconds + 1) * windowSeconds);
+    }
+
     @Transactional
     public void createEmailQueueEntry(Long userId, EmailNotificationTypeEnum emailType, EmailNotificationDetailEnum detail, Long typeId) {
         // If the emailType is PAGE, then make sure the user can access the page
-        if (emailType == EmailNotificationTypeEnum.PAGE) {
-            var userRoles = roleRepository.findByUser(userId);
-            var roleList = userRoles.stream()
-                                    .map(Role::getName)
-                                    .collect(Collectors.toSet());
-            // All public pages are included
-            roleList.add(RoleEnum.ROLE_ANONYMOUS);
-            var roleAccess = pageRoleAccessRepository.findByPageIdAndRoleIn(typeId, roleList);
-
-            if (roleAccess.isEmpty()) {
-                log.debug("User with ID {} does not have access to page with ID {}", userId, typeId);
-                return;
-            }
+        if (emailType == EmailNotificationTypeEnum.PAGE && pageRoleAccessRepository.findReaderUserIds(typeId, Set.of(userId))
+                                                                                   .isEmpty()) {
+            log.debug("User with ID {} does not have access to page with ID {}", userId, typeId);
+            return;
         }
 
+        queueEmail(userId, emailType, detail, typeId);
+    }
+
+    private void queueEmail(Long userId, EmailNotificationTypeEnum emailType, EmailNotificationDetailEnum detail, Long typeId) {
         var emailQueueEntry = EmailQueueEntry.builder()
                                              .userId(userId)
                                              .emailType(emailType)
@@ -83,6 +101,7 @@ public class EmailQueueService {
                                              .nextSendTimestamp(Instant.now())
                                              .build();
         emailQueueRepository.save(emailQueueEntry);
+        publishEmailsQueued(1);
 
         // Create a notification for the user informing them that they have a new email
         createEmailNotificationForUser(userId, emailType, detail);
@@ -96,111 +115,23 @@ public class EmailQueueService {
      * @param detail    The detail/reason for the email
      */
     private void createEmailNotificationForUser(Long userId, EmailNotificationTypeEnum emailType, EmailNotificationDetailEnum detail) {
-        String title = "New email notification";
-        String description = "Email notification";
-        String messageContent = switch (emailType) {
-            case EVENT -> "You have a new email notification about an event: " + detail.name();
-            case PAGE -> "You have a new email notification about a page update: " + detail.name();
-        };
-
-        messageService.createSimpleNotification(userId, SYSTEM_USER_ID, title, description, messageContent);
+        messageService.createSimpleNotification(userId, SYSTEM_USER_ID, NOTIFICATION_TITLE, NOTIFICATION_DESCRIPTION, notificationContent(emailType, detail));
         log.debug("Created in-app notification for user ID {} about {} email", userId, emailType);
     }
 
-    @Transactional
-    public void flushQueue() {
-        var queuedEmails = emailQueueRepository.findUnprosessedNotifications();
-
-        if (queuedEmails.isEmpty()) {
-            log.info("No email notifications found to be send");
-            return;
-        }
-
-        var counter = 0;
-
-        for (var emailQueueEntry : queuedEmails) {
-            var retryLimit = portalConfigurationService.getNumericConfiguration(EMAIL.group, EMAIL_NOTIFICATION_RETRIES.key);
-
-            if (emailQueueEntry.getCounter() >= retryLimit) {
-                log.info("Email with ID {} for user ID {} has reached retry limit({}), removing from queue", emailQueueEntry.getId(),
-                        emailQueueEntry.getUserId(), retryLimit);
-                emailQueueRepository.delete(emailQueueEntry);
-                continue;
-            }
-
-            try {
-                emailQueueEntry.setStatus(EmailStatusEnum.SENDING);
-                var sendingMessage = emailQueueRepository.save(emailQueueEntry);
-                processQueueEntry(sendingMessage);
-                sendingMessage.setStatus(EmailStatusEnum.SENT);
-                emailQueueRepository.save(sendingMessage);
-            } catch (Exception e) {
-                log.error("Failed to send email with ID {}", emailQueueEntry.getId(), e);
-                emailQueueEntry.setStatus(EmailStatusEnum.FAILED);
-                emailQueueEntry.setCounter(emailQueueEntry.getCounter() + 1);
-                // Retry period grows by 1 hour for each failed attempt until limit is reached
-                emailQueueEntry.setNextSendTimestamp(Instant.now()
-                                                            .plus(emailQueueEntry.getCounter(), ChronoUnit.HOURS));
-                emailQueueRepository.save(emailQueueEntry);
-            }
-
-            counter++;
-        }
-
-        log.info("Processed {} email notifications", counter);
+    private String notificationContent(EmailNotificationTypeEnum emailType, EmailNotificationDetailEnum detail) {
+        return switch (emailType) {
+            case EVENT -> "You have a new email notification about an event: " + detail.name();
+            case PAGE -> "You have a new email notification about a page update: " + detail.name();
+        };
     }
 
-    private void processQueueEntry(EmailQueueEntry sendingMessage) {
-        var user = userService.findUserEntityById(sendingMessage.getUserId());
-
-        if (user == null) {
-            log.error("User with ID {} not found when attempting to send event email notification", sendingMessage.getUserId());
-            return;
-        }
-
-        // We only send notifications to active users
-        if (!user.getStatus().equals(UserStatusEnum.ACTIVE)) {
-            log.debug("User with ID {} is not active, skipping email notification", user.getId());
-            return;
-        }
-
-        switch (sendingMessage.getEmailType()) {
-        case EVENT:
-
-            var optionalEvent = eventRepository.findById(sendingMessage.getTypeId());
-
-            if (optionalEvent.isEmpty()) {
-                log.error("Event with ID {} not found when attempting to send event email notification", sendingMessage.getTypeId());
-                return;
-            }
-
-            var event = optionalEvent.get();
-
-            emailService.sendEventNotificationEmail(user.getUsername(), user.getLanguage(), sendingMessage.getEmailDetail(), event);
-            break;
-        case PAGE:
-            var optionalPageVersion = pageVersionRepository.findByPageIdAndLanguage(sendingMessage.getTypeId(), user.getLanguage());
-
-            if (optionalPageVersion.isEmpty()) {
-                var defaultLanguage = portalConfigurationService.getStringConfiguration(GENERAL.group, DEFAULT_LANGUAGE.key);
-                log.warn("Could not find language {} of page version {} for user ID {}, fetching with default language {}",
-                        user.getLanguage(), sendingMessage.getTypeId(), user.getId(), defaultLanguage);
-
-                optionalPageVersion = pageVersionRepository.findByPageIdAndLanguage(sendingMessage.getTypeId(), defaultLanguage);
-
-                if (optionalPageVersion.isEmpty()) {
-                    log.error("Default page version with page ID {} not found when attempting to send page email notification", sendingMessage.getTypeId());
-                    return;
-                }
-            }
-
-            var pageVersion = optionalPageVersion.get();
-
-            emailService.sendPageNotificationEmail(user.getUsername(), user.getLanguage(), sendingMessage.getEmailDetail(), pageVersion);
-            break;
-        default:
-            log.error("Unknown email type {}", sendingMessage.getEmailType());
-            break;
-        }
+    /**
+     * Requests the dispatch of the queued emails once the current transaction has committed.
+     */
+    private void publishEmailsQueued(int count) {
+        applicationEventPublisher.publishEvent(EmailsQueuedEvent.builder()
+                                                                .count(count)
+                                                                .build());
     }
 }
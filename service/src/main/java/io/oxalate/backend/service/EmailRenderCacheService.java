@@ -0,0 +1,82 @@
+package io.oxalate.backend.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+/**
+ * Caches the rendered bodies of the notification emails. A body is keyed by the template, the locale, the ID of the event or page and the variables
+ * of the template, so a notification to all the subscribers renders each language variant once. As the variables are a part of the key, a changed
+ * title, time or configuration value renders a new body and the old one expires unused.
+ */
+@Slf4j
+@Service
+public class EmailRenderCacheService {
+    private static final String METRIC_REQUESTS = "oxalate.email.render.cache.requests";
+
+    private final TemplateEngine templateEngine;
+    private final Cache<RenderKey, String> renderCache;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    private record RenderKey(String templateName, Locale locale, long typeId, Map<String, Object> variables) {
+    }
+
+    public EmailRenderCacheService(TemplateEngine templateEngine, MeterRegistry meterRegistry,
+            @Value("${oxalate.email.render-cache.max-entries:1000}") long maxEntries,
+            @Value("${oxalate.email.render-cache.expire-after-access:PT1H}") Duration expireAfterAccess) {
+        this.templateEngine = templateEngine;
+        this.renderCache = CacheBuilder.newBuilder()
+                                       .maximumSize(maxEntries)
+                                       .expireAfterAccess(expireAfterAccess)
+                                       .build();
+        this.hitCounter = Counter.builder(METRIC_REQUESTS)
+                                 .description("Email render cache lookups")
+                                 .tag("result", "hit")
+                                 .register(meterRegistry);
+        this.missCounter = Counter.builder(METRIC_REQUESTS)
+                                  .description("Email render cache lookups")
+                                  .tag("result", "miss")
+                                  .register(meterRegistry);
+    }
+
+    /**
+     * Returns the body rendered from the template with the variables of the context, rendering and storing it on a miss.
+     *
+     * @param templateName Name of the template
+     * @param typeId       ID of the event or page the email is about
+     * @param context      Locale and variables of the template
+     * @return Rendered body
+     */
+    public String render(String templateName, long typeId, Context context) {
+        var variables = new HashMap<String, Object>();
+
+        for (var variableName : context.getVariableNames()) {
+            variables.put(variableName, context.getVariable(variableName));
+        }
+
+        var key = new RenderKey(templateName, context.getLocale(), typeId, variables);
+        var body = renderCache.getIfPresent(key);
+
+        if (body != null) {
+            hitCounter.increment();
+            return body;
+        }
+
+        missCounter.increment();
+        body = templateEngine.process(templateName, context);
+        renderCache.put(key, body);
+        log.debug("Rendered {} for type ID {} in {}", templateName, typeId, context.getLocale());
+        return body;
+    }
+}
@@ -17,13 +17,21 @@ import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
@@ -39,6 +47,7 @@ public class EmailService {
 
     private final JavaMailSender javaMailSender;
     private final TemplateEngine templateEngine;
+    private final EmailRenderCacheService emailRenderCacheService;
     private final PortalConfigurationService portalConfigurationService;
 
     @Autowired
@@ -105,7 +114,16 @@ public class EmailService {
         return false;
     }
 
-    public void sendEventNotificationEmail(String emailAddress, String language, EmailNotificationDetailEnum detail, Event event) {
+    /**
+     * Renders the notification of the event for the recipient. The email is sent with {@link #sendMails(List)}.
+     *
+     * @param emailAddress Address of the recipient
+     * @param language     Language of the recipient
+     * @param detail       What happened to the event
+     * @param event        Event to notify about
+     * @return The email ready to be sent
+     */
+    public MimeMessage createEventNotificationMail(String emailAddress, String language, EmailNotificationDetailEnum detail, Event event) {
         var locale = Locale.forLanguageTag(language);
         var subject = messageSource.getMessage("email.notification." + detail.name().toLowerCase() + "-event.subject", null, locale);
         var templateName = "eventNotificationTemplate_" + detail.name().toLowerCase() + "_" + locale.getLanguage();
@@ -120,17 +138,21 @@ public class EmailService {
         var zoneId = ZoneId.of(timezoneString);
         context.setVariable("eventDate", event.getStartTime().atZone(zoneId).format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm")));
 
-        String body = templateEngine.process(templateName, context);
+        String body = emailRenderCacheService.render(templateName, event.getId(), context);
 
-        try {
-            sendHtmlMail(portalConfigurationService.getStringConfiguration(EMAIL.group, SYSTEM_EMAIL.key), emailAddress, subject, body);
-        } catch (MailException e) {
-            log.error("Sending event notification email failed: ", e);
-            throw new EmailNotificationException("Failed to send event notification email", e);
-        }
+        return createHtmlMail(portalConfigurationService.getStringConfiguration(EMAIL.group, SYSTEM_EMAIL.key), emailAddress, subject, body);
     }
 
-    public void sendPageNotificationEmail(String emailAddress, String language, EmailNotificationDetailEnum detail, PageVersion pageVersion) {
+    /**
+     * Renders the notification of the page version for the recipient. The email is sent with {@link #sendMails(List)}.
+     *
+     * @param emailAddress Address of the recipient
+     * @param language     Language of the recipient
+     * @param detail       What happened to the page
+     * @param pageVersion  Version of the page in the language of the recipient
+     * @return The email ready to be sent
+     */
+    public MimeMessage createPageNotificationMail(String emailAddress, String language, EmailNotificationDetailEnum detail, PageVersion pageVersion) {
         var locale = Locale.forLanguageTag(language);
         var subject = messageSource.getMessage("email.notification." + detail.name().toLowerCase() + "-page.subject", null, locale);
         var templateName = "pageNotificationTemplate_" + detail.name().toLowerCase() + "_" + locale.getLanguage();
@@ -144,13 +166,90 @@ public class EmailService {
         context.setVariable("pageId", pageVersion.getPageId());
         context.setVariable("event", null);
 
-        String body = templateEngine.process(templateName, context);
+        String body = emailRenderCacheService.render(templateName, pageVersion.getPageId(), context);
+
+        return createHtmlMail(portalConfigurationService.getStringConfiguration(EMAIL.group, SYSTEM_EMAIL.key), emailAddress, subject, body);
+    }
+
+    /**
+     * Renders the digest of the notifications for the recipient, listing each event or page with what happened to it. The digest is personal, so unlike
+     * the single notifications it is not cached. The email is sent with {@link #sendMails(List)}.
+     *
+     * @param emailAddress Address of the recipient
+     * @param language     Language of the recipient
+     * @param entries      Notifications of the digest, in the order they were queued
+     * @return The email ready to be sent
+     */
+    public MimeMessage createDigestMail(String emailAddress, String language, List<DigestEntry> entries) {
+        var locale = Locale.forLanguageTag(language);
+        var subject = messageSource.getMessage("email.notification.digest.subject", new Object[] { entries.size() }, locale);
+        var zoneId = ZoneId.of(portalConfigurationService.getStringConfiguration(GENERAL.group, TIMEZONE.key));
+        var items = new ArrayList<DigestItem>(entries.size());
+
+        for (var entry : entries) {
+            var detail = entry.detail()
+                              .name()
+                              .toLowerCase();
+
+            if (entry.event() != null) {
+                var heading = messageSource.getMessage("email.notification." + detail + "-event.subject", null, locale);
+                var eventDate = entry.event()
+                                     .getStartTime()
+                                     .atZone(zoneId)
+                                     .format(DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm"));
+                items.add(new DigestItem(heading, entry.event()
+                                                       .getTitle(), eventDate));
+            } else {
+                var heading = messageSource.getMessage("email.notification." + detail + "-page.subject", null, locale);
+                items.add(new DigestItem(heading, entry.pageVersion()
+                                                       .getTitle(), null));
+            }
+        }
+
+        Context context = new Context(locale);
+        context.setVariable("orgName", portalConfigurationService.getStringConfiguration(GENERAL.group, ORG_NAME.key));
+        context.setVariable("frontendUrl", frontendUrl);
+        context.setVariable("items", items);
+
+        String body = templateEngine.process("digestNotificationTemplate_" + locale.getLanguage(), context);
+
+        return createHtmlMail(portalConfigurationService.getStringConfiguration(EMAIL.group, SYSTEM_EMAIL.key), emailAddress, subject, body);
+    }
+
+    /**
+     * Sends the emails over a single connection to the mail server. A failure of one email does not stop sending the rest.
+     *
+     * @param mails Emails to send
+     * @return The emails which could not be sent, mapped to the cause of the failure
+     */
+    public Map<Object, Exception> sendMails(List<MimeMessage> mails) {
+        if (!portalConfigurationService.getBooleanConfiguration(EMAIL.group, EMAIL_ENABLED.key)) {
+            log.info("Not sending {} emails. Email service disabled!", mails.size());
+
+            for (var mail : mails) {
+                try {
+                    log.info("Logging email details: to:{}, subject:{}", Arrays.toString(mail.getAllRecipients()), mail.getSubject());
+                } catch (MessagingException e) {
+                    log.warn("Could not read the details of the email", e);
+                }
+            }
+
+            return Map.of();
+        }
 
         try {
-            sendHtmlMail(portalConfigurationService.getStringConfiguration(EMAIL.group, SYSTEM_EMAIL.key), emailAddress, subject, body);
+            javaMailSender.send(mails.toArray(new MimeMessage[0]));
+            return Map.of();
+        } catch (MailSendException e) {
+            if (!e.getFailedMessages()
+                  .isEmpty()) {
+                return e.getFailedMessages();
+            }
+
+            return allFailed(mails, e);
         } catch (MailException e) {
-            log.error("Sending page notification email failed: ", e);
-            throw new EmailNotificationException("Failed to send page notification email", e);
+            // Failing to connect or to authenticate fails all the emails
+            return allFailed(mails, e);
         }
     }
 
@@ -163,21 +262,7 @@ public class EmailService {
             return;
         }
 
-        MimeMessage mail = javaMailSender.createMimeMessage();
-
-        var subjectPrefix = "prod".equals(env) ? "" : String.format("[env=%s] ", env);
-        subjectPrefix += "[" + portalConfigurationService.getStringConfiguration(GENERAL.group, ORG_NAME.key) + "] ";
-
-        try {
-            MimeMessageHelper helper = new MimeMessageHelper(mail, true);
-            helper.setFrom(sender);
-            helper.setTo(recipient);
-            helper.setSubject(subjectPrefix + subject);
-            helper.setText(body, true);
-        } catch (MessagingException e) {
-            throw new RuntimeException(e);
-        }
-
+        MimeMessage mail = createHtmlMail(sender, recipient, subject, body);
         javaMailSender.send(mail);
     }
 
@@ -200,4 +285,50 @@ public class EmailService {
 
         javaMailSender.send(message);
     }
+
+    private MimeMessage createHtmlMail(String sender, String recipient, String subject, String body) {
+        MimeMessage mail = javaMailSender.createMimeMessage();
+
+        var subjectPrefix = "prod".equals(env) ? "" : String.format("[env=%s] ", env);
+        subjectPrefix += "[" + portalConfigurationService.getStringConfiguration(GENERAL.group, ORG_NAME.key) + "] ";
+
+        try {
+            MimeMessageHelper helper = new MimeMessageHelper(mail, true);
+            helper.setFrom(sender);
+            helper.setTo(recipient);
+            helper.setSubject(subjectPrefix + subject);
+            helper.setText(body, true);
+        } catch (MessagingException e) {
+            throw new EmailNotificationException("Failed to create email to " + recipient, e);
+        }
+
+        return mail;
+    }
+
+    private Map<Object, Exception> allFailed(List<MimeMessage> mails, Exception exception) {
+        var failedMails = new IdentityHashMap<Object, Exception>();
+
+        for (var mail : mails) {
+            failedMails.put(mail, exception);
+        }
+
+        return failedMails;
+    }
+
+    /**
+     * A notification of a digest, about the event or the version of the page in the language of the recipient.
+     */
+    public record DigestEntry(EmailNotificationDetailEnum detail, Event event, PageVersion pageVersion) {
+    }
+
+    /**
+     * A line of the digest template.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class DigestItem {
+        private final String heading;
+        private final String title;
+        private final String date;
+    }
 }
@@ -0,0 +1,167 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.api.ParticipantTypeEnum;
+import io.oxalate.backend.api.PaymentTypeEnum;
+import static io.oxalate.backend.api.PaymentTypeEnum.ONE_TIME;
+import io.oxalate.backend.api.UserTypeEnum;
+import io.oxalate.backend.model.EventsParticipant;
+import io.oxalate.backend.model.User;
+import io.oxalate.backend.repository.UserRepository;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Brings the participant list of an event in line with the requested list of participants. The differences are computed with hash sets, the payment
+ * types of all the affected users are resolved with one query, and the participant rows and one-time payments are changed with batched statements, so
+ * the number of database round trips does not depend on the number of participants.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class EventParticipantReconciler {
+    private static final String INSERT_PARTICIPANT = """
+            INSERT INTO event_participants (user_id, event_id, participant_type, payment_type, created_at, event_user_type)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String DELETE_PARTICIPANT = "DELETE FROM event_participants WHERE user_id = ? AND event_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final PaymentService paymentService;
+
+    /**
+     * Adds the requested users missing from the current participants and removes the current participants missing from the requested users. The added
+     * users take part with their primary user type and best available payment type, and a one-time payment is used for them if that is the payment
+     * type. A one-time payment is given back to the removed users whose best available payment type is one-time. Users without an available payment
+     * type are not added.
+     *
+     * @param eventId             ID of the event
+     * @param currentParticipants Current participant rows of the event
+     * @param requestedUserIds    User IDs which should take part in the event
+     * @param organizerId         ID of the organizer who is never added as a regular participant
+     * @return Reconciliation result with the added and removed user IDs
+     */
+    @Transactional
+    public ReconciliationResult reconcile(long eventId, Collection<EventsParticipant> currentParticipants, Collection<Long> requestedUserIds,
+            long organizerId) {
+        var currentUserIds = currentParticipants.stream()
+                                                .map(EventsParticipant::getUserId)
+                                                .collect(Collectors.toSet());
+        var requested = requestedUserIds != null ? new LinkedHashSet<>(requestedUserIds) : new LinkedHashSet<Long>();
+        var addedUserIds = new LinkedHashSet<Long>();
+
+        for (var userId : requested) {
+            if (!currentUserIds.contains(userId) && userId != organizerId) {
+                addedUserIds.add(userId);
+            }
+        }
+
+        var removedParticipants = currentParticipants.stream()
+                                                     .filter(participant -> !requested.contains(participant.getUserId()))
+                                                     .toList();
+
+        if (addedUserIds.isEmpty() && removedParticipants.isEmpty()) {
+            return new ReconciliationResult(List.of(), List.of());
+        }
+
+        var affectedUserIds = new HashSet<>(addedUserIds);
+        removedParticipants.forEach(participant -> affectedUserIds.add(participant.getUserId()));
+        var paymentTypes = paymentService.getBestAvailablePaymentTypes(affectedUserIds);
+
+        var added = addParticipants(eventId, addedUserIds, paymentTypes);
+        var removed = removeParticipants(eventId, removedParticipants, paymentTypes);
+        log.debug("Reconciled participants of event {}: added {}, removed {}", eventId, added, removed);
+        return new ReconciliationResult(added, removed);
+    }
+
+    private List<Long> addParticipants(long eventId, Collection<Long> userIds, Map<Long, PaymentTypeEnum> paymentTypes) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+
+        // Since the new participants are added by the organizer/administrator, we use the default user type of the added divers
+        var users = userRepository.findAllById(userIds)
+                                  .stream()
+                                  .collect(Collectors.toMap(User::getId, Function.identity()));
+        var createdAt = LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC);
+        var rows = new ArrayList<Object[]>();
+        var added = new ArrayList<Long>();
+        var oneTimeUserIds = new ArrayList<Long>();
+
+        for (var userId : userIds) {
+            var user = users.get(userId);
+            var paymentType = paymentTypes.get(userId);
+
+            if (user == null) {
+                log.error("User {} does not exist, will not add user to event {}", userId, eventId);
+                continue;
+            }
+
+            if (paymentType == null) {
+                log.error("Failed to get payment type for user {}, will not add user to event {}", userId, eventId);
+                continue;
+            }
+
+            var userType = user.getPrimaryUserType() != null ? user.getPrimaryUserType() : UserTypeEnum.SCUBA_DIVER;
+            rows.add(new Object[] { userId, eventId, ParticipantTypeEnum.USER.name(), paymentType.name(), createdAt, userType.name() });
+            added.add(userId);
+
+            if (paymentType.equals(ONE_TIME)) {
+                oneTimeUserIds.add(userId);
+            }
+        }
+
+        paymentService.decreaseOneTimePayments(oneTimeUserIds);
+        jdbcTemplate.batchUpdate(INSERT_PARTICIPANT, rows);
+        return added;
+    }
+
+    private List<Long> removeParticipants(long eventId, List<EventsParticipant> participants, Map<Long, PaymentTypeEnum> paymentTypes) {
+        if (participants.isEmpty()) {
+            return List.of();
+        }
+
+        var rows = new ArrayList<Object[]>(participants.size());
+        var removed = new ArrayList<Long>(participants.size());
+        var refundUserIds = new ArrayList<Long>();
+
+        for (var participant : participants) {
+            rows.add(new Object[] { participant.getUserId(), eventId });
+            removed.add(participant.getUserId());
+            // The organizer row is recreated by the caller and was never paid for
+            if (participant.getParticipantType() == ParticipantTypeEnum.ORGANIZER) {
+                continue;
+            }
+
+            var paymentType = paymentTypes.get(participant.getUserId());
+
+            if (paymentType == null) {
+                log.error("Failed to get payment type for user {}, will not update any payment information as the player should never have been able to "
+                        + "subscribe to an event", participant.getUserId());
+            } else if (paymentType.equals(ONE_TIME)) {
+                refundUserIds.add(participant.getUserId());
+            }
+        }
+
+        jdbcTemplate.batchUpdate(DELETE_PARTICIPANT, rows);
+        paymentService.increaseOneTimePayments(refundUserIds, 1);
+        return removed;
+    }
+
+    public record ReconciliationResult(List<Long> addedUserIds, List<Long> removedUserIds) {
+    }
+}
@@ -0,0 +1,224 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.api.DiveTypeEnum;
+import io.oxalate.backend.api.ParticipantTypeEnum;
+import io.oxalate.backend.api.UserTypeEnum;
+import io.oxalate.backend.api.response.EventListResponse;
+import io.oxalate.backend.api.response.EventResponse;
+import io.oxalate.backend.api.response.ListUserResponse;
+import io.oxalate.backend.api.response.PaymentResponse;
+import io.oxalate.backend.api.response.TagResponse;
+import io.oxalate.backend.model.Event;
+import io.oxalate.backend.model.Payment;
+import io.oxalate.backend.model.Tag;
+import io.oxalate.backend.repository.EventListEntry;
+import io.oxalate.backend.repository.EventParticipantDetail;
+import io.oxalate.backend.repository.EventParticipantsRepository;
+import io.oxalate.backend.repository.PaymentRepository;
+import io.oxalate.backend.repository.TagRepository;
+import io.oxalate.backend.repository.UserTagId;
+import io.oxalate.backend.service.commenting.CommentService;
+import static io.oxalate.backend.tools.TagTools.collectTagResponses;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Builds the full event responses with the participant details. The participants of an event are fetched with a single projection query, and their
+ * payments and tags are fetched in bulk for all the participants, so that the number of queries does not depend on the number of participants. The
+ * event lists are built from the aggregated list entries in the same manner.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class EventResponseAssembler {
+    private static final List<String> PARTICIPANT_TYPES = List.of(ParticipantTypeEnum.USER.name());
+
+    private final UserService userService;
+    private final EventParticipantsRepository eventParticipantsRepository;
+    private final PaymentRepository paymentRepository;
+    private final TagRepository tagRepository;
+    private final CommentService commentService;
+
+    /**
+     * Builds the response of the event with the organizer, the participants, the waitlist and the event comment topic.
+     *
+     * @param event Event to build the response of
+     * @return Event response, or empty if the organizer of the event does not exist
+     */
+    public Optional<EventResponse> assemble(Event event) {
+        var organizer = userService.findUserEntityById(event.getOrganizerId());
+
+        if (organizer == null) {
+            log.error("Event has an non-existing organizer: {}", event.getOrganizerId());
+            return Optional.empty();
+        }
+
+        var eventResponse = event.toEventResponse();
+        eventResponse.setOrganizer(organizer.toUserResponse());
+        eventResponse.setParticipants(assembleParticipants(event.getId()));
+        eventResponse.setWaitlist(eventParticipantsRepository.findWaitlistUserIds(event.getId()));
+
+        var eventCommentId = commentService.getEventCommentId(event.getId());
+
+        if (eventCommentId > 0) {
+            eventResponse.setEventCommentId(eventCommentId);
+        }
+
+        return Optional.of(eventResponse);
+    }
+
+    /**
+     * Builds the participant list of the event in the order of subscription. The user type and the dive count are the ones of the participation rather
+     * than those of the user.
+     *
+     * @param eventId ID of the event
+     * @return List of participants
+     */
+    public List<ListUserResponse> assembleParticipants(long eventId) {
+        var participants = eventParticipantsRepository.findEventParticipantDetails(eventId, PARTICIPANT_TYPES);
+
+        if (participants.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        var userIds = participants.stream()
+                                  .map(EventParticipantDetail::getUserId)
+                                  .toList();
+        var payments = findPayments(userIds);
+        var tags = findTags(userIds);
+        var participantList = new ArrayList<ListUserResponse>(participants.size());
+
+        for (var participant : participants) {
+            participantList.add(ListUserResponse.builder()
+                                                .id(participant.getUserId())
+                                                .name(participant.getLastName() + " " + participant.getFirstName())
+                                                .eventDiveCount(participant.getEventDiveCount())
+                                                .createdAt(participant.getCreatedAt())
+                                                .payments(payments.getOrDefault(participant.getUserId(), new ArrayList<>()))
+                                                .membershipActive(participant.getMembershipActive())
+                                                .userType(UserTypeEnum.valueOf(participant.getEventUserType()))
+                                                .tags(tags.getOrDefault(participant.getUserId(), new HashSet<>()))
+                                                .build());
+        }
+
+        return participantList;
+    }
+
+    /**
+     * Builds the list responses of the events from the aggregated list entries. The tags of all the events are fetched with a single query.
+     *
+     * @param eventListEntries Events as returned by the event list queries
+     * @return List of event list responses in the same order
+     */
+    public List<EventListResponse> assembleList(List<EventListEntry> eventListEntries) {
+        var tagIdsByEvent = new HashMap<Long, List<Long>>();
+
+        for (var eventListEntry : eventListEntries) {
+            if (eventListEntry.getTagIds() != null && !eventListEntry.getTagIds()
+                                                                     .isBlank()) {
+                tagIdsByEvent.put(eventListEntry.getId(), Arrays.stream(eventListEntry.getTagIds()
+                                                                                      .split(","))
+                                                                .map(Long::parseLong)
+                                                                .toList());
+            }
+        }
+
+        var tagsById = findTagsById(tagIdsByEvent.values()
+                                                 .stream()
+                                                 .flatMap(List::stream)
+                                                 .collect(Collectors.toSet()));
+        var eventListResponses = new ArrayList<EventListResponse>(eventListEntries.size());
+
+        for (var eventListEntry : eventListEntries) {
+            var eventTags = new HashSet<Tag>();
+
+            for (var tagId : tagIdsByEvent.getOrDefault(eventListEntry.getId(), List.of())) {
+                var tag = tagsById.get(tagId);
+
+                if (tag != null) {
+                    eventTags.add(tag);
+                }
+            }
+
+            eventListResponses.add(EventListResponse.builder()
+                                                    .id(eventListEntry.getId())
+                                                    .type(DiveTypeEnum.valueOf(eventListEntry.getType()))
+                                                    .title(eventListEntry.getTitle())
+                                                    .description(eventListEntry.getDescription())
+                                                    .startTime(eventListEntry.getStartTime())
+                                                    .eventDuration(eventListEntry.getEventDuration())
+                                                    .maxDuration(eventListEntry.getMaxDuration())
+                                                    .maxDepth(eventListEntry.getMaxDepth())
+                                                    .maxParticipants(eventListEntry.getMaxParticipants())
+                                                    .organizerName(eventListEntry.getOrganizerName())
+                                                    .participantCount((int) eventListEntry.getParticipantCount())
+                                                    .eventCommentId(eventListEntry.getEventCommentId())
+                                                    .tags(collectTagResponses(eventTags))
+                                                    .build());
+        }
+
+        return eventListResponses;
+    }
+
+    private Map<Long, List<PaymentResponse>> findPayments(List<Long> userIds) {
+        var payments = new HashMap<Long, List<PaymentResponse>>();
+
+        for (Payment payment : paymentRepository.findAllByUserIdInOrderByStartDateDesc(userIds)) {
+            payments.computeIfAbsent(payment.getUserId(), userId -> new ArrayList<>())
+                    .add(payment.toPaymentResponse());
+        }
+
+        return payments;
+    }
+
+    private Map<Long, Set<TagResponse>> findTags(List<Long> userIds) {
+        var userTagIds = tagRepository.findUserTagIds(userIds);
+
+        if (userTagIds.isEmpty()) {
+            return Map.of();
+        }
+
+        var tagsById = findTagsById(userTagIds.stream()
+                                              .map(UserTagId::getTagId)
+                                              .collect(Collectors.toSet()));
+        var userTags = new HashMap<Long, Set<Tag>>();
+
+        for (var userTagId : userTagIds) {
+            var tag = tagsById.get(userTagId.getTagId());
+
+            if (tag != null) {
+                userTags.computeIfAbsent(userTagId.getUserId(), userId -> new HashSet<>())
+                        .add(tag);
+            }
+        }
+
+        var tags = new HashMap<Long, Set<TagResponse>>();
+
+        for (var entry : userTags.entrySet()) {
+            tags.put(entry.getKey(), collectTagResponses(entry.getValue()));
+        }
+
+        return tags;
+    }
+
+    private Map<Long, Tag> findTagsById(Set<Long> tagIds) {
+        if (tagIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return tagRepository.findAllWithTranslationsByIdIn(tagIds)
+                            .stream()
+                            .collect(Collectors.toMap(Tag::getId, Function.identity()));
+    }
+}
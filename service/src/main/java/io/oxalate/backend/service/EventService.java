@@ -8,6 +8,8 @@ import io.oxalate.backend.api.PaymentTypeEnum;
 import static io.oxalate.backend.api.PaymentTypeEnum.ONE_TIME;
 import static io.oxalate.backend.api.PortalConfigEnum.EMAIL;
 import static io.oxalate.backend.api.PortalConfigEnum.EmailConfigEnum.EMAIL_NOTIFICATIONS;
+import static io.oxalate.backend.api.PortalConfigEnum.GENERAL;
+import static io.oxalate.backend.api.PortalConfigEnum.GeneralConfigEnum.EVENT_WAITLIST_ENABLED;
 import io.oxalate.backend.api.UserTypeEnum;
 import io.oxalate.backend.api.request.EventRequest;
 import io.oxalate.backend.api.request.EventSubscribeRequest;
@@ -15,6 +17,9 @@ import io.oxalate.backend.api.response.EventDiveListResponse;
 import io.oxalate.backend.api.response.EventListResponse;
 import io.oxalate.backend.api.response.EventResponse;
 import io.oxalate.backend.api.response.ListUserResponse;
+import io.oxalate.backend.events.EventParticipantsChangedEvent;
+import io.oxalate.backend.events.EventsClosedEvent;
+import io.oxalate.backend.events.EventsReopenedEvent;
 import io.oxalate.backend.model.Event;
 import io.oxalate.backend.model.EventsParticipant;
 import io.oxalate.backend.model.User;
@@ -24,19 +29,24 @@ import io.oxalate.backend.repository.commenting.EventCommentRepository;
 import io.oxalate.backend.service.commenting.CommentService;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Slf4j
-@RequiredArgsConstructor
 @Service
 public class EventService {
+    private static final long SYSTEM_USER_ID = 1L;
+    private static final String PROMOTION_TITLE = "Moved from the waitlist";
+    private static final String PROMOTION_DESCRIPTION = "Event participation";
+
     private final EventRepository eventRepository;
     private final EventParticipantsRepository eventParticipantsRepository;
     private final UserService userService;
@@ -45,6 +55,36 @@ public class EventService {
     private final PortalConfigurationService portalConfigurationService;
     private final CommentService commentService;
     private final EventCommentRepository eventCommentRepository;
+    private final EventResponseAssembler eventResponseAssembler;
+    private final EventParticipantReconciler eventParticipantReconciler;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final MessageService messageService;
+    // A change of the participants locks the participant count row of the event until the commit, so the changes are committed before the response
+    // is assembled in a read-only transaction of its own
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public EventService(EventRepository eventRepository, EventParticipantsRepository eventParticipantsRepository, UserService userService,
+            PaymentService paymentService, EmailQueueService emailQueueService, PortalConfigurationService portalConfigurationService,
+            CommentService commentService, EventCommentRepository eventCommentRepository, EventResponseAssembler eventResponseAssembler,
+            EventParticipantReconciler eventParticipantReconciler, ApplicationEventPublisher applicationEventPublisher, MessageService messageService,
+            PlatformTransactionManager transactionManager) {
+        this.eventRepository = eventRepository;
+        this.eventParticipantsRepository = eventParticipantsRepository;
+        this.userService = userService;
+        this.paymentService = paymentService;
+        this.emailQueueService = emailQueueService;
+        this.portalConfigurationService = portalConfigurationService;
+        this.commentService = commentService;
+        this.eventCommentRepository = eventCommentRepository;
+        this.eventResponseAssembler = eventResponseAssembler;
+        this.eventParticipantReconciler = eventParticipantReconciler;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.messageService = messageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
 
     @Transactional(readOnly = true)
     public EventResponse findById(Long eventId) {
@@ -60,8 +100,17 @@ public class EventService {
         return optionalEventResponse.orElse(null);
     }
 
-    @Transactional
     public EventResponse updateEvent(EventRequest eventRequest) {
+        var updatedEvent = transactionTemplate.execute(status -> applyEventUpdate(eventRequest));
+
+        if (updatedEvent == null) {
+            return null;
+        }
+
+        return readOnlyTransactionTemplate.execute(status -> getRefreshedEventResponse(updatedEvent.getId()).orElse(null));
+    }
+
+    private Event applyEventUpdate(EventRequest eventRequest) {
         var event = eventRepository.findById(eventRequest.getId())
                                    .orElse(null);
 
@@ -74,71 +123,15 @@ public class EventService {
         // as it contains the create time and select event user type of the existing participants
         var currentParticipants = eventParticipantsRepository.findAllByEventId(eventRequest.getId());
 
-        // Go through the new list, and if it contains a participant that is in the current list, then we skip over it
-        for (Long participantId : eventRequest.getParticipants()) {
-            var found = false;
-            for (EventsParticipant currentParticipant : currentParticipants) {
-                if (currentParticipant.getUserId() == participantId) {
-                    found = true;
-                    break;
-                }
-            }
-
-            if (found) {
-                continue;
-            }
-
-            // Since the new participant is added by the organizer/administrator, we use the default user type of the added diver
-            var newDiver = userService.findUserEntityById(participantId);
-
-            var optionalPaymentTypeEnum = paymentService.getBestAvailablePaymentType(participantId);
-
-            if (optionalPaymentTypeEnum.isEmpty()) {
-                log.error("Failed to get payment type for user {}, will not add user to event when updating event", participantId);
-            } else {
-                var paymentTypeEnum = optionalPaymentTypeEnum.get();
-
-                if (paymentTypeEnum.equals(ONE_TIME)) {
-                    paymentService.decreaseOneTimePayment(participantId);
-
-                }
-
-                eventRepository.addParticipantToEvent(participantId, eventRequest.getId(), ParticipantTypeEnum.USER.name(),
-                        paymentTypeEnum.name(), Instant.now(), newDiver.getPrimaryUserType()
-                                                                       .name());
-            }
-        }
-
-        // Next we go through the current list, and if a participant is not in the new list, then we remove it
-        for (EventsParticipant currentParticipant : currentParticipants) {
-            var found = false;
-            for (Long participantId : eventRequest.getParticipants()) {
-                if (currentParticipant.getUserId() == participantId) {
-                    found = true;
-                    break;
-                }
-            }
-
-            if (found) {
-                continue;
-            }
-
-            eventRepository.removeParticipantFromEvent(currentParticipant.getUserId(), eventRequest.getId());
-
-            var optionalPaymentTypeEnum = paymentService.getBestAvailablePaymentType(currentParticipant.getUserId());
-
-            if (optionalPaymentTypeEnum.isEmpty()) {
-                log.error(
-                        "Failed to get payment type for user {}, will not update any payment information as the player should never have been able to subscribe to an event",
-                        currentParticipant.getUserId());
-            } else {
-                var paymentTypeEnum = optionalPaymentTypeEnum.get();
-
-                if (paymentTypeEnum.equals(ONE_TIME)) {
-                    paymentService.increaseOneTimePayment(currentParticipant.getUserId(), 1);
-                }
-            }
-        }
+        // Add the new participants and remove the ones no longer in the list, the organizer is handled separately below
+        var reconciliationResult = eventParticipantReconciler.reconcile(eventRequest.getId(), currentParticipants, eventRequest.getParticipants(),
+                eventRequest.getOrganizerId());
+        // The organizer rows left by the reconciliation are replaced by the single row of the organizer below, which counts in the participant change
+        var removedUserIds = new HashSet<>(reconciliationResult.removedUserIds());
+        var remainingOrganizerRows = currentParticipants.stream()
+                                                        .filter(participant -> participant.getParticipantType() == ParticipantTypeEnum.ORGANIZER
+                                                                && !removedUserIds.contains(participant.getUserId()))
+                                                        .count();
 
         // After that we remove the organizer from the list, as we will add it back later
         eventRepository.removeAllParticipantsFromEvent(eventRequest.getId(), ParticipantTypeEnum.ORGANIZER.name());
@@ -164,6 +157,22 @@ public class EventService {
         event.setStatus(eventRequest.getStatus());
         var updatedEvent = eventRepository.save(event);
         var newStatus = updatedEvent.getStatus();
+        // Places may have been freed by removed participants or a raised maximum, but the waitlist is only moved to an upcoming published event
+        var promoted = 0;
+
+        if (newStatus == EventStatusEnum.PUBLISHED && updatedEvent.getStartTime()
+                                                                  .isAfter(Instant.now())) {
+            promoted = promoteFromWaitlist(updatedEvent.getId(), updatedEvent.getTitle());
+        }
+
+        var addedCount = reconciliationResult.addedUserIds()
+                                             .size();
+        var removedCount = reconciliationResult.removedUserIds()
+                                               .size();
+        // The participant change is counted with the status before the update, a change to or from held counts all the participants with the event
+        publishParticipantsChanged(updatedEvent.getId(), oldStatus, updatedEvent.getStartTime(),
+                addedCount - removedCount - remainingOrganizerRows + 1L + promoted);
+        publishHeldStatusChanged(updatedEvent.getId(), oldStatus, newStatus);
 
         // DRAFTED -> PUBLISHED = Send notification for new event
         // PUBLISHED -> PUBLISHED = Send notification for updated event
@@ -194,48 +203,72 @@ public class EventService {
             log.debug("Event {} already has a comment topic with ID {}", eventRequest.getId(), commentId);
         }
 
-        return getPopulatedEventResponse(updatedEvent).orElse(null);
+        return updatedEvent;
     }
 
-    @Transactional
     public EventResponse addUserToEvent(User user, EventSubscribeRequest eventSubscribeRequest) {
         var eventId = eventSubscribeRequest.getDiveEventId();
-        var eventResponse = findById(eventId);
+        var subscribed = transactionTemplate.execute(status -> subscribeUser(user, eventSubscribeRequest));
 
-        if (eventResponse == null) {
-            log.warn("Can not add user to non-existing event: {}", eventId);
+        if (!Boolean.TRUE.equals(subscribed)) {
             return null;
         }
 
-        if (eventResponse.getParticipants()
-                         .size() >= eventResponse.getMaxParticipants()) {
-            log.warn("Event {} is full", eventResponse.getTitle());
-            return null;
+        return readOnlyTransactionTemplate.execute(status -> getRefreshedEventResponse(eventId).orElse(null));
+    }
+
+    /**
+     * Adds the user to the participants of the event, or to its waitlist if the event is full and the waitlist is enabled.
+     *
+     * @return True if the user was added to either list
+     */
+    private boolean subscribeUser(User user, EventSubscribeRequest eventSubscribeRequest) {
+        var eventId = eventSubscribeRequest.getDiveEventId();
+        var eventResponse = findById(eventId);
+
+        if (eventResponse == null) {
+            log.warn("Can not add user to non-existing event: {}", eventId);
+            return false;
         }
 
         if (isUserInList(user.getId(), eventResponse.getParticipants())) {
             log.warn("User {} already in event {}", user.getId(), eventId);
-            return null;
+            return false;
         }
 
         var optionalPaymentTypeEnum = paymentService.getBestAvailablePaymentType(user.getId());
 
         if (optionalPaymentTypeEnum.isEmpty()) {
             log.error("Failed to get payment type for user {}, will not add user to event", user.getId());
-            return null;
+            return false;
         }
 
         var paymentTypeEnum = optionalPaymentTypeEnum.get();
+        var eventUserType = eventSubscribeRequest.getUserType()
+                                                 .name();
+        // The capacity is checked by the insert itself, so that concurrent subscriptions can not overbook the event
+        var added = eventParticipantsRepository.addParticipantWithinCapacity(user.getId(), eventId, paymentTypeEnum.name(), Instant.now(), eventUserType);
+
+        if (added == 0) {
+            if (!portalConfigurationService.getBooleanConfiguration(GENERAL.group, EVENT_WAITLIST_ENABLED.key)) {
+                log.warn("Event {} is full", eventResponse.getTitle());
+                return false;
+            }
+
+            // The payment is resolved only once the user is promoted from the waitlist
+            eventParticipantsRepository.addToWaitlist(eventId, user.getId(), eventUserType, Instant.now());
+            log.info("Event {} is full, added user {} to the waitlist", eventId, user.getId());
+            return true;
+        }
 
-        eventRepository.addParticipantToEvent(user.getId(), eventId, ParticipantTypeEnum.USER.name(), paymentTypeEnum.name(), Instant.now(),
-                eventSubscribeRequest.getUserType()
-                                     .name());
+        eventParticipantsRepository.removeFromWaitlist(eventId, user.getId());
 
         if (paymentTypeEnum.equals(ONE_TIME)) {
             paymentService.decreaseOneTimePayment(user.getId());
         }
 
-        return getRefreshedEventResponse(eventId).orElse(null);
+        publishParticipantsChanged(eventId, eventResponse.getStatus(), eventResponse.getStartTime(), 1L);
+        return true;
     }
 
     private boolean isUserInList(long userId, List<ListUserResponse> listUserResponseList) {
@@ -253,20 +286,34 @@ public class EventService {
         eventRepository.updateEventUserDiveCount(eventId, userId, diveCount);
     }
 
-    @Transactional
     public EventResponse removeUserFromEvent(User user, long eventId) {
+        var unsubscribed = transactionTemplate.execute(status -> unsubscribeUser(user, eventId));
+
+        if (!Boolean.TRUE.equals(unsubscribed)) {
+            return null;
+        }
+
+        return readOnlyTransactionTemplate.execute(status -> getRefreshedEventResponse(eventId).orElse(null));
+    }
+
+    /**
+     * Removes the user from the participants or from the waitlist of the event, and promotes the waitlisted users to the freed place.
+     *
+     * @return True if the user was removed from either list
+     */
+    private boolean unsubscribeUser(User user, long eventId) {
         var eventResponse = findById(eventId);
 
         if (eventResponse == null) {
             log.warn("Can not remove user from non-existing event: {}", eventId);
-            return null;
+            return false;
         }
 
         // If the event has already started, then we don't allow the diver to remove themselves
         if (eventResponse.getStartTime()
                          .isBefore(Instant.now())) {
             log.warn("Can not remove user from event {} as it has already started", eventId);
-            return null;
+            return false;
         }
 
         // Get the list of participant user IDs
@@ -276,8 +323,13 @@ public class EventService {
         }
 
         if (!participantIds.contains(user.getId())) {
+            if (eventParticipantsRepository.removeFromWaitlist(eventId, user.getId()) > 0) {
+                log.info("Removed user {} from the waitlist of event {}", user.getId(), eventId);
+                return true;
+            }
+
             log.warn("User {} has not been subscribed to event {}", user.getId(), eventId);
-            return null;
+            return false;
         }
 
         eventRepository.removeParticipantFromEvent(user.getId(), eventId);
@@ -297,8 +349,10 @@ public class EventService {
         }
 
         log.info("Removed user {} from event {}", user.getId(), eventId);
+        var promoted = promoteFromWaitlist(eventId, eventResponse.getTitle());
+        publishParticipantsChanged(eventId, eventResponse.getStatus(), eventResponse.getStartTime(), promoted - 1L);
 
-        return getRefreshedEventResponse(eventId).orElse(null);
+        return true;
     }
 
     /**
@@ -388,6 +442,7 @@ public class EventService {
         }
 
         eventRepository.updateEventStatus(eventId, EventStatusEnum.CANCELLED);
+        publishHeldStatusChanged(eventId, event.getStatus(), EventStatusEnum.CANCELLED);
     }
 
     @Transactional
@@ -419,29 +474,13 @@ public class EventService {
                             .name());
 
         // Add participants
-        if (eventRequest.getParticipants() != null) {
-            for (Long participantId : eventRequest.getParticipants()) {
-
-                // Since the new participant is added by the organizer/administrator, we use the default user type of the added diver
-                var newDiver = userService.findUserEntityById(participantId);
-
-                var optionalPaymentTypeEnum = paymentService.getBestAvailablePaymentType(participantId);
-
-                if (optionalPaymentTypeEnum.isEmpty()) {
-                    log.error("Failed to get payment type for user {}, will not add user to event", participantId);
-                } else {
-                    var paymentTypeEnum = optionalPaymentTypeEnum.get();
-
-                    if (paymentTypeEnum.equals(ONE_TIME)) {
-                        paymentService.decreaseOneTimePayment(participantId);
-
-                    }
-
-                    eventRepository.addParticipantToEvent(participantId, newEvent.getId(), ParticipantTypeEnum.USER.name(),
-                            paymentTypeEnum.name(), Instant.now(), newDiver.getPrimaryUserType()
-                                                                           .name());
-                }
-            }
+        var reconciliationResult = eventParticipantReconciler.reconcile(newEvent.getId(), List.of(), eventRequest.getParticipants(), userId);
+        // An event created as held is counted with all its participants
+        if (newEvent.getStatus() == EventStatusEnum.HELD) {
+            publishHeldStatusChanged(newEvent.getId(), null, EventStatusEnum.HELD);
+        } else {
+            publishParticipantsChanged(newEvent, reconciliationResult.addedUserIds()
+                                                                     .size() + 1L);
         }
 
         // Now we can create the event topic in comments
@@ -469,24 +508,35 @@ public class EventService {
 
     @Transactional(readOnly = true)
     public List<EventListResponse> findEventsForUser(long userId) {
-        var events = findEventsForUserAsOrganizer(userId);
-        events.addAll(findEventsForUserAsParticipant(userId));
-
-        var eventSet = new HashSet<EventListResponse>();
-
-        for (Event event : events) {
-            var eventListResponse = getPopulatedEventListResponse(event);
+        return eventResponseAssembler.assembleList(eventRepository.findEventListForUser(userId));
+    }
 
-            if (eventListResponse.isPresent()) {
-                eventSet.add(eventListResponse.get());
-            } else {
-                log.error("Event {} can not be populated to a EventListResponse, the event may be in an incoherent state", event);
-            }
-        }
+    /**
+     * List mode of {@link #findAllEventsAfter(Instant, boolean)}, the events are fetched with their organizer name, participant count and comment topic in
+     * a single query.
+     *
+     * @param instant   Instant The instant after which the events should have started
+     * @param allEvents boolean Whether to return all events or only published ones
+     * @return List<EventListResponse>
+     */
+    @Transactional(readOnly = true)
+    public List<EventListResponse> findEventListAfter(Instant instant, boolean allEvents) {
+        var statuses = allEvents ? Arrays.stream(EventStatusEnum.values())
+                                         .map(EventStatusEnum::name)
+                                         .toList() : List.of(EventStatusEnum.PUBLISHED.name());
+        return eventResponseAssembler.assembleList(eventRepository.findEventListAfter(instant, statuses));
+    }
 
-        return eventSet.stream()
-                       .sorted(Comparator.comparing(EventListResponse::getStartTime))
-                       .toList();
+    /**
+     * List mode of {@link #findAllEventsBefore(Instant)}, the events are fetched with their organizer name, participant count and comment topic in a
+     * single query.
+     *
+     * @param until Instant The instant before which the events should have started
+     * @return List<EventListResponse>
+     */
+    @Transactional(readOnly = true)
+    public List<EventListResponse> findEventListBefore(Instant until) {
+        return eventResponseAssembler.assembleList(eventRepository.findEventListBefore(until));
     }
 
     /**
@@ -497,15 +547,10 @@ public class EventService {
      */
     @Transactional
     public void anonymize(long userId) {
-        var events = eventRepository.findFutureEventsByUserId(userId);
+        var removed = eventRepository.removeParticipantFromFutureEvents(userId);
 
-        if (events.isEmpty()) {
+        if (removed == 0) {
             log.info("No events to anonymize for user {}", userId);
-            return;
-        }
-
-        for (Event event : events) {
-            eventRepository.removeParticipantFromEvent(userId, event.getId());
         }
     }
 
@@ -543,12 +588,74 @@ public class EventService {
         return eventDiveListResponse;
     }
 
-    private List<Event> findEventsForUserAsOrganizer(Long userId) {
-        return eventRepository.findByOrganizer(userId);
+    /**
+     * Moves the waitlisted subscribers to the participants of the event in the order of subscription for as long as the event has free places. Users who
+     * no longer have a valid payment are dropped from the waitlist. The promoted users are notified in-app.
+     *
+     * @param eventId    ID of the event
+     * @param eventTitle Title of the event, used in the notification
+     * @return Number of the promoted users
+     */
+    private int promoteFromWaitlist(long eventId, String eventTitle) {
+        var promoted = 0;
+        var optionalEntry = eventParticipantsRepository.findFirstOnWaitlist(eventId);
+
+        while (optionalEntry.isPresent()) {
+            var entry = optionalEntry.get();
+            var optionalPaymentTypeEnum = paymentService.getBestAvailablePaymentType(entry.getUserId());
+
+            if (optionalPaymentTypeEnum.isEmpty()) {
+                log.warn("User {} no longer has a valid payment, removing from the waitlist of event {}", entry.getUserId(), eventId);
+            } else {
+                var paymentTypeEnum = optionalPaymentTypeEnum.get();
+
+                if (eventParticipantsRepository.addParticipantWithinCapacity(entry.getUserId(), eventId, paymentTypeEnum.name(), Instant.now(),
+                        entry.getEventUserType()) == 0) {
+                    return promoted;
+                }
+
+                if (paymentTypeEnum.equals(ONE_TIME)) {
+                    paymentService.decreaseOneTimePayment(entry.getUserId());
+                }
+
+                log.info("Promoted user {} from the waitlist of event {}", entry.getUserId(), eventId);
+                messageService.createSimpleNotification(entry.getUserId(), SYSTEM_USER_ID, PROMOTION_TITLE, PROMOTION_DESCRIPTION,
+                        "A place became free and you have been moved from the waitlist to the participants of the event: " + eventTitle);
+                promoted++;
+            }
+
+            eventParticipantsRepository.removeFromWaitlist(eventId, entry.getUserId());
+            optionalEntry = eventParticipantsRepository.findFirstOnWaitlist(eventId);
+        }
+
+        return promoted;
+    }
+
+    private void publishParticipantsChanged(Event event, long participantDelta) {
+        publishParticipantsChanged(event.getId(), event.getStatus(), event.getStartTime(), participantDelta);
     }
 
-    private List<Event> findEventsForUserAsParticipant(Long userId) {
-        return eventRepository.findByUserId(userId);
+    private void publishParticipantsChanged(long eventId, EventStatusEnum status, Instant startTime, long participantDelta) {
+        if (participantDelta != 0L) {
+            applicationEventPublisher.publishEvent(EventParticipantsChangedEvent.builder()
+                                                                                .eventId(eventId)
+                                                                                .status(status)
+                                                                                .startTime(startTime)
+                                                                                .participantDelta(participantDelta)
+                                                                                .build());
+        }
+    }
+
+    private void publishHeldStatusChanged(long eventId, EventStatusEnum oldStatus, EventStatusEnum newStatus) {
+        if (oldStatus != EventStatusEnum.HELD && newStatus == EventStatusEnum.HELD) {
+            applicationEventPublisher.publishEvent(EventsClosedEvent.builder()
+                                                                    .eventIds(List.of(eventId))
+                                                                    .build());
+        } else if (oldStatus == EventStatusEnum.HELD && newStatus != EventStatusEnum.HELD) {
+            applicationEventPublisher.publishEvent(EventsReopenedEvent.builder()
+                                                                      .eventIds(List.of(eventId))
+                                                                      .build());
+        }
     }
 
     private Optional<EventResponse> getRefreshedEventResponse(long eventId) {
@@ -571,64 +678,7 @@ public class EventService {
     }
 
     private Optional<EventResponse> getPopulatedEventResponse(Event event) {
-        var organizer = userService.findUserEntityById(event.getOrganizerId());
-
-        if (organizer == null) {
-            log.error("Event has an non-existing organizer: {}", event.getOrganizerId());
-            return Optional.empty();
-        }
-
-        var participants = userService.findEventParticipants(event.getId());
-        var participantList = new ArrayList<ListUserResponse>();
-
-        for (User participant : participants) {
-            var eventUserResponse = participant.toEventUserResponse();
-            var eventParticipant = eventParticipantsRepository.findByEventIdAndUserId(event.getId(), participant.getId());
-            eventUserResponse.setCreatedAt(eventParticipant.getCreatedAt());
-            eventUserResponse.setEventDiveCount(countDivesByUserAndEvent(participant.getId(), event.getId()));
-            // We take this value from the event participant record, as it may differ from the primary user type of the diver
-            eventUserResponse.setUserType(eventParticipant.getEventUserType());
-            participantList.add(eventUserResponse);
-        }
-
-        var eventResponse = event.toEventResponse();
-        eventResponse.setOrganizer(organizer.toUserResponse());
-        eventResponse.setParticipants(participantList);
-
-        var eventCommentId = commentService.getEventCommentId(event.getId());
-
-        if (eventCommentId > 0) {
-            eventResponse.setEventCommentId(eventCommentId);
-        }
-
-        return Optional.of(eventResponse);
-    }
-
-    private long countDivesByUserAndEvent(Long userId, long eventId) {
-        return eventParticipantsRepository.countDivesByUserIdAndEventId(userId, eventId);
-    }
-
-    private Optional<EventListResponse> getPopulatedEventListResponse(Event event) {
-        var organizer = userService.findUserEntityById(event.getOrganizerId());
-
-        if (organizer == null) {
-            log.error("Event has an non-existing organizer: {}", event.getOrganizerId());
-            return Optional.empty();
-        }
-
-        var participants = userService.findEventParticipants(event.getId());
-
-        var eventListResponse = event.toEventListResponse();
-        eventListResponse.setOrganizerName(organizer.getFirstName() + " " + organizer.getLastName());
-        eventListResponse.setParticipantCount(participants.size());
-
-        var eventCommentId = commentService.getEventCommentId(event.getId());
-
-        if (eventCommentId > 0) {
-            eventListResponse.setEventCommentId(eventCommentId);
-        }
-
-        return Optional.of(eventListResponse);
+        return eventResponseAssembler.assemble(event);
     }
 
     private boolean verifyEventRequest(EventRequest eventRequest) {
@@ -0,0 +1,536 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.api.BulkImportStatusEnum;
+import io.oxalate.backend.api.PageStatusEnum;
+import static io.oxalate.backend.api.PortalConfigEnum.GENERAL;
+import static io.oxalate.backend.api.PortalConfigEnum.GeneralConfigEnum.ENABLED_LANGUAGES;
+import io.oxalate.backend.api.response.PageBulkImportResponse;
+import io.oxalate.backend.api.response.PageGroupVersionResponse;
+import io.oxalate.backend.api.response.PageResponse;
+import io.oxalate.backend.model.Page;
+import io.oxalate.backend.model.PageGroup;
+import io.oxalate.backend.model.PageGroupVersion;
+import io.oxalate.backend.model.PageRoleAccess;
+import io.oxalate.backend.model.PageVersion;
+import io.oxalate.backend.repository.PageGroupRepository;
+import io.oxalate.backend.repository.PageGroupVersionRepository;
+import io.oxalate.backend.repository.PageRepository;
+import io.oxalate.backend.repository.PageRoleAccessRepository;
+import io.oxalate.backend.repository.PageVersionRepository;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Moves page groups with their pages, language versions and role accesses in and out of the portal in bulk. The data is a JSON array of page groups
+ * in the same form as {@link io.oxalate.backend.api.response.PageGroupResponse}, with the pages of each group listed in its pages array. Both
+ * directions process the pages in batches while streaming the JSON, so the memory use does not depend on the number of pages. An import is copied to a
+ * temporary file and run in the background on the page import executor, its progress and result are followed with {@link #getImportProgress()}.
+ */
+@Slf4j
+@Service
+public class PageBulkTransferService {
+    // Page groups with fixed IDs which exist in every portal, the pages of these groups are imported into the existing group
+    private static final Set<Long> SYSTEM_PAGE_GROUP_IDS = Set.of(1L, 3L);
+    // Number of the invalid entries listed in the message of a rejected import
+    private static final int MAX_REPORTED_ENTRIES = 20;
+
+    private static final String NEXT_PAGE_IDS = "SELECT nextval(pg_get_serial_sequence('pages', 'id')) FROM generate_series(1, ?)";
+    private static final String INSERT_PAGE = """
+            INSERT INTO pages (id, status, page_group_id, creator, created_at, modified_at)
+            OVERRIDING SYSTEM VALUE VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_PAGE_VERSION = "INSERT INTO page_versions (page_id, language, title, ingress, body) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_PAGE_ROLE_ACCESS = "INSERT INTO page_role_access (page_id, role, read_permission, write_permission) VALUES (?, ?, ?, ?)";
+
+    private final PageGroupRepository pageGroupRepository;
+    private final PageGroupVersionRepository pageGroupVersionRepository;
+    private final PageRepository pageRepository;
+    private final PageVersionRepository pageVersionRepository;
+    private final PageRoleAccessRepository pageRoleAccessRepository;
+    private final PageNavigationCacheService pageNavigationCacheService;
+    private final PagePrerenderService pagePrerenderService;
+    private final PortalConfigurationService portalConfigurationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonMapper jsonMapper;
+    private final TaskExecutor pageImportExecutor;
+    private final int batchSize;
+
+    private final AtomicBoolean importRunning = new AtomicBoolean();
+    private volatile PageBulkImportResponse importProgress;
+
+    public PageBulkTransferService(PageGroupRepository pageGroupRepository, PageGroupVersionRepository pageGroupVersionRepository,
+            PageRepository pageRepository, PageVersionRepository pageVersionRepository, PageRoleAccessRepository pageRoleAccessRepository,
+            PageNavigationCacheService pageNavigationCacheService, PagePrerenderService pagePrerenderService,
+            PortalConfigurationService portalConfigurationService, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, JsonMapper jsonMapper,
+            @Qualifier("PageImportExecutor") TaskExecutor pageImportExecutor, @Value("${oxalate.page.bulk.batch-size:500}") int batchSize) {
+        this.pageGroupRepository = pageGroupRepository;
+        this.pageGroupVersionRepository = pageGroupVersionRepository;
+        this.pageRepository = pageRepository;
+        this.pageVersionRepository = pageVersionRepository;
+        this.pageRoleAccessRepository = pageRoleAccessRepository;
+        this.pageNavigationCacheService = pageNavigationCacheService;
+        this.pagePrerenderService = pagePrerenderService;
+        this.portalConfigurationService = portalConfigurationService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jsonMapper = jsonMapper;
+        this.pageImportExecutor = pageImportExecutor;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Writes all the page groups with their pages to the output stream. The pages are read and written one batch at a time.
+     *
+     * @param outputStream Stream to write the JSON array to
+     */
+    public void exportPages(OutputStream outputStream) {
+        var pageCount = 0L;
+
+        try (var generator = jsonMapper.createGenerator(outputStream)) {
+            generator.writeStartArray();
+
+            for (var pageGroup : pageGroupRepository.findAll(Sort.by("id"))) {
+                var pageGroupVersions = pageGroupVersionRepository.findAllByPageGroupIdOrderByLanguageAsc(pageGroup.getId())
+                                                                  .stream()
+                                                                  .map(PageGroupVersion::toResponse)
+                                                                  .toList();
+                generator.writeStartObject();
+                generator.writeNumberProperty("id", pageGroup.getId());
+                generator.writePOJOProperty("status", pageGroup.getStatus());
+                generator.writePOJOProperty("pageGroupVersions", pageGroupVersions);
+                generator.writeArrayPropertyStart("pages");
+
+                var lastPageId = 0L;
+                List<Page> pages;
+
+                do {
+                    pages = pageRepository.findAllByPageGroupIdAndIdGreaterThanOrderByIdAsc(pageGroup.getId(), lastPageId, Limit.of(batchSize));
+
+                    for (var pageResponse : toPageResponses(pages)) {
+                        generator.writePOJO(pageResponse);
+                    }
+
+                    if (!pages.isEmpty()) {
+                        lastPageId = pages.getLast()
+                                          .getId();
+                        pageCount += pages.size();
+                    }
+
+                    generator.flush();
+                } while (pages.size() == batchSize);
+
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+
+            generator.writeEndArray();
+        }
+
+        log.info("Exported {} pages", pageCount);
+    }
+
+    /**
+     * Copies the page groups and pages of the input stream to a temporary file and starts importing them in the background as new page groups and pages.
+     * The pages are inserted in batches, each batch in its own transaction, so that the progress can be followed with {@link #getImportProgress()} while
+     * the import runs. If the import fails, the batches inserted before the failure are kept. The languages of the page group and page versions are
+     * checked against the enabled languages before anything is inserted, and an import with any other language is rejected as a whole. Only one import
+     * can run at a time.
+     *
+     * @param inputStream Stream containing the JSON array of page groups
+     * @param userId      ID of the importing user, who becomes the creator of the imported pages
+     * @return Progress of the started import, with the status failed if it could not be started, or null if another import is already running
+     */
+    public PageBulkImportResponse startImport(InputStream inputStream, long userId) {
+        if (!importRunning.compareAndSet(false, true)) {
+            return null;
+        }
+
+        var importState = new ImportState(userId);
+        Path importFile = null;
+
+        try {
+            importFile = Files.createTempFile("page-import-", ".json");
+            Files.copy(inputStream, importFile, StandardCopyOption.REPLACE_EXISTING);
+            importProgress = importState.toResponse(BulkImportStatusEnum.RUNNING, null);
+            var startedImportFile = importFile;
+            pageImportExecutor.execute(() -> importPages(startedImportFile, importState));
+        } catch (IOException | TaskRejectedException e) {
+            log.error("Failed to start the page import", e);
+            deleteImportFile(importFile);
+            importProgress = importState.toResponse(BulkImportStatusEnum.FAILED, e.getMessage());
+            importRunning.set(false);
+        }
+
+        return importProgress;
+    }
+
+    /**
+     * @return Progress of the running import, or the result of the latest import, or null if nothing has been imported since the startup
+     */
+    public PageBulkImportResponse getImportProgress() {
+        return importProgress;
+    }
+
+    private void importPages(Path importFile, ImportState importState) {
+        try {
+            // A language which is not enabled would fail its batch in the middle of the import, after the earlier batches have been committed
+            var invalidEntries = findInvalidLanguages(importFile);
+
+            if (invalidEntries.isEmpty()) {
+                try (var inputStream = Files.newInputStream(importFile)) {
+                    importPages(inputStream, importState);
+                }
+            } else {
+                log.warn("Rejected the page import with {} versions in languages which are not enabled", invalidEntries.size());
+                importProgress = importState.toResponse(BulkImportStatusEnum.FAILED, invalidLanguagesMessage(invalidEntries));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to read the page import", e);
+            importProgress = importState.toResponse(BulkImportStatusEnum.FAILED, e.getMessage());
+        } finally {
+            deleteImportFile(importFile);
+            importRunning.set(false);
+        }
+    }
+
+    /**
+     * Reads through the import and lists the page group and page versions whose language is not enabled.
+     */
+    private Set<String> findInvalidLanguages(Path importFile) throws IOException {
+        var enabledLanguages = portalConfigurationService.getArrayConfiguration(GENERAL.group, ENABLED_LANGUAGES.key);
+        var invalidEntries = new LinkedHashSet<String>();
+
+        try (var inputStream = Files.newInputStream(importFile); var parser = createParser(inputStream)) {
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Long sourcePageGroupId = null;
+
+                while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                    var propertyName = parser.currentName();
+                    parser.nextToken();
+
+                    switch (propertyName) {
+                        case "id" -> sourcePageGroupId = parser.getLongValue();
+                        case "pageGroupVersions" -> {
+                            for (var pageGroupVersion : parser.readValueAs(new TypeReference<List<PageGroupVersionResponse>>() {
+                            })) {
+                                if (enabledLanguages == null || !enabledLanguages.contains(pageGroupVersion.getLanguage())) {
+                                    invalidEntries.add("page group " + sourcePageGroupId + " language " + pageGroupVersion.getLanguage());
+                                }
+                            }
+                        }
+                        case "pages" -> {
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                var page = parser.readValueAs(PageResponse.class);
+
+                                if (page.getPageVersions() == null) {
+                                    continue;
+                                }
+
+                                for (var pageVersion : page.getPageVersions()) {
+                                    if (enabledLanguages == null || !enabledLanguages.contains(pageVersion.getLanguage())) {
+                                        invalidEntries.add("page " + page.getId() + " language " + pageVersion.getLanguage());
+                                    }
+                                }
+                            }
+                        }
+                        default -> parser.skipChildren();
+                    }
+                }
+            }
+        }
+
+        return invalidEntries;
+    }
+
+    private String invalidLanguagesMessage(Set<String> invalidEntries) {
+        var message = new StringBuilder("Languages which are not enabled: ");
+        message.append(String.join(", ", invalidEntries.stream()
+                                                       .limit(MAX_REPORTED_ENTRIES)
+                                                       .toList()));
+
+        if (invalidEntries.size() > MAX_REPORTED_ENTRIES) {
+            message.append(" and ")
+                   .append(invalidEntries.size() - MAX_REPORTED_ENTRIES)
+                   .append(" more");
+        }
+
+        return message.toString();
+    }
+
+    /**
+     * Creates a parser positioned on the array of page groups.
+     */
+    private JsonParser createParser(InputStream inputStream) {
+        // The IDs and creators of the exported pages are not used, so they may be left out of the imported pages
+        var parser = jsonMapper.reader()
+                               .without(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+                               .createParser(inputStream);
+
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IllegalArgumentException("Expected a JSON array of page groups");
+        }
+
+        return parser;
+    }
+
+    private void importPages(InputStream inputStream, ImportState importState) {
+        try (var parser = createParser(inputStream)) {
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                importPageGroup(parser, importState);
+            }
+
+            flushPages(importState);
+            importProgress = importState.toResponse(BulkImportStatusEnum.COMPLETED, null);
+            log.info("Imported {} page groups and {} pages", importState.pageGroups, importState.pages);
+        } catch (RuntimeException e) {
+            log.error("Page import failed after {} pages", importState.pages, e);
+            importProgress = importState.toResponse(BulkImportStatusEnum.FAILED, e.getMessage());
+        } finally {
+            if (importState.pageGroups > 0 || importState.pages > 0) {
+                pageNavigationCacheService.invalidate();
+                pagePrerenderService.reconcile();
+            }
+        }
+    }
+
+    private void deleteImportFile(Path importFile) {
+        if (importFile == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(importFile);
+        } catch (IOException e) {
+            log.warn("Failed to delete the page import file {}", importFile, e);
+        }
+    }
+
+    private void importPageGroup(JsonParser parser, ImportState importState) {
+        Long sourcePageGroupId = null;
+        var status = PageStatusEnum.PUBLISHED;
+        List<PageGroupVersionResponse> pageGroupVersions = List.of();
+        importState.pageGroupId = null;
+
+        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+            var propertyName = parser.currentName();
+            parser.nextToken();
+
+            switch (propertyName) {
+                case "id" -> sourcePageGroupId = parser.getLongValue();
+                case "status" -> status = PageStatusEnum.valueOf(parser.getString());
+                case "pageGroupVersions" -> pageGroupVersions = parser.readValueAs(new TypeReference<List<PageGroupVersionResponse>>() {
+                });
+                case "pages" -> {
+                    // The pages need the ID of the group, so the group is created with the properties preceding the pages
+                    resolvePageGroup(importState, sourcePageGroupId, status, pageGroupVersions);
+
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        importState.pendingPages.add(new PendingPage(importState.pageGroupId, parser.readValueAs(PageResponse.class)));
+
+                        if (importState.pendingPages.size() >= batchSize) {
+                            flushPages(importState);
+                        }
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        resolvePageGroup(importState, sourcePageGroupId, status, pageGroupVersions);
+    }
+
+    private void resolvePageGroup(ImportState importState, Long sourcePageGroupId, PageStatusEnum status,
+            List<PageGroupVersionResponse> pageGroupVersions) {
+        if (importState.pageGroupId != null) {
+            return;
+        }
+
+        if (sourcePageGroupId != null && SYSTEM_PAGE_GROUP_IDS.contains(sourcePageGroupId) && pageGroupRepository.existsById(sourcePageGroupId)) {
+            importState.pageGroupId = sourcePageGroupId;
+            return;
+        }
+
+        importState.pageGroupId = transactionTemplate.execute(transactionStatus -> {
+            var pageGroup = pageGroupRepository.save(PageGroup.builder()
+                                                              .status(status)
+                                                              .build());
+
+            for (var pageGroupVersion : pageGroupVersions) {
+                pageGroupVersionRepository.save(PageGroupVersion.builder()
+                                                                .pageGroupId(pageGroup.getId())
+                                                                .language(pageGroupVersion.getLanguage())
+                                                                .title(pageGroupVersion.getTitle())
+                                                                .build());
+            }
+
+            return pageGroup.getId();
+        });
+
+        importState.pageGroups++;
+        importProgress = importState.toResponse(BulkImportStatusEnum.RUNNING, null);
+    }
+
+    private void flushPages(ImportState importState) {
+        if (importState.pendingPages.isEmpty()) {
+            return;
+        }
+
+        var pendingPages = importState.pendingPages;
+        var pageRows = new ArrayList<Object[]>(pendingPages.size());
+        var pageVersionRows = new ArrayList<Object[]>();
+        var pageRoleAccessRows = new ArrayList<Object[]>();
+
+        transactionTemplate.executeWithoutResult(transactionStatus -> {
+            var pageIds = jdbcTemplate.queryForList(NEXT_PAGE_IDS, Long.class, pendingPages.size());
+
+            for (var i = 0; i < pendingPages.size(); i++) {
+                var pageId = pageIds.get(i);
+                var pendingPage = pendingPages.get(i);
+                var page = pendingPage.page();
+                var createdAt = page.getCreatedAt() != null ? page.getCreatedAt() : Instant.now();
+
+                pageRows.add(new Object[] {
+                        pageId,
+                        (page.getStatus() != null ? page.getStatus() : PageStatusEnum.DRAFTED).name(),
+                        pendingPage.pageGroupId(),
+                        importState.userId,
+                        toUtc(createdAt),
+                        toUtc(page.getModifiedAt())
+                });
+
+                if (page.getPageVersions() != null) {
+                    for (var pageVersion : page.getPageVersions()) {
+                        pageVersionRows.add(new Object[] {
+                                pageId,
+                                pageVersion.getLanguage(),
+                                nullToEmpty(pageVersion.getTitle()),
+                                nullToEmpty(pageVersion.getIngress()),
+                                nullToEmpty(pageVersion.getBody())
+                        });
+                    }
+                }
+
+                if (page.getRolePermissions() != null) {
+                    for (var rolePermission : page.getRolePermissions()) {
+                        pageRoleAccessRows.add(new Object[] {
+                                pageId,
+                                rolePermission.getRole()
+                                              .name(),
+                                rolePermission.isReadPermission(),
+                                rolePermission.isWritePermission()
+                        });
+                    }
+                }
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_PAGE, pageRows);
+            jdbcTemplate.batchUpdate(INSERT_PAGE_VERSION, pageVersionRows);
+            jdbcTemplate.batchUpdate(INSERT_PAGE_ROLE_ACCESS, pageRoleAccessRows);
+        });
+
+        importState.pages += pageRows.size();
+        importState.pageVersions += pageVersionRows.size();
+        importState.rolePermissions += pageRoleAccessRows.size();
+        pendingPages.clear();
+        importProgress = importState.toResponse(BulkImportStatusEnum.RUNNING, null);
+        log.info("Imported {} pages so far", importState.pages);
+    }
+
+    private List<PageResponse> toPageResponses(List<Page> pages) {
+        if (pages.isEmpty()) {
+            return List.of();
+        }
+
+        var pageIds = pages.stream()
+                           .map(Page::getId)
+                           .toList();
+        var pageVersions = pageVersionRepository.findAllByPageIdInOrderByLanguage(pageIds)
+                                                .stream()
+                                                .collect(Collectors.groupingBy(PageVersion::getPageId));
+        var pageRoleAccesses = pageRoleAccessRepository.findAllByPageIdIn(pageIds)
+                                                       .stream()
+                                                       .collect(Collectors.groupingBy(PageRoleAccess::getPageId, Collectors.toCollection(HashSet::new)));
+        var pageResponses = new ArrayList<PageResponse>(pages.size());
+
+        for (var page : pages) {
+            page.setPageVersions(pageVersions.getOrDefault(page.getId(), List.of()));
+            page.setRolePermissions(pageRoleAccesses.getOrDefault(page.getId(), new HashSet<>()));
+            pageResponses.add(page.toResponse());
+        }
+
+        return pageResponses;
+    }
+
+    private LocalDateTime toUtc(Instant instant) {
+        // The timestamps are stored without a time zone in UTC, as Hibernate does with the configured JDBC time zone
+        return instant != null ? LocalDateTime.ofInstant(instant, ZoneOffset.UTC) : null;
+    }
+
+    private String nullToEmpty(String text) {
+        return text != null ? text : "";
+    }
+
+    private record PendingPage(long pageGroupId, PageResponse page) {
+    }
+
+    private static class ImportState {
+        private final long userId;
+        private final Instant startedAt = Instant.now();
+        private final List<PendingPage> pendingPages = new ArrayList<>();
+        private Long pageGroupId;
+        private long pageGroups;
+        private long pages;
+        private long pageVersions;
+        private long rolePermissions;
+
+        private ImportState(long userId) {
+            this.userId = userId;
+        }
+
+        private PageBulkImportResponse toResponse(BulkImportStatusEnum status, String message) {
+            return PageBulkImportResponse.builder()
+                                         .status(status)
+                                         .pageGroups(pageGroups)
+                                         .pages(pages)
+                                         .pageVersions(pageVersions)
+                                         .rolePermissions(rolePermissions)
+                                         .startedAt(startedAt)
+                                         .finishedAt(status == BulkImportStatusEnum.RUNNING ? null : Instant.now())
+                                         .message(message)
+                                         .build();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package io.oxalate.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.oxalate.backend.api.RoleEnum;
+import io.oxalate.backend.api.response.PageGroupResponse;
+import io.oxalate.backend.tools.AuthTools;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the navigation tree, ie. the published page groups and the pages visible in them, in memory per language and role combination. The tree is
+ * built by the caller on a miss and dropped as a whole whenever any page or page group changes.
+ */
+@Slf4j
+@Service
+public class PageNavigationCacheService {
+    private static final String METRIC_REQUESTS = "oxalate.page.navigation.cache.requests";
+    private static final String METRIC_SIZE = "oxalate.page.navigation.cache.size";
+
+    private final Map<String, List<PageGroupResponse>> navigationCache = new ConcurrentHashMap<>();
+    // Incremented on every invalidation so that a tree built from data read before the invalidation is not stored afterwards
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public PageNavigationCacheService(MeterRegistry meterRegistry) {
+        this.hitCounter = Counter.builder(METRIC_REQUESTS)
+                                 .description("Page navigation cache lookups")
+                                 .tag("result", "hit")
+                                 .register(meterRegistry);
+        this.missCounter = Counter.builder(METRIC_REQUESTS)
+                                  .description("Page navigation cache lookups")
+                                  .tag("result", "miss")
+                                  .register(meterRegistry);
+        Gauge.builder(METRIC_SIZE, navigationCache, Map::size)
+             .description("Number of cached navigation trees")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached navigation tree for the language and roles, building and storing it with the given loader on a miss.
+     *
+     * @param language Language of the navigation, null for all languages
+     * @param roles    Roles of the user
+     * @param loader   Builds the navigation tree from the database
+     * @return Unmodifiable list of page groups visible with the roles
+     */
+    public List<PageGroupResponse> getNavigation(String language, Set<RoleEnum> roles, Supplier<List<PageGroupResponse>> loader) {
+        var key = cacheKey(language, roles);
+        var navigation = navigationCache.get(key);
+
+        if (navigation != null) {
+            hitCounter.increment();
+            return navigation;
+        }
+
+        missCounter.increment();
+        var startGeneration = generation.get();
+        navigation = List.copyOf(loader.get());
+
+        synchronized (generation) {
+            if (generation.get() == startGeneration) {
+                navigationCache.put(key, navigation);
+                log.debug("Cached navigation for key {} with {} page groups", key, navigation.size());
+            }
+        }
+
+        return navigation;
+    }
+
+    /**
+     * Drops all cached navigation trees. When called within a transaction, the trees are dropped again after the commit so that any tree built from
+     * the data preceding the commit is not left in the cache.
+     */
+    public void invalidate() {
+        clear();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    clear();
+                }
+            });
+        }
+    }
+
+    private void clear() {
+        synchronized (generation) {
+            generation.incrementAndGet();
+            navigationCache.clear();
+        }
+
+        log.debug("Page navigation cache cleared");
+    }
+
+    private String cacheKey(String language, Set<RoleEnum> roles) {
+        return language + "|" + AuthTools.roleFingerprint(roles);
+    }
+}
@@ -0,0 +1,350 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.api.PageStatusEnum;
+import static io.oxalate.backend.api.PortalConfigEnum.GENERAL;
+import static io.oxalate.backend.api.PortalConfigEnum.GeneralConfigEnum.ENABLED_LANGUAGES;
+import io.oxalate.backend.api.RoleEnum;
+import static io.oxalate.backend.api.UploadDirectoryConstants.PRERENDERED_PAGES;
+import io.oxalate.backend.api.response.PageResponse;
+import io.oxalate.backend.events.EnabledLanguagesChangedEvent;
+import io.oxalate.backend.events.PageGroupModifiedEvent;
+import io.oxalate.backend.events.PageModifiedEvent;
+import io.oxalate.backend.model.Page;
+import io.oxalate.backend.model.PageGroup;
+import io.oxalate.backend.model.PageRoleAccess;
+import io.oxalate.backend.model.PrerenderedPage;
+import io.oxalate.backend.repository.PageGroupRepository;
+import io.oxalate.backend.repository.PageRepository;
+import io.oxalate.backend.repository.PageRoleAccessRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Keeps a pre-rendered copy of the pages visible to anonymous users on disk, one JSON file per page and enabled language. The files contain exactly
+ * the response an anonymous user would get from the database, so that the anonymous page requests can be answered by streaming the file without any
+ * database access. The files of a page are removed already in the transaction modifying the page or its page group, so that a page which is no longer
+ * visible to anonymous users is never served from the disk, and rendered again after the modification has been committed. At startup, and when the
+ * page groups or the enabled languages change, any file missing or older than its page is rendered again.
+ */
+@Slf4j
+@Service
+public class PagePrerenderService {
+    private static final Set<RoleEnum> ANONYMOUS_ROLES = Set.of(RoleEnum.ROLE_ANONYMOUS);
+    private static final String FILE_SUFFIX = ".json";
+
+    private final PageService pageService;
+    private final PageRepository pageRepository;
+    private final PageGroupRepository pageGroupRepository;
+    private final PageRoleAccessRepository pageRoleAccessRepository;
+    private final PortalConfigurationService portalConfigurationService;
+    private final JsonMapper jsonMapper;
+    private final boolean enabled;
+    private final Path prerenderDirectory;
+
+    public PagePrerenderService(PageService pageService, PageRepository pageRepository, PageGroupRepository pageGroupRepository,
+            PageRoleAccessRepository pageRoleAccessRepository, PortalConfigurationService portalConfigurationService, JsonMapper jsonMapper,
+            @Value("${oxalate.page.prerender.enabled:false}") boolean enabled, @Value("${oxalate.upload.directory}") String uploadMainDirectory) {
+        this.pageService = pageService;
+        this.pageRepository = pageRepository;
+        this.pageGroupRepository = pageGroupRepository;
+        this.pageRoleAccessRepository = pageRoleAccessRepository;
+        this.portalConfigurationService = portalConfigurationService;
+        this.jsonMapper = jsonMapper;
+        this.enabled = enabled;
+        this.prerenderDirectory = Paths.get(uploadMainDirectory, PRERENDERED_PAGES);
+    }
+
+    /**
+     * Returns the pre-rendered file of the page in the given language. Only the file system and the in-memory portal configuration are consulted.
+     *
+     * @param pageId   ID of the page
+     * @param language Language of the page version
+     * @return Pre-rendered page with its entity tag, or null if there is no pre-rendered file for the page and language
+     */
+    public PrerenderedPage getPrerenderedPage(long pageId, String language) {
+        // The language check also keeps the request parameter from pointing outside the page directory
+        if (!enabled || language == null || !getEnabledLanguages().contains(language)) {
+            return null;
+        }
+
+        var path = pageFile(pageId, language);
+
+        try {
+            var attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            var eTag = "\"" + pageId + "-" + language + "-" + attributes.lastModifiedTime()
+                                                                        .toMillis() + "-" + Long.toHexString(attributes.size()) + "\"";
+            return PrerenderedPage.builder()
+                                  .path(path)
+                                  .eTag(eTag)
+                                  .build();
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read the attributes of pre-rendered page {}", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Removes the files of the modified page before the modification is committed. The page is rendered again once the modification is visible to
+     * other transactions, until then the anonymous requests are answered from the database.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void evictModifiedPage(PageModifiedEvent event) {
+        if (enabled) {
+            deletePage(event.getPageId());
+        }
+    }
+
+    @Async("PagePrerenderExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handlePageModified(PageModifiedEvent event) {
+        if (enabled) {
+            prerender(event.getPageId());
+        }
+    }
+
+    /**
+     * Removes the files of all the pages in the modified page group before the modification is committed.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void evictModifiedPageGroup(PageGroupModifiedEvent event) {
+        if (enabled) {
+            for (var page : pageRepository.findAllByPageGroupIdOrderByIdAsc(event.getPageGroupId())) {
+                deletePage(page.getId());
+            }
+        }
+    }
+
+    @Async("PagePrerenderExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handlePageGroupModified(PageGroupModifiedEvent event) {
+        reconcile();
+    }
+
+    @Async("PagePrerenderExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleEnabledLanguagesChanged(EnabledLanguagesChangedEvent event) {
+        reconcile();
+    }
+
+    /**
+     * Renders the files of all the pages visible to anonymous users which are missing or older than the page, and removes the files of the pages
+     * which are no longer visible to anonymous users as well as the files of the languages which are no longer enabled. A page is visible to
+     * anonymous users only if both the page and its page group are published.
+     */
+    @Async("PagePrerenderExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+
+        var publishedPageGroupIds = pageGroupRepository.findAll()
+                                                       .stream()
+                                                       .filter(pageGroup -> pageGroup.getStatus() == PageStatusEnum.PUBLISHED)
+                                                       .map(PageGroup::getId)
+                                                       .collect(Collectors.toSet());
+        var pages = pageRepository.findAllByStatusOrderByIdAsc(PageStatusEnum.PUBLISHED)
+                                  .stream()
+                                  .filter(page -> publishedPageGroupIds.contains(page.getPageGroupId()))
+                                  .toList();
+        var anonymousPageIds = pageRoleAccessRepository.findAllByPageIdIn(pages.stream()
+                                                                               .map(Page::getId)
+                                                                               .toList())
+                                                       .stream()
+                                                       .filter(pageRoleAccess -> pageRoleAccess.getRole() == RoleEnum.ROLE_ANONYMOUS)
+                                                       .map(PageRoleAccess::getPageId)
+                                                       .collect(Collectors.toSet());
+        var languages = getEnabledLanguages();
+        var rendered = 0;
+
+        for (var page : pages) {
+            if (anonymousPageIds.contains(page.getId()) && isStale(page, languages)) {
+                render(page.getId(), languages);
+                rendered++;
+            }
+        }
+
+        var removed = removeOrphans(anonymousPageIds, languages);
+        log.info("Pre-rendered page reconciliation rendered {} and removed {} pages", rendered, removed);
+    }
+
+    /**
+     * Renders the page for each enabled language as seen by an anonymous user, and removes the files of the languages in which the page is not
+     * visible to anonymous users. The files of a page in a page group which is not published are removed.
+     *
+     * @param pageId ID of the page
+     */
+    public void prerender(long pageId) {
+        if (!isPageGroupPublished(pageId)) {
+            deletePage(pageId);
+            return;
+        }
+
+        render(pageId, getEnabledLanguages());
+    }
+
+    private void render(long pageId, List<String> languages) {
+        try {
+            var pageDirectory = prerenderDirectory.resolve(String.valueOf(pageId));
+
+            for (var language : languages) {
+                var pageResponse = getAnonymousPage(pageId, language);
+
+                if (pageResponse == null) {
+                    Files.deleteIfExists(pageFile(pageId, language));
+                    continue;
+                }
+
+                Files.createDirectories(pageDirectory);
+                // The file is replaced atomically so that a request never streams a partially written file
+                var temporaryFile = Files.createTempFile(pageDirectory, language, ".tmp");
+
+                try {
+                    Files.write(temporaryFile, jsonMapper.writeValueAsBytes(pageResponse));
+                    Files.move(temporaryFile, pageFile(pageId, language), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temporaryFile);
+                }
+            }
+
+            removeDisabledLanguages(pageDirectory, languages);
+            log.debug("Pre-rendered page ID {} for languages {}", pageId, languages);
+        } catch (IOException e) {
+            log.error("Could not pre-render page ID {}", pageId, e);
+        }
+    }
+
+    private boolean isPageGroupPublished(long pageId) {
+        return pageRepository.findById(pageId)
+                             .flatMap(page -> pageGroupRepository.findById(page.getPageGroupId()))
+                             .map(pageGroup -> pageGroup.getStatus() == PageStatusEnum.PUBLISHED)
+                             .orElse(false);
+    }
+
+    private void deletePage(long pageId) {
+        var pageDirectory = prerenderDirectory.resolve(String.valueOf(pageId));
+
+        try {
+            if (Files.exists(pageDirectory)) {
+                deleteRecursively(pageDirectory);
+                log.debug("Removed the pre-rendered files of page ID {}", pageId);
+            }
+        } catch (IOException e) {
+            log.error("Could not remove the pre-rendered files of page ID {}", pageId, e);
+        }
+    }
+
+    private PageResponse getAnonymousPage(long pageId, String language) {
+        try {
+            return pageService.getPage(pageId, ANONYMOUS_ROLES, language);
+        } catch (AccessDeniedException e) {
+            return null;
+        }
+    }
+
+    private boolean isStale(Page page, List<String> languages) {
+        var lastModified = page.getModifiedAt() != null ? page.getModifiedAt() : page.getCreatedAt();
+
+        for (var language : languages) {
+            try {
+                var fileModified = Files.getLastModifiedTime(pageFile(page.getId(), language));
+
+                if (lastModified != null && fileModified.toInstant()
+                                                        .isBefore(lastModified)) {
+                    return true;
+                }
+            } catch (IOException e) {
+                // Missing file, the page may also just lack the language version, which is then found out when rendering
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private int removeOrphans(Set<Long> anonymousPageIds, List<String> languages) {
+        if (!Files.isDirectory(prerenderDirectory)) {
+            return 0;
+        }
+
+        var removed = 0;
+
+        try (var pageDirectories = Files.list(prerenderDirectory)) {
+            for (var pageDirectory : pageDirectories.toList()) {
+                var name = pageDirectory.getFileName()
+                                        .toString();
+
+                if (!name.chars()
+                         .allMatch(Character::isDigit) || !anonymousPageIds.contains(Long.parseLong(name))) {
+                    deleteRecursively(pageDirectory);
+                    removed++;
+                } else {
+                    removeDisabledLanguages(pageDirectory, languages);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Could not remove obsolete pre-rendered pages from {}", prerenderDirectory, e);
+        }
+
+        return removed;
+    }
+
+    private void removeDisabledLanguages(Path pageDirectory, List<String> languages) throws IOException {
+        if (!Files.isDirectory(pageDirectory)) {
+            return;
+        }
+
+        var expectedFiles = languages.stream()
+                                     .map(language -> language + FILE_SUFFIX)
+                                     .collect(Collectors.toSet());
+
+        try (var files = Files.list(pageDirectory)) {
+            for (var file : files.toList()) {
+                if (!expectedFiles.contains(file.getFileName()
+                                                   .toString())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private void deleteRecursively(Path path) throws IOException {
+        try (var paths = Files.walk(path)) {
+            for (var file : paths.sorted(Comparator.reverseOrder())
+                                 .toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private Path pageFile(long pageId, String language) {
+        return prerenderDirectory.resolve(String.valueOf(pageId))
+                                 .resolve(language + FILE_SUFFIX);
+    }
+
+    private List<String> getEnabledLanguages() {
+        var languages = portalConfigurationService.getArrayConfiguration(GENERAL.group, ENABLED_LANGUAGES.key);
+        return languages != null ? languages : List.of();
+    }
+}
@@ -0,0 +1,224 @@
+package io.oxalate.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.oxalate.backend.api.RoleEnum;
+import io.oxalate.backend.api.response.PageResponse;
+import io.oxalate.backend.api.response.PageVersionResponse;
+import io.oxalate.backend.events.EnabledLanguagesChangedEvent;
+import io.oxalate.backend.model.CachedPageResponse;
+import io.oxalate.backend.tools.AuthTools;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Least recently used cache of single page responses keyed by the page, language and the role set of the requester. The cache is bounded by the
+ * approximate total size of the cached pages rather than by the number of entries, since page bodies vary from a few lines to long articles.
+ */
+@Slf4j
+@Service
+public class PageResponseCacheService {
+    private static final String METRIC_REQUESTS = "oxalate.page.response.cache.requests";
+    private static final String METRIC_SIZE = "oxalate.page.response.cache.bytes";
+    // Rough size of the fields other than the texts, such as the IDs, timestamps and role permissions
+    private static final long BASE_WEIGHT = 512L;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, CachedPageResponse> pageCache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes = 0L;
+    // Incremented on every eviction so that a response read before the eviction is not stored afterwards
+    private long generation = 0L;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public PageResponseCacheService(MeterRegistry meterRegistry, @Value("${oxalate.page.cache.max-bytes:16777216}") long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.hitCounter = Counter.builder(METRIC_REQUESTS)
+                                 .description("Page response cache lookups")
+                                 .tag("result", "hit")
+                                 .register(meterRegistry);
+        this.missCounter = Counter.builder(METRIC_REQUESTS)
+                                  .description("Page response cache lookups")
+                                  .tag("result", "miss")
+                                  .register(meterRegistry);
+        Gauge.builder(METRIC_SIZE, this, PageResponseCacheService::getCachedBytes)
+             .description("Approximate size of the cached page responses")
+             .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached response of the page, loading and storing it with the given loader on a miss. Nothing is cached if the loader returns null
+     * or throws.
+     *
+     * @param pageId   ID of the page
+     * @param language Language of the page version
+     * @param roles    Roles of the requester
+     * @param loader   Fetches the page response from the database
+     * @return Cached response with its entity tag, or null if the loader returned null
+     */
+    public CachedPageResponse getPage(long pageId, String language, Set<RoleEnum> roles, Supplier<PageResponse> loader) {
+        var key = cacheKey(pageId, language, roles);
+        long startGeneration;
+
+        synchronized (this) {
+            var cachedPageResponse = pageCache.get(key);
+
+            if (cachedPageResponse != null) {
+                hitCounter.increment();
+                return cachedPageResponse;
+            }
+
+            startGeneration = generation;
+        }
+
+        missCounter.increment();
+        var pageResponse = loader.get();
+
+        if (pageResponse == null) {
+            return null;
+        }
+
+        var cachedPageResponse = CachedPageResponse.builder()
+                                                   .pageResponse(pageResponse)
+                                                   .eTag(createETag(pageResponse, language, roles))
+                                                   .weight(estimateWeight(pageResponse))
+                                                   .build();
+
+        synchronized (this) {
+            if (generation == startGeneration && cachedPageResponse.getWeight() <= maxBytes) {
+                var previous = pageCache.put(key, cachedPageResponse);
+
+                if (previous != null) {
+                    cachedBytes -= previous.getWeight();
+                }
+
+                cachedBytes += cachedPageResponse.getWeight();
+                evictOverflow();
+            }
+        }
+
+        return cachedPageResponse;
+    }
+
+    /**
+     * Drops all cached responses of the page. When called within a transaction, the responses are dropped again after the transaction completes so
+     * that a response read before the commit is not left in the cache.
+     *
+     * @param pageId ID of the modified page
+     */
+    public void evictPage(long pageId) {
+        removePage(pageId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    removePage(pageId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops all cached responses when the enabled languages change, so that responses in a disabled language are no longer served. As with
+     * {@link #evictPage(long)}, the responses are dropped again after the transaction completes.
+     */
+    @EventListener
+    public void handleEnabledLanguagesChanged(EnabledLanguagesChangedEvent event) {
+        removeAll();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    removeAll();
+                }
+            });
+        }
+    }
+
+    public synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    private synchronized void removePage(long pageId) {
+        generation++;
+        var prefix = pageId + "|";
+        var iterator = pageCache.entrySet()
+                                .iterator();
+
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+
+            if (entry.getKey()
+                     .startsWith(prefix)) {
+                cachedBytes -= entry.getValue()
+                                    .getWeight();
+                iterator.remove();
+            }
+        }
+
+        log.debug("Evicted cached responses of page ID {}", pageId);
+    }
+
+    private synchronized void removeAll() {
+        generation++;
+        pageCache.clear();
+        cachedBytes = 0L;
+        log.debug("Evicted all cached page responses");
+    }
+
+    private void evictOverflow() {
+        var iterator = pageCache.entrySet()
+                                .iterator();
+
+        // Access ordered map iterates from the least recently used entry
+        while (cachedBytes > maxBytes && iterator.hasNext()) {
+            cachedBytes -= iterator.next()
+                                   .getValue()
+                                   .getWeight();
+            iterator.remove();
+        }
+    }
+
+    private String cacheKey(long pageId, String language, Set<RoleEnum> roles) {
+        return pageId + "|" + language + "|" + AuthTools.roleFingerprint(roles);
+    }
+
+    /**
+     * The tag changes whenever the page is modified, and the role set is part of it since the returned role permissions depend on it.
+     */
+    private String createETag(PageResponse pageResponse, String language, Set<RoleEnum> roles) {
+        var lastModified = pageResponse.getModifiedAt() != null ? pageResponse.getModifiedAt() : pageResponse.getCreatedAt();
+        var lastModifiedMillis = lastModified != null ? lastModified.toEpochMilli() : Instant.EPOCH.toEpochMilli();
+        return "\"" + pageResponse.getId() + "-" + language + "-" + lastModifiedMillis + "-"
+                + Integer.toHexString(AuthTools.roleFingerprint(roles)
+                                               .hashCode()) + "\"";
+    }
+
+    private long estimateWeight(PageResponse pageResponse) {
+        var weight = BASE_WEIGHT;
+
+        if (pageResponse.getPageVersions() != null) {
+            for (PageVersionResponse pageVersion : pageResponse.getPageVersions()) {
+                // Strings are counted as two bytes per character
+                weight += 2L * (length(pageVersion.getTitle()) + length(pageVersion.getIngress()) + length(pageVersion.getBody()));
+            }
+        }
+
+        return weight;
+    }
+
+    private int length(String text) {
+        return text != null ? text.length() : 0;
+    }
+}
@@ -1,5 +1,6 @@
 package io.oxalate.backend.service;
 
+import io.oxalate.backend.api.BlogSortFieldEnum;
 import io.oxalate.backend.api.EmailNotificationDetailEnum;
 import io.oxalate.backend.api.EmailNotificationTypeEnum;
 import io.oxalate.backend.api.PageStatusEnum;
@@ -16,24 +17,35 @@ import io.oxalate.backend.api.response.PageGroupResponse;
 import io.oxalate.backend.api.response.PageResponse;
 import io.oxalate.backend.api.response.PageRoleAccessResponse;
 import io.oxalate.backend.api.response.PagedResponse;
+import io.oxalate.backend.events.PageGroupModifiedEvent;
+import io.oxalate.backend.events.PageModifiedEvent;
+import io.oxalate.backend.model.BlogArticleSearchCriteria;
+import io.oxalate.backend.model.CachedPageResponse;
 import io.oxalate.backend.model.Page;
 import io.oxalate.backend.model.PageGroup;
 import io.oxalate.backend.model.PageGroupVersion;
 import io.oxalate.backend.model.PageRoleAccess;
 import io.oxalate.backend.model.PageVersion;
+import io.oxalate.backend.repository.BlogArticleSearchRepository;
 import io.oxalate.backend.repository.PageGroupRepository;
 import io.oxalate.backend.repository.PageGroupVersionRepository;
 import io.oxalate.backend.repository.PageRepository;
 import io.oxalate.backend.repository.PageRoleAccessRepository;
 import io.oxalate.backend.repository.PageVersionRepository;
+import io.oxalate.backend.tools.CursorTools;
+import io.oxalate.backend.tools.SearchTools;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -48,12 +60,32 @@ public class PageService {
     private final PageGroupVersionRepository pageGroupVersionRepository;
     private final PageRoleAccessRepository pageRoleAccessRepository;
     private final PageVersionRepository pageVersionRepository;
+    private final BlogArticleSearchRepository blogArticleSearchRepository;
+    private final PageNavigationCacheService pageNavigationCacheService;
+    private final PageResponseCacheService pageResponseCacheService;
+    private final PageVersionHistoryService pageVersionHistoryService;
     private final EmailQueueService emailQueueService;
     private final PortalConfigurationService portalConfigurationService;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     private final long RESERVED_PAGE_GROUP_ID = 1L;
     private final long BLOG_PAGE_GROUP_ID = 3L;
     private final List<Long> BLOCKED_PAGE_GROUPS = List.of(RESERVED_PAGE_GROUP_ID, BLOG_PAGE_GROUP_ID);
+    private final String CURSOR_ID_KEY = "id";
+
+    /**
+     * Cached variant of {@link #getPage(long, Set, String)}. The response is served from memory as long as the page is not modified, and comes with an
+     * entity tag identifying the exact content returned for the roles.
+     *
+     * @param pageId   ID of the page
+     * @param roles    Roles of the requester
+     * @param language Language of the page version
+     * @return Page response with its entity tag, or null if the page is not found or published in the language
+     * @throws AccessDeniedException if none of the roles has access to the page
+     */
+    public CachedPageResponse getCachedPage(long pageId, Set<RoleEnum> roles, String language) {
+        return pageResponseCacheService.getPage(pageId, language, roles, () -> getPage(pageId, roles, language));
+    }
 
     public PageResponse getPage(long pageId, Set<RoleEnum> roles, String language) {
         var supportedLanguages = portalConfigurationService.getArrayConfiguration(GENERAL.group, ENABLED_LANGUAGES.key);
@@ -112,11 +144,13 @@ public class PageService {
 
     /**
      * Get blog articles with pagination, sorting and search support.
-     * Blog articles are pages belonging to page group ID 3.
+     * Blog articles are pages belonging to page group ID 3. The search is a full-text search on the title, ingress and body of the requested language
+     * version, and the articles can be sorted by creation time, title or relevance to the search words.
      *
      * @param pagedRequest Pagination request containing page, size, sortBy, direction, search, caseSensitive and language
      * @param roles        Set of roles the user has
      * @return PagedResponse containing the list of PageResponse objects
+     * @throws IllegalArgumentException if the cursor is malformed or does not match the sort order
      */
     public PagedResponse<PageResponse> getBlogArticles(PagedRequest pagedRequest, Set<RoleEnum> roles) {
         var supportedLanguages = portalConfigurationService.getArrayConfiguration(GENERAL.group, ENABLED_LANGUAGES.key);
@@ -134,106 +168,228 @@ public class PageService {
 
         var search = pagedRequest.getSearch();
         var caseSensitive = Boolean.TRUE.equals(pagedRequest.getCaseSensitive());
-        var sortBy = pagedRequest.getSortBy() != null ? pagedRequest.getSortBy() : "createdAt";
+        var sortField = BlogSortFieldEnum.fromFieldName(pagedRequest.getSortBy());
         var direction = pagedRequest.getDirection() != null ? pagedRequest.getDirection() : SortDirectionEnum.DESC;
         var page = pagedRequest.getPage();
         var size = pagedRequest.getSize();
-        var offset = page * size;
+        var cursor = pagedRequest.getCursor();
+        var includeTotal = pagedRequest.isTotalRequested();
+        String tsQuery = null;
+        String caseSensitivePattern = null;
 
-        // Get the total count
-        long totalElements;
-        if (caseSensitive) {
-            totalElements = pageRepository.countBlogArticlesCaseSensitive(BLOG_PAGE_GROUP_ID, language, roleStrings, search);
-        } else {
-            totalElements = pageRepository.countBlogArticlesCaseInsensitive(BLOG_PAGE_GROUP_ID, language, roleStrings, search);
+        if (search != null && !search.isBlank()) {
+            tsQuery = SearchTools.toPrefixTsQuery(search);
+
+            if (tsQuery == null) {
+                log.debug("Search '{}' for blog articles did not contain any words", search);
+                return PagedResponse.of(new ArrayList<>(), page, size, 0);
+            }
+
+            // The full-text index is case-insensitive, so the case-sensitive search is done by filtering the full-text matches further
+            if (caseSensitive) {
+                caseSensitivePattern = SearchTools.toContainsLikePattern(search);
+            }
         }
 
-        // Get the pages
-        List<Page> pages;
-        if (caseSensitive) {
-            if ("title".equalsIgnoreCase(sortBy)) {
-                if (direction == SortDirectionEnum.ASC) {
-                    pages = pageRepository.findBlogArticlesCaseSensitiveOrderByTitleAsc(BLOG_PAGE_GROUP_ID, language, roleStrings, search, size, offset);
-                } else {
-                    pages = pageRepository.findBlogArticlesCaseSensitiveOrderByTitleDesc(BLOG_PAGE_GROUP_ID, language, roleStrings, search, size, offset);
-                }
-            } else {
-                // Default sort by createdAt
-                if (direction == SortDirectionEnum.ASC) {
-                    pages = pageRepository.findBlogArticlesCaseSensitiveOrderByCreatedAtAsc(BLOG_PAGE_GROUP_ID, language, roleStrings, search, size, offset);
-                } else {
-                    pages = pageRepository.findBlogArticlesCaseSensitiveOrderByCreatedAtDesc(BLOG_PAGE_GROUP_ID, language, roleStrings, search, size, offset);
-                }
+        // Without search words every article has the same rank, so relevance falls back to the publication order
+        if (sortField == BlogSortFieldEnum.RELEVANCE && tsQuery == null) {
+            sortField = BlogSortFieldEnum.CREATED_AT;
+        }
+
+        var criteriaBuilder = BlogArticleSearchCriteria.builder()
+                                                       .pageGroupId(BLOG_PAGE_GROUP_ID)
+                                                       .language(language)
+                                                       .roles(roleStrings)
+                                                       .tsQuery(tsQuery)
+                                                       .caseSensitivePattern(caseSensitivePattern)
+                                                       .sortField(sortField)
+                                                       .direction(direction)
+                                                       .includeTotal(includeTotal)
+                                                       // One extra row tells whether there is anything after this window
+                                                       .limit(size + 1)
+                                                       .offset(page * size);
+
+        if (cursor != null) {
+            var cursorKeys = CursorTools.decode(cursor);
+
+            if (!isValidBlogCursor(cursorKeys, sortField)) {
+                throw new IllegalArgumentException("Cursor does not match the sort order " + sortField.fieldName);
             }
-        } else {
-            if ("title".equalsIgnoreCase(sortBy)) {
-                if (direction == SortDirectionEnum.ASC) {
-                    pages = pageRepository.findBlogArticlesCaseInsensitiveOrderByTitleAsc(BLOG_PAGE_GROUP_ID, language, roleStrings, search, size, offset);
-                } else {
-                    pages = pageRepository.findBlogArticlesCaseInsensitiveOrderByTitleDesc(BLOG_PAGE_GROUP_ID, language, roleStrings, search, size, offset);
-                }
-            } else {
-                // Default sort by createdAt
-                if (direction == SortDirectionEnum.ASC) {
-                    pages = pageRepository.findBlogArticlesCaseInsensitiveOrderByCreatedAtAsc(BLOG_PAGE_GROUP_ID, language, roleStrings, search, size, offset);
-                } else {
-                    pages = pageRepository.findBlogArticlesCaseInsensitiveOrderByCreatedAtDesc(BLOG_PAGE_GROUP_ID, language, roleStrings, search, size, offset);
-                }
+
+            criteriaBuilder.afterSortValue(cursorKeys.get(sortField.fieldName))
+                           .afterId((Long) cursorKeys.get(CURSOR_ID_KEY))
+                           .offset(0);
+        }
+
+        var searchResult = blogArticleSearchRepository.search(criteriaBuilder.build());
+        var pages = searchResult.getPages();
+        String nextCursor = null;
+
+        if (pages.size() > size) {
+            pages = pages.subList(0, size);
+            var lastCursorKeys = new LinkedHashMap<String, Object>();
+            lastCursorKeys.put(sortField.fieldName, searchResult.getSortValues()
+                                                                .get(size - 1));
+            lastCursorKeys.put(CURSOR_ID_KEY, pages.getLast()
+                                                   .getId());
+            nextCursor = CursorTools.encode(lastCursorKeys);
+        }
+
+        // The pages come with the language version populated, so only the role permissions are fetched, for all the pages at once
+        var pageIds = pages.stream()
+                           .map(Page::getId)
+                           .toList();
+        var rolePermissions = new HashMap<Long, Set<PageRoleAccess>>();
+
+        if (!pageIds.isEmpty()) {
+            for (var pageRoleAccess : pageRoleAccessRepository.findAllByPageIdIn(pageIds)) {
+                rolePermissions.computeIfAbsent(pageRoleAccess.getPageId(), id -> new HashSet<>())
+                               .add(pageRoleAccess);
             }
         }
 
-        // Convert pages to PageResponse objects and populate PageVersions for the requested language
         var pageResponses = new ArrayList<PageResponse>();
+
         for (var pageEntity : pages) {
-            populatePage(pageEntity, language);
+            pageEntity.setRolePermissions(rolePermissions.getOrDefault(pageEntity.getId(), new HashSet<>()));
             pageResponses.add(pageEntity.toResponse());
         }
 
         log.debug("Found {} blog articles for language {} with search '{}' (case sensitive: {})",
                 pageResponses.size(), language, search, caseSensitive);
 
-        return PagedResponse.of(pageResponses, page, size, totalElements);
+        if (cursor == null && includeTotal) {
+            var pagedResponse = PagedResponse.of(pageResponses, page, size, searchResult.getTotalElements());
+            pagedResponse.setNextCursor(nextCursor);
+            return pagedResponse;
+        }
+
+        var pagedResponse = PagedResponse.ofCursor(pageResponses, size, cursor == null && page == 0, nextCursor,
+                includeTotal ? searchResult.getTotalElements() : null);
+
+        if (cursor == null) {
+            pagedResponse.setPage(page);
+        }
+
+        return pagedResponse;
     }
 
-    public List<PageGroupResponse> getPageGroups(String language, Set<RoleEnum> roles) {
-        var pageGroupResponses = new ArrayList<PageGroupResponse>();
+    private boolean isValidBlogCursor(Map<String, Object> cursorKeys, BlogSortFieldEnum sortField) {
+        if (cursorKeys == null || cursorKeys.size() != 2 || !(cursorKeys.get(CURSOR_ID_KEY) instanceof Long)) {
+            return false;
+        }
+
+        var sortValue = cursorKeys.get(sortField.fieldName);
+
+        return switch (sortField) {
+            case CREATED_AT -> sortValue instanceof Instant;
+            case TITLE -> sortValue instanceof String;
+            case RELEVANCE -> sortValue instanceof Float;
+        };
+    }
 
+    public List<PageGroupResponse> getPageGroups(String language, Set<RoleEnum> roles) {
         var supportedLanguages = portalConfigurationService.getArrayConfiguration(GENERAL.group, ENABLED_LANGUAGES.key);
 
         if (language != null && !supportedLanguages.contains(language)) {
             log.error("Requested language {} is not supported when fetching page groups", language);
-            return pageGroupResponses;
+            return new ArrayList<>();
         }
 
-        var pageGroups = pageGroupRepository.findAllByIdIsNotIn(BLOCKED_PAGE_GROUPS);
+        return pageNavigationCacheService.getNavigation(language, roles, () -> loadPageGroups(language, roles));
+    }
+
+    /**
+     * Builds the navigation tree with a fixed number of queries: the page groups, their language versions, the published pages of the groups, the
+     * pages readable with the roles, the language versions of the pages and the role accesses of the pages are each fetched at once.
+     *
+     * @param language Language of the navigation, null for all languages
+     * @param roles    Roles of the user
+     * @return Published page groups which have at least one page visible with the roles
+     */
+    private List<PageGroupResponse> loadPageGroups(String language, Set<RoleEnum> roles) {
+        var pageGroupResponses = new ArrayList<PageGroupResponse>();
+
+        var pageGroups = pageGroupRepository.findAllByIdIsNotIn(BLOCKED_PAGE_GROUPS)
+                                            .stream()
+                                            .filter(pageGroup -> pageGroup.getStatus()
+                                                                          .equals(PageStatusEnum.PUBLISHED))
+                                            .toList();
         log.debug("Got list of page groups before filtering with lang {}: {}", language, pageGroups);
 
-        for (var pageGroup : pageGroups) {
-            if (!pageGroup.getStatus()
-                          .equals(PageStatusEnum.PUBLISHED)) {
+        if (pageGroups.isEmpty()) {
+            return pageGroupResponses;
+        }
+
+        var pageGroupIds = pageGroups.stream()
+                                     .map(PageGroup::getId)
+                                     .toList();
+        var pageGroupVersions = language != null
+                ? pageGroupVersionRepository.findAllByPageGroupIdInAndLanguage(pageGroupIds, language)
+                : pageGroupVersionRepository.findAllByPageGroupIdInOrderByLanguageAsc(pageGroupIds);
+        var pageGroupVersionMap = new HashMap<Long, List<PageGroupVersion>>();
+
+        for (var pageGroupVersion : pageGroupVersions) {
+            pageGroupVersionMap.computeIfAbsent(pageGroupVersion.getPageGroupId(), id -> new ArrayList<>())
+                               .add(pageGroupVersion);
+        }
+
+        var pages = pageRepository.findAllByPageGroupIdInAndStatusOrderByIdAsc(pageGroupIds, PageStatusEnum.PUBLISHED);
+        var pageIds = pages.stream()
+                           .map(Page::getId)
+                           .toList();
+        var pageVersionMap = new HashMap<Long, List<PageVersion>>();
+        var rolePermissionMap = new HashMap<Long, Set<PageRoleAccess>>();
+
+        if (!pageIds.isEmpty()) {
+            var pageVersions = language != null
+                    ? pageVersionRepository.findAllByPageIdInAndLanguage(pageIds, language)
+                    : pageVersionRepository.findAllByPageIdInOrderByLanguage(pageIds);
+
+            for (var pageVersion : pageVersions) {
+                pageVersionMap.computeIfAbsent(pageVersion.getPageId(), id -> new ArrayList<>())
+                              .add(pageVersion);
+            }
+
+            for (var pageRoleAccess : pageRoleAccessRepository.findAllByPageIdIn(pageIds)) {
+                rolePermissionMap.computeIfAbsent(pageRoleAccess.getPageId(), id -> new HashSet<>())
+                                 .add(pageRoleAccess);
+            }
+        }
+
+        var pageMap = new HashMap<Long, List<Page>>();
+
+        for (var page : pages) {
+            var rolePermissions = rolePermissionMap.getOrDefault(page.getId(), new HashSet<>());
+
+            // The user must have one of the roles with read permission to the page
+            if (rolePermissions.stream()
+                               .noneMatch(pageRoleAccess -> pageRoleAccess.isReadPermission() && roles.contains(pageRoleAccess.getRole()))) {
                 continue;
             }
 
-            populatePageGroup(pageGroup, language);
+            page.setPageVersions(pageVersionMap.getOrDefault(page.getId(), new ArrayList<>()));
+            page.setRolePermissions(rolePermissions);
+            pageMap.computeIfAbsent(page.getPageGroupId(), id -> new ArrayList<>())
+                   .add(page);
+        }
 
-            // Check that the user has access to the pages
-            var pageListFiltered = new ArrayList<Page>();
+        for (var pageGroup : pageGroups) {
+            var groupVersions = pageGroupVersionMap.get(pageGroup.getId());
 
-            for (var page : pageGroup.getPages()) {
-                var permissionList = pageRoleAccessRepository.findByPageIdAndRoleIn(page.getId(), roles);
-                // In addition to access, the page must be public
-                if (!permissionList.isEmpty() && page.getStatus()
-                                                     .equals(PageStatusEnum.PUBLISHED)) {
-                    pageListFiltered.add(page);
-                }
+            if (groupVersions == null) {
+                log.warn("PageGroupVersion with language {} was not found for path ID {}", language, pageGroup.getId());
+                continue;
             }
 
+            var pageListFiltered = pageMap.get(pageGroup.getId());
+
             // If there are no pages, then we don't add the path
-            if (pageListFiltered.isEmpty()) {
+            if (pageListFiltered == null) {
                 continue;
             }
 
-            // Update the page set with the filtered pages
+            pageGroup.setGroupVersions(groupVersions);
             pageGroup.setPages(pageListFiltered);
             pageGroupResponses.add(pageGroup.toResponse());
         }
@@ -300,6 +456,7 @@ public class PageService {
             }
         }
 
+        pageNavigationCacheService.invalidate();
         populatePageGroup(newPageGroup, null);
 
         return newPageGroup.toResponse();
@@ -365,6 +522,8 @@ public class PageService {
 
         pageGroup.setStatus(pageGroupRequest.getStatus());
         var newPageGroup = pageGroupRepository.save(pageGroup);
+        pageNavigationCacheService.invalidate();
+        publishPageGroupModified(newPageGroup.getId());
         populatePageGroup(newPageGroup, null);
 
         return newPageGroup.toResponse();
@@ -384,6 +543,8 @@ public class PageService {
         closePages(pages);
 
         pageGroupRepository.updateStatus(pageGroupId, PageStatusEnum.DELETED.name());
+        pageNavigationCacheService.invalidate();
+        publishPageGroupModified(pageGroupId);
 
         return true;
     }
@@ -464,6 +625,8 @@ public class PageService {
             emailQueueService.addNotification(EmailNotificationTypeEnum.PAGE, EmailNotificationDetailEnum.NEW, newPage.getId());
         }
 
+        pageNavigationCacheService.invalidate();
+        publishPageModified(newPage.getId());
         populatePage(newPage, null);
         return newPage.toResponse();
     }
@@ -511,19 +674,26 @@ public class PageService {
                                                 .findFirst();
 
             if (pageVersionRequest.isPresent()) {
-                // Update the page version
-                existingPageVersion.setTitle(pageVersionRequest.get()
-                                                               .getTitle());
-                existingPageVersion.setIngress(pageVersionRequest.get()
-                                                                 .getIngress());
-                existingPageVersion.setBody(pageVersionRequest.get()
-                                                              .getBody());
-                pageVersionRepository.save(existingPageVersion);
+                var request = pageVersionRequest.get();
+
+                // Saving an unchanged version would only rewrite its stored texts and search vector
+                if (!Objects.equals(existingPageVersion.getTitle(), request.getTitle())
+                        || !Objects.equals(existingPageVersion.getIngress(), request.getIngress())
+                        || !Objects.equals(existingPageVersion.getBody(), request.getBody())) {
+                    pageVersionHistoryService.recordRevision(existingPageVersion, userId);
+                    // Update the page version
+                    existingPageVersion.setTitle(request.getTitle());
+                    existingPageVersion.setIngress(request.getIngress());
+                    existingPageVersion.setBody(request.getBody());
+                    pageVersionRepository.save(existingPageVersion);
+                }
+
                 // Remove the request from the list
                 pageRequest.getPageVersions()
-                           .remove(pageVersionRequest.get());
+                           .remove(request);
             } else {
                 // Delete the obsolete page version
+                pageVersionHistoryService.recordRemoval(existingPageVersion, userId);
                 pageVersionRepository.delete(existingPageVersion);
             }
         }
@@ -579,6 +749,9 @@ public class PageService {
             emailQueueService.addNotification(EmailNotificationTypeEnum.PAGE, EmailNotificationDetailEnum.DELETED, newPage.getId());
         }
 
+        pageResponseCacheService.evictPage(newPage.getId());
+        pageNavigationCacheService.invalidate();
+        publishPageModified(newPage.getId());
         populatePage(newPage, null);
         return newPage.toResponse();
     }
@@ -617,6 +790,9 @@ public class PageService {
         }
 
         pageRepository.updateStatus(pageId, PageStatusEnum.DELETED.name());
+        pageResponseCacheService.evictPage(pageId);
+        pageNavigationCacheService.invalidate();
+        publishPageModified(pageId);
 
         return true;
     }
@@ -713,6 +889,24 @@ public class PageService {
                                                         .writePermission(true)
                                                         .build());
             pageRepository.updateStatus(page.getId(), PageStatusEnum.DELETED.name());
+            pageResponseCacheService.evictPage(page.getId());
+            publishPageModified(page.getId());
         }
     }
+
+    /**
+     * Lets the listeners, such as the pre-rendering of public pages, know that the page has changed. Transactional listeners are called when the
+     * modification is committed.
+     */
+    private void publishPageModified(long pageId) {
+        applicationEventPublisher.publishEvent(PageModifiedEvent.builder()
+                                                                .pageId(pageId)
+                                                                .build());
+    }
+
+    private void publishPageGroupModified(long pageGroupId) {
+        applicationEventPublisher.publishEvent(PageGroupModifiedEvent.builder()
+                                                                     .pageGroupId(pageGroupId)
+                                                                     .build());
+    }
 }
@@ -0,0 +1,216 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.api.response.PageVersionHistoryResponse;
+import io.oxalate.backend.api.response.PageVersionResponse;
+import io.oxalate.backend.model.PageVersion;
+import io.oxalate.backend.model.PageVersionHistory;
+import io.oxalate.backend.repository.PageVersionHistoryEntry;
+import io.oxalate.backend.repository.PageVersionHistoryRepository;
+import io.oxalate.backend.tools.DeltaTools;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the earlier revisions of the page versions when the page history is enabled. Since consecutive revisions of a page usually differ only by a
+ * few words, most revisions are stored as deltas against the revision following them, and only every n:th revision is stored in full. This bounds
+ * the number of deltas to apply when a revision is requested, while the history grows by the size of the edits rather than the size of the page.
+ * <p>
+ * The newest revision is always stored in full, and it is turned into a delta only once the next revision is recorded. The deltas are thus never
+ * created against the current texts of the page, which may have been changed without recording a revision, for example while the history was
+ * disabled.
+ */
+@Slf4j
+@Service
+public class PageVersionHistoryService {
+    private final PageVersionHistoryRepository pageVersionHistoryRepository;
+    private final boolean enabled;
+    private final int snapshotInterval;
+
+    public PageVersionHistoryService(PageVersionHistoryRepository pageVersionHistoryRepository, @Value("${oxalate.page.history.enabled:false}") boolean enabled,
+            @Value("${oxalate.page.history.snapshot-interval:10}") int snapshotInterval) {
+        this.pageVersionHistoryRepository = pageVersionHistoryRepository;
+        this.enabled = enabled;
+        this.snapshotInterval = Math.max(1, snapshotInterval);
+    }
+
+    /**
+     * Stores the current texts of the page version as a new revision before they are replaced. Does nothing if the history is disabled.
+     *
+     * @param pageVersion Page version with its current texts
+     * @param userId      ID of the user replacing the texts
+     */
+    public void recordRevision(PageVersion pageVersion, long userId) {
+        if (!enabled) {
+            return;
+        }
+
+        // Serializes the revisions of the page, so that concurrent edits do not allocate the same revision or replace the same previous revision
+        pageVersionHistoryRepository.lockPage(pageVersion.getPageId());
+        var optionalLatest = pageVersionHistoryRepository.findFirstByPageIdAndLanguageOrderByRevisionDesc(pageVersion.getPageId(),
+                pageVersion.getLanguage());
+        var revision = optionalLatest.map(PageVersionHistoryEntry::getRevision)
+                                     .orElse(0) + 1;
+
+        if (optionalLatest.isPresent() && optionalLatest.get()
+                                                        .getSnapshot()) {
+            storeAsDelta(optionalLatest.get()
+                                       .getRevision(), pageVersion);
+        }
+
+        pageVersionHistoryRepository.save(newRevision(pageVersion, revision, userId));
+        log.debug("Stored revision {} of page ID {} language {}", revision, pageVersion.getPageId(), pageVersion.getLanguage());
+    }
+
+    /**
+     * Stores the current texts of a page version which is about to be removed. Does nothing if the history is disabled.
+     *
+     * @param pageVersion Page version to be removed
+     * @param userId      ID of the user removing the page version
+     */
+    public void recordRemoval(PageVersion pageVersion, long userId) {
+        recordRevision(pageVersion, userId);
+    }
+
+    /**
+     * Lists the stored revisions of the page version without their texts, newest first.
+     *
+     * @param pageId   ID of the page
+     * @param language Language of the page version
+     * @return List of revisions, empty if none are stored
+     */
+    public List<PageVersionHistoryResponse> getHistory(long pageId, String language) {
+        var history = new ArrayList<PageVersionHistoryResponse>();
+
+        for (PageVersionHistoryEntry entry : pageVersionHistoryRepository.findAllByPageIdAndLanguageOrderByRevisionDesc(pageId, language)) {
+            history.add(PageVersionHistoryResponse.builder()
+                                                  .pageId(pageId)
+                                                  .language(language)
+                                                  .revision(entry.getRevision())
+                                                  .replacedBy(entry.getReplacedBy())
+                                                  .replacedAt(entry.getReplacedAt())
+                                                  .build());
+        }
+
+        return history;
+    }
+
+    /**
+     * Reconstructs the texts of the given revision of the page version. The reconstruction starts from the nearest newer snapshot and applies the
+     * deltas of the revisions in between.
+     *
+     * @param pageId   ID of the page
+     * @param language Language of the page version
+     * @param revision Revision to reconstruct
+     * @return Page version with the texts of the revision, or null if the revision does not exist or can not be reconstructed
+     */
+    public PageVersionResponse getRevision(long pageId, String language, int revision) {
+        var optionalSnapshot = pageVersionHistoryRepository.findFirstByPageIdAndLanguageAndRevisionGreaterThanEqualAndSnapshotTrueOrderByRevisionAsc(
+                pageId, language, revision);
+
+        if (optionalSnapshot.isEmpty()) {
+            log.debug("No revision {} found for page ID {} language {}", revision, pageId, language);
+            return null;
+        }
+
+        var snapshot = optionalSnapshot.get();
+
+        if (snapshot.getRevision() == revision) {
+            return toResponse(snapshot.getId(), pageId, language, snapshot.getTitle(), snapshot.getIngress(), snapshot.getBody());
+        }
+
+        var title = snapshot.getTitle();
+        var ingress = snapshot.getIngress();
+        var body = snapshot.getBody();
+        var newestDelta = snapshot.getRevision() - 1;
+        var deltas = pageVersionHistoryRepository.findAllByPageIdAndLanguageAndRevisionBetweenOrderByRevisionDesc(pageId, language, revision, newestDelta);
+
+        if (deltas.isEmpty() || deltas.size() != newestDelta - revision + 1) {
+            log.debug("No revision {} found for page ID {} language {}", revision, pageId, language);
+            return null;
+        }
+
+        try {
+            for (var delta : deltas) {
+                title = DeltaTools.applyDelta(title, delta.getTitle());
+                ingress = DeltaTools.applyDelta(ingress, delta.getIngress());
+                body = DeltaTools.applyDelta(body, delta.getBody());
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Revision {} of page ID {} language {} can not be reconstructed: {}", revision, pageId, language, e.getMessage());
+            return null;
+        }
+
+        log.debug("Reconstructed revision {} of page ID {} language {} with {} deltas", revision, pageId, language, deltas.size());
+        return toResponse(deltas.getLast()
+                                .getId(), pageId, language, title, ingress, body);
+    }
+
+    /**
+     * Replaces the full texts of the previously newest revision with deltas against the texts of the page version, which become the next revision.
+     * Every n:th revision and the revisions whose deltas would not be smaller than the texts are kept in full.
+     */
+    private void storeAsDelta(int revision, PageVersion pageVersion) {
+        if (revision % snapshotInterval == 0) {
+            return;
+        }
+
+        var optionalPageVersionHistory = pageVersionHistoryRepository.findByPageIdAndLanguageAndRevision(pageVersion.getPageId(), pageVersion.getLanguage(),
+                revision);
+
+        if (optionalPageVersionHistory.isEmpty()) {
+            return;
+        }
+
+        var pageVersionHistory = optionalPageVersionHistory.get();
+        var titleDelta = DeltaTools.createDelta(nullToEmpty(pageVersion.getTitle()), pageVersionHistory.getTitle());
+        var ingressDelta = DeltaTools.createDelta(nullToEmpty(pageVersion.getIngress()), pageVersionHistory.getIngress());
+        var bodyDelta = DeltaTools.createDelta(nullToEmpty(pageVersion.getBody()), pageVersionHistory.getBody());
+
+        if (titleDelta != null && ingressDelta != null && bodyDelta != null
+                && titleDelta.length() + ingressDelta.length() + bodyDelta.length() < textLength(pageVersionHistory)) {
+            pageVersionHistory.setSnapshot(false);
+            pageVersionHistory.setTitle(titleDelta);
+            pageVersionHistory.setIngress(ingressDelta);
+            pageVersionHistory.setBody(bodyDelta);
+            pageVersionHistoryRepository.save(pageVersionHistory);
+        }
+    }
+
+    private PageVersionHistory newRevision(PageVersion pageVersion, int revision, long userId) {
+        return PageVersionHistory.builder()
+                                 .pageId(pageVersion.getPageId())
+                                 .language(pageVersion.getLanguage())
+                                 .revision(revision)
+                                 .snapshot(true)
+                                 .title(nullToEmpty(pageVersion.getTitle()))
+                                 .ingress(nullToEmpty(pageVersion.getIngress()))
+                                 .body(nullToEmpty(pageVersion.getBody()))
+                                 .replacedBy(userId)
+                                 .replacedAt(Instant.now())
+                                 .build();
+    }
+
+    private PageVersionResponse toResponse(long id, long pageId, String language, String title, String ingress, String body) {
+        return PageVersionResponse.builder()
+                                  .id(id)
+                                  .pageId(pageId)
+                                  .language(language)
+                                  .title(title)
+                                  .ingress(ingress)
+                                  .body(body)
+                                  .build();
+    }
+
+    private int textLength(PageVersionHistory pageVersionHistory) {
+        return nullToEmpty(pageVersionHistory.getTitle()).length() + nullToEmpty(pageVersionHistory.getIngress()).length() + nullToEmpty(
+                pageVersionHistory.getBody()).length();
+    }
+
+    private String nullToEmpty(String text) {
+        return text != null ? text : "";
+    }
+}
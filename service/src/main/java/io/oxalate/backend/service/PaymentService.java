@@ -17,20 +17,26 @@ import io.oxalate.backend.api.UpdateStatusEnum;
 import io.oxalate.backend.api.request.PaymentRequest;
 import io.oxalate.backend.api.response.PaymentResponse;
 import io.oxalate.backend.api.response.PaymentStatusResponse;
+import io.oxalate.backend.events.PaymentCreatedEvent;
 import io.oxalate.backend.model.Payment;
 import io.oxalate.backend.repository.EventParticipantsRepository;
 import io.oxalate.backend.repository.PaymentRepository;
+import io.oxalate.backend.repository.UserPaymentType;
 import io.oxalate.backend.repository.UserRepository;
 import io.oxalate.backend.tools.PeriodTools;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -42,6 +48,7 @@ public class PaymentService {
     private final EventParticipantsRepository eventParticipantsRepository;
     private final PaymentRepository paymentRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     public List<PaymentStatusResponse> getAllActivePaymentStatus() {
         var paymentStatusResponses = new ArrayList<PaymentStatusResponse>();
@@ -139,6 +146,23 @@ public class PaymentService {
         return Optional.empty();
     }
 
+    /**
+     * Bulk version of {@link #getBestAvailablePaymentType(long)}, resolves the payment types of all the given users with a single query.
+     *
+     * @param userIds Users to resolve the payment type for
+     * @return Best available payment type by user ID, users without any available payment type are not included
+     */
+    public Map<Long, PaymentTypeEnum> getBestAvailablePaymentTypes(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return paymentRepository.findBestAvailablePaymentTypes(userIds)
+                                .stream()
+                                .collect(Collectors.toMap(UserPaymentType::getUserId,
+                                        userPaymentType -> PaymentTypeEnum.valueOf(userPaymentType.getPaymentType())));
+    }
+
     public List<Payment> getActivePaymentsByUser(long userId) {
         return paymentRepository.findAllCurrentPaymentsByUserId(userId);
     }
@@ -217,7 +241,7 @@ public class PaymentService {
                                  .endDate(null)
                                  .paymentCount(paymentRequest.getPaymentCount())
                                  .build();
-            var newPayment = paymentRepository.save(payment);
+            var newPayment = saveNewPayment(payment);
             return newPayment.toPaymentResponse();
         }
 
@@ -266,7 +290,7 @@ public class PaymentService {
                              .paymentCount(paymentRequest.getPaymentCount())
                              .build();
 
-        var newPayment = paymentRepository.save(payment);
+        var newPayment = saveNewPayment(payment);
 
         return newPayment.toPaymentResponse();
     }
@@ -327,7 +351,7 @@ public class PaymentService {
                              .endDate(requestedEndDate)
                              .build();
 
-        var newPayment = paymentRepository.save(payment);
+        var newPayment = saveNewPayment(payment);
 
         return newPayment.toPaymentResponse();
     }
@@ -383,7 +407,7 @@ public class PaymentService {
                                  .endDate(calculateEndDateForMode(PaymentTypeEnum.ONE_TIME, effectivePaymentMode, LocalDate.now()))
                                  .paymentCount(count)
                                  .build();
-            paymentRepository.save(payment);
+            saveNewPayment(payment);
             return getPaymentStatusForUser(userId);
         }
 
@@ -394,6 +418,71 @@ public class PaymentService {
         return getPaymentStatusForUser(userId);
     }
 
+    /**
+     * Bulk version of {@link #decreaseOneTimePayment(long)}, decreases the one-time payment counter of each of the given users by one in a single
+     * statement. Users without a valid one-time payment are skipped.
+     *
+     * @param userIds Users whose one-time payment is used
+     */
+    @Transactional
+    public void decreaseOneTimePayments(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        var decreased = paymentRepository.decreaseOneTimePayments(userIds);
+
+        if (decreased < userIds.size()) {
+            log.warn("{} of {} users do not have any valid one time payment entries", userIds.size() - decreased, userIds.size());
+        }
+    }
+
+    /**
+     * Bulk version of {@link #increaseOneTimePayment(Long, int)}, increases the one-time payment counter of each of the given users. Users without an
+     * active one-time payment get a new one-time payment with the given count.
+     *
+     * @param userIds Users whose one-time payment is increased
+     * @param count   Amount of payments to increase
+     */
+    @Transactional
+    public void increaseOneTimePayments(Collection<Long> userIds, int count) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+
+        var effectivePaymentMode = getEffectivePaymentMode();
+
+        if (effectivePaymentMode.equals(PeriodicPaymentTypeEnum.DISABLED)) {
+            log.warn("Payment creation/update is disabled by configuration, skipping one-time payment increment");
+            return;
+        }
+
+        var usersWithPayment = paymentRepository.findUserIdsWithActiveOneTimePayment(userIds);
+
+        if (!usersWithPayment.isEmpty()) {
+            paymentRepository.increaseOneTimePayments(usersWithPayment, count);
+        }
+
+        var newPayments = new ArrayList<Payment>();
+
+        for (var userId : userIds) {
+            if (!usersWithPayment.contains(userId)) {
+                newPayments.add(Payment.builder()
+                                       .userId(userId)
+                                       .paymentType(ONE_TIME)
+                                       .created(Instant.now())
+                                       .startDate(LocalDate.now())
+                                       .endDate(calculateEndDateForMode(PaymentTypeEnum.ONE_TIME, effectivePaymentMode, LocalDate.now()))
+                                       .paymentCount(count)
+                                       .build());
+            }
+        }
+
+        for (var newPayment : paymentRepository.saveAll(newPayments)) {
+            publishPaymentCreated(newPayment);
+        }
+    }
+
     @Transactional
     public boolean resetAllPayments(PaymentTypeEnum paymentType) {
         try {
@@ -416,6 +505,20 @@ public class PaymentService {
         return calculateEndDateForMode(PaymentTypeEnum.ONE_TIME, normalizedType, LocalDate.now());
     }
 
+    private Payment saveNewPayment(Payment payment) {
+        var newPayment = paymentRepository.save(payment);
+        publishPaymentCreated(newPayment);
+        return newPayment;
+    }
+
+    private void publishPaymentCreated(Payment payment) {
+        applicationEventPublisher.publishEvent(PaymentCreatedEvent.builder()
+                                                                  .userId(payment.getUserId())
+                                                                  .paymentType(payment.getPaymentType())
+                                                                  .created(payment.getCreated())
+                                                                  .build());
+    }
+
     private PeriodicPaymentTypeEnum getEffectivePaymentMode() {
         var oneTimeExpirationType = normalizePeriodicType(
                 portalConfigurationService.getEnumConfiguration(PAYMENT.group, ONE_TIME_PAYMENT_EXPIRATION_TYPE.key));
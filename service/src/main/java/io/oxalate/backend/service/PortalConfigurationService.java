@@ -8,6 +8,7 @@ import static io.oxalate.backend.api.PortalConfigEnum.GeneralConfigEnum.ENABLED_
 import io.oxalate.backend.api.request.PortalConfigurationRequest;
 import io.oxalate.backend.api.response.FrontendConfigurationResponse;
 import io.oxalate.backend.api.response.PortalConfigurationResponse;
+import io.oxalate.backend.events.EnabledLanguagesChangedEvent;
 import io.oxalate.backend.model.PortalConfiguration;
 import io.oxalate.backend.repository.PortalConfigurationRepository;
 import jakarta.annotation.PostConstruct;
@@ -18,6 +19,7 @@ import java.util.Objects;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,6 +28,7 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class PortalConfigurationService {
     private final PortalConfigurationRepository portalConfigurationRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
     private List<PortalConfiguration> portalConfigurations;
 
     @PostConstruct
@@ -166,6 +169,12 @@ public class PortalConfigurationService {
 
         setRuntimeValue(portalConfiguration.getGroupKey(), portalConfiguration.getSettingKey(), value);
         reloadPortalConfigurations();
+
+        if (key.equals(ENABLED_LANGUAGES.key)) {
+            applicationEventPublisher.publishEvent(EnabledLanguagesChangedEvent.builder()
+                                                                               .languages(getArrayConfiguration(GENERAL.group, ENABLED_LANGUAGES.key))
+                                                                               .build());
+        }
     }
 
     public List<FrontendConfigurationResponse> getFrontendConfigurations() {
@@ -0,0 +1,341 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.api.EventStatusEnum;
+import io.oxalate.backend.events.EventParticipantsChangedEvent;
+import io.oxalate.backend.events.EventsClosedEvent;
+import io.oxalate.backend.events.EventsReopenedEvent;
+import io.oxalate.backend.events.PaymentCreatedEvent;
+import io.oxalate.backend.events.UserRegisteredEvent;
+import io.oxalate.backend.model.StatsMetric;
+import io.oxalate.backend.model.StatsValue;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the values of the most requested yearly statistics as in-memory counters, which are updated from the domain events as the data changes. The
+ * counters are rebuilt from the source tables along with every refresh of the statistics snapshot, which also corrects the changes not described by the
+ * events, such as editing the time, type or status of a held event, resetting payments or removing users. Until the first rebuild after a startup the
+ * counters are loaded from the latest checkpoint, and if there is none the statistics are read from the snapshot instead.
+ * <p>
+ * The counters are updated once the transaction of the change has committed. The updates share a read lock and a rebuild holds the write lock, so an
+ * update waits for the rebuild and is then applied to the rebuilt counters. The rebuild reads all the values in a single repeatable read transaction and
+ * keeps its snapshot, and an update is dropped if its transaction had already committed in that snapshot, as the rebuilt values include it. Updates
+ * without a transaction are always applied.
+ */
+@Slf4j
+@Service
+public class StatsCounterService {
+    static final Set<StatsMetric> COUNTED_METRICS = EnumSet.of(StatsMetric.REGISTRATIONS, StatsMetric.PAYMENTS, StatsMetric.DIVERS,
+            StatsMetric.EVENT_TYPES);
+
+    // The types of the single-typed metrics, same as in the queries of the metrics
+    private static final String REGISTRATIONS_TYPE = "registrations";
+    private static final String DIVERS_TYPE = "divers";
+
+    private static final String SELECT_CLOSED_EVENTS = """
+            SELECT EXTRACT(YEAR FROM e.start_time)::INTEGER AS year,
+                   e.type AS type,
+                   (SELECT COUNT(*) FROM event_participants ep WHERE ep.event_id = e.id) AS participant_count
+            FROM events e
+            WHERE e.id = ANY (?)
+            """;
+    private static final String SELECT_CHECKPOINT = "SELECT metric, year, type, value FROM stats_counters";
+    private static final String DELETE_CHECKPOINT = "DELETE FROM stats_counters";
+    private static final String INSERT_CHECKPOINT = "INSERT INTO stats_counters (metric, year, type, value) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_SNAPSHOT = "SELECT pg_current_snapshot()::TEXT";
+    private static final String SELECT_TRANSACTION_ID = "SELECT pg_current_xact_id()::TEXT::BIGINT";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate rebuildTransactionTemplate;
+    private final StatsSnapshotService statsSnapshotService;
+    // Null until the counters have been loaded from the checkpoint or rebuilt, a rebuild replaces the whole map
+    private final AtomicReference<Map<CounterKey, LongAdder>> counters = new AtomicReference<>();
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    // Snapshot the counters were rebuilt with, null until the first rebuild. Replaced along with the counters under the write lock.
+    private volatile RebuildSnapshot rebuildSnapshot;
+
+    record CounterKey(StatsMetric metric, long year, String type) {
+    }
+
+    /**
+     * Transaction snapshot in the text format of PostgreSQL, {@code xmin:xmax:xip_list}.
+     */
+    record RebuildSnapshot(long xmin, long xmax, Set<Long> inProgress) {
+        static RebuildSnapshot parse(String snapshot) {
+            var parts = snapshot.split(":", -1);
+            var inProgress = new HashSet<Long>();
+
+            if (!parts[2].isEmpty()) {
+                for (var transactionId : parts[2].split(",")) {
+                    inProgress.add(Long.parseLong(transactionId));
+                }
+            }
+
+            return new RebuildSnapshot(Long.parseLong(parts[0]), Long.parseLong(parts[1]), inProgress);
+        }
+
+        /**
+         * Same as {@code pg_visible_in_snapshot}, tells whether the committed transaction is seen by the snapshot.
+         */
+        boolean isVisible(long transactionId) {
+            return transactionId < xmin || transactionId < xmax && !inProgress.contains(transactionId);
+        }
+    }
+
+    public StatsCounterService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, StatsSnapshotService statsSnapshotService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildTransactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.rebuildTransactionTemplate.setReadOnly(true);
+        this.statsSnapshotService = statsSnapshotService;
+    }
+
+    /**
+     * Returns the yearly values of the metric from the counters, in the same order as {@link StatsSnapshotService#getValues(StatsMetric)}.
+     *
+     * @param metric Metric to fetch
+     * @return Values of all the years, or empty if the metric is not counted or the counters are not loaded yet
+     */
+    public Optional<List<StatsValue>> getValues(StatsMetric metric) {
+        var currentCounters = counters.get();
+
+        if (currentCounters == null || !COUNTED_METRICS.contains(metric)) {
+            return Optional.empty();
+        }
+
+        var values = new ArrayList<StatsValue>();
+
+        for (var entry : currentCounters.entrySet()) {
+            var value = entry.getValue()
+                             .sum();
+
+            if (entry.getKey()
+                     .metric() == metric && value != 0L) {
+                values.add(StatsValue.builder()
+                                     .year(entry.getKey()
+                                                .year())
+                                     .type(entry.getKey()
+                                                .type())
+                                     .value(value)
+                                     .build());
+            }
+        }
+
+        values.sort(StatsSnapshotService.VALUE_ORDER);
+        return Optional.of(values);
+    }
+
+    /**
+     * Recomputes all the counters from the source tables and replaces the current counters with them.
+     */
+    public void rebuild() {
+        var start = System.nanoTime();
+        var rebuiltCounters = new ConcurrentHashMap<CounterKey, LongAdder>();
+        rebuildLock.writeLock()
+                   .lock();
+
+        try {
+            var snapshot = rebuildTransactionTemplate.execute(status -> {
+                // The first statement fixes the snapshot of the transaction, all the values below are read with it
+                var currentSnapshot = RebuildSnapshot.parse(jdbcTemplate.queryForObject(SELECT_SNAPSHOT, String.class));
+
+                for (var metric : COUNTED_METRICS) {
+                    for (var statsValue : statsSnapshotService.computeValues(metric)) {
+                        add(rebuiltCounters, new CounterKey(metric, statsValue.getYear(), statsValue.getType()), statsValue.getValue());
+                    }
+                }
+
+                return currentSnapshot;
+            });
+
+            counters.set(rebuiltCounters);
+            rebuildSnapshot = snapshot;
+        } finally {
+            rebuildLock.writeLock()
+                       .unlock();
+        }
+
+        log.info("Rebuilt {} statistics counters in {} ms", rebuiltCounters.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Loads the counters from the latest checkpoint unless they have already been rebuilt.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCheckpoint() {
+        var checkpointCounters = new ConcurrentHashMap<CounterKey, LongAdder>();
+
+        jdbcTemplate.query(SELECT_CHECKPOINT, (RowCallbackHandler) resultSet -> {
+            var metric = StatsMetric.fromKey(resultSet.getString("metric"));
+
+            if (metric != null) {
+                add(checkpointCounters, new CounterKey(metric, resultSet.getLong("year"), resultSet.getString("type")), resultSet.getLong("value"));
+            }
+        });
+
+        if (!checkpointCounters.isEmpty() && counters.compareAndSet(null, checkpointCounters)) {
+            log.info("Loaded {} statistics counters from the checkpoint", checkpointCounters.size());
+        }
+    }
+
+    /**
+     * Replaces the checkpoint with the current values of the counters.
+     */
+    public void checkpoint() {
+        var currentCounters = counters.get();
+
+        if (currentCounters == null) {
+            return;
+        }
+
+        var rows = new ArrayList<Object[]>();
+
+        for (var entry : currentCounters.entrySet()) {
+            var key = entry.getKey();
+            var value = entry.getValue()
+                             .sum();
+            rows.add(new Object[]{ key.metric().key, key.year(), key.type(), value });
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_CHECKPOINT);
+            jdbcTemplate.batchUpdate(INSERT_CHECKPOINT, rows);
+        });
+
+        log.debug("Checkpointed {} statistics counters", rows.size());
+    }
+
+    @EventListener
+    public void handleUserRegistered(UserRegisteredEvent event) {
+        afterCommit(transactionId -> increment(transactionId, StatsMetric.REGISTRATIONS, event.getRegistered(), REGISTRATIONS_TYPE, 1L));
+    }
+
+    @EventListener
+    public void handlePaymentCreated(PaymentCreatedEvent event) {
+        afterCommit(transactionId -> increment(transactionId, StatsMetric.PAYMENTS, event.getCreated(), event.getPaymentType()
+                                                                                                        .name(), 1L));
+    }
+
+    @EventListener
+    public void handleEventParticipantsChanged(EventParticipantsChangedEvent event) {
+        // Only the participants of the held events are counted
+        if (event.getStatus() == EventStatusEnum.HELD) {
+            afterCommit(transactionId -> increment(transactionId, StatsMetric.DIVERS, event.getStartTime(), DIVERS_TYPE, event.getParticipantDelta()));
+        }
+    }
+
+    @EventListener
+    public void handleEventsClosed(EventsClosedEvent event) {
+        afterCommit(transactionId -> countHeldEvents(transactionId, event.getEventIds(), 1L));
+    }
+
+    @EventListener
+    public void handleEventsReopened(EventsReopenedEvent event) {
+        afterCommit(transactionId -> countHeldEvents(transactionId, event.getEventIds(), -1L));
+    }
+
+    /**
+     * Runs the update once the current transaction has committed, with the ID of the transaction. Without a transaction the update is run right away
+     * without an ID.
+     */
+    private void afterCommit(Consumer<Long> update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.accept(null);
+            return;
+        }
+
+        // Assigns the ID if the changes of the transaction have not been flushed yet
+        var transactionId = jdbcTemplate.queryForObject(SELECT_TRANSACTION_ID, Long.class);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.accept(transactionId);
+            }
+        });
+    }
+
+    /**
+     * Tells whether the change of the transaction is already included in the rebuilt counters. Must be called with the read lock held.
+     */
+    private boolean isCountedByRebuild(Long transactionId) {
+        var snapshot = rebuildSnapshot;
+        return transactionId != null && snapshot != null && snapshot.isVisible(transactionId);
+    }
+
+    /**
+     * Adds the events and their current participants to the counters of the held events, or removes them with a negative sign.
+     */
+    private void countHeldEvents(Long transactionId, List<Long> eventIds, long sign) {
+        rebuildLock.readLock()
+                   .lock();
+
+        try {
+            var currentCounters = counters.get();
+
+            if (currentCounters == null || isCountedByRebuild(transactionId)) {
+                return;
+            }
+
+            jdbcTemplate.query(SELECT_CLOSED_EVENTS, (RowCallbackHandler) resultSet -> {
+                var year = resultSet.getLong("year");
+                add(currentCounters, new CounterKey(StatsMetric.EVENT_TYPES, year, resultSet.getString("type")), sign);
+                add(currentCounters, new CounterKey(StatsMetric.DIVERS, year, DIVERS_TYPE), sign * resultSet.getLong("participant_count"));
+            }, (Object) eventIds.toArray(new Long[0]));
+        } finally {
+            rebuildLock.readLock()
+                       .unlock();
+        }
+    }
+
+    private void increment(Long transactionId, StatsMetric metric, Instant instant, String type, long delta) {
+        if (instant == null || delta == 0L) {
+            return;
+        }
+
+        rebuildLock.readLock()
+                   .lock();
+
+        try {
+            var currentCounters = counters.get();
+
+            if (currentCounters != null && !isCountedByRebuild(transactionId)) {
+                add(currentCounters, new CounterKey(metric, instant.atZone(ZoneOffset.UTC)
+                                                                   .getYear(), type), delta);
+            }
+        } finally {
+            rebuildLock.readLock()
+                       .unlock();
+        }
+    }
+
+    private static void add(Map<CounterKey, LongAdder> targetCounters, CounterKey key, long delta) {
+        targetCounters.computeIfAbsent(key, counterKey -> new LongAdder())
+                      .add(delta);
+    }
+}
@@ -7,402 +7,366 @@ import io.oxalate.backend.api.response.stats.EventPeriodReportResponse;
 import io.oxalate.backend.api.response.stats.EventReportResponse;
 import io.oxalate.backend.api.response.stats.MultiYearValueResponse;
 import io.oxalate.backend.api.response.stats.YearlyDiversListResponse;
-import jakarta.persistence.EntityManager;
-import java.math.BigDecimal;
+import io.oxalate.backend.model.StatsCumulation;
+import io.oxalate.backend.model.StatsMetric;
+import io.oxalate.backend.model.StatsValue;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.Year;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Slf4j
-@RequiredArgsConstructor
 @Service
 public class StatsService {
-    private final EntityManager entityManager;
+    // Ranks the divers of each year by their dives in the past events of the year, the position is unique even when the dive counts are equal
+    private static final String TOP_DIVERS_QUERY = """
+            SELECT r.year, r.user_id, r.user_name, r.dive_count, r.position
+            FROM (SELECT EXTRACT(YEAR FROM e.start_time)::INTEGER AS year,
+                         u.id AS user_id,
+                         CONCAT(u.first_name, ' ', u.last_name) AS user_name,
+                         SUM(ep.dive_count) AS dive_count,
+                         ROW_NUMBER() OVER (PARTITION BY EXTRACT(YEAR FROM e.start_time)::INTEGER ORDER BY SUM(ep.dive_count) DESC, u.id) AS position
+                  FROM event_participants ep
+                           JOIN events e ON e.id = ep.event_id
+                           JOIN users u ON u.id = ep.user_id
+                  WHERE e.start_time >= ?
+                    AND e.start_time < NOW()
+                  GROUP BY EXTRACT(YEAR FROM e.start_time)::INTEGER, u.id, u.first_name, u.last_name) r
+            WHERE r.position <= ?
+            ORDER BY r.year, r.position
+            """;
+
+    // Buckets the held events by the half-year of their start, the first half starting in January and the second in July
+    private static final String EVENT_REPORTS_QUERY = """
+            SELECT date_trunc('year', e.start_time) + (EXTRACT(MONTH FROM e.start_time)::INTEGER - 1) / 6 * INTERVAL '6 months' AS period_start,
+                   e.id,
+                   e.start_time,
+                   CONCAT(u.first_name, ' ', u.last_name) AS organizer_name,
+                   COUNT(ep.user_id) AS participant_count,
+                   SUM(ep.dive_count) AS dive_sum
+            FROM events e
+                     JOIN users u ON u.id = e.organizer_id
+                     JOIN event_participants ep ON ep.event_id = e.id
+            WHERE e.status = 'HELD'
+              AND e.start_time < NOW()
+              AND e.start_time >= ?
+              AND e.start_time < ?
+            GROUP BY e.id, u.first_name, u.last_name
+            ORDER BY e.start_time
+            """;
+
+    // Reasons of the failed aggregate queries in the response
+    static final String FAILURE_TIMEOUT = "timeout";
+    static final String FAILURE_ERROR = "error";
+    static final String FAILURE_INTERRUPTED = "interrupted";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Each aggregate query runs in its own read-only transaction, and thus on its own connection, with the statement timeout of the query timeout
+    private final TransactionTemplate aggregateTransactionTemplate;
     private final PortalConfigurationService portalConfigurationService;
+    private final StatsSnapshotService statsSnapshotService;
+    private final StatsCounterService statsCounterService;
+    private final AsyncTaskExecutor statsQueryExecutor;
+    // Limits the statistics queries running at the same time over all the requests, so that they can not take all the database connections
+    private final Semaphore aggregateQueryPermits;
+    private final Duration aggregateQueryTimeout;
+    private volatile FinishedYearsDivers finishedYearsDivers;
+
+    private record FinishedYearsDivers(long snapshotVersion, int currentYear, long listSize, List<YearlyDiversListResponse> yearlyLists) {
+    }
 
-    public List<MultiYearValueResponse> getYearlyRegistrations() {
+    public StatsService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, PortalConfigurationService portalConfigurationService,
+            StatsSnapshotService statsSnapshotService, StatsCounterService statsCounterService,
+            @Qualifier("StatsQueryExecutor") AsyncTaskExecutor statsQueryExecutor, @Value("${oxalate.stats.aggregate.max-concurrency:8}") int maxConcurrency,
+            @Value("${oxalate.stats.aggregate.query-timeout:PT10S}") Duration aggregateQueryTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.aggregateTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.aggregateTransactionTemplate.setReadOnly(true);
+        this.aggregateTransactionTemplate.setTimeout((int) Math.max(1L, aggregateQueryTimeout.toSeconds()));
+        this.portalConfigurationService = portalConfigurationService;
+        this.statsSnapshotService = statsSnapshotService;
+        this.statsCounterService = statsCounterService;
+        this.statsQueryExecutor = statsQueryExecutor;
+        this.aggregateQueryPermits = new Semaphore(maxConcurrency, true);
+        this.aggregateQueryTimeout = aggregateQueryTimeout;
+    }
 
-        var queryString = """
-                SELECT
-                  EXTRACT(YEAR FROM u.registered) AS user_year,
-                  COUNT(u.id) AS registration_count
-                FROM users u
-                GROUP BY user_year
-                ORDER BY user_year
-                """;
-        return getMultiYearValues(queryString, "registrations", true);
+    public List<MultiYearValueResponse> getYearlyRegistrations() {
+        return getSeries(StatsMetric.REGISTRATIONS);
     }
 
     public List<MultiYearValueResponse> getYearlyEvents() {
-        var queryString = """
-                SELECT
-                  EXTRACT(YEAR FROM e.start_time) AS year,
-                  COUNT(e.id) AS event_count
-                FROM events e
-                WHERE e.start_time < NOW()
-                  AND e.status = 'HELD'
-                GROUP BY year
-                ORDER BY year
-                """;
-
-        return getMultiYearValues(queryString, "events", true);
+        return getSeries(StatsMetric.HELD_EVENTS);
     }
 
-    @SuppressWarnings("unchecked")
     public List<MultiYearValueResponse> getYearlyOrganizers() {
-        var queryString = """
-                SELECT
-                  CONCAT(u.first_name, ' ', u.last_name) AS organizer_name,
-                  EXTRACT(YEAR FROM e.start_time) AS year,
-                  COUNT(e.id) AS event_count
-                FROM events e,
-                     users u
-                WHERE u.id = e.organizer_id
-                  AND e.status = 'HELD'
-                  AND e.start_time < NOW()
-                GROUP BY year, e.organizer_id, organizer_name
-                ORDER BY year, event_count DESC
-                """;
-
-        var query = entityManager.createNativeQuery(queryString);
-        List<Object[]> results = query.getResultList();
-
-        var multiYearValues = new ArrayList<MultiYearValueResponse>();
-
-        if (!results.isEmpty()) {
-            var cumulativeHash = new HashMap<String, Long>();
-
-            for (Object[] o : results) {
-                var organizerName = (String) o[0];
-                var year = (BigDecimal) o[1];
-                var eventCount = (Long) o[2];
-
-                if (cumulativeHash.containsKey(organizerName)) {
-                    cumulativeHash.put(organizerName, cumulativeHash.get(organizerName) + eventCount);
-                } else {
-                    cumulativeHash.put(organizerName, eventCount);
-                }
-
-                var response = MultiYearValueResponse.builder()
-                                             .year(year.longValue())
-                                             .value(eventCount)
-                                             .type(organizerName)
-                                             .build();
-                multiYearValues.add(response);
-                var responseCum = MultiYearValueResponse.builder()
-                                                .year(year.longValue())
-                                                .value(cumulativeHash.get(organizerName))
-                                                .type("cumulative-" + organizerName)
-                                                .build();
-                multiYearValues.add(responseCum);
-            }
-        }
-
-        return multiYearValues;
+        return getSeries(StatsMetric.ORGANIZERS);
     }
 
-    @SuppressWarnings("unchecked")
     public List<MultiYearValueResponse> getYearlyPayments() {
-        var queryString = """
-                SELECT
-                  EXTRACT(YEAR FROM p.created) AS year,
-                  p.payment_type,
-                  COUNT(p.id) AS payment_count
-                FROM payments p
-                GROUP BY year, p.payment_type
-                ORDER BY year, payment_count DESC
-                """;
-
-        var query = entityManager.createNativeQuery(queryString);
-        List<Object[]> results = query.getResultList();
-
-        var multiYearValues = new ArrayList<MultiYearValueResponse>();
-
-        if (!results.isEmpty()) {
-            for (Object[] o : results) {
-                var year = (BigDecimal) o[0];
-                var paymentType = (String) o[1];
-                var paymentCount = (Long) o[2];
-
-                var response = MultiYearValueResponse.builder()
-                                             .year(year.longValue())
-                                             .value(paymentCount)
-                                             .type(paymentType)
-                                             .build();
-                multiYearValues.add(response);
-            }
-        }
-
-        return multiYearValues;
+        return getSeries(StatsMetric.PAYMENTS);
     }
 
-    @SuppressWarnings("unchecked")
-    public List<EventPeriodReportResponse> getEventReports() {
+    /**
+     * Returns the reports of the held events grouped by half-years. The periods run from the first period with events, or the period of the from date,
+     * until the end of the current year or the period of the to date. Periods without any events are included with an empty list.
+     *
+     * @param from First date of the events to include, null for no limit
+     * @param to   Last date of the events to include, null for no limit
+     * @return Period reports ordered by period
+     */
+    public List<EventPeriodReportResponse> getEventReports(LocalDate from, LocalDate to) {
         var eventPeriodReportResponses = new ArrayList<EventPeriodReportResponse>();
+        var firstPeriod = from != null ? getPeriodStart(from) : null;
+        var endOfYear = Year.now()
+                            .atMonth(12)
+                            .atEndOfMonth();
+        var lastPeriod = getPeriodStart(to != null && to.isBefore(endOfYear) ? to : endOfYear);
+        var rangeStart = from != null ? from.atStartOfDay() : StatsSnapshotService.RANGE_START;
+        var rangeEnd = to != null ? to.plusDays(1)
+                                      .atStartOfDay() : StatsSnapshotService.RANGE_END;
+
+        jdbcTemplate.query(EVENT_REPORTS_QUERY, (RowCallbackHandler) resultSet -> {
+            var eventDateTime = mapToInstant(resultSet.getObject("start_time"));
 
-        // First get the date of the first event
-        var queryString = """
-                SELECT
-                    EXTRACT(YEAR FROM MIN(e.start_time)) AS year,
-                    EXTRACT(MONTH FROM MIN(e.start_time)) AS month
-                FROM events e
-                """;
-        var query = entityManager.createNativeQuery(queryString);
-        List<Object[]> dateResult = query.getResultList();
-
-        if (!dateResult.isEmpty() && dateResult.get(0) != null && dateResult.get(0)[0] != null) {
-            BigDecimal startYear = (BigDecimal) dateResult.get(0)[0];
-            BigDecimal startMonth = (BigDecimal) dateResult.get(0)[1];
-
-            var yearHalf = 1;
-            var currentYear = Year.now()
-                                  .getValue();
-
-            if (startMonth.intValue() > 6) {
-                yearHalf = 7;
+            if (eventDateTime == null) {
+                log.warn("Skipping event report row due to unsupported event date type: {}", resultSet.getObject("start_time"));
+                return;
             }
 
-            for (int fetchYear = startYear.intValue(); fetchYear <= currentYear; fetchYear++) {
-                if (yearHalf == 1) {
-                    // get list of all events for the first half year of the given year
-                    addPeriodEvents(fetchYear, yearHalf, eventPeriodReportResponses);
-                    yearHalf = 7;
-                }
-
-                // get list of all events for the second half year of the given year
-                addPeriodEvents(fetchYear, yearHalf, eventPeriodReportResponses);
+            var periodStart = resultSet.getObject("period_start", LocalDateTime.class)
+                                       .toLocalDate();
+            addPeriodsUntil(eventPeriodReportResponses, firstPeriod != null ? firstPeriod : periodStart, periodStart);
 
-                yearHalf = 1;
-            }
+            var response = EventReportResponse.builder()
+                                              .eventId(resultSet.getLong("id"))
+                                              .eventDateTime(eventDateTime)
+                                              .organizerName(resultSet.getString("organizer_name"))
+                                              .participantCount(resultSet.getInt("participant_count"))
+                                              .diveCount(resultSet.getInt("dive_sum"))
+                                              .build();
+            eventPeriodReportResponses.getLast()
+                                      .getEvents()
+                                      .add(response);
+        }, rangeStart, rangeEnd);
+
+        // Without a from date and any events there is no first period
+        if (firstPeriod != null || !eventPeriodReportResponses.isEmpty()) {
+            addPeriodsUntil(eventPeriodReportResponses, firstPeriod, lastPeriod);
         }
 
         return eventPeriodReportResponses;
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Returns the top divers of each year from the year of the oldest event until the current year. The lists of the finished years are cached until
+     * the next refresh of the statistics snapshot, after which only the current year is queried.
+     *
+     * @return Top diver lists ordered by year
+     */
     public List<YearlyDiversListResponse> getYearlyDiversList() {
-        var yearlyList = new ArrayList<YearlyDiversListResponse>();
-        var firstYear = getOldestEventYear();
         var diverListSize = portalConfigurationService.getNumericConfiguration(PortalConfigEnum.GENERAL.group,
                 PortalConfigEnum.GeneralConfigEnum.TOP_DIVER_LIST_SIZE.key);
-        // If we do not have any data, then we return empty list
-        if (firstYear == 0L) {
-            log.warn("No dives found for top 50 divers");
+        var currentYear = Year.now(ZoneOffset.UTC)
+                              .getValue();
+        var snapshotVersion = statsSnapshotService.getVersion();
+        var cached = finishedYearsDivers;
+
+        if (cached != null && cached.snapshotVersion() == snapshotVersion && cached.currentYear() == currentYear && cached.listSize() == diverListSize) {
+            var yearlyList = new ArrayList<>(cached.yearlyLists());
+            yearlyList.addAll(getYearlyDivers(currentYear, currentYear, diverListSize));
             return yearlyList;
         }
 
-        var lastYear = Year.now()
-                           .getValue();
-
-        for (var i = firstYear; i <= lastYear; i++) {
-            var queryString = String.format("""
-                    SELECT u.id,
-                           CONCAT(u.first_name, ' ', u.last_name),
-                           SUM(ep.dive_count) AS diveCount
-                    FROM users u,
-                         event_participants ep,
-                         events e
-                    WHERE u.id = ep.user_id
-                      AND e.id = ep.event_id
-                      AND e.start_time < NOW()
-                      AND EXTRACT('Year' FROM e.start_time) = %d
-                    GROUP BY u.id
-                    ORDER BY diveCount DESC
-                    LIMIT %d
-                    """, i, diverListSize);
-
-            var query = entityManager.createNativeQuery(queryString);
-            List<Object[]> results = query.getResultList();
-
-            var position = 1;
-            var entryList = new ArrayList<DiverListItemResponse>();
-
-            for (Object[] o : results) {
-                var userId = (Long) o[0];
-                var userName = (String) o[1];
-                var diveCount = (Long) o[2];
-                var diverListItemResponse = DiverListItemResponse.builder()
-                                                                 .userId(userId)
-                                                                 .userName(userName)
-                                                                 .diveCount(diveCount)
-                                                                 .position(position)
-                                                                 .build();
-                entryList.add(diverListItemResponse);
-                position++;
-            }
-
-            var yearlyDiversListResponse = YearlyDiversListResponse.builder()
-                                                                   .year(i)
-                                                                   .divers(entryList)
-                                                                   .build();
-            yearlyList.add(yearlyDiversListResponse);
+        var firstYear = getOldestEventYear();
+        // If we do not have any data, then we return empty list
+        if (firstYear == 0L) {
+            log.warn("No dives found for top 50 divers");
+            return new ArrayList<>();
         }
 
+        var yearlyList = getYearlyDivers(firstYear, currentYear, diverListSize);
+        var finishedYears = yearlyList.stream()
+                                      .filter(yearlyDivers -> yearlyDivers.getYear() < currentYear)
+                                      .toList();
+        finishedYearsDivers = new FinishedYearsDivers(snapshotVersion, currentYear, diverListSize, finishedYears);
         return yearlyList;
     }
 
+    /**
+     * Returns all the aggregates of the dashboard. The aggregates are queried concurrently, so that the latency is that of the slowest query instead of
+     * their sum. An aggregate whose query fails or does not finish within the query timeout is returned as an empty list, has no duration and is listed
+     * in the failed queries with the reason. The wait for a free query slot counts against the same timeout, so a busy database delays the response by
+     * at most the timeout.
+     *
+     * @return Aggregates with the duration of each query in milliseconds and the queries which failed
+     */
     public AggregateResponse getAggregateData() {
-        var diversPerYear = getDiversPerYear();
-        var diverTypePerYear = getDiverTypesPerYear();
-        var eventsPerYear = getEventsPerYear();
-        var eventTypesPerYear = getEventTypesPerYear();
+        var queryDurations = new ConcurrentHashMap<String, Long>();
+        var failedQueries = new HashMap<String, String>();
+        var deadline = System.nanoTime() + aggregateQueryTimeout.toNanos();
+        var diversPerYear = submitAggregate("diversPerYear", this::getDiversPerYear, queryDurations, deadline);
+        var diverTypePerYear = submitAggregate("diverTypesPerYear", this::getDiverTypesPerYear, queryDurations, deadline);
+        var eventsPerYear = submitAggregate("eventsPerYear", this::getEventsPerYear, queryDurations, deadline);
+        var eventTypesPerYear = submitAggregate("eventTypesPerYear", this::getEventTypesPerYear, queryDurations, deadline);
         return AggregateResponse.builder()
-                                .diversPerYear(diversPerYear)
-                                .diverTypesPerYear(diverTypePerYear)
-                                .eventsPerYear(eventsPerYear)
-                                .eventTypesPerYear(eventTypesPerYear)
+                                .diversPerYear(awaitAggregate("diversPerYear", diversPerYear, deadline, failedQueries))
+                                .diverTypesPerYear(awaitAggregate("diverTypesPerYear", diverTypePerYear, deadline, failedQueries))
+                                .eventsPerYear(awaitAggregate("eventsPerYear", eventsPerYear, deadline, failedQueries))
+                                .eventTypesPerYear(awaitAggregate("eventTypesPerYear", eventTypesPerYear, deadline, failedQueries))
+                                .queryDurations(Map.copyOf(queryDurations))
+                                .failedQueries(Map.copyOf(failedQueries))
                                 .build();
     }
 
     public List<MultiYearValueResponse> getEventsPerYear() {
-        var queryString = """
-                SELECT
-                  EXTRACT(YEAR FROM e.start_time) AS year,
-                  COUNT(e.id) AS event_count
-                FROM events e
-                WHERE e.status = 'HELD'
-                GROUP BY year
-                ORDER BY year;
-                """;
-        return getMultiYearValues(queryString, "events", false);
+        return getSeries(StatsMetric.EVENTS);
     }
 
     public List<MultiYearValueResponse> getEventTypesPerYear() {
-        var queryString = """
-                SELECT
-                EXTRACT(YEAR FROM e.start_time) AS event_year,
-                COUNT(e.id) AS event_count,
-                e.TYPE AS event_type
-                FROM events e
-                WHERE e.status = 'HELD'
-                GROUP BY event_year, event_type
-                ORDER BY event_year;
-                """;
-        return getMultiYearValues(queryString, "2", false);
+        return getSeries(StatsMetric.EVENT_TYPES);
     }
 
     public List<MultiYearValueResponse> getDiversPerYear() {
-        var queryString = """
-                SELECT
-                  EXTRACT(YEAR FROM e.start_time) AS event_year,
-                  COUNT(e.id) AS registration_count
-                FROM events e, event_participants ep
-                WHERE e.id = ep.event_id
-                  AND e.status = 'HELD'
-                GROUP BY event_year
-                ORDER BY event_year
-                """;
-        return getMultiYearValues(queryString, "divers", false);
+        return getSeries(StatsMetric.DIVERS);
     }
 
     public List<MultiYearValueResponse> getDiverTypesPerYear() {
-        var queryString = """
-                SELECT
-                  EXTRACT(YEAR FROM e.start_time) AS event_year,
-                  COUNT(e.id) AS registration_count,
-                  ep.event_user_type
-                FROM events e, event_participants ep
-                WHERE e.id = ep.event_id
-                  AND e.status = 'HELD'
-                GROUP BY event_year, ep.event_user_type
-                ORDER BY event_year
-                """;
-        return getMultiYearValues(queryString, "2", false);
+        return getSeries(StatsMetric.DIVER_TYPES);
     }
 
-    private long getOldestEventYear() {
-        var queryString = "SELECT MIN(EXTRACT('Year' FROM e.start_time))"
-                + "FROM events e";
-
-        var query = entityManager.createNativeQuery(queryString);
+    private Future<List<MultiYearValueResponse>> submitAggregate(String name, Supplier<List<MultiYearValueResponse>> query,
+            Map<String, Long> queryDurations, long deadline) {
+        return statsQueryExecutor.submit(() -> {
+            if (!aggregateQueryPermits.tryAcquire(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                throw new TimeoutException("No free query slot for the aggregate query " + name);
+            }
 
-        if (query != null) {
-            var possibleValue = query.getSingleResult();
+            try {
+                var start = System.nanoTime();
+                var result = aggregateTransactionTemplate.execute(status -> query.get());
+                queryDurations.put(name, (System.nanoTime() - start) / 1_000_000);
+                return result;
+            } finally {
+                aggregateQueryPermits.release();
+            }
+        });
+    }
 
-            if (possibleValue != null) {
-                var result = (BigDecimal) possibleValue;
-                return result.longValue();
+    private List<MultiYearValueResponse> awaitAggregate(String name, Future<List<MultiYearValueResponse>> future, long deadline,
+            Map<String, String> failedQueries) {
+        try {
+            return future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            future.cancel(true);
+            log.warn("Interrupted while waiting for the aggregate query {}", name);
+            failedQueries.put(name, FAILURE_INTERRUPTED);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.error("Aggregate query {} did not finish within {}", name, aggregateQueryTimeout);
+            failedQueries.put(name, FAILURE_TIMEOUT);
+        } catch (ExecutionException e) {
+            // Waiting for a free query slot past the deadline is a timeout as well
+            if (e.getCause() instanceof TimeoutException) {
+                log.error("Aggregate query {} did not get a query slot within {}", name, aggregateQueryTimeout);
+                failedQueries.put(name, FAILURE_TIMEOUT);
+            } else {
+                log.error("Aggregate query {} failed", name, e.getCause());
+                failedQueries.put(name, FAILURE_ERROR);
             }
         }
 
-        return 0L;
+        return List.of();
     }
 
-    private void addPeriodEvents(int fetchYear, int yearHalf, ArrayList<EventPeriodReportResponse> eventPeriodReportResponses) {
-        var reports = getAllEventsForPeriod(fetchYear, yearHalf);
-        var eventPeriodReport = EventPeriodReportResponse.builder()
-                                                         .periodStart(Instant.parse(fetchYear + "-0" + yearHalf + "-01T00:00:00.00Z"))
-                                                         .period(fetchYear + "-" + yearHalf)
-                                                         .events(reports)
-                                                         .build();
-        eventPeriodReportResponses.add(eventPeriodReport);
+    private long getOldestEventYear() {
+        var oldestYear = jdbcTemplate.queryForObject("SELECT MIN(EXTRACT(YEAR FROM e.start_time))::INTEGER FROM events e", Integer.class);
+        return oldestYear != null ? oldestYear : 0L;
     }
 
-    @SuppressWarnings("unchecked")
-    private List<EventReportResponse> getAllEventsForPeriod(long fetchYear, int yearHalf) {
-        var queryString = String.format("""
-                SELECT e.id,
-                       e.start_time,
-                       CONCAT(u.first_name, ' ', u.last_name) AS organizer_name,
-                       COUNT(ep.user_id) AS participant_count,
-                       SUM(ep.dive_count) AS dive_sum
-                FROM events e,
-                     users u,
-                     event_participants ep
-                WHERE e.organizer_id = u.id
-                  AND e.status = 'HELD'
-                  AND ep.event_id = e.id
-                  AND e.start_time < NOW()
-                  AND e.start_time > DATE '%s-0%s-01'
-                  AND e.start_time < DATE '%s-0%s-01' + INTERVAL '6 months'
-                GROUP BY e.id, organizer_name, e.start_time
-                ORDER BY e.start_time
-                """, fetchYear, yearHalf, fetchYear, yearHalf);
-
-        var query = entityManager.createNativeQuery(queryString);
-        List<Object[]> results;
-        var eventReportResponses = new ArrayList<EventReportResponse>();
+    /**
+     * Ranks the divers of all the given years with a single query. Years without any dives get an empty list.
+     */
+    private List<YearlyDiversListResponse> getYearlyDivers(long firstYear, long lastYear, long diverListSize) {
+        var diversByYear = new HashMap<Long, List<DiverListItemResponse>>();
+        var rangeStart = LocalDateTime.of((int) firstYear, 1, 1, 0, 0);
+
+        jdbcTemplate.query(TOP_DIVERS_QUERY, (RowCallbackHandler) resultSet -> {
+            var diverListItemResponse = DiverListItemResponse.builder()
+                                                             .userId(resultSet.getLong("user_id"))
+                                                             .userName(resultSet.getString("user_name"))
+                                                             .diveCount(resultSet.getLong("dive_count"))
+                                                             .position(resultSet.getLong("position"))
+                                                             .build();
+            diversByYear.computeIfAbsent(resultSet.getLong("year"), year -> new ArrayList<>())
+                        .add(diverListItemResponse);
+        }, rangeStart, diverListSize);
 
-        try {
-            results = query.getResultList();
-        } catch (Exception e) {
-            log.error("Error in query: {}{}", queryString, e.getMessage(), e);
-            return eventReportResponses;
+        var yearlyList = new ArrayList<YearlyDiversListResponse>();
+
+        for (var year = firstYear; year <= lastYear; year++) {
+            var yearlyDiversListResponse = YearlyDiversListResponse.builder()
+                                                                   .year(year)
+                                                                   .divers(diversByYear.getOrDefault(year, List.of()))
+                                                                   .build();
+            yearlyList.add(yearlyDiversListResponse);
         }
 
-        for (Object[] o : results) {
-            var eventId = (Long) o[0];
-            var eventDateTime = mapToInstant(o[1]);
-            if (eventDateTime == null) {
-                log.warn("Skipping event report row due to unsupported event date type: {}", o[1] != null ?
-                        o[1].getClass()
-                            .getName() :
-                        "null");
-                continue;
-            }
-            var organizerName = (String) o[2];
-            var eventCount = (Long) o[3];
-            var diveCount = (Long) o[4];
+        return yearlyList;
+    }
 
-            var response = EventReportResponse.builder()
-                                              .eventId(eventId)
-                                              .eventDateTime(eventDateTime)
-                                              .organizerName(organizerName)
-                                              .participantCount(eventCount.intValue())
-                                              .diveCount(diveCount.intValue())
-                                              .build();
-            eventReportResponses.add(response);
+    private LocalDate getPeriodStart(LocalDate date) {
+        return LocalDate.of(date.getYear(), date.getMonthValue() > 6 ? 7 : 1, 1);
+    }
+
+    /**
+     * Appends the empty periods following the last one of the list, or starting from the first period if the list is empty, until the given period.
+     */
+    private void addPeriodsUntil(List<EventPeriodReportResponse> eventPeriodReportResponses, LocalDate firstPeriod, LocalDate untilPeriod) {
+        var periodStart = firstPeriod;
+
+        if (!eventPeriodReportResponses.isEmpty()) {
+            var lastPeriodStart = eventPeriodReportResponses.getLast()
+                                                            .getPeriodStart();
+            periodStart = LocalDate.ofInstant(lastPeriodStart, ZoneOffset.UTC)
+                                   .plusMonths(6);
         }
 
-        return eventReportResponses;
+        for (; !periodStart.isAfter(untilPeriod); periodStart = periodStart.plusMonths(6)) {
+            var eventPeriodReport = EventPeriodReportResponse.builder()
+                                                             .periodStart(periodStart.atStartOfDay(ZoneOffset.UTC)
+                                                                                     .toInstant())
+                                                             .period(periodStart.getYear() + "-" + periodStart.getMonthValue())
+                                                             .events(new ArrayList<>())
+                                                             .build();
+            eventPeriodReportResponses.add(eventPeriodReport);
+        }
     }
 
     private Instant mapToInstant(Object value) {
@@ -435,52 +399,43 @@ public class StatsService {
     }
 
     /**
-     * Generic method to get multi-year values from a query, if the keyName is numeric, it is treated as the index of the column to use as type. Note that this
-     * index must be greater than 1, as 0 is year and 1 is value.
+     * Returns the series of the metric with its cumulative rows.
+     */
+    private List<MultiYearValueResponse> getSeries(StatsMetric metric) {
+        return toMultiYearValues(getValues(metric), metric.cumulation);
+    }
+
+    /**
+     * Returns the values of the metric from the in-memory counters when the metric is counted and the counters are available, or from the snapshot.
+     */
+    private List<StatsValue> getValues(StatsMetric metric) {
+        return statsCounterService.getValues(metric)
+                                  .orElseGet(() -> statsSnapshotService.getValues(metric));
+    }
+
+    /**
+     * Converts the yearly values to responses, each followed by its cumulative row unless the cumulation is NONE.
      *
-     * @param queryString       SQL query string
-     * @param keyName           the name of the key or the index of the column to use as type
-     * @param includeCumulative whether to include cumulative values
+     * @param statsValues yearly values ordered by year
+     * @param cumulation  which running totals to add
      * @return list of MultiYearValueResponse
      */
-    @SuppressWarnings("unchecked")
-    private List<MultiYearValueResponse> getMultiYearValues(String queryString, String keyName, boolean includeCumulative) {
-        var isKeyNumeric = keyName.matches("\\d+");
-        var keyIndex = isKeyNumeric ? Integer.parseInt(keyName) : -1;
-
-        var query = entityManager.createNativeQuery(queryString);
-        List<Object[]> results = query.getResultList();
-
-        var multiYearValues = new ArrayList<MultiYearValueResponse>();
-
-        if (!results.isEmpty()) {
-            var cumulative = 0L;
-
-            for (Object[] o : results) {
-                var year = (BigDecimal) o[0];
-                var count = (Long) o[1];
-
-                if (isKeyNumeric) {
-                    keyName = (String) o[keyIndex];
-                }
-
-                cumulative += count;
-
-                var response = MultiYearValueResponse.builder()
-                                             .year(year.longValue())
-                                             .value(count)
-                                             .type(keyName)
-                                             .build();
-                multiYearValues.add(response);
-
-                if (includeCumulative) {
-                    var responseCum = MultiYearValueResponse.builder()
-                                                            .year(year.longValue())
-                                                            .value(cumulative)
-                                                            .type("cumulative")
-                                                            .build();
-                    multiYearValues.add(responseCum);
-                }
+    static List<MultiYearValueResponse> toMultiYearValues(List<StatsValue> statsValues, StatsCumulation cumulation) {
+        var multiYearValues = new ArrayList<MultiYearValueResponse>(cumulation == StatsCumulation.NONE ? statsValues.size() : statsValues.size() * 2);
+        var total = 0L;
+        // Running totals of the types, kept in single-element arrays to update them in place
+        var typeTotals = new HashMap<String, long[]>();
+
+        for (var statsValue : statsValues) {
+            multiYearValues.add(new MultiYearValueResponse(statsValue.getYear(), statsValue.getValue(), statsValue.getType()));
+
+            if (cumulation == StatsCumulation.TOTAL) {
+                total += statsValue.getValue();
+                multiYearValues.add(new MultiYearValueResponse(statsValue.getYear(), total, "cumulative"));
+            } else if (cumulation == StatsCumulation.PER_TYPE) {
+                var typeTotal = typeTotals.computeIfAbsent(statsValue.getType(), type -> new long[1]);
+                typeTotal[0] += statsValue.getValue();
+                multiYearValues.add(new MultiYearValueResponse(statsValue.getYear(), typeTotal[0], "cumulative-" + statsValue.getType()));
             }
         }
 
@@ -0,0 +1,110 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.model.StatsMetric;
+import io.oxalate.backend.model.StatsValue;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the yearly statistics of the closed years materialized in the stats snapshot table and merges them with the statistics of the current year,
+ * which are computed from the source tables on every request. The cost of a request thus depends on the number of years and the rows of the current
+ * year only.
+ */
+@Slf4j
+@Service
+public class StatsSnapshotService {
+    // Bounds covering all the rows when used as the start or the end of the range
+    static final LocalDateTime RANGE_START = LocalDateTime.of(1900, 1, 1, 0, 0);
+    static final LocalDateTime RANGE_END = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    // Order of the values returned for a metric, by year and the largest value first within the year
+    static final Comparator<StatsValue> VALUE_ORDER = Comparator.comparingLong(StatsValue::getYear)
+                                                                .thenComparing(Comparator.comparingLong(StatsValue::getValue)
+                                                                                         .reversed());
+
+    private static final String DELETE_SNAPSHOTS = "DELETE FROM stats_snapshots";
+    private static final String INSERT_SNAPSHOTS = "INSERT INTO stats_snapshots (metric, year, type, value) SELECT ?, s.year, s.type, s.value FROM (%s) s";
+    private static final String SELECT_SNAPSHOTS = "SELECT year, type, value FROM stats_snapshots WHERE metric = ? AND year < ?";
+    private static final RowMapper<StatsValue> STATS_VALUE_MAPPER = (resultSet, rowNumber) -> new StatsValue(resultSet.getLong("year"),
+            resultSet.getString("type"), resultSet.getLong("value"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    // Start of the first year which is not in the snapshot, until the first refresh everything is computed from the source tables
+    private volatile LocalDateTime snapshotUntil = RANGE_START;
+    // Incremented by every refresh, lets the callers cache values derived from the closed years until the next refresh
+    private volatile long version;
+
+    public StatsSnapshotService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Recomputes the snapshot of all the years before the current one. The old snapshot stays visible until the new one is committed.
+     */
+    public void refresh() {
+        var until = Year.now(ZoneOffset.UTC)
+                        .atDay(1)
+                        .atStartOfDay();
+        var start = System.nanoTime();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_SNAPSHOTS);
+
+            for (var metric : StatsMetric.values()) {
+                jdbcTemplate.update(INSERT_SNAPSHOTS.formatted(metric.query), metric.key, RANGE_START, until);
+            }
+        });
+
+        snapshotUntil = until;
+        version++;
+        log.info("Refreshed the statistics snapshot until {} in {} ms", until, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the yearly values of the metric of all the years computed from the source tables, ordered by year and descending value.
+     *
+     * @param metric Metric to compute
+     * @return Values of all the years
+     */
+    public List<StatsValue> computeValues(StatsMetric metric) {
+        var values = new ArrayList<>(jdbcTemplate.query(metric.query, STATS_VALUE_MAPPER, RANGE_START, RANGE_END));
+        values.sort(VALUE_ORDER);
+        return values;
+    }
+
+    /**
+     * Returns the yearly values of the metric ordered by year and descending value. The closed years are read from the snapshot and the rest are
+     * computed.
+     *
+     * @param metric Metric to fetch
+     * @return Values of all the years
+     */
+    public List<StatsValue> getValues(StatsMetric metric) {
+        var until = snapshotUntil;
+        var values = new ArrayList<StatsValue>();
+
+        if (until.isAfter(RANGE_START)) {
+            values.addAll(jdbcTemplate.query(SELECT_SNAPSHOTS, STATS_VALUE_MAPPER, metric.key, until.getYear()));
+        }
+
+        values.addAll(jdbcTemplate.query(metric.query, STATS_VALUE_MAPPER, until, RANGE_END));
+        values.sort(VALUE_ORDER);
+        return values;
+    }
+}
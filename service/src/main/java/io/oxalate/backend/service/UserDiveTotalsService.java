@@ -0,0 +1,58 @@
+package io.oxalate.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Checks the per-user dive totals against the event participations. The totals are maintained by database triggers on every change of the
+ * participations and events, so a rebuild is only needed if the totals have been modified by hand or the triggers have been disabled.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class UserDiveTotalsService {
+    private static final String EXPECTED_TOTALS = """
+            SELECT ep.user_id, EXTRACT(YEAR FROM e.start_time)::INTEGER AS year, e.type AS event_type, SUM(ep.dive_count) AS dive_count,
+                   COUNT(*) AS participation_count
+            FROM event_participants ep
+                     JOIN events e ON e.id = ep.event_id
+            GROUP BY ep.user_id, EXTRACT(YEAR FROM e.start_time)::INTEGER, e.type
+            """;
+    // Waits for the transactions changing the participations to finish and keeps new ones from changing the totals until the rebuild is done
+    private static final String LOCK_TOTALS = "LOCK TABLE user_dive_totals IN EXCLUSIVE MODE";
+    private static final String COUNT_MISMATCHES = "SELECT COUNT(*) FROM (" + EXPECTED_TOTALS + """
+            ) expected
+                     FULL JOIN user_dive_totals t USING (user_id, year, event_type)
+            WHERE expected.dive_count IS DISTINCT FROM t.dive_count
+               OR expected.participation_count IS DISTINCT FROM t.participation_count
+            """;
+    private static final String DELETE_TOTALS = "DELETE FROM user_dive_totals";
+    private static final String INSERT_TOTALS = "INSERT INTO user_dive_totals (user_id, year, event_type, dive_count, participation_count) " + EXPECTED_TOTALS;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Compares the stored totals with the ones computed from the participations, and rebuilds the whole table if any of them differ.
+     *
+     * @return Number of totals which differed
+     */
+    @Transactional
+    public long verifyAndRebuild() {
+        jdbcTemplate.execute(LOCK_TOTALS);
+        var mismatches = jdbcTemplate.queryForObject(COUNT_MISMATCHES, Long.class);
+
+        if (mismatches == null || mismatches == 0L) {
+            log.debug("User dive totals are consistent with the event participations");
+            return 0L;
+        }
+
+        log.warn("Found {} user dive totals inconsistent with the event participations, rebuilding", mismatches);
+        jdbcTemplate.update(DELETE_TOTALS);
+        var inserted = jdbcTemplate.update(INSERT_TOTALS);
+        log.info("Rebuilt {} user dive totals", inserted);
+        return mismatches;
+    }
+}
@@ -8,6 +8,7 @@ import static io.oxalate.backend.api.UserStatusEnum.ANONYMIZED;
 import static io.oxalate.backend.api.UserStatusEnum.REGISTERED;
 import io.oxalate.backend.api.request.SignupRequest;
 import io.oxalate.backend.api.response.AdminUserResponse;
+import io.oxalate.backend.events.UserRegisteredEvent;
 import io.oxalate.backend.model.Role;
 import io.oxalate.backend.model.Tag;
 import io.oxalate.backend.model.User;
@@ -23,6 +24,7 @@ import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,6 +39,7 @@ public class UserService {
     private final EventRepository eventRepository;
     private final PaymentService paymentService;
     private final MembershipRepository membershipRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     private static List<AdminUserResponse> getAdminUserResponseList(List<User> users) {
         var adminUserResponses = new ArrayList<AdminUserResponse>();
@@ -95,6 +98,10 @@ public class UserService {
         roleRepository.addUserRole(newUser.getId(), roleService.getRoleId(user.getRoles()
                                                                               .iterator()
                                                                               .next()));
+        applicationEventPublisher.publishEvent(UserRegisteredEvent.builder()
+                                                                  .userId(newUser.getId())
+                                                                  .registered(newUser.getRegistered())
+                                                                  .build());
         return newUser;
     }
 
@@ -5,6 +5,7 @@ import io.oxalate.backend.security.service.UserDetailsImpl;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -111,6 +112,19 @@ public class AuthTools {
         return roleList;
     }
 
+    /**
+     * Creates a stable string representation of a role set, usable as a cache key component regardless of the iteration order of the set.
+     *
+     * @param roles Set of roles
+     * @return Sorted, comma separated role names
+     */
+    public static String roleFingerprint(Set<RoleEnum> roles) {
+        return roles.stream()
+                    .map(RoleEnum::name)
+                    .sorted()
+                    .collect(Collectors.joining(","));
+    }
+
     private static Authentication getAuthentication() {
         SecurityContext context = SecurityContextHolder.getContext();
 
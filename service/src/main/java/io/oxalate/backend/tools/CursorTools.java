@@ -0,0 +1,109 @@
+package io.oxalate.backend.tools;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Encodes and decodes the opaque continuation tokens of cursor-based listings. A token carries the sort key values of the last item of the previous
+ * response, typically the sorted field and the ID, in the order they are sorted by. The values keep their type so that they can be bound as query
+ * parameters as-is after decoding.
+ */
+@Slf4j
+public class CursorTools {
+    private static final char ENTRY_SEPARATOR = '\u001E';
+    private static final char VALUE_SEPARATOR = '\u001F';
+
+    /**
+     * Encodes the given sort keys into a URL-safe token. Supported value types are String, Instant, Long, Integer, Float, Double and enums, which are
+     * stored with their name. Any other value type is stored as its string representation.
+     *
+     * @param keys Sort key names and values in sort order
+     * @return Continuation token
+     */
+    public static String encode(Map<String, ?> keys) {
+        var token = new StringBuilder();
+
+        for (var entry : keys.entrySet()) {
+            if (!token.isEmpty()) {
+                token.append(ENTRY_SEPARATOR);
+            }
+
+            var value = entry.getValue();
+            var type = switch (value) {
+                case null -> 'N';
+                case Instant ignored -> 'I';
+                case Long ignored -> 'L';
+                case Integer ignored -> 'i';
+                case Float ignored -> 'F';
+                case Double ignored -> 'D';
+                default -> 'S';
+            };
+
+            var stringValue = value instanceof Enum<?> enumValue ? enumValue.name() : value == null ? "" : value.toString();
+            // Escaping keeps the separators unambiguous regardless of what the sorted text contains
+            token.append(URLEncoder.encode(entry.getKey(), StandardCharsets.UTF_8))
+                 .append(VALUE_SEPARATOR)
+                 .append(type)
+                 .append(URLEncoder.encode(stringValue, StandardCharsets.UTF_8));
+        }
+
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(token.toString()
+                                          .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token created by {@link #encode(Map)}. Enum values are returned as their names.
+     *
+     * @param cursor Continuation token given by the client
+     * @return Sort key names and values in sort order, or null if the token is malformed
+     */
+    public static Map<String, Object> decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            var token = new String(Base64.getUrlDecoder()
+                                         .decode(cursor), StandardCharsets.UTF_8);
+            var keys = new LinkedHashMap<String, Object>();
+
+            for (var entry : token.split(String.valueOf(ENTRY_SEPARATOR), -1)) {
+                var separatorIndex = entry.indexOf(VALUE_SEPARATOR);
+
+                if (separatorIndex < 1 || separatorIndex == entry.length() - 1) {
+                    log.warn("Malformed cursor entry in cursor: {}", cursor);
+                    return null;
+                }
+
+                var key = URLDecoder.decode(entry.substring(0, separatorIndex), StandardCharsets.UTF_8);
+                var type = entry.charAt(separatorIndex + 1);
+                var value = URLDecoder.decode(entry.substring(separatorIndex + 2), StandardCharsets.UTF_8);
+
+                keys.put(key, switch (type) {
+                    case 'N' -> null;
+                    case 'I' -> Instant.parse(value);
+                    case 'L' -> Long.parseLong(value);
+                    case 'i' -> Integer.parseInt(value);
+                    case 'F' -> Float.parseFloat(value);
+                    case 'D' -> Double.parseDouble(value);
+                    case 'S' -> value;
+                    default -> throw new IllegalArgumentException("Unknown cursor value type: " + type);
+                });
+            }
+
+            return keys;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            log.warn("Failed to decode cursor: {}", cursor, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package io.oxalate.backend.tools;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates and applies compact text deltas. The texts are split into words and HTML tags, and the delta lists which of the words of the source text
+ * are kept, which are dropped and what is inserted between them. A delta is serialized as a sequence of operations:
+ * <ul>
+ *     <li>{@code =n;} keeps the next n words of the source</li>
+ *     <li>{@code -n;} skips the next n words of the source</li>
+ *     <li>{@code +n:text} inserts the n characters following the colon</li>
+ * </ul>
+ */
+@Slf4j
+public class DeltaTools {
+    // Upper limit of inserted and removed words, beyond this the difference is computed in vain as the delta would be as large as the text itself
+    private static final int MAX_EDITS = 1024;
+
+    /**
+     * Computes a delta which turns the source text into the target text.
+     *
+     * @param source Text to which the delta is applied, null is handled as an empty text
+     * @param target Text produced by the delta, null is handled as an empty text
+     * @return Serialized delta, or null if the texts differ too much for a delta to be worthwhile
+     */
+    public static String createDelta(String source, String target) {
+        var sourceTokens = tokenize(source);
+        var targetTokens = tokenize(target);
+        var tokenIds = new HashMap<String, Integer>();
+        var a = toIds(sourceTokens, tokenIds);
+        var b = toIds(targetTokens, tokenIds);
+
+        var prefix = 0;
+
+        while (prefix < a.length && prefix < b.length && a[prefix] == b[prefix]) {
+            prefix++;
+        }
+
+        var suffix = 0;
+
+        while (suffix < a.length - prefix && suffix < b.length - prefix && a[a.length - 1 - suffix] == b[b.length - 1 - suffix]) {
+            suffix++;
+        }
+
+        var edits = shortestEdit(Arrays.copyOfRange(a, prefix, a.length - suffix), Arrays.copyOfRange(b, prefix, b.length - suffix));
+
+        if (edits == null) {
+            return null;
+        }
+
+        var delta = new StringBuilder();
+        appendCount(delta, '=', prefix);
+        var kept = 0;
+        var skipped = 0;
+        var inserted = new StringBuilder();
+
+        for (var edit : edits) {
+            if (edit.type != '+' && !inserted.isEmpty()) {
+                delta.append('+')
+                     .append(inserted.length())
+                     .append(':')
+                     .append(inserted);
+                inserted.setLength(0);
+            }
+
+            if (edit.type != '=' && kept > 0) {
+                appendCount(delta, '=', kept);
+                kept = 0;
+            }
+
+            if (edit.type != '-' && skipped > 0) {
+                appendCount(delta, '-', skipped);
+                skipped = 0;
+            }
+
+            switch (edit.type) {
+                case '=' -> kept++;
+                case '-' -> skipped++;
+                default -> inserted.append(targetTokens.get(prefix + edit.targetIndex));
+            }
+        }
+
+        appendCount(delta, '=', kept);
+        appendCount(delta, '-', skipped);
+
+        if (!inserted.isEmpty()) {
+            delta.append('+')
+                 .append(inserted.length())
+                 .append(':')
+                 .append(inserted);
+        }
+
+        appendCount(delta, '=', suffix);
+        return delta.toString();
+    }
+
+    /**
+     * Applies a delta created by {@link #createDelta(String, String)} to the same source text it was created from.
+     *
+     * @param source Text the delta was created from, null is handled as an empty text
+     * @param delta  Serialized delta
+     * @return The target text of the delta
+     * @throws IllegalArgumentException if the delta is malformed or does not match the source text
+     */
+    public static String applyDelta(String source, String delta) {
+        var sourceTokens = tokenize(source);
+        var result = new StringBuilder();
+        var position = 0;
+        var index = 0;
+
+        try {
+            while (index < delta.length()) {
+                var operation = delta.charAt(index);
+                var end = delta.indexOf(operation == '+' ? ':' : ';', index + 1);
+
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated delta operation at index " + index);
+                }
+
+                var count = Integer.parseInt(delta.substring(index + 1, end));
+
+                switch (operation) {
+                    case '=' -> {
+                        for (var i = 0; i < count; i++) {
+                            result.append(sourceTokens.get(position++));
+                        }
+
+                        index = end + 1;
+                    }
+                    case '-' -> {
+                        position += count;
+                        index = end + 1;
+                    }
+                    case '+' -> {
+                        result.append(delta, end + 1, end + 1 + count);
+                        index = end + 1 + count;
+                    }
+                    default -> throw new IllegalArgumentException("Unknown delta operation: " + operation);
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Delta does not match the source text", e);
+        }
+
+        if (position != sourceTokens.size()) {
+            throw new IllegalArgumentException("Delta does not match the source text");
+        }
+
+        return result.toString();
+    }
+
+    /**
+     * Splits the text into words with their trailing whitespace, and into HTML tags, so that joining the tokens gives back the original text.
+     */
+    static List<String> tokenize(String text) {
+        var tokens = new ArrayList<String>();
+
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        var start = 0;
+
+        for (var i = 0; i < text.length(); i++) {
+            var character = text.charAt(i);
+
+            if (character == '<' && i > start) {
+                tokens.add(text.substring(start, i));
+                start = i;
+            }
+
+            if (character == '>' || Character.isWhitespace(character)) {
+                tokens.add(text.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+
+        if (start < text.length()) {
+            tokens.add(text.substring(start));
+        }
+
+        return tokens;
+    }
+
+    private static int[] toIds(List<String> tokens, HashMap<String, Integer> tokenIds) {
+        var ids = new int[tokens.size()];
+
+        for (var i = 0; i < ids.length; i++) {
+            ids[i] = tokenIds.computeIfAbsent(tokens.get(i), token -> tokenIds.size());
+        }
+
+        return ids;
+    }
+
+    private static void appendCount(StringBuilder delta, char operation, int count) {
+        if (count > 0) {
+            delta.append(operation)
+                 .append(count)
+                 .append(';');
+        }
+    }
+
+    /**
+     * Myers' O((N+M)D) difference algorithm, returns the edit script from a to b, or null if it would need more than {@link #MAX_EDITS} insertions
+     * and removals.
+     */
+    private static List<Edit> shortestEdit(int[] a, int[] b) {
+        var n = a.length;
+        var m = b.length;
+        var limit = Math.min(n + m, MAX_EDITS);
+        var offset = limit + 1;
+        var furthest = new int[2 * limit + 3];
+        // Furthest reaching x for each diagonal k in [-d, d] after each round d, needed to walk the path back
+        var trace = new ArrayList<int[]>();
+
+        for (var d = 0; d <= limit; d++) {
+            for (var k = -d; k <= d; k += 2) {
+                var x = (k == -d || (k != d && furthest[offset + k - 1] < furthest[offset + k + 1])) ? furthest[offset + k + 1]
+                                                                                                     : furthest[offset + k - 1] + 1;
+                var y = x - k;
+
+                while (x < n && y < m && a[x] == b[y]) {
+                    x++;
+                    y++;
+                }
+
+                furthest[offset + k] = x;
+
+                if (x >= n && y >= m) {
+                    trace.add(Arrays.copyOfRange(furthest, offset - d, offset + d + 1));
+                    return backtrack(trace, n, m);
+                }
+            }
+
+            trace.add(Arrays.copyOfRange(furthest, offset - d, offset + d + 1));
+        }
+
+        log.debug("Texts of {} and {} words differ by more than {} words", n, m, MAX_EDITS);
+        return null;
+    }
+
+    private static List<Edit> backtrack(List<int[]> trace, int n, int m) {
+        var edits = new ArrayList<Edit>();
+        var x = n;
+        var y = m;
+
+        for (var d = trace.size() - 1; d > 0; d--) {
+            var previous = trace.get(d - 1);
+            var k = x - y;
+            // The previous round covers the diagonals [-(d - 1), d - 1]
+            var previousK = (k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1])) ? k + 1 : k - 1;
+            var previousX = previous[previousK + d - 1];
+            var previousY = previousX - previousK;
+
+            while (x > previousX && y > previousY) {
+                edits.add(new Edit('=', --y));
+                x--;
+            }
+
+            if (previousK == k + 1) {
+                edits.add(new Edit('+', previousY));
+            } else {
+                edits.add(new Edit('-', previousY));
+            }
+
+            x = previousX;
+            y = previousY;
+        }
+
+        while (x > 0 && y > 0) {
+            edits.add(new Edit('=', --y));
+            x--;
+        }
+
+        return edits.reversed();
+    }
+
+    private record Edit(char type, int targetIndex) {
+    }
+}
@@ -6,6 +6,9 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.MessageDigest;
@@ -148,4 +151,24 @@ public class FileTools {
         return ResponseEntity.ok()
                              .headers(headers)
                              .body(fileContent);    }
+
+    /**
+     * Transfers the whole content of the file channel to the output stream. The transfer is done by the file channel, which lets the operating system
+     * move the data without copying it through a heap buffer when the target supports it.
+     *
+     * @param fileChannel  Channel of the file to transfer, positioned anywhere
+     * @param outputStream Stream to write the content to
+     * @throws IOException if reading the file or writing to the stream fails
+     */
+    public static void transferFile(FileChannel fileChannel, OutputStream outputStream) throws IOException {
+        var targetChannel = Channels.newChannel(outputStream);
+        var size = fileChannel.size();
+        var position = 0L;
+
+        while (position < size) {
+            position += fileChannel.transferTo(position, size - position, targetChannel);
+        }
+
+        outputStream.flush();
+    }
 }
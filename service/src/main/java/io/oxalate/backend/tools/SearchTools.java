@@ -0,0 +1,49 @@
+package io.oxalate.backend.tools;
+
+import java.util.ArrayList;
+import java.util.regex.Pattern;
+
+public class SearchTools {
+    private static final Pattern NON_WORD_CHARACTERS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Converts free-form user input into a PostgreSQL tsquery string where every word is required and matched as a prefix, so that "wreck div" matches
+     * "Wreck diving". Everything that is not a letter or a digit is treated as a word separator, which also guarantees that no tsquery operators from the
+     * user input end up in the query.
+     *
+     * @param search User given search string
+     * @return tsquery string, or null if the search contains no words
+     */
+    public static String toPrefixTsQuery(String search) {
+        if (search == null) {
+            return null;
+        }
+
+        var terms = new ArrayList<String>();
+
+        for (var word : NON_WORD_CHARACTERS.split(search)) {
+            if (!word.isEmpty()) {
+                terms.add(word + ":*");
+            }
+        }
+
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        return String.join(" & ", terms);
+    }
+
+    /**
+     * Wraps the search string into a LIKE pattern matching it anywhere in the text, escaping the LIKE wildcards so that they are matched literally.
+     *
+     * @param search User given search string
+     * @return LIKE pattern using the default backslash escape character
+     */
+    public static String toContainsLikePattern(String search) {
+        var escaped = search.replace("\\", "\\\\")
+                            .replace("%", "\\%")
+                            .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
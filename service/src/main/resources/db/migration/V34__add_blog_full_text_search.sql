@@ -0,0 +1,31 @@
+-- Maps the ISO 639-1 language code of a page version to the PostgreSQL text search configuration used to index and query it.
+-- Languages without a dedicated configuration fall back to 'simple', which only lower-cases the words without stemming.
+CREATE OR REPLACE FUNCTION page_search_config(lang VARCHAR) RETURNS regconfig
+    LANGUAGE sql
+    IMMUTABLE
+    PARALLEL SAFE
+AS
+$$
+SELECT CASE lang
+           WHEN 'de' THEN 'pg_catalog.german'::regconfig
+           WHEN 'en' THEN 'pg_catalog.english'::regconfig
+           WHEN 'es' THEN 'pg_catalog.spanish'::regconfig
+           WHEN 'fi' THEN 'pg_catalog.finnish'::regconfig
+           WHEN 'sv' THEN 'pg_catalog.swedish'::regconfig
+           ELSE 'pg_catalog.simple'::regconfig
+           END
+$$;
+
+-- Weighted search document of each page version, title ranks above ingress which ranks above the body. The body is stored as HTML so the tags are
+-- stripped before indexing. The column is generated so that it is always in sync with the row without any application involvement.
+ALTER TABLE page_versions
+    ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+        setweight(to_tsvector(page_search_config(language), title), 'A') ||
+        setweight(to_tsvector(page_search_config(language), ingress), 'B') ||
+        setweight(to_tsvector(page_search_config(language), regexp_replace(body, '<[^>]*>', ' ', 'g')), 'C')
+        ) STORED;
+
+CREATE INDEX idx_page_versions_search_vector ON page_versions USING GIN (search_vector);
+
+-- Supports the blog listing which always filters on the page group and status, and orders by creation time with the page ID as tie-breaker
+CREATE INDEX idx_pages_page_group_id_status_created_at ON pages (page_group_id, status, created_at, id);
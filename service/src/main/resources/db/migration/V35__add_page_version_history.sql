@@ -0,0 +1,19 @@
+-- Earlier revisions of the page language versions, only recorded when the page history is enabled. A revision is stored either as a full snapshot
+-- of the texts, or as a delta which turns the texts of the next revision into the texts of this revision. The newest revision is always a snapshot, so
+-- a revision is reconstructed by starting from the nearest newer snapshot and applying the deltas in between from the newest to the oldest.
+CREATE TABLE page_version_history
+(
+    id          BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    page_id     BIGINT     NOT NULL
+        CONSTRAINT fk_page_version_history_pages_id REFERENCES pages (id) ON DELETE CASCADE,
+    language    VARCHAR(2) NOT NULL, -- ISO 639-1 language code
+    revision    INTEGER    NOT NULL,
+    snapshot    BOOLEAN    NOT NULL,
+    title       TEXT       NOT NULL,
+    ingress     TEXT       NOT NULL,
+    body        TEXT       NOT NULL,
+    replaced_by BIGINT     NOT NULL
+        CONSTRAINT fk_page_version_history_users_id REFERENCES users (id),
+    replaced_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    UNIQUE (page_id, language, revision)
+);
@@ -0,0 +1,71 @@
+-- Number of regular participants of each event. The row of an event is locked by the subscription while it checks and takes a free place, so that
+-- concurrent subscriptions to the same event can never exceed the maximum number of participants, and subscriptions to other events are not blocked.
+CREATE TABLE event_participant_counts
+(
+    event_id          BIGINT  NOT NULL PRIMARY KEY
+        CONSTRAINT fk_event_participant_counts_event_id REFERENCES events (id) ON DELETE CASCADE,
+    participant_count INTEGER NOT NULL DEFAULT 0
+);
+
+INSERT INTO event_participant_counts (event_id, participant_count)
+SELECT e.id, COUNT(ep.user_id)
+FROM events e
+         LEFT JOIN event_participants ep ON ep.event_id = e.id AND ep.participant_type = 'USER'
+GROUP BY e.id;
+
+CREATE OR REPLACE FUNCTION create_event_participant_count() RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    INSERT INTO event_participant_counts (event_id, participant_count) VALUES (NEW.id, 0) ON CONFLICT DO NOTHING;
+    RETURN NEW;
+END;
+$$;
+
+CREATE TRIGGER trg_events_participant_count
+    AFTER INSERT
+    ON events
+    FOR EACH ROW
+EXECUTE FUNCTION create_event_participant_count();
+
+-- Keeps the counts in sync with every change of the participants, whether it comes from a subscription, an event update or a removal
+CREATE OR REPLACE FUNCTION update_event_participant_count() RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    IF TG_OP IN ('DELETE', 'UPDATE') AND OLD.participant_type = 'USER' THEN
+        UPDATE event_participant_counts SET participant_count = participant_count - 1 WHERE event_id = OLD.event_id;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.participant_type = 'USER' THEN
+        UPDATE event_participant_counts SET participant_count = participant_count + 1 WHERE event_id = NEW.event_id;
+    END IF;
+
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_event_participants_count
+    AFTER INSERT OR DELETE OR UPDATE OF participant_type, event_id
+    ON event_participants
+    FOR EACH ROW
+EXECUTE FUNCTION update_event_participant_count();
+
+-- Subscribers who did not fit into a full event, in the order of subscription
+CREATE TABLE event_waitlist
+(
+    event_id        BIGINT       NOT NULL
+        CONSTRAINT fk_event_waitlist_event_id REFERENCES events (id) ON DELETE CASCADE,
+    user_id         BIGINT       NOT NULL
+        CONSTRAINT fk_event_waitlist_user_id REFERENCES users (id) ON DELETE CASCADE,
+    event_user_type VARCHAR(128) NOT NULL,
+    created_at      TIMESTAMP    NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (event_id, user_id)
+);
+
+CREATE INDEX idx_event_waitlist_event_id_created_at ON event_waitlist (event_id, created_at, user_id);
+
+INSERT INTO portal_configuration (group_key, setting_key, value_type, default_value, required_runtime, description)
+VALUES ('general', 'event-waitlist-enabled', 'boolean', 'false', false, 'Put subscribers to a full event on a waitlist from which they are promoted in order');
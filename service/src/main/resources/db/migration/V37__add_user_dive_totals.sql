@@ -0,0 +1,91 @@
+-- Dive counts of each user summed per year and type of the events, so that the dive count of a user is read with an index lookup instead of summing
+-- all the participations of the user. The participations are counted as well, and a total is kept as long as the user has participations in the year
+-- and event type, so that the users whose participations all have zero dives are still listed.
+CREATE TABLE user_dive_totals
+(
+    user_id             BIGINT       NOT NULL
+        CONSTRAINT fk_user_dive_totals_user_id REFERENCES users (id) ON DELETE CASCADE,
+    year                INTEGER      NOT NULL,
+    event_type          VARCHAR(255) NOT NULL,
+    dive_count          BIGINT       NOT NULL,
+    participation_count BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (user_id, year, event_type)
+);
+
+CREATE INDEX idx_user_dive_totals_year_user_id ON user_dive_totals (year, user_id);
+
+INSERT INTO user_dive_totals (user_id, year, event_type, dive_count, participation_count)
+SELECT ep.user_id, EXTRACT(YEAR FROM e.start_time)::INTEGER, e.type, SUM(ep.dive_count), COUNT(*)
+FROM event_participants ep
+         JOIN events e ON e.id = ep.event_id
+GROUP BY ep.user_id, EXTRACT(YEAR FROM e.start_time)::INTEGER, e.type;
+
+CREATE OR REPLACE FUNCTION adjust_user_dive_total(p_user_id BIGINT, p_year INTEGER, p_event_type VARCHAR, p_delta BIGINT, p_participations BIGINT)
+    RETURNS VOID
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    IF p_delta = 0 AND p_participations = 0 THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO user_dive_totals (user_id, year, event_type, dive_count, participation_count)
+    VALUES (p_user_id, p_year, p_event_type, p_delta, p_participations)
+    ON CONFLICT (user_id, year, event_type) DO UPDATE SET dive_count          = user_dive_totals.dive_count + EXCLUDED.dive_count,
+                                                          participation_count = user_dive_totals.participation_count + EXCLUDED.participation_count;
+
+    DELETE FROM user_dive_totals WHERE user_id = p_user_id AND year = p_year AND event_type = p_event_type AND participation_count = 0;
+END;
+$$;
+
+-- Follows the participations being added, removed and their dive counts being updated. A changed dive count of the same participation moves no
+-- participation, the other changes move one.
+CREATE OR REPLACE FUNCTION update_user_dive_totals() RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    IF TG_OP IN ('DELETE', 'UPDATE') THEN
+        PERFORM adjust_user_dive_total(OLD.user_id, EXTRACT(YEAR FROM e.start_time)::INTEGER, e.type, -OLD.dive_count, -1)
+        FROM events e
+        WHERE e.id = OLD.event_id;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM adjust_user_dive_total(NEW.user_id, EXTRACT(YEAR FROM e.start_time)::INTEGER, e.type, NEW.dive_count, 1)
+        FROM events e
+        WHERE e.id = NEW.event_id;
+    END IF;
+
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_event_participants_dive_totals
+    AFTER INSERT OR DELETE OR UPDATE OF dive_count, user_id, event_id
+    ON event_participants
+    FOR EACH ROW
+EXECUTE FUNCTION update_user_dive_totals();
+
+-- Moves the dives of all the participants when an event is moved to another year or its type is changed
+CREATE OR REPLACE FUNCTION move_user_dive_totals() RETURNS TRIGGER
+    LANGUAGE plpgsql
+AS
+$$
+BEGIN
+    PERFORM adjust_user_dive_total(ep.user_id, EXTRACT(YEAR FROM OLD.start_time)::INTEGER, OLD.type, -ep.dive_count, -1),
+            adjust_user_dive_total(ep.user_id, EXTRACT(YEAR FROM NEW.start_time)::INTEGER, NEW.type, ep.dive_count, 1)
+    FROM event_participants ep
+    WHERE ep.event_id = NEW.id;
+
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_events_dive_totals
+    AFTER UPDATE OF start_time, type
+    ON events
+    FOR EACH ROW
+    WHEN (EXTRACT(YEAR FROM OLD.start_time) IS DISTINCT FROM EXTRACT(YEAR FROM NEW.start_time) OR OLD.type IS DISTINCT FROM NEW.type)
+EXECUTE FUNCTION move_user_dive_totals();
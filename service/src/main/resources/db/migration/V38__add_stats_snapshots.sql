@@ -0,0 +1,11 @@
+-- Yearly statistics of the closed years, which no longer change. The statistics of the current year are always computed from the source tables. The
+-- type is not unique within a year for every metric, e.g. two organizers may share the same name, so the table has no primary key.
+CREATE TABLE stats_snapshots
+(
+    metric VARCHAR(64)  NOT NULL,
+    year   INTEGER      NOT NULL,
+    type   VARCHAR(255),
+    value  BIGINT       NOT NULL
+);
+
+CREATE INDEX idx_stats_snapshots_metric_year ON stats_snapshots (metric, year);
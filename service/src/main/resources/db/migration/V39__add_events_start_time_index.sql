@@ -0,0 +1,2 @@
+-- The statistics select the events by a range of their start time, the current year and the periods of the event reports in particular
+CREATE INDEX idx_events_start_time ON events (start_time);
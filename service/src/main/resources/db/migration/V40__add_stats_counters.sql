@@ -0,0 +1,10 @@
+-- Latest checkpoint of the in-memory statistics counters, used to answer the statistics right after a restart until the counters have been rebuilt
+-- from the source tables
+CREATE TABLE stats_counters
+(
+    metric VARCHAR(64)  NOT NULL,
+    year   INTEGER      NOT NULL,
+    type   VARCHAR(255) NOT NULL,
+    value  BIGINT       NOT NULL,
+    PRIMARY KEY (metric, year, type)
+);
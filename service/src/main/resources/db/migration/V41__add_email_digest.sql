@@ -0,0 +1,6 @@
+-- Subscribers in digest mode receive their pending notifications coalesced into a single email per digest window
+ALTER TABLE email_notification_subscriptions
+    ADD COLUMN digest BOOLEAN DEFAULT false NOT NULL;
+
+ALTER TABLE email_queue
+    ADD COLUMN digest BOOLEAN DEFAULT false NOT NULL;
@@ -227,6 +227,22 @@ class PageControllerRTC extends AbstractIntegrationTest {
                .andExpect(jsonPath("$.last", is(true)));
     }
 
+    @Test
+    void getBlogArticlesInvalidCursorFail() throws Exception {
+        // Given
+        var request = PagedRequest.builder()
+                                  .size(5)
+                                  .language("en")
+                                  .cursor("not-a-cursor")
+                                  .build();
+
+        // When & Then
+        mockMvc.perform(post(BLOG_ENDPOINT)
+                       .contentType(MediaType.APPLICATION_JSON)
+                       .content(objectMapper.writeValueAsString(request)))
+               .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getBlogArticlesSortByCreatedAtDescOk() throws Exception {
         // Given
@@ -0,0 +1,117 @@
+package io.oxalate.backend.controller;
+
+import io.oxalate.backend.AbstractIntegrationTest;
+import io.oxalate.backend.api.RoleEnum;
+import static io.oxalate.backend.api.SecurityConstants.JWT_TOKEN;
+import io.oxalate.backend.api.UserStatusEnum;
+import io.oxalate.backend.api.UserTypeEnum;
+import io.oxalate.backend.model.User;
+import io.oxalate.backend.repository.RoleRepository;
+import io.oxalate.backend.repository.UserRepository;
+import io.oxalate.backend.security.jwt.JwtUtils;
+import io.oxalate.backend.security.service.UserDetailsImpl;
+import jakarta.servlet.http.Cookie;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+@Slf4j
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class StatsControllerRTC extends AbstractIntegrationTest {
+    private static final String EVENT_REPORT_ENDPOINT = "/api/stats/event-report";
+
+    private MockMvc mockMvc;
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    private User organizer;
+    private String jwtToken;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .webAppContextSetup(webApplicationContext)
+                .apply(springSecurity())
+                .build();
+
+        organizer = createOrganizer();
+        jwtToken = generateJwtTokenForUser(organizer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        roleRepository.deleteAllUserRolesByUserId(organizer.getId());
+        userRepository.deleteById(organizer.getId());
+    }
+
+    @Test
+    void getEventReportsDateRangeOk() throws Exception {
+        mockMvc.perform(get(EVENT_REPORT_ENDPOINT)
+                       .param("from", "2024-01-01")
+                       .param("to", "2024-12-31")
+                       .cookie(new Cookie(JWT_TOKEN, jwtToken)))
+               .andExpect(status().isOk());
+    }
+
+    @Test
+    void getEventReportsFromAfterToFail() throws Exception {
+        mockMvc.perform(get(EVENT_REPORT_ENDPOINT)
+                       .param("from", "2025-01-01")
+                       .param("to", "2024-12-31")
+                       .cookie(new Cookie(JWT_TOKEN, jwtToken)))
+               .andExpect(status().isBadRequest());
+    }
+
+    private User createOrganizer() {
+        var user = userRepository.save(User.builder()
+                                           .username("organizer-" + Instant.now()
+                                                                           .toEpochMilli() + "@test.tld")
+                                           .password("password")
+                                           .firstName("Max")
+                                           .lastName("Mustermann")
+                                           .status(UserStatusEnum.ACTIVE)
+                                           .phoneNumber("123456789")
+                                           .privacy(false)
+                                           .nextOfKin("Maxine Mustermann")
+                                           .registered(Instant.now()
+                                                              .minus(1000L, ChronoUnit.DAYS))
+                                           .approvedTerms(true)
+                                           .language("en")
+                                           .primaryUserType(UserTypeEnum.SCUBA_DIVER)
+                                           .build());
+        var role = roleRepository.findByName(RoleEnum.ROLE_ORGANIZER)
+                                 .orElseThrow();
+        roleRepository.addUserRole(user.getId(), role.getId());
+        return user;
+    }
+
+    private String generateJwtTokenForUser(User user) {
+        var authorities = List.of(new SimpleGrantedAuthority(RoleEnum.ROLE_ORGANIZER.name()));
+        var userDetails = new UserDetailsImpl(user.getId(), user.getUsername(), user.getPassword(), authorities, user.isApprovedTerms(),
+                user.getHealthStatementId(), false, user.getLanguage());
+        var authentication = new UsernamePasswordAuthenticationToken(userDetails, null, authorities);
+        return jwtUtils.generateJwtToken(authentication);
+    }
+}
@@ -0,0 +1,70 @@
+package io.oxalate.backend.schedule;
+
+import io.oxalate.backend.events.EventsClosedEvent;
+import java.util.List;
+import java.util.stream.LongStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class ClosingEventScheduleUTC {
+    private static final int BATCH_SIZE = 3;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private ClosingEventSchedule closingEventSchedule;
+
+    @BeforeEach
+    void setUp() {
+        closingEventSchedule = new ClosingEventSchedule(jdbcTemplate, transactionManager, applicationEventPublisher, BATCH_SIZE);
+    }
+
+    @Test
+    void closePastEventsBacklogInBatchesOk() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(BATCH_SIZE))).thenReturn(eventIds(1, 3), eventIds(4, 6), eventIds(7, 7));
+
+        closingEventSchedule.closePastEvents();
+
+        var eventCaptor = ArgumentCaptor.forClass(EventsClosedEvent.class);
+        verify(applicationEventPublisher, times(3)).publishEvent(eventCaptor.capture());
+        assertEquals(List.of(7L), eventCaptor.getValue()
+                                            .getEventIds());
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void closePastEventsNothingToCloseOk() {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(BATCH_SIZE))).thenReturn(List.of());
+
+        closingEventSchedule.closePastEvents();
+
+        verify(jdbcTemplate).queryForList(anyString(), eq(Long.class), eq(BATCH_SIZE));
+        verify(applicationEventPublisher, never()).publishEvent(any(EventsClosedEvent.class));
+    }
+
+    private List<Long> eventIds(long first, long last) {
+        return LongStream.rangeClosed(first, last)
+                         .boxed()
+                         .toList();
+    }
+}
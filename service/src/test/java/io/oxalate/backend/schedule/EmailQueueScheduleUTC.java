@@ -0,0 +1,75 @@
+package io.oxalate.backend.schedule;
+
+import io.oxalate.backend.events.EmailsQueuedEvent;
+import io.oxalate.backend.service.EmailDispatchService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+
+@ExtendWith(MockitoExtension.class)
+class EmailQueueScheduleUTC {
+    @Mock
+    private EmailDispatchService emailDispatchService;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private EmailQueueSchedule emailQueueSchedule;
+
+    @BeforeEach
+    void setUp() {
+        emailQueueSchedule = new EmailQueueSchedule(emailDispatchService, jdbcTemplate, null, taskScheduler, new SyncTaskExecutor(), new SyncTaskExecutor(),
+                false, Duration.ofHours(1));
+    }
+
+    @Test
+    void emailsQueuedNotifiesAndDispatchesRightAway() {
+        // The queue is empty after the dispatch
+        when(emailDispatchService.getTimeUntilNextDue()).thenReturn(null);
+
+        emailQueueSchedule.handleEmailsQueued(EmailsQueuedEvent.builder()
+                                                               .count(2)
+                                                               .build());
+
+        verify(jdbcTemplate).execute("NOTIFY " + EmailQueueSchedule.CHANNEL);
+        verify(emailDispatchService).dispatch();
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void dispatchSchedulesWakeUpForNextRetry() {
+        when(emailDispatchService.getTimeUntilNextDue()).thenReturn(Duration.ofMinutes(5), Duration.ofMinutes(10), Duration.ofHours(2));
+        doReturn(mock(ScheduledFuture.class)).when(taskScheduler)
+                                             .schedule(any(Runnable.class), any(Instant.class));
+
+        var start = Instant.now();
+        emailQueueSchedule.processQueuedEmails();
+        // A later retry does not replace the earlier wake-up, and one after the next sweep is left to the sweep
+        emailQueueSchedule.processQueuedEmails();
+        emailQueueSchedule.processQueuedEmails();
+
+        var wakeUpCaptor = ArgumentCaptor.forClass(Instant.class);
+        verify(emailDispatchService, times(3)).dispatch();
+        verify(taskScheduler).schedule(any(Runnable.class), wakeUpCaptor.capture());
+        assertFalse(wakeUpCaptor.getValue()
+                                .isBefore(start.plus(Duration.ofMinutes(5))));
+    }
+}
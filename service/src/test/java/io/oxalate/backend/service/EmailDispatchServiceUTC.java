@@ -0,0 +1,216 @@
+package io.oxalate.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.oxalate.backend.api.EmailNotificationDetailEnum;
+import static io.oxalate.backend.api.EmailNotificationDetailEnum.CANCELLED;
+import static io.oxalate.backend.api.EmailNotificationDetailEnum.NEW;
+import static io.oxalate.backend.api.EmailNotificationDetailEnum.UPDATED;
+import static io.oxalate.backend.api.EmailNotificationTypeEnum.EVENT;
+import static io.oxalate.backend.api.PortalConfigEnum.EMAIL;
+import static io.oxalate.backend.api.PortalConfigEnum.EmailConfigEnum.EMAIL_NOTIFICATION_RETRIES;
+import static io.oxalate.backend.api.UserStatusEnum.ACTIVE;
+import static io.oxalate.backend.api.UserStatusEnum.LOCKED;
+import io.oxalate.backend.api.UserStatusEnum;
+import io.oxalate.backend.model.EmailQueueEntry;
+import io.oxalate.backend.model.Event;
+import io.oxalate.backend.model.User;
+import io.oxalate.backend.repository.EventRepository;
+import io.oxalate.backend.repository.PageVersionRepository;
+import io.oxalate.backend.repository.UserRepository;
+import io.oxalate.backend.service.EmailService.DigestEntry;
+import jakarta.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class EmailDispatchServiceUTC {
+    private static final long EVENT_ID = 7L;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private EmailService emailService;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private PageVersionRepository pageVersionRepository;
+    @Mock
+    private PortalConfigurationService portalConfigurationService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private EmailDispatchService emailDispatchService;
+
+    @BeforeEach
+    void setUp() {
+        var executor = new SimpleAsyncTaskExecutor();
+        executor.setVirtualThreads(true);
+        // Two emails per connection splits a chunk of three emails into two batches
+        emailDispatchService = new EmailDispatchService(jdbcTemplate, transactionManager, emailService, userRepository, eventRepository,
+                pageVersionRepository, portalConfigurationService, executor, meterRegistry, 100, 2, 1000.0, Duration.ofMinutes(15), Duration.ofMinutes(5),
+                Duration.ofHours(6));
+        when(portalConfigurationService.getNumericConfiguration(EMAIL.group, EMAIL_NOTIFICATION_RETRIES.key)).thenReturn(3L);
+    }
+
+    @Test
+    void dispatchCommitsStatusOfEachEntry() throws Exception {
+        var chunk = List.of(entry(1L, 11L), entry(2L, 12L), entry(3L, 13L));
+        when(jdbcTemplate.query(eq(EmailDispatchService.CLAIM_CHUNK), any(RowMapper.class), eq(900L), eq(100))).thenReturn(chunk, List.of());
+        when(userRepository.findAllById(any())).thenReturn(List.of(user(11L, ACTIVE), user(12L, ACTIVE), user(13L, LOCKED)));
+        when(eventRepository.findById(EVENT_ID)).thenReturn(Optional.of(Event.builder()
+                                                                             .id(EVENT_ID)
+                                                                             .build()));
+        var firstMail = mock(MimeMessage.class);
+        var failingMail = mock(MimeMessage.class);
+        when(emailService.createEventNotificationMail(eq("11@test.tld"), anyString(), eq(NEW), any(Event.class))).thenReturn(firstMail);
+        when(emailService.createEventNotificationMail(eq("12@test.tld"), anyString(), eq(NEW), any(Event.class))).thenReturn(failingMail);
+        when(emailService.sendMails(anyList())).thenReturn(Map.of(failingMail, new RuntimeException("Rejected")));
+
+        var processed = emailDispatchService.dispatch();
+
+        assertEquals(3, processed);
+        // The inactive user is skipped and the entry marked as sent, as there is nothing to retry
+        var sentIds = ArgumentCaptor.forClass(Object.class);
+        var failedIds = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).update(eq(EmailDispatchService.MARK_SENT), sentIds.capture());
+        verify(jdbcTemplate).update(eq(EmailDispatchService.MARK_FAILED), eq(300L), eq(21600L), failedIds.capture());
+        assertArrayEquals(new Long[]{ 1L, 3L }, (Long[]) sentIds.getValue());
+        assertArrayEquals(new Long[]{ 2L }, (Long[]) failedIds.getValue());
+        // The event shared by the entries is read once per chunk
+        verify(eventRepository, times(1)).findById(EVENT_ID);
+        assertEquals(2.0, meterRegistry.get("oxalate.email.dispatched")
+                                       .tag("result", "sent")
+                                       .counter()
+                                       .count());
+        assertEquals(1L, meterRegistry.get("oxalate.email.send.latency")
+                                      .timer()
+                                      .count());
+    }
+
+    @Test
+    void dispatchCoalescesDigestEntriesOfUser() {
+        // The digest holds the updated event and the new one
+        var chunk = List.of(entry(1L, 11L, NEW, EVENT_ID + 1, true), entry(2L, 12L, NEW, EVENT_ID, false), entry(3L, 11L, UPDATED, EVENT_ID, true));
+        when(jdbcTemplate.query(eq(EmailDispatchService.CLAIM_CHUNK), any(RowMapper.class), eq(900L), eq(100))).thenReturn(chunk, List.of());
+        when(userRepository.findAllById(any())).thenReturn(List.of(user(11L, ACTIVE), user(12L, ACTIVE)));
+        when(eventRepository.findById(any(Long.class))).thenAnswer(invocation -> Optional.of(Event.builder()
+                                                                                                   .id(invocation.getArgument(0))
+                                                                                                   .build()));
+        var digestMail = mock(MimeMessage.class);
+        var singleMail = mock(MimeMessage.class);
+        when(emailService.createDigestMail(eq("11@test.tld"), eq("de"), anyList())).thenReturn(digestMail);
+        when(emailService.createEventNotificationMail(eq("12@test.tld"), anyString(), eq(NEW), any(Event.class))).thenReturn(singleMail);
+        when(emailService.sendMails(anyList())).thenReturn(Map.of(digestMail, new RuntimeException("Rejected")));
+
+        var processed = emailDispatchService.dispatch();
+
+        assertEquals(3, processed);
+        verify(emailService).createDigestMail(eq("11@test.tld"), eq("de"), argThat((List<DigestEntry> entries) -> entries.size() == 2
+                && entries.get(1)
+                          .detail() == UPDATED));
+        verify(emailService, never()).createEventNotificationMail(eq("11@test.tld"), anyString(), any(), any(Event.class));
+        // All the entries of a failed digest are retried together
+        var sentIds = ArgumentCaptor.forClass(Object.class);
+        var failedIds = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).update(eq(EmailDispatchService.MARK_SENT), sentIds.capture());
+        verify(jdbcTemplate).update(eq(EmailDispatchService.MARK_FAILED), eq(300L), eq(21600L), failedIds.capture());
+        assertArrayEquals(new Long[]{ 2L }, (Long[]) sentIds.getValue());
+        assertArrayEquals(new Long[]{ 1L, 3L }, (Long[]) failedIds.getValue());
+    }
+
+    @Test
+    void dispatchCoalescesDigestEntriesOfSameEvent() {
+        // The event was created and updated, and another one created and cancelled, while the digest window was open
+        var chunk = List.of(entry(1L, 11L, NEW, EVENT_ID, true), entry(2L, 11L, NEW, EVENT_ID + 1, true), entry(3L, 11L, UPDATED, EVENT_ID, true),
+                entry(4L, 11L, CANCELLED, EVENT_ID + 1, true), entry(5L, 11L, UPDATED, EVENT_ID, true));
+        when(jdbcTemplate.query(eq(EmailDispatchService.CLAIM_CHUNK), any(RowMapper.class), eq(900L), eq(100))).thenReturn(chunk, List.of());
+        when(userRepository.findAllById(any())).thenReturn(List.of(user(11L, ACTIVE)));
+        when(eventRepository.findById(any(Long.class))).thenAnswer(invocation -> Optional.of(Event.builder()
+                                                                                                   .id(invocation.getArgument(0))
+                                                                                                   .build()));
+        var digestMail = mock(MimeMessage.class);
+        when(emailService.createDigestMail(eq("11@test.tld"), eq("de"), anyList())).thenReturn(digestMail);
+        when(emailService.sendMails(anyList())).thenReturn(Map.of());
+
+        var processed = emailDispatchService.dispatch();
+
+        assertEquals(5, processed);
+        verify(emailService).createDigestMail(eq("11@test.tld"), eq("de"), argThat((List<DigestEntry> entries) -> entries.size() == 2
+                && entries.getFirst()
+                          .detail() == NEW
+                && entries.get(1)
+                          .detail() == CANCELLED));
+        var sentIds = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate).update(eq(EmailDispatchService.MARK_SENT), sentIds.capture());
+        assertArrayEquals(new Long[]{ 1L, 2L, 3L, 4L, 5L }, (Long[]) sentIds.getValue());
+    }
+
+    @Test
+    void dispatchSendsCoalescedDigestOfOneEventAsNotification() {
+        var chunk = List.of(entry(1L, 11L, NEW, EVENT_ID, true), entry(2L, 11L, UPDATED, EVENT_ID, true));
+        when(jdbcTemplate.query(eq(EmailDispatchService.CLAIM_CHUNK), any(RowMapper.class), eq(900L), eq(100))).thenReturn(chunk, List.of());
+        when(userRepository.findAllById(any())).thenReturn(List.of(user(11L, ACTIVE)));
+        when(eventRepository.findById(EVENT_ID)).thenReturn(Optional.of(Event.builder()
+                                                                             .id(EVENT_ID)
+                                                                             .build()));
+        var mail = mock(MimeMessage.class);
+        when(emailService.createEventNotificationMail(eq("11@test.tld"), eq("de"), eq(NEW), any(Event.class))).thenReturn(mail);
+        when(emailService.sendMails(anyList())).thenReturn(Map.of());
+
+        emailDispatchService.dispatch();
+
+        verify(emailService, never()).createDigestMail(anyString(), anyString(), anyList());
+        verify(emailService).sendMails(List.of(mail));
+    }
+
+    private EmailQueueEntry entry(long id, long userId) {
+        return entry(id, userId, NEW, EVENT_ID, false);
+    }
+
+    private EmailQueueEntry entry(long id, long userId, EmailNotificationDetailEnum detail, long eventId, boolean digest) {
+        return EmailQueueEntry.builder()
+                              .id(id)
+                              .userId(userId)
+                              .emailType(EVENT)
+                              .emailDetail(detail)
+                              .typeId(eventId)
+                              .digest(digest)
+                              .build();
+    }
+
+    private User user(long id, UserStatusEnum status) {
+        return User.builder()
+                   .id(id)
+                   .username(id + "@test.tld")
+                   .language("de")
+                   .status(status)
+                   .build();
+    }
+}
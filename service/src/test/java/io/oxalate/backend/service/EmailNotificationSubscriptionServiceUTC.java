@@ -0,0 +1,70 @@
+package io.oxalate.backend.service;
+
+import static io.oxalate.backend.api.EmailNotificationTypeEnum.EVENT;
+import io.oxalate.backend.model.EmailNotificationSubscription;
+import io.oxalate.backend.repository.EmailNotificationSubscriptionRepository;
+import java.util.Optional;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class EmailNotificationSubscriptionServiceUTC {
+    private static final long USER_ID = 11L;
+
+    @Mock
+    private EmailNotificationSubscriptionRepository emailNotificationSubscriptionRepository;
+
+    @InjectMocks
+    private EmailNotificationSubscriptionService emailNotificationSubscriptionService;
+
+    @Test
+    void subscribeToNotificationCreatesDigestSubscriptionOk() {
+        when(emailNotificationSubscriptionRepository.findByEmailNotificationTypeAndUserId(EVENT, USER_ID)).thenReturn(Optional.empty());
+        when(emailNotificationSubscriptionRepository.save(any(EmailNotificationSubscription.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var response = emailNotificationSubscriptionService.subscribeToNotification(USER_ID, EVENT, true);
+
+        assertTrue(response.isDigest());
+        verify(emailNotificationSubscriptionRepository).save(argThat(subscription -> subscription.getUserId() == USER_ID && subscription.isDigest()));
+    }
+
+    @Test
+    void subscribeToNotificationTogglesDigestOfExistingSubscriptionOk() {
+        when(emailNotificationSubscriptionRepository.findByEmailNotificationTypeAndUserId(EVENT, USER_ID)).thenReturn(Optional.of(subscription(true)));
+        when(emailNotificationSubscriptionRepository.save(any(EmailNotificationSubscription.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        var response = emailNotificationSubscriptionService.subscribeToNotification(USER_ID, EVENT, false);
+
+        assertFalse(response.isDigest());
+        verify(emailNotificationSubscriptionRepository).save(argThat(subscription -> subscription.getId() == 3L && !subscription.isDigest()));
+    }
+
+    @Test
+    void subscribeToNotificationKeepsUnchangedSubscriptionOk() {
+        when(emailNotificationSubscriptionRepository.findByEmailNotificationTypeAndUserId(EVENT, USER_ID)).thenReturn(Optional.of(subscription(true)));
+
+        var response = emailNotificationSubscriptionService.subscribeToNotification(USER_ID, EVENT, true);
+
+        assertTrue(response.isDigest());
+        verify(emailNotificationSubscriptionRepository, never()).save(any());
+    }
+
+    private EmailNotificationSubscription subscription(boolean digest) {
+        return EmailNotificationSubscription.builder()
+                                            .id(3L)
+                                            .userId(USER_ID)
+                                            .emailNotificationType(EVENT)
+                                            .digest(digest)
+                                            .build();
+    }
+}
@@ -0,0 +1,252 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.AbstractIntegrationTest;
+import static io.oxalate.backend.api.EmailNotificationDetailEnum.NEW;
+import static io.oxalate.backend.api.EmailNotificationDetailEnum.UPDATED;
+import static io.oxalate.backend.api.EmailNotificationTypeEnum.EVENT;
+import static io.oxalate.backend.api.EmailNotificationTypeEnum.PAGE;
+import io.oxalate.backend.api.PageStatusEnum;
+import io.oxalate.backend.api.RoleEnum;
+import static io.oxalate.backend.api.RoleEnum.ROLE_ADMIN;
+import static io.oxalate.backend.api.RoleEnum.ROLE_ANONYMOUS;
+import static io.oxalate.backend.api.RoleEnum.ROLE_USER;
+import static io.oxalate.backend.api.UserStatusEnum.ACTIVE;
+import io.oxalate.backend.api.UserTypeEnum;
+import io.oxalate.backend.model.EmailQueueEntry;
+import io.oxalate.backend.model.Page;
+import io.oxalate.backend.model.PageRoleAccess;
+import io.oxalate.backend.model.User;
+import io.oxalate.backend.repository.EmailNotificationSubscriptionRepository;
+import io.oxalate.backend.repository.EmailQueueRepository;
+import io.oxalate.backend.repository.PageRepository;
+import io.oxalate.backend.repository.PageRoleAccessRepository;
+import io.oxalate.backend.repository.RoleRepository;
+import io.oxalate.backend.repository.UserRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+@Slf4j
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EmailQueueServiceITC extends AbstractIntegrationTest {
+    private static final long EVENT_ID = 900_001L;
+    private static final long BLOG_PAGE_GROUP_ID = 3L;
+
+    @Autowired
+    private EmailQueueService emailQueueService;
+    @Autowired
+    private EmailQueueRepository emailQueueRepository;
+    @Autowired
+    private EmailNotificationSubscriptionService emailNotificationSubscriptionService;
+    @Autowired
+    private EmailNotificationSubscriptionRepository emailNotificationSubscriptionRepository;
+    @Autowired
+    private PageRepository pageRepository;
+    @Autowired
+    private PageRoleAccessRepository pageRoleAccessRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Value("${oxalate.email.digest.window:PT1H}")
+    private Duration digestWindow;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Page> pages = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        emailQueueRepository.deleteAll();
+        emailNotificationSubscriptionRepository.deleteAll();
+
+        for (var page : pages) {
+            jdbcTemplate.update("DELETE FROM page_role_access WHERE page_id = ?", page.getId());
+            pageRepository.deleteById(page.getId());
+        }
+
+        for (var user : users) {
+            jdbcTemplate.update("DELETE FROM message_receivers WHERE user_id = ?", user.getId());
+            roleRepository.deleteAllUserRolesByUserId(user.getId());
+            userRepository.deleteById(user.getId());
+        }
+
+        jdbcTemplate.update("DELETE FROM messages m WHERE NOT EXISTS (SELECT 1 FROM message_receivers r WHERE r.message_id = m.id)");
+        users.clear();
+        pages.clear();
+    }
+
+    @Test
+    void addNotificationPageOnlyForReadersOk() {
+        var admin = generateUser("admin", ROLE_ADMIN);
+        var user = generateUser("user", ROLE_USER);
+        emailNotificationSubscriptionService.subscribeToNotification(admin.getId(), PAGE, false);
+        emailNotificationSubscriptionService.subscribeToNotification(user.getId(), PAGE, false);
+        var page = generatePage(ROLE_ADMIN);
+        var messagesBefore = countMessages();
+
+        emailQueueService.addNotification(PAGE, NEW, page.getId());
+
+        assertEquals(Set.of(admin.getId()), queuedUserIds());
+        assertEquals(messagesBefore + 1, countMessages());
+        assertEquals(Set.of(admin.getId()), latestMessageReceiverIds());
+    }
+
+    @Test
+    void addNotificationPublicPageForEverySubscriberOk() {
+        var admin = generateUser("admin", ROLE_ADMIN);
+        var user = generateUser("user", ROLE_USER);
+        var eventSubscriber = generateUser("event", ROLE_USER);
+        emailNotificationSubscriptionService.subscribeToNotification(admin.getId(), PAGE, false);
+        emailNotificationSubscriptionService.subscribeToNotification(user.getId(), PAGE, true);
+        emailNotificationSubscriptionService.subscribeToNotification(eventSubscriber.getId(), EVENT, false);
+        var page = generatePage(ROLE_ANONYMOUS);
+        var messagesBefore = countMessages();
+
+        emailQueueService.addNotification(PAGE, UPDATED, page.getId());
+
+        // One shared message for all the subscribers of the page type, none for the other type
+        assertEquals(Set.of(admin.getId(), user.getId()), queuedUserIds());
+        assertEquals(messagesBefore + 1, countMessages());
+        assertEquals(Set.of(admin.getId(), user.getId()), latestMessageReceiverIds());
+    }
+
+    @Test
+    void addNotificationWithoutReadersCreatesNoMessageOk() {
+        var user = generateUser("user", ROLE_USER);
+        emailNotificationSubscriptionService.subscribeToNotification(user.getId(), PAGE, false);
+        var page = generatePage(ROLE_ADMIN);
+        var messagesBefore = countMessages();
+
+        emailQueueService.addNotification(PAGE, NEW, page.getId());
+
+        assertTrue(queuedUserIds().isEmpty());
+        assertEquals(messagesBefore, countMessages());
+    }
+
+    @Test
+    void addNotificationDigestDueAtEndOfWindowOk() {
+        var digestUser = generateUser("digest", ROLE_USER);
+        emailNotificationSubscriptionService.subscribeToNotification(digestUser.getId(), EVENT, true);
+        var before = Instant.now()
+                            .truncatedTo(ChronoUnit.SECONDS);
+
+        emailQueueService.addNotification(EVENT, NEW, EVENT_ID);
+
+        var entries = emailQueueRepository.findAll();
+        assertEquals(1, entries.size());
+        var entry = entries.getFirst();
+        assertTrue(entry.isDigest());
+        assertDueAtEndOfWindow(entry, before);
+    }
+
+    @Test
+    void addNotificationDigestEntriesOfWindowShareDueTimeOk() {
+        var digestUser = generateUser("digest", ROLE_USER);
+        emailNotificationSubscriptionService.subscribeToNotification(digestUser.getId(), EVENT, true);
+        var before = Instant.now()
+                            .truncatedTo(ChronoUnit.SECONDS);
+
+        emailQueueService.addNotification(EVENT, NEW, EVENT_ID);
+        emailQueueService.addNotification(EVENT, UPDATED, EVENT_ID);
+
+        // The digest entries are kept for the dispatcher to coalesce
+        var entries = emailQueueRepository.findAll()
+                                          .stream()
+                                          .sorted(Comparator.comparing(EmailQueueEntry::getId))
+                                          .toList();
+        assertEquals(2, entries.size());
+        assertEquals(NEW, entries.getFirst()
+                                 .getEmailDetail());
+        assertDueAtEndOfWindow(entries.getFirst(), before);
+        assertDueAtEndOfWindow(entries.get(1), before);
+        assertFalse(entries.get(1)
+                           .getNextSendTimestamp()
+                           .isBefore(entries.getFirst()
+                                            .getNextSendTimestamp()));
+    }
+
+    private void assertDueAtEndOfWindow(EmailQueueEntry entry, Instant before) {
+        var due = entry.getNextSendTimestamp();
+        // The windows are aligned to the epoch, and the entry is due at the end of the window it was queued in
+        assertEquals(0L, due.getEpochSecond() % digestWindow.toSeconds(), "Due time " + due + " is not at the end of a digest window");
+        assertTrue(due.isAfter(before), "Due time " + due + " is not after " + before);
+        assertFalse(due.isAfter(Instant.now()
+                                       .plus(digestWindow)), "Due time " + due + " is more than one window away");
+    }
+
+    private Set<Long> queuedUserIds() {
+        return emailQueueRepository.findAll()
+                                   .stream()
+                                   .map(EmailQueueEntry::getUserId)
+                                   .collect(Collectors.toSet());
+    }
+
+    private long countMessages() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM messages", Long.class);
+    }
+
+    private Set<Long> latestMessageReceiverIds() {
+        return Set.copyOf(jdbcTemplate.queryForList("SELECT user_id FROM message_receivers WHERE message_id = (SELECT MAX(id) FROM messages)", Long.class));
+    }
+
+    private Page generatePage(RoleEnum readerRole) {
+        var page = pageRepository.save(Page.builder()
+                                           .pageGroupId(BLOG_PAGE_GROUP_ID)
+                                           .status(PageStatusEnum.PUBLISHED)
+                                           .creator(users.getFirst()
+                                                         .getId())
+                                           .createdAt(Instant.now())
+                                           .build());
+        pageRoleAccessRepository.save(PageRoleAccess.builder()
+                                                    .pageId(page.getId())
+                                                    .role(readerRole)
+                                                    .readPermission(true)
+                                                    .writePermission(false)
+                                                    .build());
+        pages.add(page);
+        return page;
+    }
+
+    private User generateUser(String name, RoleEnum roleEnum) {
+        var user = userRepository.save(User.builder()
+                                           .username(name + "-" + Instant.now()
+                                                                         .toEpochMilli() + "@test.tld")
+                                           .password("password")
+                                           .firstName("Max")
+                                           .lastName("Mustermann")
+                                           .status(ACTIVE)
+                                           .phoneNumber("123456789")
+                                           .privacy(false)
+                                           .nextOfKin("Maxine Mustermann")
+                                           .registered(Instant.now()
+                                                              .minus(1000L, ChronoUnit.DAYS))
+                                           .approvedTerms(true)
+                                           .language("de")
+                                           .primaryUserType(UserTypeEnum.SCUBA_DIVER)
+                                           .build());
+        var role = roleRepository.findByName(roleEnum)
+                                 .orElseThrow();
+        roleRepository.addUserRole(user.getId(), role.getId());
+        users.add(user);
+        return user;
+    }
+}
@@ -0,0 +1,93 @@
+package io.oxalate.backend.service;
+
+import static io.oxalate.backend.api.EmailNotificationDetailEnum.NEW;
+import static io.oxalate.backend.api.EmailNotificationTypeEnum.PAGE;
+import io.oxalate.backend.events.EmailsQueuedEvent;
+import io.oxalate.backend.repository.EmailQueueRepository;
+import io.oxalate.backend.repository.PageRoleAccessRepository;
+import java.time.Duration;
+import java.time.Instant;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+class EmailQueueServiceUTC {
+    @Mock
+    private EmailQueueRepository emailQueueRepository;
+    @Mock
+    private PageRoleAccessRepository pageRoleAccessRepository;
+    @Mock
+    private MessageService messageService;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    private EmailQueueService emailQueueService;
+
+    @BeforeEach
+    void setUp() {
+        emailQueueService = new EmailQueueService(emailQueueRepository, pageRoleAccessRepository, messageService, applicationEventPublisher,
+                Duration.ofHours(1));
+    }
+
+    @Test
+    void digestDueAtEndOfWindowOk() {
+        assertEquals(Instant.parse("2026-10-18T09:00:00Z"), emailQueueService.digestDue(Instant.parse("2026-10-18T08:20:31.250Z")));
+        // A notification at the very start of a window belongs to that window
+        assertEquals(Instant.parse("2026-10-18T10:00:00Z"), emailQueueService.digestDue(Instant.parse("2026-10-18T09:00:00Z")));
+    }
+
+    @Test
+    void digestWindowUnderOneSecondIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new EmailQueueService(emailQueueRepository, pageRoleAccessRepository, messageService,
+                applicationEventPublisher, Duration.ofMillis(500)));
+    }
+
+    @Test
+    void addNotificationPassesCurrentTimeAndDigestDueOk() {
+        var before = Instant.now();
+        when(emailQueueRepository.queueSubscriberNotifications(eq("PAGE"), eq("NEW"), eq(7L), anyLong(), anyString(), anyString(), anyString(),
+                any(Instant.class), any(Instant.class))).thenReturn(2);
+
+        emailQueueService.addNotification(PAGE, NEW, 7L);
+
+        var nowCaptor = ArgumentCaptor.forClass(Instant.class);
+        var digestDueCaptor = ArgumentCaptor.forClass(Instant.class);
+        verify(emailQueueRepository).deleteByEmailTypeAndTypeIdAndStatus("PAGE", 7L, "QUEUED");
+        verify(emailQueueRepository).queueSubscriberNotifications(eq("PAGE"), eq("NEW"), eq(7L), anyLong(), anyString(), anyString(), anyString(),
+                nowCaptor.capture(), digestDueCaptor.capture());
+        assertFalse(nowCaptor.getValue()
+                             .isBefore(before));
+        assertEquals(emailQueueService.digestDue(nowCaptor.getValue()), digestDueCaptor.getValue());
+        assertTrue(digestDueCaptor.getValue()
+                                  .isAfter(nowCaptor.getValue()));
+        verify(applicationEventPublisher).publishEvent(EmailsQueuedEvent.builder()
+                                                                        .count(2)
+                                                                        .build());
+    }
+
+    @Test
+    void addNotificationWithoutSubscribersPublishesNothingOk() {
+        when(emailQueueRepository.queueSubscriberNotifications(anyString(), anyString(), anyLong(), anyLong(), anyString(), anyString(), anyString(),
+                any(Instant.class), any(Instant.class))).thenReturn(0);
+
+        emailQueueService.addNotification(PAGE, NEW, 7L);
+
+        verify(applicationEventPublisher, never()).publishEvent(any(Object.class));
+    }
+}
@@ -0,0 +1,66 @@
+package io.oxalate.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Locale;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IContext;
+
+class EmailRenderCacheServiceUTC {
+    private static final String TEMPLATE_NAME = "eventNotificationTemplate_new_en";
+
+    private TemplateEngine templateEngine;
+    private SimpleMeterRegistry meterRegistry;
+    private EmailRenderCacheService emailRenderCacheService;
+
+    @BeforeEach
+    void setUp() {
+        templateEngine = mock(TemplateEngine.class);
+        meterRegistry = new SimpleMeterRegistry();
+        emailRenderCacheService = new EmailRenderCacheService(templateEngine, meterRegistry, 100L, Duration.ofHours(1));
+        when(templateEngine.process(any(String.class), any(IContext.class))).thenAnswer(invocation -> "Body of " + invocation.getArgument(1, Context.class)
+                                                                                                                                  .getVariable("eventTitle"));
+    }
+
+    @Test
+    void renderFanOutRendersEachVariantOnce() {
+        for (var i = 0; i < 100; i++) {
+            assertEquals("Body of Cave dive", emailRenderCacheService.render(TEMPLATE_NAME, 1L, context(Locale.ENGLISH, "Cave dive")));
+            emailRenderCacheService.render(TEMPLATE_NAME, 1L, context(Locale.GERMAN, "Cave dive"));
+        }
+
+        verify(templateEngine, times(2)).process(eq(TEMPLATE_NAME), any(IContext.class));
+        assertEquals(198.0, meterRegistry.get("oxalate.email.render.cache.requests")
+                                         .tag("result", "hit")
+                                         .counter()
+                                         .count());
+    }
+
+    @Test
+    void renderChangedContentRendersAgain() {
+        emailRenderCacheService.render(TEMPLATE_NAME, 1L, context(Locale.ENGLISH, "Cave dive"));
+
+        assertEquals("Body of Wreck dive", emailRenderCacheService.render(TEMPLATE_NAME, 1L, context(Locale.ENGLISH, "Wreck dive")));
+        emailRenderCacheService.render(TEMPLATE_NAME, 2L, context(Locale.ENGLISH, "Wreck dive"));
+
+        verify(templateEngine, times(3)).process(eq(TEMPLATE_NAME), any(IContext.class));
+    }
+
+    private Context context(Locale locale, String eventTitle) {
+        var context = new Context(locale);
+        context.setVariable("orgName", "Oxalate");
+        context.setVariable("eventTitle", eventTitle);
+        context.setVariable("event", null);
+        return context;
+    }
+}
@@ -0,0 +1,116 @@
+package io.oxalate.backend.service;
+
+import static io.oxalate.backend.api.EmailNotificationDetailEnum.DELETED;
+import static io.oxalate.backend.api.EmailNotificationDetailEnum.NEW;
+import static io.oxalate.backend.api.EmailNotificationDetailEnum.UPDATED;
+import static io.oxalate.backend.api.PortalConfigEnum.EMAIL;
+import static io.oxalate.backend.api.PortalConfigEnum.EmailConfigEnum.SYSTEM_EMAIL;
+import static io.oxalate.backend.api.PortalConfigEnum.GENERAL;
+import static io.oxalate.backend.api.PortalConfigEnum.GeneralConfigEnum.ORG_NAME;
+import static io.oxalate.backend.api.PortalConfigEnum.GeneralConfigEnum.TIMEZONE;
+import io.oxalate.backend.model.Event;
+import io.oxalate.backend.model.PageVersion;
+import io.oxalate.backend.service.EmailService.DigestEntry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+@ExtendWith(MockitoExtension.class)
+class EmailServiceUTC {
+    @Mock
+    private JavaMailSender javaMailSender;
+    @Mock
+    private EmailRenderCacheService emailRenderCacheService;
+    @Mock
+    private PortalConfigurationService portalConfigurationService;
+
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        var templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setCharacterEncoding("UTF-8");
+        var templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        var messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        messageSource.setFallbackToSystemLocale(false);
+
+        emailService = new EmailService(javaMailSender, templateEngine, emailRenderCacheService, portalConfigurationService);
+        ReflectionTestUtils.setField(emailService, "messageSource", messageSource);
+        ReflectionTestUtils.setField(emailService, "env", "prod");
+        ReflectionTestUtils.setField(emailService, "frontendUrl", "https://portal.test.tld");
+
+        when(javaMailSender.createMimeMessage()).thenReturn(new MimeMessage(Session.getInstance(new Properties())));
+        when(portalConfigurationService.getStringConfiguration(GENERAL.group, ORG_NAME.key)).thenReturn("Test Divers");
+        when(portalConfigurationService.getStringConfiguration(GENERAL.group, TIMEZONE.key)).thenReturn("Europe/Helsinki");
+        when(portalConfigurationService.getStringConfiguration(EMAIL.group, SYSTEM_EMAIL.key)).thenReturn("system@test.tld");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "en, Summary of 3 notifications, A new dive event has been created",
+            "de, Zusammenfassung von 3 Benachrichtigungen, Eine neue Tauchveranstaltung wurde erstellt",
+            "fi, 3 ilmoituksen kooste, Uusi sukellustapahtuma on luotu",
+            "sv, Sammanfattning av 3 anmälningar, En ny dyk-evenemang har skapats"
+    })
+    void createDigestMailListsEveryEntryOk(String language, String subject, String newEventHeading) throws Exception {
+        var event = Event.builder()
+                         .id(5L)
+                         .title("Night dive")
+                         .startTime(Instant.parse("2026-06-01T16:00:00Z"))
+                         .build();
+        var pageVersion = PageVersion.builder()
+                                     .pageId(7L)
+                                     .title("Club rules")
+                                     .build();
+        var entries = List.of(new DigestEntry(NEW, event, null), new DigestEntry(UPDATED, null, pageVersion), new DigestEntry(DELETED, event, null));
+
+        var mail = emailService.createDigestMail("diver@test.tld", language, entries);
+
+        assertEquals("[Test Divers] " + subject, mail.getSubject());
+        assertEquals("diver@test.tld", mail.getAllRecipients()[0].toString());
+        var body = htmlBody(mail);
+        assertTrue(body.contains(newEventHeading), body);
+        // The start time of the event is shown in the time zone of the portal
+        assertTrue(body.contains("<strong>Night dive</strong><span> (<span>01.06.2026 19:00</span>)</span>"), body);
+        // A page has no date
+        assertTrue(body.contains("<strong>Club rules</strong></li>"), body);
+        assertEquals(3, body.split("<li>", -1).length - 1);
+        assertTrue(body.contains("https://portal.test.tld"), body);
+        assertFalse(body.contains("th:"), body);
+        // The digest is personal and never cached
+        verifyNoInteractions(emailRenderCacheService);
+    }
+
+    private String htmlBody(MimeMessage mail) throws Exception {
+        mail.saveChanges();
+        var mixed = (MimeMultipart) mail.getContent();
+        var related = (MimeMultipart) mixed.getBodyPart(0)
+                                           .getContent();
+        return (String) related.getBodyPart(0)
+                               .getContent();
+    }
+}
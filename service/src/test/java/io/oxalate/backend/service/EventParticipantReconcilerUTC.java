@@ -0,0 +1,198 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.api.ParticipantTypeEnum;
+import io.oxalate.backend.api.PaymentTypeEnum;
+import io.oxalate.backend.api.UserTypeEnum;
+import io.oxalate.backend.model.EventsParticipant;
+import io.oxalate.backend.model.User;
+import io.oxalate.backend.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import lombok.extern.slf4j.Slf4j;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+class EventParticipantReconcilerUTC {
+    private static final long EVENT_ID = 7L;
+    private static final long ORGANIZER_ID = 1L;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private PaymentService paymentService;
+
+    private EventParticipantReconciler eventParticipantReconciler;
+
+    @BeforeEach
+    void setUp() {
+        eventParticipantReconciler = new EventParticipantReconciler(jdbcTemplate, userRepository, paymentService);
+        lenient().when(userRepository.findAllById(anyCollection()))
+                 .thenAnswer(invocation -> {
+                     Collection<Long> userIds = invocation.getArgument(0);
+                     return userIds.stream()
+                                   .map(this::user)
+                                   .toList();
+                 });
+    }
+
+    @Test
+    void reconcileAddsAndRemovesWithPaymentAdjustmentsOk() {
+        // 10 stays, 11 and 12 are removed, 13 and 14 are added, 15 has no payment and the organizer is never added as a regular participant
+        var currentParticipants = List.of(participant(ORGANIZER_ID, ParticipantTypeEnum.ORGANIZER, PaymentTypeEnum.NONE),
+                participant(10L, ParticipantTypeEnum.USER, PaymentTypeEnum.PERIODICAL), participant(11L, ParticipantTypeEnum.USER, PaymentTypeEnum.ONE_TIME),
+                participant(12L, ParticipantTypeEnum.USER, PaymentTypeEnum.PERIODICAL));
+        lenient().when(paymentService.getBestAvailablePaymentTypes(anyCollection()))
+                 .thenReturn(Map.of(ORGANIZER_ID, PaymentTypeEnum.ONE_TIME, 11L, PaymentTypeEnum.ONE_TIME, 12L, PaymentTypeEnum.PERIODICAL, 13L,
+                         PaymentTypeEnum.ONE_TIME, 14L, PaymentTypeEnum.PERIODICAL));
+
+        var result = eventParticipantReconciler.reconcile(EVENT_ID, currentParticipants, List.of(10L, 13L, 14L, 15L), ORGANIZER_ID);
+
+        assertEquals(List.of(13L, 14L), result.addedUserIds());
+        assertEquals(List.of(ORGANIZER_ID, 11L, 12L), result.removedUserIds());
+        verify(paymentService).decreaseOneTimePayments(List.of(13L));
+        // The organizer row was never paid for, so only 11 gets the one-time payment back
+        verify(paymentService).increaseOneTimePayments(List.of(11L), 1);
+
+        var inserts = captureBatch("INSERT");
+        assertEquals(2, inserts.size());
+        assertEquals(13L, inserts.getFirst()[0]);
+        assertEquals(ParticipantTypeEnum.USER.name(), inserts.getFirst()[2]);
+        assertEquals(PaymentTypeEnum.ONE_TIME.name(), inserts.getFirst()[3]);
+        assertEquals(UserTypeEnum.SCUBA_DIVER.name(), inserts.getFirst()[5]);
+        assertEquals(PaymentTypeEnum.PERIODICAL.name(), inserts.getLast()[3]);
+        assertEquals(3, captureBatch("DELETE").size());
+    }
+
+    @Test
+    void reconcileUnchangedListSkipsQueries() {
+        var currentParticipants = List.of(participant(10L, ParticipantTypeEnum.USER, PaymentTypeEnum.PERIODICAL));
+
+        var result = eventParticipantReconciler.reconcile(EVENT_ID, currentParticipants, List.of(10L), ORGANIZER_ID);
+
+        assertTrue(result.addedUserIds()
+                         .isEmpty());
+        assertTrue(result.removedUserIds()
+                         .isEmpty());
+        verifyNoInteractions(jdbcTemplate, userRepository, paymentService);
+    }
+
+    @Test
+    void reconcileNewEventWithoutParticipantsSkipsQueries() {
+        var result = eventParticipantReconciler.reconcile(EVENT_ID, List.of(), null, ORGANIZER_ID);
+
+        assertTrue(result.addedUserIds()
+                         .isEmpty());
+        verifyNoInteractions(jdbcTemplate, userRepository, paymentService);
+    }
+
+    @Test
+    void reconcileQueryCountIndependentOfParticipantCount() {
+        lenient().when(paymentService.getBestAvailablePaymentTypes(anyCollection()))
+                 .thenAnswer(invocation -> {
+                     Collection<Long> userIds = invocation.getArgument(0);
+                     return userIds.stream()
+                                   .collect(Collectors.toMap(userId -> userId, userId -> userId % 2 == 0 ? PaymentTypeEnum.PERIODICAL
+                                                                                                         : PaymentTypeEnum.ONE_TIME));
+                 });
+        var queryCounts = new ArrayList<Integer>();
+
+        for (var participantCount : List.of(1, 10, 100, 1000)) {
+            // Half of the current participants are dropped and as many new ones are added
+            var currentParticipants = LongStream.range(0, participantCount)
+                                                .mapToObj(userId -> participant(100L + userId, ParticipantTypeEnum.USER, PaymentTypeEnum.PERIODICAL))
+                                                .toList();
+            var requestedUserIds = LongStream.range(participantCount / 2, participantCount + participantCount / 2 + 1)
+                                             .mapToObj(userId -> 100L + userId)
+                                             .toList();
+            clearInvocations(jdbcTemplate, userRepository, paymentService);
+
+            var start = System.nanoTime();
+            eventParticipantReconciler.reconcile(EVENT_ID, currentParticipants, requestedUserIds, ORGANIZER_ID);
+            var elapsed = System.nanoTime() - start;
+
+            var queryCount = queryCount(jdbcTemplate, userRepository, paymentService);
+            log.info("Reconciled {} participants using {} queries in {} us", participantCount, queryCount, elapsed / 1000);
+            queryCounts.add(queryCount);
+        }
+
+        // Payment types, users, one-time decrease, insert batch, delete batch and one-time increase
+        assertTrue(queryCounts.stream()
+                              .skip(1)
+                              .allMatch(queryCount -> queryCount == 6), "Query counts per participant count: " + queryCounts);
+        verify(jdbcTemplate, never()).update(anyString(), anyInt());
+        verify(paymentService, never()).getBestAvailablePaymentType(eq(100L));
+    }
+
+    private List<Object[]> captureBatch(String statement) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rowsCaptor = ArgumentCaptor.forClass(List.class);
+        var sqlCaptor = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(sqlCaptor.capture(), rowsCaptor.capture());
+
+        for (var i = 0; i < sqlCaptor.getAllValues()
+                                     .size(); i++) {
+            if (sqlCaptor.getAllValues()
+                         .get(i)
+                         .startsWith(statement)) {
+                return rowsCaptor.getAllValues()
+                                 .get(i);
+            }
+        }
+
+        return List.of();
+    }
+
+    private int queryCount(Object... mocks) {
+        var count = 0;
+
+        for (var mock : mocks) {
+            count += mockingDetails(mock).getInvocations()
+                                         .size();
+        }
+
+        return count;
+    }
+
+    private EventsParticipant participant(long userId, ParticipantTypeEnum participantType, PaymentTypeEnum paymentType) {
+        return EventsParticipant.builder()
+                                .userId(userId)
+                                .eventId(EVENT_ID)
+                                .participantType(participantType)
+                                .paymentType(paymentType)
+                                .eventUserType(UserTypeEnum.SCUBA_DIVER)
+                                .build();
+    }
+
+    private User user(long userId) {
+        return User.builder()
+                   .id(userId)
+                   .primaryUserType(UserTypeEnum.SCUBA_DIVER)
+                   .build();
+    }
+}
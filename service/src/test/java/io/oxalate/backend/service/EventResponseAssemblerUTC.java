@@ -0,0 +1,363 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.api.DiveTypeEnum;
+import io.oxalate.backend.api.EventStatusEnum;
+import io.oxalate.backend.api.PaymentTypeEnum;
+import io.oxalate.backend.api.UserTypeEnum;
+import io.oxalate.backend.api.response.EventListResponse;
+import io.oxalate.backend.model.Event;
+import io.oxalate.backend.model.Payment;
+import io.oxalate.backend.model.Tag;
+import io.oxalate.backend.model.User;
+import io.oxalate.backend.repository.EventListEntry;
+import io.oxalate.backend.repository.EventParticipantDetail;
+import io.oxalate.backend.repository.EventParticipantsRepository;
+import io.oxalate.backend.repository.PaymentRepository;
+import io.oxalate.backend.repository.TagRepository;
+import io.oxalate.backend.repository.UserTagId;
+import io.oxalate.backend.service.commenting.CommentService;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import lombok.extern.slf4j.Slf4j;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+class EventResponseAssemblerUTC {
+    private static final long EVENT_ID = 7L;
+    private static final long ORGANIZER_ID = 1L;
+
+    @Mock
+    private UserService userService;
+    @Mock
+    private EventParticipantsRepository eventParticipantsRepository;
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private TagRepository tagRepository;
+    @Mock
+    private CommentService commentService;
+
+    private EventResponseAssembler eventResponseAssembler;
+
+    @BeforeEach
+    void setUp() {
+        eventResponseAssembler = new EventResponseAssembler(userService, eventParticipantsRepository, paymentRepository, tagRepository, commentService);
+        // The list tests do not need the organizer nor the comment topic
+        lenient().when(userService.findUserEntityById(ORGANIZER_ID))
+                 .thenReturn(User.builder()
+                                 .id(ORGANIZER_ID)
+                                 .firstName("Olli")
+                                 .lastName("Organizer")
+                                 .build());
+        lenient().when(commentService.getEventCommentId(EVENT_ID))
+                 .thenReturn(99L);
+    }
+
+    @Test
+    void assembleParticipantDetailsOk() {
+        when(eventParticipantsRepository.findEventParticipantDetails(eq(EVENT_ID), anyList())).thenReturn(List.of(participant(10L, 3),
+                participant(11L, 0)));
+        when(paymentRepository.findAllByUserIdInOrderByStartDateDesc(anyList())).thenReturn(List.of(payment(10L)));
+        when(tagRepository.findUserTagIds(anyList())).thenReturn(List.of(userTagId(11L, 5L)));
+        when(tagRepository.findAllWithTranslationsByIdIn(anyCollection())).thenReturn(List.of(Tag.builder()
+                                                                                                  .id(5L)
+                                                                                                  .code("INSTRUCTOR")
+                                                                                                  .build()));
+
+        var eventResponse = eventResponseAssembler.assemble(event())
+                                                  .orElseThrow();
+
+        assertEquals(99L, eventResponse.getEventCommentId());
+        assertEquals(2, eventResponse.getParticipants()
+                                     .size());
+        var first = eventResponse.getParticipants()
+                                 .getFirst();
+        assertEquals("Diver10 Dan", first.getName());
+        assertEquals(3L, first.getEventDiveCount());
+        assertEquals(UserTypeEnum.SCUBA_DIVER, first.getUserType());
+        assertEquals(1, first.getPayments()
+                             .size());
+        assertTrue(first.getTags()
+                        .isEmpty());
+        var second = eventResponse.getParticipants()
+                                  .getLast();
+        assertTrue(second.getPayments()
+                         .isEmpty());
+        assertEquals("INSTRUCTOR", second.getTags()
+                                         .iterator()
+                                         .next()
+                                         .getCode());
+    }
+
+    @Test
+    void assembleQueryCountIndependentOfParticipantCount() {
+        when(paymentRepository.findAllByUserIdInOrderByStartDateDesc(anyList())).thenAnswer(invocation -> {
+            List<Long> userIds = invocation.getArgument(0);
+            return userIds.stream()
+                          .map(this::payment)
+                          .toList();
+        });
+        when(tagRepository.findUserTagIds(anyList())).thenAnswer(invocation -> {
+            List<Long> userIds = invocation.getArgument(0);
+            return userIds.stream()
+                          .map(userId -> userTagId(userId, 5L))
+                          .toList();
+        });
+        when(tagRepository.findAllWithTranslationsByIdIn(anyCollection())).thenReturn(List.of(Tag.builder()
+                                                                                                  .id(5L)
+                                                                                                  .code("INSTRUCTOR")
+                                                                                                  .build()));
+        var queryCounts = new ArrayList<Integer>();
+
+        for (var participantCount : List.of(1, 10, 40, 200)) {
+            var participants = LongStream.rangeClosed(1, participantCount)
+                                         .mapToObj(userId -> participant(100L + userId, 1))
+                                         .toList();
+            when(eventParticipantsRepository.findEventParticipantDetails(eq(EVENT_ID), anyList())).thenReturn(participants);
+            clearInvocations(userService, eventParticipantsRepository, paymentRepository, tagRepository, commentService);
+
+            var start = System.nanoTime();
+            var eventResponse = eventResponseAssembler.assemble(event())
+                                                      .orElseThrow();
+            var elapsed = System.nanoTime() - start;
+
+            assertEquals(participantCount, eventResponse.getParticipants()
+                                                        .size());
+            var queryCount = queryCount(userService, eventParticipantsRepository, paymentRepository, tagRepository, commentService);
+            log.info("Assembled event with {} participants using {} queries in {} us", participantCount, queryCount, elapsed / 1000);
+            queryCounts.add(queryCount);
+        }
+
+        // Organizer, participants, waitlist, payments, user tag links, tags and the comment topic
+        assertTrue(queryCounts.stream()
+                              .allMatch(queryCount -> queryCount == 7), "Query counts per participant count: " + queryCounts);
+    }
+
+    @Test
+    void assembleWithoutParticipantsSkipsBulkQueries() {
+        when(eventParticipantsRepository.findEventParticipantDetails(anyLong(), anyList())).thenReturn(List.of());
+
+        var eventResponse = eventResponseAssembler.assemble(event())
+                                                  .orElseThrow();
+
+        assertTrue(eventResponse.getParticipants()
+                                .isEmpty());
+        assertEquals(0, queryCount(paymentRepository, tagRepository));
+    }
+
+    @Test
+    void assembleListResolvesTagsWithOneQueryOk() {
+        when(tagRepository.findAllWithTranslationsByIdIn(anyCollection())).thenReturn(List.of(Tag.builder()
+                                                                                                  .id(5L)
+                                                                                                  .code("CAVE")
+                                                                                                  .build(), Tag.builder()
+                                                                                                               .id(6L)
+                                                                                                               .code("NIGHT")
+                                                                                                               .build()));
+
+        var eventListResponses = eventResponseAssembler.assembleList(List.of(eventListEntry(1L, "5,6"), eventListEntry(2L, null),
+                eventListEntry(3L, "6")));
+
+        assertEquals(List.of(1L, 2L, 3L), eventListResponses.stream()
+                                                            .map(EventListResponse::getId)
+                                                            .toList());
+        assertEquals(2, eventListResponses.getFirst()
+                                          .getTags()
+                                          .size());
+        assertTrue(eventListResponses.get(1)
+                                     .getTags()
+                                     .isEmpty());
+        assertEquals("NIGHT", eventListResponses.getLast()
+                                                .getTags()
+                                                .iterator()
+                                                .next()
+                                                .getCode());
+        assertEquals("Olli Organizer", eventListResponses.getFirst()
+                                                         .getOrganizerName());
+        assertEquals(4, eventListResponses.getFirst()
+                                          .getParticipantCount());
+        assertEquals(1, queryCount(tagRepository));
+    }
+
+    @Test
+    void assembleListWithoutTagsSkipsTagQuery() {
+        var eventListResponses = eventResponseAssembler.assembleList(List.of(eventListEntry(1L, null)));
+
+        assertEquals(1, eventListResponses.size());
+        assertEquals(0, queryCount(tagRepository));
+    }
+
+    private int queryCount(Object... mocks) {
+        var count = 0;
+
+        for (var mock : mocks) {
+            count += mockingDetails(mock).getInvocations()
+                                         .size();
+        }
+
+        return count;
+    }
+
+    private Event event() {
+        return Event.builder()
+                    .id(EVENT_ID)
+                    .type(DiveTypeEnum.CAVE)
+                    .title("Cave trip")
+                    .description("Description")
+                    .startTime(Instant.now())
+                    .eventDuration(6)
+                    .maxDuration(120)
+                    .maxDepth(40)
+                    .maxParticipants(300)
+                    .organizerId(ORGANIZER_ID)
+                    .status(EventStatusEnum.PUBLISHED)
+                    .build();
+    }
+
+    private EventListEntry eventListEntry(long eventId, String tagIds) {
+        return new EventListEntry() {
+            @Override
+            public long getId() {
+                return eventId;
+            }
+
+            @Override
+            public String getType() {
+                return DiveTypeEnum.CAVE.name();
+            }
+
+            @Override
+            public String getTitle() {
+                return "Event " + eventId;
+            }
+
+            @Override
+            public String getDescription() {
+                return "Description";
+            }
+
+            @Override
+            public Instant getStartTime() {
+                return Instant.now();
+            }
+
+            @Override
+            public int getEventDuration() {
+                return 6;
+            }
+
+            @Override
+            public int getMaxDuration() {
+                return 120;
+            }
+
+            @Override
+            public int getMaxDepth() {
+                return 40;
+            }
+
+            @Override
+            public int getMaxParticipants() {
+                return 10;
+            }
+
+            @Override
+            public String getOrganizerName() {
+                return "Olli Organizer";
+            }
+
+            @Override
+            public long getParticipantCount() {
+                return 4;
+            }
+
+            @Override
+            public long getEventCommentId() {
+                return 0;
+            }
+
+            @Override
+            public String getTagIds() {
+                return tagIds;
+            }
+        };
+    }
+
+    private Payment payment(long userId) {
+        return Payment.builder()
+                      .id(userId)
+                      .userId(userId)
+                      .paymentType(PaymentTypeEnum.PERIODICAL)
+                      .build();
+    }
+
+    private UserTagId userTagId(long userId, long tagId) {
+        return new UserTagId() {
+            @Override
+            public long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public long getTagId() {
+                return tagId;
+            }
+        };
+    }
+
+    private EventParticipantDetail participant(long userId, long diveCount) {
+        return new EventParticipantDetail() {
+            @Override
+            public long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getFirstName() {
+                return "Dan";
+            }
+
+            @Override
+            public String getLastName() {
+                return "Diver" + userId;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return Instant.now();
+            }
+
+            @Override
+            public String getEventUserType() {
+                return UserTypeEnum.SCUBA_DIVER.name();
+            }
+
+            @Override
+            public long getEventDiveCount() {
+                return diveCount;
+            }
+
+            @Override
+            public boolean getMembershipActive() {
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,211 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.api.DiveTypeEnum;
+import io.oxalate.backend.api.EventStatusEnum;
+import io.oxalate.backend.api.PaymentTypeEnum;
+import io.oxalate.backend.api.UserTypeEnum;
+import io.oxalate.backend.api.request.EventRequest;
+import io.oxalate.backend.events.EventParticipantsChangedEvent;
+import io.oxalate.backend.events.EventsClosedEvent;
+import io.oxalate.backend.events.EventsReopenedEvent;
+import io.oxalate.backend.model.Event;
+import io.oxalate.backend.model.User;
+import io.oxalate.backend.repository.EventParticipantsRepository;
+import io.oxalate.backend.repository.EventRepository;
+import io.oxalate.backend.repository.EventWaitlistEntry;
+import io.oxalate.backend.repository.commenting.EventCommentRepository;
+import io.oxalate.backend.service.EventParticipantReconciler.ReconciliationResult;
+import io.oxalate.backend.service.commenting.CommentService;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class EventServiceUTC {
+    private static final long EVENT_ID = 3L;
+    private static final long ORGANIZER_ID = 7L;
+    private static final long WAITLISTED_USER_ID = 13L;
+    private static final Instant UPCOMING_START = Instant.now()
+                                                         .plus(30, ChronoUnit.DAYS);
+
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private EventParticipantsRepository eventParticipantsRepository;
+    @Mock
+    private UserService userService;
+    @Mock
+    private PaymentService paymentService;
+    @Mock
+    private EmailQueueService emailQueueService;
+    @Mock
+    private PortalConfigurationService portalConfigurationService;
+    @Mock
+    private CommentService commentService;
+    @Mock
+    private EventCommentRepository eventCommentRepository;
+    @Mock
+    private EventResponseAssembler eventResponseAssembler;
+    @Mock
+    private EventParticipantReconciler eventParticipantReconciler;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Mock
+    private MessageService messageService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private EventService eventService;
+
+    @Test
+    void updateEventToHeldCountsEventAsClosed() {
+        var event = event(EventStatusEnum.PUBLISHED);
+        when(eventRepository.findById(EVENT_ID)).thenReturn(Optional.of(event));
+        when(eventRepository.save(event)).thenReturn(event);
+        when(eventParticipantReconciler.reconcile(eq(EVENT_ID), anyCollection(), anyCollection(), anyLong())).thenReturn(
+                new ReconciliationResult(List.of(11L, 12L), List.of()));
+        when(userService.findUserEntityById(ORGANIZER_ID)).thenReturn(User.builder()
+                                                                          .id(ORGANIZER_ID)
+                                                                          .primaryUserType(UserTypeEnum.SCUBA_DIVER)
+                                                                          .build());
+
+        eventService.updateEvent(request(EventStatusEnum.HELD));
+
+        var publishedEvents = ArgumentCaptor.forClass(Object.class);
+        verify(applicationEventPublisher, times(2)).publishEvent(publishedEvents.capture());
+        // The added participants are counted with the event as it is closed, not as a change of a held event
+        var participantsChanged = (EventParticipantsChangedEvent) publishedEvents.getAllValues()
+                                                                                 .getFirst();
+        assertEquals(EventStatusEnum.PUBLISHED, participantsChanged.getStatus());
+        assertEquals(EventsClosedEvent.builder()
+                                      .eventIds(List.of(EVENT_ID))
+                                      .build(), publishedEvents.getAllValues()
+                                                               .get(1));
+    }
+
+    @Test
+    void updateEventNotifiesPromotedWaitlistUser() {
+        var event = event(EventStatusEnum.PUBLISHED);
+        when(eventRepository.findById(EVENT_ID)).thenReturn(Optional.of(event));
+        when(eventRepository.save(event)).thenReturn(event);
+        when(eventParticipantReconciler.reconcile(eq(EVENT_ID), anyCollection(), anyCollection(), anyLong())).thenReturn(
+                new ReconciliationResult(List.of(), List.of()));
+        when(userService.findUserEntityById(ORGANIZER_ID)).thenReturn(User.builder()
+                                                                          .id(ORGANIZER_ID)
+                                                                          .primaryUserType(UserTypeEnum.SCUBA_DIVER)
+                                                                          .build());
+        when(eventParticipantsRepository.findFirstOnWaitlist(EVENT_ID)).thenReturn(Optional.of(waitlistEntry()), Optional.empty());
+        when(paymentService.getBestAvailablePaymentType(WAITLISTED_USER_ID)).thenReturn(Optional.of(PaymentTypeEnum.PERIODICAL));
+        when(eventParticipantsRepository.addParticipantWithinCapacity(eq(WAITLISTED_USER_ID), eq(EVENT_ID), eq(PaymentTypeEnum.PERIODICAL.name()), any(),
+                eq(UserTypeEnum.SCUBA_DIVER.name()))).thenReturn(1);
+
+        var request = request(EventStatusEnum.PUBLISHED);
+        request.setStartTime(UPCOMING_START);
+
+        eventService.updateEvent(request);
+
+        verify(eventParticipantsRepository).removeFromWaitlist(EVENT_ID, WAITLISTED_USER_ID);
+        verify(messageService).createSimpleNotification(eq(WAITLISTED_USER_ID), eq(1L), anyString(), anyString(), contains("Cave dive"));
+    }
+
+    @Test
+    void updateEventToCancelledDoesNotPromoteWaitlist() {
+        updateUpcomingEventDoesNotPromoteWaitlist(EventStatusEnum.CANCELLED);
+    }
+
+    @Test
+    void updateEventToDraftedDoesNotPromoteWaitlist() {
+        updateUpcomingEventDoesNotPromoteWaitlist(EventStatusEnum.DRAFTED);
+    }
+
+    private void updateUpcomingEventDoesNotPromoteWaitlist(EventStatusEnum newStatus) {
+        var event = event(EventStatusEnum.PUBLISHED);
+        when(eventRepository.findById(EVENT_ID)).thenReturn(Optional.of(event));
+        when(eventRepository.save(event)).thenReturn(event);
+        when(eventParticipantReconciler.reconcile(eq(EVENT_ID), anyCollection(), anyCollection(), anyLong())).thenReturn(
+                new ReconciliationResult(List.of(), List.of()));
+        when(userService.findUserEntityById(ORGANIZER_ID)).thenReturn(User.builder()
+                                                                          .id(ORGANIZER_ID)
+                                                                          .primaryUserType(UserTypeEnum.SCUBA_DIVER)
+                                                                          .build());
+        var request = request(newStatus);
+        request.setStartTime(UPCOMING_START);
+
+        eventService.updateEvent(request);
+
+        verify(eventParticipantsRepository, never()).findFirstOnWaitlist(anyLong());
+        verify(eventParticipantsRepository, never()).addParticipantWithinCapacity(anyLong(), anyLong(), anyString(), any(), anyString());
+        verify(paymentService, never()).decreaseOneTimePayment(anyLong());
+        verifyNoInteractions(messageService);
+    }
+
+    @Test
+    void cancelHeldEventCountsEventAsReopened() {
+        when(eventRepository.findById(EVENT_ID)).thenReturn(Optional.of(event(EventStatusEnum.HELD)));
+
+        eventService.cancel(EVENT_ID);
+
+        verify(eventRepository).updateEventStatus(EVENT_ID, EventStatusEnum.CANCELLED);
+        verify(applicationEventPublisher).publishEvent(any(EventsReopenedEvent.class));
+    }
+
+    private EventWaitlistEntry waitlistEntry() {
+        return new EventWaitlistEntry() {
+            @Override
+            public long getUserId() {
+                return WAITLISTED_USER_ID;
+            }
+
+            @Override
+            public String getEventUserType() {
+                return UserTypeEnum.SCUBA_DIVER.name();
+            }
+        };
+    }
+
+    private Event event(EventStatusEnum status) {
+        return Event.builder()
+                    .id(EVENT_ID)
+                    .title("Cave dive")
+                    .type(DiveTypeEnum.CAVE)
+                    .startTime(Instant.parse("2025-06-01T08:00:00Z"))
+                    .organizerId(ORGANIZER_ID)
+                    .status(status)
+                    .build();
+    }
+
+    private EventRequest request(EventStatusEnum status) {
+        return EventRequest.builder()
+                           .id(EVENT_ID)
+                           .title("Cave dive")
+                           .type(DiveTypeEnum.CAVE)
+                           .startTime(Instant.parse("2025-06-01T08:00:00Z"))
+                           .organizerId(ORGANIZER_ID)
+                           .participants(Set.of(11L, 12L))
+                           .status(status)
+                           .build();
+    }
+}
@@ -0,0 +1,224 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.AbstractIntegrationTest;
+import static io.oxalate.backend.api.DiveTypeEnum.CAVE;
+import static io.oxalate.backend.api.EventStatusEnum.PUBLISHED;
+import static io.oxalate.backend.api.PaymentTypeEnum.PERIODICAL;
+import io.oxalate.backend.api.PeriodicPaymentTypeEnum;
+import static io.oxalate.backend.api.PortalConfigEnum.GENERAL;
+import static io.oxalate.backend.api.PortalConfigEnum.GeneralConfigEnum.EVENT_WAITLIST_ENABLED;
+import static io.oxalate.backend.api.PortalConfigEnum.PAYMENT;
+import static io.oxalate.backend.api.PortalConfigEnum.PaymentConfigEnum.PERIODICAL_PAYMENT_METHOD_TYPE;
+import io.oxalate.backend.api.RoleEnum;
+import static io.oxalate.backend.api.RoleEnum.ROLE_ORGANIZER;
+import static io.oxalate.backend.api.RoleEnum.ROLE_USER;
+import static io.oxalate.backend.api.UserStatusEnum.ACTIVE;
+import io.oxalate.backend.api.UserTypeEnum;
+import io.oxalate.backend.api.request.EventSubscribeRequest;
+import io.oxalate.backend.api.request.PaymentRequest;
+import io.oxalate.backend.model.Event;
+import io.oxalate.backend.model.User;
+import io.oxalate.backend.repository.EventParticipantsRepository;
+import io.oxalate.backend.repository.EventRepository;
+import io.oxalate.backend.repository.PaymentRepository;
+import io.oxalate.backend.repository.RoleRepository;
+import io.oxalate.backend.repository.UserRepository;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@Slf4j
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EventSubscriptionITC extends AbstractIntegrationTest {
+    private static final int MAX_PARTICIPANTS = 8;
+    private static final int SUBSCRIBERS = 60;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private EventParticipantsRepository eventParticipantsRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private PaymentService paymentService;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private EventService eventService;
+    @Autowired
+    private PortalConfigurationService portalConfigurationService;
+
+    private final List<User> users = new ArrayList<>();
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        var organizer = generateUser("organizer", ROLE_ORGANIZER);
+        event = eventRepository.save(Event.builder()
+                                          .type(CAVE)
+                                          .title("Popular Event")
+                                          .description("A Test generated event which everybody wants to join")
+                                          .startTime(Instant.now()
+                                                            .plus(10, ChronoUnit.DAYS))
+                                          .eventDuration(6)
+                                          .maxDuration(120)
+                                          .maxDepth(40)
+                                          .maxParticipants(MAX_PARTICIPANTS)
+                                          .organizerId(organizer.getId())
+                                          .status(PUBLISHED)
+                                          .build());
+
+        portalConfigurationService.setRuntimeValue(PAYMENT.group, PERIODICAL_PAYMENT_METHOD_TYPE.key, PeriodicPaymentTypeEnum.PERIODICAL.name());
+        portalConfigurationService.reloadPortalConfigurations();
+
+        for (var i = 0; i < SUBSCRIBERS; i++) {
+            var diver = generateUser("diver-" + i, ROLE_USER);
+            paymentService.savePayment(PaymentRequest.builder()
+                                                     .userId(diver.getId())
+                                                     .paymentCount(1)
+                                                     .paymentType(PERIODICAL)
+                                                     .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        portalConfigurationService.setRuntimeValue(GENERAL.group, EVENT_WAITLIST_ENABLED.key, "false");
+        portalConfigurationService.reloadPortalConfigurations();
+        eventParticipantsRepository.deleteAll();
+        eventRepository.deleteAll();
+        paymentRepository.deleteAll();
+
+        for (var user : users) {
+            roleRepository.deleteAllUserRolesByUserId(user.getId());
+            userRepository.deleteById(user.getId());
+        }
+
+        users.clear();
+    }
+
+    @Test
+    void concurrentSubscriptionsNeverOverbook() throws Exception {
+        var results = subscribeAllConcurrently();
+
+        assertEquals(MAX_PARTICIPANTS, results.stream()
+                                              .filter(Boolean::booleanValue)
+                                              .count());
+        assertEquals(MAX_PARTICIPANTS, eventService.findById(event.getId())
+                                                   .getParticipants()
+                                                   .size());
+    }
+
+    @Test
+    void concurrentSubscriptionsWaitlistOverflowAndPromoteInOrder() throws Exception {
+        portalConfigurationService.setRuntimeValue(GENERAL.group, EVENT_WAITLIST_ENABLED.key, "true");
+        portalConfigurationService.reloadPortalConfigurations();
+
+        var results = subscribeAllConcurrently();
+
+        assertTrue(results.stream()
+                          .allMatch(Boolean::booleanValue));
+        var eventResponse = eventService.findById(event.getId());
+        assertEquals(MAX_PARTICIPANTS, eventResponse.getParticipants()
+                                                    .size());
+        var waitlist = eventResponse.getWaitlist();
+        assertEquals(SUBSCRIBERS - MAX_PARTICIPANTS, waitlist.size());
+
+        var leaving = userRepository.findById(eventResponse.getParticipants()
+                                                           .getFirst()
+                                                           .getId())
+                                    .orElseThrow();
+        var updatedResponse = eventService.removeUserFromEvent(leaving, event.getId());
+
+        assertNotNull(updatedResponse);
+        assertEquals(MAX_PARTICIPANTS, updatedResponse.getParticipants()
+                                                      .size());
+        assertTrue(updatedResponse.getParticipants()
+                                  .stream()
+                                  .anyMatch(participant -> participant.getId() == waitlist.getFirst()));
+        assertEquals(waitlist.subList(1, waitlist.size()), updatedResponse.getWaitlist());
+        assertFalse(updatedResponse.getWaitlist()
+                                   .contains(leaving.getId()));
+    }
+
+    private List<Boolean> subscribeAllConcurrently() throws Exception {
+        var start = new CountDownLatch(1);
+        var tasks = new ArrayList<Callable<Boolean>>();
+
+        for (var user : users) {
+            if (user.getId() == event.getOrganizerId()) {
+                continue;
+            }
+
+            tasks.add(() -> {
+                start.await();
+                var eventSubscribeRequest = EventSubscribeRequest.builder()
+                                                                 .diveEventId(event.getId())
+                                                                 .userType(UserTypeEnum.SCUBA_DIVER)
+                                                                 .build();
+                return eventService.addUserToEvent(user, eventSubscribeRequest) != null;
+            });
+        }
+
+        try (var executor = Executors.newFixedThreadPool(SUBSCRIBERS)) {
+            var futures = new ArrayList<Future<Boolean>>();
+
+            for (var task : tasks) {
+                futures.add(executor.submit(task));
+            }
+
+            start.countDown();
+            var results = new ArrayList<Boolean>();
+
+            for (var future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+
+            return results;
+        }
+    }
+
+    private User generateUser(String name, RoleEnum roleEnum) {
+        var user = userRepository.save(User.builder()
+                                           .username(name + "-" + Instant.now()
+                                                                         .toEpochMilli() + "@test.tld")
+                                           .password("password")
+                                           .firstName("Max")
+                                           .lastName("Mustermann")
+                                           .status(ACTIVE)
+                                           .phoneNumber("123456789")
+                                           .privacy(false)
+                                           .nextOfKin("Maxine Mustermann")
+                                           .registered(Instant.now()
+                                                              .minus(1000L, ChronoUnit.DAYS))
+                                           .approvedTerms(true)
+                                           .language("de")
+                                           .primaryUserType(UserTypeEnum.SCUBA_DIVER)
+                                           .build());
+        var role = roleRepository.findByName(roleEnum)
+                                 .orElseThrow();
+        roleRepository.addUserRole(user.getId(), role.getId());
+        users.add(user);
+        return user;
+    }
+}
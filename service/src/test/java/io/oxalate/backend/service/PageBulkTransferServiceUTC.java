@@ -0,0 +1,284 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.api.BulkImportStatusEnum;
+import io.oxalate.backend.api.PageStatusEnum;
+import static io.oxalate.backend.api.PortalConfigEnum.GENERAL;
+import static io.oxalate.backend.api.PortalConfigEnum.GeneralConfigEnum.ENABLED_LANGUAGES;
+import io.oxalate.backend.api.RoleEnum;
+import io.oxalate.backend.api.response.PageGroupResponse;
+import io.oxalate.backend.model.Page;
+import io.oxalate.backend.model.PageGroup;
+import io.oxalate.backend.model.PageGroupVersion;
+import io.oxalate.backend.model.PageRoleAccess;
+import io.oxalate.backend.model.PageVersion;
+import io.oxalate.backend.repository.PageGroupRepository;
+import io.oxalate.backend.repository.PageGroupVersionRepository;
+import io.oxalate.backend.repository.PageRepository;
+import io.oxalate.backend.repository.PageRoleAccessRepository;
+import io.oxalate.backend.repository.PageVersionRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+class PageBulkTransferServiceUTC {
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private PageGroupRepository pageGroupRepository;
+    @Mock
+    private PageGroupVersionRepository pageGroupVersionRepository;
+    @Mock
+    private PageRepository pageRepository;
+    @Mock
+    private PageVersionRepository pageVersionRepository;
+    @Mock
+    private PageRoleAccessRepository pageRoleAccessRepository;
+    @Mock
+    private PageNavigationCacheService pageNavigationCacheService;
+    @Mock
+    private PagePrerenderService pagePrerenderService;
+    @Mock
+    private PortalConfigurationService portalConfigurationService;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private JsonMapper jsonMapper;
+    private PageBulkTransferService pageBulkTransferService;
+
+    @BeforeEach
+    void setUp() {
+        jsonMapper = JsonMapper.builder()
+                               .build();
+        pageBulkTransferService = new PageBulkTransferService(pageGroupRepository, pageGroupVersionRepository, pageRepository, pageVersionRepository,
+                pageRoleAccessRepository, pageNavigationCacheService, pagePrerenderService, portalConfigurationService, jdbcTemplate, transactionManager, jsonMapper,
+                new SyncTaskExecutor(), BATCH_SIZE);
+        lenient().when(portalConfigurationService.getArrayConfiguration(GENERAL.group, ENABLED_LANGUAGES.key))
+                 .thenReturn(List.of("en", "de"));
+    }
+
+    @Test
+    void exportPagesReadsPagesInBatchesOk() {
+        when(pageGroupRepository.findAll(any(Sort.class))).thenReturn(List.of(PageGroup.builder()
+                                                                                       .id(5L)
+                                                                                       .status(PageStatusEnum.PUBLISHED)
+                                                                                       .build()));
+        when(pageGroupVersionRepository.findAllByPageGroupIdOrderByLanguageAsc(5L)).thenReturn(List.of(PageGroupVersion.builder()
+                                                                                                                      .id(1L)
+                                                                                                                      .pageGroupId(5L)
+                                                                                                                      .language("en")
+                                                                                                                      .title("Group")
+                                                                                                                      .build()));
+        when(pageRepository.findAllByPageGroupIdAndIdGreaterThanOrderByIdAsc(5L, 0L, Limit.of(BATCH_SIZE))).thenReturn(List.of(page(10L), page(11L)));
+        when(pageRepository.findAllByPageGroupIdAndIdGreaterThanOrderByIdAsc(5L, 11L, Limit.of(BATCH_SIZE))).thenReturn(List.of(page(12L)));
+        when(pageVersionRepository.findAllByPageIdInOrderByLanguage(anyList())).thenAnswer(invocation -> {
+            List<Long> pageIds = invocation.getArgument(0);
+            return pageIds.stream()
+                          .map(this::pageVersion)
+                          .toList();
+        });
+        when(pageRoleAccessRepository.findAllByPageIdIn(anyList())).thenReturn(Set.of(pageRoleAccess(10L)));
+
+        var outputStream = new ByteArrayOutputStream();
+        pageBulkTransferService.exportPages(outputStream);
+
+        var pageGroups = jsonMapper.readValue(outputStream.toByteArray(), new TypeReference<List<PageGroupResponse>>() {
+        });
+        assertEquals(1, pageGroups.size());
+        assertEquals("Group", pageGroups.getFirst()
+                                        .getPageGroupVersions()
+                                        .getFirst()
+                                        .getTitle());
+        var pages = pageGroups.getFirst()
+                              .getPages();
+        assertEquals(3, pages.size());
+        assertEquals(12L, pages.getLast()
+                               .getId());
+        assertEquals("Title 12", pages.getLast()
+                                      .getPageVersions()
+                                      .getFirst()
+                                      .getTitle());
+        assertEquals(1, pages.getFirst()
+                             .getRolePermissions()
+                             .size());
+        verify(pageRepository, times(2)).findAllByPageGroupIdAndIdGreaterThanOrderByIdAsc(eq(5L), any(Long.class), any(Limit.class));
+    }
+
+    @Test
+    void importPagesInsertsInBatchesOk() {
+        var json = """
+                [
+                  {"id": 5, "status": "PUBLISHED", "pageGroupVersions": [{"language": "en", "title": "Group"}], "pages": [
+                    {"id": 10, "status": "PUBLISHED", "pageVersions": [{"language": "en", "title": "A", "ingress": "a", "body": "<p>a</p>"}],
+                     "rolePermissions": [{"role": "ROLE_ANONYMOUS", "readPermission": true, "writePermission": false}]},
+                    {"id": 11, "status": "DRAFTED", "pageVersions": [{"language": "en", "title": "B"}], "rolePermissions": []},
+                    {"id": 12, "status": "PUBLISHED", "pageVersions": [], "rolePermissions": []}
+                  ]},
+                  {"id": 3, "status": "PUBLISHED", "pages": [{"id": 20, "status": "PUBLISHED", "pageVersions": [], "rolePermissions": []}]}
+                ]
+                """;
+        when(pageGroupRepository.save(any(PageGroup.class))).thenAnswer(invocation -> {
+            PageGroup pageGroup = invocation.getArgument(0);
+            pageGroup.setId(100L);
+            return pageGroup;
+        });
+        when(pageGroupRepository.existsById(3L)).thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(2);
+            var pageIds = new ArrayList<Long>();
+
+            for (var i = 0; i < count; i++) {
+                pageIds.add(1000L + i);
+            }
+
+            return pageIds;
+        });
+        var insertedPages = new ArrayList<Object[]>();
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            List<Object[]> rows = invocation.getArgument(1);
+
+            if (sql.startsWith("INSERT INTO pages")) {
+                insertedPages.addAll(rows);
+            }
+
+            return new int[rows.size()];
+        });
+
+        pageBulkTransferService.startImport(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 7L);
+        var result = pageBulkTransferService.getImportProgress();
+
+        assertEquals(BulkImportStatusEnum.COMPLETED, result.getStatus());
+        assertEquals(1L, result.getPageGroups());
+        assertEquals(4L, result.getPages());
+        assertEquals(2L, result.getPageVersions());
+        assertEquals(1L, result.getRolePermissions());
+        assertNotNull(result.getFinishedAt());
+        assertEquals(result, pageBulkTransferService.getImportProgress());
+        // Two full batches, the last one with the pages of the blog group
+        verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(Long.class), eq(BATCH_SIZE));
+        assertEquals(100L, insertedPages.getFirst()[2]);
+        assertEquals(7L, insertedPages.getFirst()[3]);
+        assertEquals(3L, insertedPages.getLast()[2]);
+        verify(pageGroupVersionRepository).save(any(PageGroupVersion.class));
+        verify(pageNavigationCacheService).invalidate();
+        verify(pagePrerenderService).reconcile();
+    }
+
+    @Test
+    void importPagesInvalidLanguageFailsBeforeInsert() {
+        var json = """
+                [
+                  {"id": 5, "status": "PUBLISHED", "pageGroupVersions": [{"language": "en", "title": "Group"}], "pages": [
+                    {"id": 10, "status": "PUBLISHED", "pageVersions": [{"language": "en", "title": "A"}], "rolePermissions": []},
+                    {"id": 11, "status": "PUBLISHED", "pageVersions": [{"language": "en", "title": "B"}], "rolePermissions": []},
+                    {"id": 12, "status": "PUBLISHED", "pageVersions": [{"language": "xx", "title": "C"}], "rolePermissions": []}
+                  ]}
+                ]
+                """;
+
+        pageBulkTransferService.startImport(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 7L);
+        var result = pageBulkTransferService.getImportProgress();
+
+        assertEquals(BulkImportStatusEnum.FAILED, result.getStatus());
+        assertEquals("Languages which are not enabled: page 12 language xx", result.getMessage());
+        assertEquals(0L, result.getPages());
+        verify(pageGroupRepository, never()).save(any());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void importPagesMalformedFails() {
+        pageBulkTransferService.startImport(new ByteArrayInputStream("{\"id\": 1}".getBytes(StandardCharsets.UTF_8)), 7L);
+        var result = pageBulkTransferService.getImportProgress();
+
+        assertEquals(BulkImportStatusEnum.FAILED, result.getStatus());
+        assertNotNull(result.getMessage());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(pageNavigationCacheService, never()).invalidate();
+        // A failed import does not block the next one
+        assertNotNull(pageBulkTransferService.startImport(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)), 7L));
+    }
+
+    @Test
+    void startImportWhileRunningNull() {
+        // The executor has not run the started import yet
+        pageBulkTransferService = new PageBulkTransferService(pageGroupRepository, pageGroupVersionRepository, pageRepository, pageVersionRepository,
+                pageRoleAccessRepository, pageNavigationCacheService, pagePrerenderService, portalConfigurationService, jdbcTemplate, transactionManager, jsonMapper,
+                task -> {
+        }, BATCH_SIZE);
+
+        var result = pageBulkTransferService.startImport(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)), 7L);
+
+        assertEquals(BulkImportStatusEnum.RUNNING, result.getStatus());
+        assertNull(pageBulkTransferService.startImport(new ByteArrayInputStream("[]".getBytes(StandardCharsets.UTF_8)), 7L));
+    }
+
+    @Test
+    void getImportProgressBeforeImportNull() {
+        assertNull(pageBulkTransferService.getImportProgress());
+    }
+
+    private Page page(long pageId) {
+        return Page.builder()
+                   .id(pageId)
+                   .pageGroupId(5L)
+                   .status(PageStatusEnum.PUBLISHED)
+                   .creator(1L)
+                   .createdAt(Instant.now())
+                   .build();
+    }
+
+    private PageVersion pageVersion(long pageId) {
+        return PageVersion.builder()
+                          .id(pageId)
+                          .pageId(pageId)
+                          .language("en")
+                          .title("Title " + pageId)
+                          .ingress("Ingress")
+                          .body("Body")
+                          .build();
+    }
+
+    private PageRoleAccess pageRoleAccess(long pageId) {
+        return PageRoleAccess.builder()
+                             .pageId(pageId)
+                             .role(RoleEnum.ROLE_ANONYMOUS)
+                             .readPermission(true)
+                             .writePermission(false)
+                             .build();
+    }
+}
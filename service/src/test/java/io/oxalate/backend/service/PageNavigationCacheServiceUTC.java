@@ -0,0 +1,87 @@
+package io.oxalate.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.oxalate.backend.api.RoleEnum;
+import io.oxalate.backend.api.response.PageGroupResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@Slf4j
+class PageNavigationCacheServiceUTC {
+    private SimpleMeterRegistry meterRegistry;
+    private PageNavigationCacheService pageNavigationCacheService;
+    private AtomicInteger loadCount;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pageNavigationCacheService = new PageNavigationCacheService(meterRegistry);
+        loadCount = new AtomicInteger();
+    }
+
+    @Test
+    void getNavigationCachesPerLanguageAndRolesOk() {
+        var first = pageNavigationCacheService.getNavigation("en", Set.of(RoleEnum.ROLE_USER, RoleEnum.ROLE_ANONYMOUS), this::load);
+        // Same roles in a different order hit the same entry
+        var second = pageNavigationCacheService.getNavigation("en", Set.of(RoleEnum.ROLE_ANONYMOUS, RoleEnum.ROLE_USER), this::load);
+        pageNavigationCacheService.getNavigation("fi", Set.of(RoleEnum.ROLE_USER, RoleEnum.ROLE_ANONYMOUS), this::load);
+        pageNavigationCacheService.getNavigation("en", Set.of(RoleEnum.ROLE_ANONYMOUS), this::load);
+
+        assertSame(first, second);
+        assertEquals(3, loadCount.get());
+        assertEquals(1.0, requestCount("hit"));
+        assertEquals(3.0, requestCount("miss"));
+        assertEquals(3.0, meterRegistry.get("oxalate.page.navigation.cache.size")
+                                       .gauge()
+                                       .value());
+    }
+
+    @Test
+    void invalidateDropsAllEntriesOk() {
+        var roles = Set.of(RoleEnum.ROLE_ANONYMOUS);
+        pageNavigationCacheService.getNavigation("en", roles, this::load);
+        pageNavigationCacheService.invalidate();
+        pageNavigationCacheService.getNavigation("en", roles, this::load);
+        pageNavigationCacheService.getNavigation("en", roles, this::load);
+
+        assertEquals(2, loadCount.get());
+        assertEquals(1.0, requestCount("hit"));
+    }
+
+    @Test
+    void navigationBuiltDuringInvalidationIsNotCachedOk() {
+        var roles = Set.of(RoleEnum.ROLE_ANONYMOUS);
+        pageNavigationCacheService.getNavigation("en", roles, () -> {
+            // A page is modified while the tree is being built from the old data
+            pageNavigationCacheService.invalidate();
+            return load();
+        });
+        pageNavigationCacheService.getNavigation("en", roles, this::load);
+
+        assertEquals(2, loadCount.get());
+        assertEquals(0.0, requestCount("hit"));
+    }
+
+    private List<PageGroupResponse> load() {
+        loadCount.incrementAndGet();
+        var pageGroups = new ArrayList<PageGroupResponse>();
+        pageGroups.add(PageGroupResponse.builder()
+                                        .id(10L)
+                                        .build());
+        return pageGroups;
+    }
+
+    private double requestCount(String result) {
+        return meterRegistry.get("oxalate.page.navigation.cache.requests")
+                            .tag("result", result)
+                            .counter()
+                            .count();
+    }
+}
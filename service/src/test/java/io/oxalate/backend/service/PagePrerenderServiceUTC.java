@@ -0,0 +1,278 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.api.PageStatusEnum;
+import io.oxalate.backend.api.RoleEnum;
+import io.oxalate.backend.api.response.PageResponse;
+import io.oxalate.backend.api.response.PageVersionResponse;
+import io.oxalate.backend.events.PageGroupModifiedEvent;
+import io.oxalate.backend.events.PageModifiedEvent;
+import io.oxalate.backend.model.Page;
+import io.oxalate.backend.model.PageGroup;
+import io.oxalate.backend.model.PageRoleAccess;
+import io.oxalate.backend.repository.PageGroupRepository;
+import io.oxalate.backend.repository.PageRepository;
+import io.oxalate.backend.repository.PageRoleAccessRepository;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import tools.jackson.databind.json.JsonMapper;
+
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+class PagePrerenderServiceUTC {
+    private static final Set<RoleEnum> ANONYMOUS_ROLES = Set.of(RoleEnum.ROLE_ANONYMOUS);
+    private static final long PUBLISHED_PAGE_GROUP_ID = 2L;
+    private static final long DRAFT_PAGE_GROUP_ID = 4L;
+
+    @Mock
+    private PageService pageService;
+    @Mock
+    private PageRepository pageRepository;
+    @Mock
+    private PageGroupRepository pageGroupRepository;
+    @Mock
+    private PageRoleAccessRepository pageRoleAccessRepository;
+    @Mock
+    private PortalConfigurationService portalConfigurationService;
+
+    @TempDir
+    private Path uploadDirectory;
+    private JsonMapper jsonMapper;
+    private PagePrerenderService pagePrerenderService;
+
+    @BeforeEach
+    void setUp() {
+        jsonMapper = JsonMapper.builder()
+                               .build();
+        pagePrerenderService = new PagePrerenderService(pageService, pageRepository, pageGroupRepository, pageRoleAccessRepository, portalConfigurationService, jsonMapper,
+                true, uploadDirectory.toString());
+        when(portalConfigurationService.getArrayConfiguration(any(), any())).thenReturn(List.of("en", "fi"));
+    }
+
+    @Test
+    void prerenderWritesVisibleLanguagesOk() throws IOException {
+        stubPublishedPages(10L);
+        when(pageService.getPage(10L, ANONYMOUS_ROLES, "en")).thenReturn(pageResponse(10L, "en"));
+        when(pageService.getPage(10L, ANONYMOUS_ROLES, "fi")).thenReturn(null);
+
+        pagePrerenderService.prerender(10L);
+
+        var prerenderedPage = pagePrerenderService.getPrerenderedPage(10L, "en");
+        assertNotNull(prerenderedPage);
+        var written = jsonMapper.readValue(Files.readAllBytes(prerenderedPage.getPath()), PageResponse.class);
+        assertEquals("Title en", written.getPageVersions()
+                                        .getFirst()
+                                        .getTitle());
+        assertTrue(prerenderedPage.getETag()
+                                  .startsWith("\"10-en-"));
+        assertNull(pagePrerenderService.getPrerenderedPage(10L, "fi"));
+        // Only the final files are left in the directory
+        try (var files = Files.list(prerenderedPage.getPath()
+                                                   .getParent())) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void prerenderRemovesPageNoLongerVisibleOk() {
+        stubPublishedPages(10L);
+        when(pageService.getPage(10L, ANONYMOUS_ROLES, "en")).thenReturn(pageResponse(10L, "en"));
+        when(pageService.getPage(10L, ANONYMOUS_ROLES, "fi")).thenReturn(pageResponse(10L, "fi"));
+        pagePrerenderService.prerender(10L);
+        assertNotNull(pagePrerenderService.getPrerenderedPage(10L, "fi"));
+
+        when(pageService.getPage(10L, ANONYMOUS_ROLES, "en")).thenThrow(new AccessDeniedException("Access denied"));
+        when(pageService.getPage(10L, ANONYMOUS_ROLES, "fi")).thenThrow(new AccessDeniedException("Access denied"));
+        pagePrerenderService.prerender(10L);
+
+        assertNull(pagePrerenderService.getPrerenderedPage(10L, "en"));
+        assertNull(pagePrerenderService.getPrerenderedPage(10L, "fi"));
+    }
+
+    @Test
+    void prerenderRemovesPageOfUnpublishedPageGroupOk() throws IOException {
+        var pageDirectory = Files.createDirectories(uploadDirectory.resolve("prerendered-pages")
+                                                                   .resolve("10"));
+        Files.writeString(pageDirectory.resolve("en.json"), "{}");
+        when(pageRepository.findById(10L)).thenReturn(Optional.of(page(10L, DRAFT_PAGE_GROUP_ID, Instant.now())));
+        when(pageGroupRepository.findById(DRAFT_PAGE_GROUP_ID)).thenReturn(Optional.of(pageGroup(DRAFT_PAGE_GROUP_ID, PageStatusEnum.DRAFTED)));
+
+        pagePrerenderService.prerender(10L);
+
+        verify(pageService, never()).getPage(eq(10L), any(), anyString());
+        assertNull(pagePrerenderService.getPrerenderedPage(10L, "en"));
+        assertFalse(Files.exists(pageDirectory));
+    }
+
+    @Test
+    void evictModifiedPageRemovesFilesOk() {
+        stubPublishedPages(10L);
+        when(pageService.getPage(eq(10L), eq(ANONYMOUS_ROLES), anyString())).thenReturn(pageResponse(10L, "en"));
+        pagePrerenderService.prerender(10L);
+        assertNotNull(pagePrerenderService.getPrerenderedPage(10L, "en"));
+
+        pagePrerenderService.evictModifiedPage(PageModifiedEvent.builder()
+                                                                .pageId(10L)
+                                                                .build());
+
+        assertNull(pagePrerenderService.getPrerenderedPage(10L, "en"));
+        assertNull(pagePrerenderService.getPrerenderedPage(10L, "fi"));
+    }
+
+    @Test
+    void evictModifiedPageGroupRemovesFilesOfAllPagesOk() {
+        stubPublishedPages(10L, 11L);
+        when(pageService.getPage(eq(10L), eq(ANONYMOUS_ROLES), anyString())).thenReturn(pageResponse(10L, "en"));
+        when(pageService.getPage(eq(11L), eq(ANONYMOUS_ROLES), anyString())).thenReturn(pageResponse(11L, "en"));
+        pagePrerenderService.prerender(10L);
+        pagePrerenderService.prerender(11L);
+        when(pageRepository.findAllByPageGroupIdOrderByIdAsc(PUBLISHED_PAGE_GROUP_ID)).thenReturn(List.of(page(10L, Instant.now())));
+
+        pagePrerenderService.evictModifiedPageGroup(PageGroupModifiedEvent.builder()
+                                                                          .pageGroupId(PUBLISHED_PAGE_GROUP_ID)
+                                                                          .build());
+
+        assertNull(pagePrerenderService.getPrerenderedPage(10L, "en"));
+        assertNotNull(pagePrerenderService.getPrerenderedPage(11L, "en"));
+    }
+
+    @Test
+    void getPrerenderedPageOfUnsupportedLanguageFail() throws IOException {
+        var outside = uploadDirectory.resolve("secret.json");
+        Files.writeString(outside, "{}");
+
+        assertNull(pagePrerenderService.getPrerenderedPage(10L, "sv"));
+        assertNull(pagePrerenderService.getPrerenderedPage(10L, "../../secret"));
+        assertNull(pagePrerenderService.getPrerenderedPage(10L, null));
+    }
+
+    @Test
+    void reconcileRendersStaleAndRemovesObsoletePagesOk() throws IOException {
+        var freshPage = page(10L, Instant.now()
+                                         .minusSeconds(3600));
+        var stalePage = page(11L, Instant.now()
+                                         .plusSeconds(3600));
+        var newPage = page(12L, Instant.now());
+        var restrictedPage = page(13L, Instant.now());
+        var unpublishedGroupPage = page(14L, DRAFT_PAGE_GROUP_ID, Instant.now());
+        stubPublishedPages(10L, 11L);
+        when(pageService.getPage(eq(10L), eq(ANONYMOUS_ROLES), anyString())).thenReturn(pageResponse(10L, "en"));
+        when(pageService.getPage(eq(11L), eq(ANONYMOUS_ROLES), anyString())).thenReturn(pageResponse(11L, "en"));
+        pagePrerenderService.prerender(10L);
+        pagePrerenderService.prerender(11L);
+        // Page closed while the application was not running
+        Files.createDirectories(uploadDirectory.resolve("prerendered-pages")
+                                               .resolve("99"));
+        // Page group unpublished and a language disabled while the application was not running
+        Files.createDirectories(uploadDirectory.resolve("prerendered-pages")
+                                               .resolve("14"));
+        Files.writeString(uploadDirectory.resolve("prerendered-pages")
+                                         .resolve("10")
+                                         .resolve("sv.json"), "{}");
+
+        when(pageGroupRepository.findAll()).thenReturn(List.of(pageGroup(PUBLISHED_PAGE_GROUP_ID, PageStatusEnum.PUBLISHED),
+                pageGroup(DRAFT_PAGE_GROUP_ID, PageStatusEnum.DRAFTED)));
+        when(pageRepository.findAllByStatusOrderByIdAsc(PageStatusEnum.PUBLISHED)).thenReturn(List.of(freshPage, stalePage, newPage, restrictedPage,
+                unpublishedGroupPage));
+        when(pageRoleAccessRepository.findAllByPageIdIn(List.of(10L, 11L, 12L, 13L))).thenReturn(Set.of(
+                access(10L, RoleEnum.ROLE_ANONYMOUS),
+                access(11L, RoleEnum.ROLE_ANONYMOUS),
+                access(12L, RoleEnum.ROLE_ANONYMOUS),
+                access(13L, RoleEnum.ROLE_USER)));
+        when(pageService.getPage(eq(12L), eq(ANONYMOUS_ROLES), anyString())).thenReturn(pageResponse(12L, "en"));
+
+        pagePrerenderService.reconcile();
+
+        // The first two pages were rendered once before the reconciliation, and only the stale one of them is rendered again
+        verify(pageService, times(1)).getPage(10L, ANONYMOUS_ROLES, "en");
+        verify(pageService, times(2)).getPage(11L, ANONYMOUS_ROLES, "en");
+        verify(pageService, times(1)).getPage(12L, ANONYMOUS_ROLES, "en");
+        verify(pageService, never()).getPage(eq(13L), any(), anyString());
+        verify(pageService, never()).getPage(eq(14L), any(), anyString());
+        assertNotNull(pagePrerenderService.getPrerenderedPage(12L, "fi"));
+        assertFalse(Files.exists(uploadDirectory.resolve("prerendered-pages")
+                                                .resolve("99")));
+        assertFalse(Files.exists(uploadDirectory.resolve("prerendered-pages")
+                                                .resolve("14")));
+        assertFalse(Files.exists(uploadDirectory.resolve("prerendered-pages")
+                                                .resolve("10")
+                                                .resolve("sv.json")));
+        assertNotNull(pagePrerenderService.getPrerenderedPage(10L, "en"));
+    }
+
+    private void stubPublishedPages(long... pageIds) {
+        for (var pageId : pageIds) {
+            when(pageRepository.findById(pageId)).thenReturn(Optional.of(page(pageId, Instant.now())));
+        }
+
+        when(pageGroupRepository.findById(PUBLISHED_PAGE_GROUP_ID)).thenReturn(Optional.of(pageGroup(PUBLISHED_PAGE_GROUP_ID, PageStatusEnum.PUBLISHED)));
+    }
+
+    private PageGroup pageGroup(long pageGroupId, PageStatusEnum status) {
+        return PageGroup.builder()
+                        .id(pageGroupId)
+                        .status(status)
+                        .build();
+    }
+
+    private Page page(long pageId, Instant modifiedAt) {
+        return page(pageId, PUBLISHED_PAGE_GROUP_ID, modifiedAt);
+    }
+
+    private Page page(long pageId, long pageGroupId, Instant modifiedAt) {
+        return Page.builder()
+                   .id(pageId)
+                   .pageGroupId(pageGroupId)
+                   .status(PageStatusEnum.PUBLISHED)
+                   .createdAt(Instant.now()
+                                     .minusSeconds(86400))
+                   .modifiedAt(modifiedAt)
+                   .build();
+    }
+
+    private PageRoleAccess access(long pageId, RoleEnum role) {
+        return PageRoleAccess.builder()
+                             .pageId(pageId)
+                             .role(role)
+                             .readPermission(true)
+                             .build();
+    }
+
+    private PageResponse pageResponse(long pageId, String language) {
+        return PageResponse.builder()
+                           .id(pageId)
+                           .status(PageStatusEnum.PUBLISHED)
+                           .pageVersions(List.of(PageVersionResponse.builder()
+                                                                    .pageId(pageId)
+                                                                    .language(language)
+                                                                    .title("Title " + language)
+                                                                    .ingress("Ingress")
+                                                                    .body("<p>Body</p>")
+                                                                    .build()))
+                           .build();
+    }
+}
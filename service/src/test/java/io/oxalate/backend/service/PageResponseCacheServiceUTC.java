@@ -0,0 +1,114 @@
+package io.oxalate.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.oxalate.backend.api.RoleEnum;
+import io.oxalate.backend.api.response.PageResponse;
+import io.oxalate.backend.api.response.PageVersionResponse;
+import io.oxalate.backend.events.EnabledLanguagesChangedEvent;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+
+@Slf4j
+class PageResponseCacheServiceUTC {
+    private static final Set<RoleEnum> ANONYMOUS = Set.of(RoleEnum.ROLE_ANONYMOUS);
+    private static final Set<RoleEnum> USER = Set.of(RoleEnum.ROLE_ANONYMOUS, RoleEnum.ROLE_USER);
+
+    private PageResponseCacheService pageResponseCacheService;
+    private AtomicInteger loadCount;
+
+    @BeforeEach
+    void setUp() {
+        // Room for two 2 kB pages, but not three
+        pageResponseCacheService = new PageResponseCacheService(new SimpleMeterRegistry(), 2 * (512 + 2000) + 100);
+        loadCount = new AtomicInteger();
+    }
+
+    @Test
+    void getPageCachesPerLanguageAndRolesOk() {
+        var first = pageResponseCacheService.getPage(1L, "en", USER, () -> load(1L, Instant.parse("2025-01-01T00:00:00Z")));
+        var second = pageResponseCacheService.getPage(1L, "en", USER, () -> load(1L, Instant.parse("2025-01-01T00:00:00Z")));
+        var anonymous = pageResponseCacheService.getPage(1L, "en", ANONYMOUS, () -> load(1L, Instant.parse("2025-01-01T00:00:00Z")));
+
+        assertSame(first, second);
+        assertEquals(2, loadCount.get());
+        assertNotEquals(first.getETag(), anonymous.getETag());
+        assertEquals(2 * (512 + 2000), pageResponseCacheService.getCachedBytes());
+    }
+
+    @Test
+    void evictPageChangesETagOk() {
+        var original = pageResponseCacheService.getPage(1L, "en", USER, () -> load(1L, Instant.parse("2025-01-01T00:00:00Z")));
+        pageResponseCacheService.getPage(2L, "en", USER, () -> load(2L, Instant.parse("2025-01-01T00:00:00Z")));
+
+        pageResponseCacheService.evictPage(1L);
+        var updated = pageResponseCacheService.getPage(1L, "en", USER, () -> load(1L, Instant.parse("2025-02-01T00:00:00Z")));
+        pageResponseCacheService.getPage(2L, "en", USER, () -> load(2L, Instant.parse("2025-01-01T00:00:00Z")));
+
+        assertEquals(3, loadCount.get());
+        assertNotEquals(original.getETag(), updated.getETag());
+    }
+
+    @Test
+    void enabledLanguagesChangeClearsCacheOk() {
+        pageResponseCacheService.getPage(1L, "en", USER, () -> load(1L, Instant.parse("2025-01-01T00:00:00Z")));
+        pageResponseCacheService.getPage(1L, "de", USER, () -> load(1L, Instant.parse("2025-01-01T00:00:00Z")));
+
+        pageResponseCacheService.handleEnabledLanguagesChanged(EnabledLanguagesChangedEvent.builder()
+                                                                                           .languages(List.of("en"))
+                                                                                           .build());
+        assertEquals(0L, pageResponseCacheService.getCachedBytes());
+
+        pageResponseCacheService.getPage(1L, "en", USER, () -> load(1L, Instant.parse("2025-01-01T00:00:00Z")));
+        assertEquals(3, loadCount.get());
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvictedWhenFullOk() {
+        pageResponseCacheService.getPage(1L, "en", USER, () -> load(1L, Instant.now()));
+        pageResponseCacheService.getPage(2L, "en", USER, () -> load(2L, Instant.now()));
+        // Touch page 1 so that page 2 becomes the least recently used
+        pageResponseCacheService.getPage(1L, "en", USER, () -> load(1L, Instant.now()));
+        pageResponseCacheService.getPage(3L, "en", USER, () -> load(3L, Instant.now()));
+
+        pageResponseCacheService.getPage(1L, "en", USER, () -> load(1L, Instant.now()));
+        pageResponseCacheService.getPage(2L, "en", USER, () -> load(2L, Instant.now()));
+
+        assertEquals(4, loadCount.get());
+        assertEquals(2 * (512 + 2000), pageResponseCacheService.getCachedBytes());
+    }
+
+    @Test
+    void missingOrDeniedPageIsNotCachedOk() {
+        assertNull(pageResponseCacheService.getPage(1L, "en", USER, () -> null));
+        assertThrows(AccessDeniedException.class, () -> pageResponseCacheService.getPage(1L, "en", ANONYMOUS, () -> {
+            throw new AccessDeniedException("Access denied");
+        }));
+
+        assertEquals(0, pageResponseCacheService.getCachedBytes());
+    }
+
+    private PageResponse load(long pageId, Instant modifiedAt) {
+        loadCount.incrementAndGet();
+        return PageResponse.builder()
+                           .id(pageId)
+                           .createdAt(Instant.parse("2024-01-01T00:00:00Z"))
+                           .modifiedAt(modifiedAt)
+                           .pageVersions(List.of(PageVersionResponse.builder()
+                                                                    .title("T".repeat(100))
+                                                                    .ingress("I".repeat(100))
+                                                                    .body("B".repeat(800))
+                                                                    .build()))
+                           .build();
+    }
+}
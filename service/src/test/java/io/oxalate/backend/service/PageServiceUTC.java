@@ -1,5 +1,6 @@
 package io.oxalate.backend.service;
 
+import io.oxalate.backend.api.BlogSortFieldEnum;
 import io.oxalate.backend.api.PageStatusEnum;
 import io.oxalate.backend.api.RoleEnum;
 import io.oxalate.backend.api.SortDirectionEnum;
@@ -9,44 +10,52 @@ import io.oxalate.backend.api.request.PagedRequest;
 import io.oxalate.backend.api.response.PageGroupResponse;
 import io.oxalate.backend.api.response.PageResponse;
 import io.oxalate.backend.api.response.PagedResponse;
+import io.oxalate.backend.model.BlogArticleSearchCriteria;
+import io.oxalate.backend.model.BlogArticleSearchResult;
 import io.oxalate.backend.model.Page;
 import io.oxalate.backend.model.PageGroup;
 import io.oxalate.backend.model.PageGroupVersion;
+import io.oxalate.backend.model.PageRoleAccess;
 import io.oxalate.backend.model.PageVersion;
+import io.oxalate.backend.repository.BlogArticleSearchRepository;
 import io.oxalate.backend.repository.PageGroupRepository;
 import io.oxalate.backend.repository.PageGroupVersionRepository;
 import io.oxalate.backend.repository.PageRepository;
 import io.oxalate.backend.repository.PageRoleAccessRepository;
 import io.oxalate.backend.repository.PageVersionRepository;
+import io.oxalate.backend.tools.CursorTools;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import lombok.extern.slf4j.Slf4j;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 @Slf4j
 @ExtendWith(MockitoExtension.class)
@@ -63,9 +72,19 @@ class PageServiceUTC {
     @Mock
     private PageVersionRepository pageVersionRepository;
     @Mock
+    private BlogArticleSearchRepository blogArticleSearchRepository;
+    @Mock
+    private PageNavigationCacheService pageNavigationCacheService;
+    @Mock
+    private PageResponseCacheService pageResponseCacheService;
+    @Mock
+    private PageVersionHistoryService pageVersionHistoryService;
+    @Mock
     private EmailQueueService emailQueueService;
     @Mock
     private PortalConfigurationService portalConfigurationService;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
 
     @InjectMocks
     private PageService pageService;
@@ -93,17 +112,14 @@ class PageServiceUTC {
                 .thenReturn(List.of("en", "fi", "sv"));
 
         var mockPage = createMockPage(1L, "Test Title", "Test Ingress", "Test Body");
-        var mockPages = List.of(mockPage);
-        var mockPageVersion = createMockPageVersion(1L, 1L, "en", "Test Title", "Test Ingress", "Test Body");
-
-        when(pageRepository.countBlogArticlesCaseInsensitive(eq(3L), eq("en"), anyList(), any()))
-                .thenReturn(1L);
-        when(pageRepository.findBlogArticlesCaseInsensitiveOrderByCreatedAtDesc(eq(3L), eq("en"), anyList(), any(), eq(10), eq(0)))
-                .thenReturn(mockPages);
-        when(pageVersionRepository.findByPageIdAndLanguage(1L, "en"))
-                .thenReturn(Optional.of(mockPageVersion));
-        lenient().when(pageRoleAccessRepository.findAllByPageId(1L))
-                 .thenReturn(new HashSet<>());
+        when(blogArticleSearchRepository.search(any(BlogArticleSearchCriteria.class)))
+                .thenReturn(createSearchResult(List.of(mockPage), 1L));
+        when(pageRoleAccessRepository.findAllByPageIdIn(List.of(1L)))
+                .thenReturn(Set.of(PageRoleAccess.builder()
+                                                 .pageId(1L)
+                                                 .role(RoleEnum.ROLE_ANONYMOUS)
+                                                 .readPermission(true)
+                                                 .build()));
 
         // When
         PagedResponse<PageResponse> result = pageService.getBlogArticles(pagedRequest, userRoles);
@@ -115,9 +131,32 @@ class PageServiceUTC {
         assertEquals(10, result.getSize());
         assertEquals(1, result.getContent()
                               .size());
+        assertEquals("Test Title", result.getContent()
+                                         .getFirst()
+                                         .getPageVersions()
+                                         .getFirst()
+                                         .getTitle());
+        assertEquals(1, result.getContent()
+                              .getFirst()
+                              .getRolePermissions()
+                              .size());
         assertTrue(result.isFirst());
         assertTrue(result.isLast());
         assertFalse(result.isEmpty());
+
+        var criteria = captureSearchCriteria();
+        assertEquals(3L, criteria.getPageGroupId());
+        assertEquals("en", criteria.getLanguage());
+        assertEquals(BlogSortFieldEnum.CREATED_AT, criteria.getSortField());
+        assertEquals(SortDirectionEnum.DESC, criteria.getDirection());
+        assertEquals(11, criteria.getLimit());
+        assertEquals(0, criteria.getOffset());
+        assertTrue(criteria.isIncludeTotal());
+        assertNull(result.getNextCursor());
+        assertNull(criteria.getTsQuery());
+        assertNull(criteria.getCaseSensitivePattern());
+        // Page versions are not fetched one by one anymore
+        verify(pageVersionRepository, never()).findByPageIdAndLanguage(anyLong(), anyString());
     }
 
     @Test
@@ -126,10 +165,8 @@ class PageServiceUTC {
         when(portalConfigurationService.getArrayConfiguration(any(), any()))
                 .thenReturn(List.of("en", "fi", "sv"));
 
-        when(pageRepository.countBlogArticlesCaseInsensitive(eq(3L), eq("en"), anyList(), any()))
-                .thenReturn(0L);
-        when(pageRepository.findBlogArticlesCaseInsensitiveOrderByCreatedAtDesc(eq(3L), eq("en"), anyList(), any(), eq(10), eq(0)))
-                .thenReturn(new ArrayList<>());
+        when(blogArticleSearchRepository.search(any(BlogArticleSearchCriteria.class)))
+                .thenReturn(createSearchResult(new ArrayList<>(), 0L));
 
         // When
         PagedResponse<PageResponse> result = pageService.getBlogArticles(pagedRequest, userRoles);
@@ -138,6 +175,7 @@ class PageServiceUTC {
         assertNotNull(result);
         assertEquals(0, result.getTotalElements());
         assertTrue(result.isEmpty());
+        verify(pageRoleAccessRepository, never()).findAllByPageIdIn(any());
     }
 
     @Test
@@ -153,8 +191,8 @@ class PageServiceUTC {
 
         // Then
         assertNotNull(result);
-        assertEquals(0, result.getTotalElements());
         assertTrue(result.isEmpty());
+        verify(blogArticleSearchRepository, never()).search(any());
     }
 
     @Test
@@ -163,21 +201,12 @@ class PageServiceUTC {
         when(portalConfigurationService.getArrayConfiguration(any(), any()))
                 .thenReturn(List.of("en", "fi", "sv"));
 
-        pagedRequest.setSearch("test");
+        pagedRequest.setSearch("test wreck");
         pagedRequest.setCaseSensitive(false);
 
         var mockPage = createMockPage(1L, "Test Title", "Test Ingress", "Test Body");
-        var mockPages = List.of(mockPage);
-        var mockPageVersion = createMockPageVersion(1L, 1L, "en", "Test Title", "Test Ingress", "Test Body");
-
-        when(pageRepository.countBlogArticlesCaseInsensitive(eq(3L), eq("en"), anyList(), eq("test")))
-                .thenReturn(1L);
-        when(pageRepository.findBlogArticlesCaseInsensitiveOrderByCreatedAtDesc(eq(3L), eq("en"), anyList(), eq("test"), eq(10), eq(0)))
-                .thenReturn(mockPages);
-        when(pageVersionRepository.findByPageIdAndLanguage(1L, "en"))
-                .thenReturn(Optional.of(mockPageVersion));
-        lenient().when(pageRoleAccessRepository.findAllByPageId(1L))
-                 .thenReturn(new HashSet<>());
+        when(blogArticleSearchRepository.search(any(BlogArticleSearchCriteria.class)))
+                .thenReturn(createSearchResult(List.of(mockPage), 1L));
 
         // When
         PagedResponse<PageResponse> result = pageService.getBlogArticles(pagedRequest, userRoles);
@@ -186,6 +215,10 @@ class PageServiceUTC {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertFalse(result.isEmpty());
+
+        var criteria = captureSearchCriteria();
+        assertEquals("test:* & wreck:*", criteria.getTsQuery());
+        assertNull(criteria.getCaseSensitivePattern());
     }
 
     @Test
@@ -198,17 +231,8 @@ class PageServiceUTC {
         pagedRequest.setCaseSensitive(true);
 
         var mockPage = createMockPage(1L, "Test Title", "Test Ingress", "Test Body");
-        var mockPages = List.of(mockPage);
-        var mockPageVersion = createMockPageVersion(1L, 1L, "en", "Test Title", "Test Ingress", "Test Body");
-
-        when(pageRepository.countBlogArticlesCaseSensitive(eq(3L), eq("en"), anyList(), eq("Test")))
-                .thenReturn(1L);
-        when(pageRepository.findBlogArticlesCaseSensitiveOrderByCreatedAtDesc(eq(3L), eq("en"), anyList(), eq("Test"), eq(10), eq(0)))
-                .thenReturn(mockPages);
-        when(pageVersionRepository.findByPageIdAndLanguage(1L, "en"))
-                .thenReturn(Optional.of(mockPageVersion));
-        lenient().when(pageRoleAccessRepository.findAllByPageId(1L))
-                 .thenReturn(new HashSet<>());
+        when(blogArticleSearchRepository.search(any(BlogArticleSearchCriteria.class)))
+                .thenReturn(createSearchResult(List.of(mockPage), 1L));
 
         // When
         PagedResponse<PageResponse> result = pageService.getBlogArticles(pagedRequest, userRoles);
@@ -217,6 +241,27 @@ class PageServiceUTC {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertFalse(result.isEmpty());
+
+        var criteria = captureSearchCriteria();
+        assertEquals("Test:*", criteria.getTsQuery());
+        assertEquals("%Test%", criteria.getCaseSensitivePattern());
+    }
+
+    @Test
+    void getBlogArticlesSearchWithoutWordsOk() {
+        // Given
+        when(portalConfigurationService.getArrayConfiguration(any(), any()))
+                .thenReturn(List.of("en", "fi", "sv"));
+
+        pagedRequest.setSearch("!?&");
+
+        // When
+        PagedResponse<PageResponse> result = pageService.getBlogArticles(pagedRequest, userRoles);
+
+        // Then
+        assertNotNull(result);
+        assertTrue(result.isEmpty());
+        verify(blogArticleSearchRepository, never()).search(any());
     }
 
     @Test
@@ -229,24 +274,17 @@ class PageServiceUTC {
         pagedRequest.setDirection(SortDirectionEnum.ASC);
 
         var mockPage = createMockPage(1L, "Alpha Title", "Ingress", "Body");
-        var mockPages = List.of(mockPage);
-        var mockPageVersion = createMockPageVersion(1L, 1L, "en", "Alpha Title", "Ingress", "Body");
-
-        when(pageRepository.countBlogArticlesCaseInsensitive(eq(3L), eq("en"), anyList(), any()))
-                .thenReturn(1L);
-        when(pageRepository.findBlogArticlesCaseInsensitiveOrderByTitleAsc(eq(3L), eq("en"), anyList(), any(), eq(10), eq(0)))
-                .thenReturn(mockPages);
-        when(pageVersionRepository.findByPageIdAndLanguage(1L, "en"))
-                .thenReturn(Optional.of(mockPageVersion));
-        lenient().when(pageRoleAccessRepository.findAllByPageId(1L))
-                 .thenReturn(new HashSet<>());
+        when(blogArticleSearchRepository.search(any(BlogArticleSearchCriteria.class)))
+                .thenReturn(createSearchResult(List.of(mockPage), 1L));
 
         // When
         PagedResponse<PageResponse> result = pageService.getBlogArticles(pagedRequest, userRoles);
 
         // Then
         assertNotNull(result);
-        verify(pageRepository).findBlogArticlesCaseInsensitiveOrderByTitleAsc(anyLong(), anyString(), anyList(), any(), anyInt(), anyInt());
+        var criteria = captureSearchCriteria();
+        assertEquals(BlogSortFieldEnum.TITLE, criteria.getSortField());
+        assertEquals(SortDirectionEnum.ASC, criteria.getDirection());
     }
 
     @Test
@@ -259,24 +297,17 @@ class PageServiceUTC {
         pagedRequest.setDirection(SortDirectionEnum.DESC);
 
         var mockPage = createMockPage(1L, "Zebra Title", "Ingress", "Body");
-        var mockPages = List.of(mockPage);
-        var mockPageVersion = createMockPageVersion(1L, 1L, "en", "Zebra Title", "Ingress", "Body");
-
-        when(pageRepository.countBlogArticlesCaseInsensitive(eq(3L), eq("en"), anyList(), any()))
-                .thenReturn(1L);
-        when(pageRepository.findBlogArticlesCaseInsensitiveOrderByTitleDesc(eq(3L), eq("en"), anyList(), any(), eq(10), eq(0)))
-                .thenReturn(mockPages);
-        when(pageVersionRepository.findByPageIdAndLanguage(1L, "en"))
-                .thenReturn(Optional.of(mockPageVersion));
-        lenient().when(pageRoleAccessRepository.findAllByPageId(1L))
-                 .thenReturn(new HashSet<>());
+        when(blogArticleSearchRepository.search(any(BlogArticleSearchCriteria.class)))
+                .thenReturn(createSearchResult(List.of(mockPage), 1L));
 
         // When
         PagedResponse<PageResponse> result = pageService.getBlogArticles(pagedRequest, userRoles);
 
         // Then
         assertNotNull(result);
-        verify(pageRepository).findBlogArticlesCaseInsensitiveOrderByTitleDesc(anyLong(), anyString(), anyList(), any(), anyInt(), anyInt());
+        var criteria = captureSearchCriteria();
+        assertEquals(BlogSortFieldEnum.TITLE, criteria.getSortField());
+        assertEquals(SortDirectionEnum.DESC, criteria.getDirection());
     }
 
     @Test
@@ -289,24 +320,40 @@ class PageServiceUTC {
         pagedRequest.setDirection(SortDirectionEnum.ASC);
 
         var mockPage = createMockPage(1L, "Title", "Ingress", "Body");
-        var mockPages = List.of(mockPage);
-        var mockPageVersion = createMockPageVersion(1L, 1L, "en", "Title", "Ingress", "Body");
-
-        when(pageRepository.countBlogArticlesCaseInsensitive(eq(3L), eq("en"), anyList(), any()))
-                .thenReturn(1L);
-        when(pageRepository.findBlogArticlesCaseInsensitiveOrderByCreatedAtAsc(eq(3L), eq("en"), anyList(), any(), eq(10), eq(0)))
-                .thenReturn(mockPages);
-        when(pageVersionRepository.findByPageIdAndLanguage(1L, "en"))
-                .thenReturn(Optional.of(mockPageVersion));
-        lenient().when(pageRoleAccessRepository.findAllByPageId(1L))
-                 .thenReturn(new HashSet<>());
+        when(blogArticleSearchRepository.search(any(BlogArticleSearchCriteria.class)))
+                .thenReturn(createSearchResult(List.of(mockPage), 1L));
 
         // When
         PagedResponse<PageResponse> result = pageService.getBlogArticles(pagedRequest, userRoles);
 
         // Then
         assertNotNull(result);
-        verify(pageRepository).findBlogArticlesCaseInsensitiveOrderByCreatedAtAsc(anyLong(), anyString(), anyList(), any(), anyInt(), anyInt());
+        var criteria = captureSearchCriteria();
+        assertEquals(BlogSortFieldEnum.CREATED_AT, criteria.getSortField());
+        assertEquals(SortDirectionEnum.ASC, criteria.getDirection());
+    }
+
+    @Test
+    void getBlogArticlesSortByRelevanceOk() {
+        // Given
+        when(portalConfigurationService.getArrayConfiguration(any(), any()))
+                .thenReturn(List.of("en", "fi", "sv"));
+
+        pagedRequest.setSortBy("relevance");
+        pagedRequest.setSearch("shark");
+
+        var mockPage = createMockPage(1L, "Title", "Ingress", "Body");
+        when(blogArticleSearchRepository.search(any(BlogArticleSearchCriteria.class)))
+                .thenReturn(createSearchResult(List.of(mockPage), 1L));
+
+        // When
+        PagedResponse<PageResponse> result = pageService.getBlogArticles(pagedRequest, userRoles);
+
+        // Then
+        assertNotNull(result);
+        var criteria = captureSearchCriteria();
+        assertEquals(BlogSortFieldEnum.RELEVANCE, criteria.getSortField());
+        assertEquals("shark:*", criteria.getTsQuery());
     }
 
     @Test
@@ -319,17 +366,8 @@ class PageServiceUTC {
         pagedRequest.setSize(5);
 
         var mockPage = createMockPage(6L, "Title 6", "Ingress", "Body");
-        var mockPages = List.of(mockPage);
-        var mockPageVersion = createMockPageVersion(6L, 6L, "en", "Title 6", "Ingress", "Body");
-
-        when(pageRepository.countBlogArticlesCaseInsensitive(eq(3L), eq("en"), anyList(), any()))
-                .thenReturn(15L); // Total 15 items, so 3 pages of 5
-        when(pageRepository.findBlogArticlesCaseInsensitiveOrderByCreatedAtDesc(eq(3L), eq("en"), anyList(), any(), eq(5), eq(5)))
-                .thenReturn(mockPages);
-        when(pageVersionRepository.findByPageIdAndLanguage(6L, "en"))
-                .thenReturn(Optional.of(mockPageVersion));
-        lenient().when(pageRoleAccessRepository.findAllByPageId(6L))
-                 .thenReturn(new HashSet<>());
+        when(blogArticleSearchRepository.search(any(BlogArticleSearchCriteria.class)))
+                .thenReturn(createSearchResult(List.of(mockPage), 15L)); // Total 15 items, so 3 pages of 5
 
         // When
         PagedResponse<PageResponse> result = pageService.getBlogArticles(pagedRequest, userRoles);
@@ -342,6 +380,82 @@ class PageServiceUTC {
         assertEquals(3, result.getTotalPages());
         assertFalse(result.isFirst());
         assertFalse(result.isLast());
+
+        var criteria = captureSearchCriteria();
+        assertEquals(6, criteria.getLimit());
+        assertEquals(5, criteria.getOffset());
+    }
+
+    @Test
+    void getBlogArticlesNextCursorRoundTripOk() {
+        // Given
+        when(portalConfigurationService.getArrayConfiguration(any(), any()))
+                .thenReturn(List.of("en", "fi", "sv"));
+
+        pagedRequest.setSize(2);
+        pagedRequest.setIncludeTotal(false);
+
+        var pages = List.of(createMockPage(9L, "Title 9", "Ingress", "Body"),
+                createMockPage(8L, "Title 8", "Ingress", "Body"),
+                createMockPage(7L, "Title 7", "Ingress", "Body"));
+        when(blogArticleSearchRepository.search(any(BlogArticleSearchCriteria.class)))
+                .thenReturn(createSearchResult(pages, -1L));
+
+        // When
+        PagedResponse<PageResponse> firstResult = pageService.getBlogArticles(pagedRequest, userRoles);
+
+        pagedRequest.setCursor(firstResult.getNextCursor());
+        pagedRequest.setPage(3);
+        pageService.getBlogArticles(pagedRequest, userRoles);
+
+        // Then
+        assertEquals(2, firstResult.getContent()
+                                   .size());
+        assertEquals(-1, firstResult.getTotalElements());
+        assertNotNull(firstResult.getNextCursor());
+        assertTrue(firstResult.isFirst());
+        assertFalse(firstResult.isLast());
+
+        var captor = ArgumentCaptor.forClass(BlogArticleSearchCriteria.class);
+        verify(blogArticleSearchRepository, times(2)).search(captor.capture());
+        var firstCriteria = captor.getAllValues()
+                                  .getFirst();
+        var cursorCriteria = captor.getAllValues()
+                                   .getLast();
+        assertFalse(firstCriteria.isIncludeTotal());
+        assertFalse(firstCriteria.isKeyset());
+        assertTrue(cursorCriteria.isKeyset());
+        assertEquals(8L, cursorCriteria.getAfterId());
+        assertEquals(pages.get(1)
+                          .getCreatedAt(), cursorCriteria.getAfterSortValue());
+        assertEquals(0, cursorCriteria.getOffset());
+    }
+
+    @Test
+    void getBlogArticlesCursorForOtherSortFail() {
+        // Given
+        when(portalConfigurationService.getArrayConfiguration(any(), any()))
+                .thenReturn(List.of("en", "fi", "sv"));
+
+        pagedRequest.setSortBy("title");
+        pagedRequest.setCursor(CursorTools.encode(Map.of("createdAt", Instant.now())));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> pageService.getBlogArticles(pagedRequest, userRoles));
+        verify(blogArticleSearchRepository, never()).search(any());
+    }
+
+    @Test
+    void getBlogArticlesMalformedCursorFail() {
+        // Given
+        when(portalConfigurationService.getArrayConfiguration(any(), any()))
+                .thenReturn(List.of("en", "fi", "sv"));
+
+        pagedRequest.setCursor("not-a-cursor");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> pageService.getBlogArticles(pagedRequest, userRoles));
+        verify(blogArticleSearchRepository, never()).search(any());
     }
 
     @Test
@@ -370,17 +484,8 @@ class PageServiceUTC {
         anonymousRoles.add(RoleEnum.ROLE_ANONYMOUS);
 
         var mockPage = createMockPage(1L, "Public Blog", "Ingress", "Body");
-        var mockPages = List.of(mockPage);
-        var mockPageVersion = createMockPageVersion(1L, 1L, "en", "Public Blog", "Ingress", "Body");
-
-        when(pageRepository.countBlogArticlesCaseInsensitive(eq(3L), eq("en"), anyList(), any()))
-                .thenReturn(1L);
-        when(pageRepository.findBlogArticlesCaseInsensitiveOrderByCreatedAtDesc(eq(3L), eq("en"), anyList(), any(), eq(10), eq(0)))
-                .thenReturn(mockPages);
-        when(pageVersionRepository.findByPageIdAndLanguage(1L, "en"))
-                .thenReturn(Optional.of(mockPageVersion));
-        lenient().when(pageRoleAccessRepository.findAllByPageId(1L))
-                 .thenReturn(new HashSet<>());
+        when(blogArticleSearchRepository.search(any(BlogArticleSearchCriteria.class)))
+                .thenReturn(createSearchResult(List.of(mockPage), 1L));
 
         // When
         PagedResponse<PageResponse> result = pageService.getBlogArticles(pagedRequest, anonymousRoles);
@@ -388,6 +493,124 @@ class PageServiceUTC {
         // Then
         assertNotNull(result);
         assertFalse(result.isEmpty());
+        assertEquals(List.of("ROLE_ANONYMOUS"), captureSearchCriteria().getRoles());
+    }
+
+    @Test
+    void getPageGroupsBulkLoadsNavigationOk() {
+        // Given
+        when(portalConfigurationService.getArrayConfiguration(any(), any()))
+                .thenReturn(List.of("en", "fi", "sv"));
+        when(pageNavigationCacheService.getNavigation(eq("en"), eq(userRoles), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<PageGroupResponse>>>getArgument(2)
+                                                    .get());
+
+        when(pageGroupRepository.findAllByIdIsNotIn(List.of(1L, 3L)))
+                .thenReturn(List.of(PageGroup.builder()
+                                             .id(10L)
+                                             .status(PageStatusEnum.PUBLISHED)
+                                             .build(),
+                        PageGroup.builder()
+                                 .id(11L)
+                                 .status(PageStatusEnum.PUBLISHED)
+                                 .build(),
+                        PageGroup.builder()
+                                 .id(12L)
+                                 .status(PageStatusEnum.DELETED)
+                                 .build()));
+        when(pageGroupVersionRepository.findAllByPageGroupIdInAndLanguage(List.of(10L, 11L), "en"))
+                .thenReturn(List.of(PageGroupVersion.builder()
+                                                    .id(100L)
+                                                    .pageGroupId(10L)
+                                                    .language("en")
+                                                    .title("Diving")
+                                                    .build(),
+                        PageGroupVersion.builder()
+                                        .id(101L)
+                                        .pageGroupId(11L)
+                                        .language("en")
+                                        .title("Members only")
+                                        .build()));
+
+        var publicPage = createMockPage(20L, "Public", "Ingress", "Body");
+        publicPage.setPageGroupId(10L);
+        var adminPage = createMockPage(21L, "Admin", "Ingress", "Body");
+        adminPage.setPageGroupId(11L);
+        when(pageRepository.findAllByPageGroupIdInAndStatusOrderByIdAsc(List.of(10L, 11L), PageStatusEnum.PUBLISHED))
+                .thenReturn(List.of(publicPage, adminPage));
+        when(pageVersionRepository.findAllByPageIdInAndLanguage(List.of(20L, 21L), "en"))
+                .thenReturn(List.of(createMockPageVersion(30L, 20L, "en", "Public", "Ingress", "Body"),
+                        createMockPageVersion(31L, 21L, "en", "Admin", "Ingress", "Body")));
+        when(pageRoleAccessRepository.findAllByPageIdIn(List.of(20L, 21L)))
+                .thenReturn(Set.of(PageRoleAccess.builder()
+                                                 .id(40L)
+                                                 .pageId(20L)
+                                                 .role(RoleEnum.ROLE_ANONYMOUS)
+                                                 .readPermission(true)
+                                                 .build(),
+                        PageRoleAccess.builder()
+                                      .id(41L)
+                                      .pageId(21L)
+                                      .role(RoleEnum.ROLE_ADMIN)
+                                      .readPermission(true)
+                                      .build()));
+
+        // When
+        var result = pageService.getPageGroups("en", userRoles);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(10L, result.getFirst()
+                                .getId());
+        assertEquals(1, result.getFirst()
+                              .getPages()
+                              .size());
+        assertEquals("Public", result.getFirst()
+                                     .getPages()
+                                     .getFirst()
+                                     .getPageVersions()
+                                     .getFirst()
+                                     .getTitle());
+        // No per-page lookups, and the read access is resolved from the same role permissions the pages are populated with
+        verify(pageRoleAccessRepository, never()).findByPageIdAndRoleIn(anyLong(), any());
+        verify(pageVersionRepository, never()).findByPageIdAndLanguage(anyLong(), anyString());
+        verify(pageRoleAccessRepository).findAllByPageIdIn(List.of(20L, 21L));
+        verifyNoMoreInteractions(pageRoleAccessRepository);
+    }
+
+    @Test
+    void getPageGroupsUnsupportedLanguageFail() {
+        // Given
+        when(portalConfigurationService.getArrayConfiguration(any(), any()))
+                .thenReturn(List.of("en", "fi", "sv"));
+
+        // When
+        var result = pageService.getPageGroups("xx", userRoles);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(pageNavigationCacheService, never()).getNavigation(any(), any(), any());
+    }
+
+    @Test
+    void createPathInvalidatesNavigationCacheOk() {
+        // Given
+        when(portalConfigurationService.getArrayConfiguration(any(), any()))
+                .thenReturn(List.of("en"));
+        when(pageGroupRepository.save(any(PageGroup.class))).thenReturn(PageGroup.builder()
+                                                                                 .id(100L)
+                                                                                 .status(PageStatusEnum.PUBLISHED)
+                                                                                 .build());
+
+        // When
+        pageService.createPath(PageGroupRequest.builder()
+                                               .id(0L)
+                                               .status(PageStatusEnum.PUBLISHED)
+                                               .pageGroupVersions(new LinkedHashSet<>())
+                                               .build());
+
+        // Then
+        verify(pageNavigationCacheService).invalidate();
     }
 
     @Test
@@ -509,10 +732,26 @@ class PageServiceUTC {
                    .pageGroupId(3L)
                    .creator(1L)
                    .createdAt(Instant.now())
-                   .pageVersions(new ArrayList<>())
+                   .pageVersions(List.of(createMockPageVersion(id, id, "en", title, ingress, body)))
                    .build();
     }
 
+    private BlogArticleSearchResult createSearchResult(List<Page> pages, long totalElements) {
+        return BlogArticleSearchResult.builder()
+                                      .pages(pages)
+                                      .sortValues(pages.stream()
+                                                       .map(page -> (Object) page.getCreatedAt())
+                                                       .toList())
+                                      .totalElements(totalElements)
+                                      .build();
+    }
+
+    private BlogArticleSearchCriteria captureSearchCriteria() {
+        var captor = ArgumentCaptor.forClass(BlogArticleSearchCriteria.class);
+        verify(blogArticleSearchRepository).search(captor.capture());
+        return captor.getValue();
+    }
+
     private PageVersion createMockPageVersion(Long id, Long pageId, String language, String title, String ingress, String body) {
         return PageVersion.builder()
                           .id(id)
@@ -0,0 +1,213 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.model.PageVersion;
+import io.oxalate.backend.model.PageVersionHistory;
+import io.oxalate.backend.repository.PageVersionHistoryEntry;
+import io.oxalate.backend.repository.PageVersionHistoryRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mock;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+class PageVersionHistoryServiceUTC {
+    private static final long PAGE_ID = 10L;
+    private static final long USER_ID = 2L;
+    private static final String PARAGRAPH = "<p>Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore.</p>\n";
+
+    @Mock
+    private PageVersionHistoryRepository pageVersionHistoryRepository;
+
+    private final List<PageVersionHistory> storedRevisions = new ArrayList<>();
+    private PageVersion pageVersion;
+
+    @BeforeEach
+    void setUp() {
+        pageVersion = PageVersion.builder()
+                                 .id(100L)
+                                 .pageId(PAGE_ID)
+                                 .language("en")
+                                 .title("Title 0")
+                                 .ingress("Ingress")
+                                 .body(body(0))
+                                 .build();
+
+        // The repository is backed by a list so that the revisions are reconstructed from what was actually stored
+        lenient().when(pageVersionHistoryRepository.save(any(PageVersionHistory.class)))
+                 .thenAnswer(invocation -> {
+                     PageVersionHistory pageVersionHistory = invocation.getArgument(0);
+
+                     if (pageVersionHistory.getId() == null) {
+                         pageVersionHistory.setId(1000L + storedRevisions.size());
+                         storedRevisions.add(pageVersionHistory);
+                     }
+
+                     return pageVersionHistory;
+                 });
+        lenient().when(pageVersionHistoryRepository.findFirstByPageIdAndLanguageOrderByRevisionDesc(anyLong(), anyString()))
+                 .thenAnswer(invocation -> storedRevisions.stream()
+                                                          .max(Comparator.comparingInt(PageVersionHistory::getRevision))
+                                                          .map(this::toEntry));
+        lenient().when(pageVersionHistoryRepository.findFirstByPageIdAndLanguageAndRevisionGreaterThanEqualAndSnapshotTrueOrderByRevisionAsc(anyLong(),
+                         anyString(), anyInt()))
+                 .thenAnswer(invocation -> {
+                     int fromRevision = invocation.getArgument(2);
+                     return storedRevisions.stream()
+                                           .filter(revision -> revision.isSnapshot() && revision.getRevision() >= fromRevision)
+                                           .min(Comparator.comparingInt(PageVersionHistory::getRevision));
+                 });
+        lenient().when(pageVersionHistoryRepository.findAllByPageIdAndLanguageAndRevisionBetweenOrderByRevisionDesc(anyLong(), anyString(), anyInt(),
+                         anyInt()))
+                 .thenAnswer(invocation -> storedRevisions.stream()
+                                                          .filter(revision -> revision.getRevision() >= (int) invocation.getArgument(2)
+                                                                  && revision.getRevision() <= (int) invocation.getArgument(3))
+                                                          .sorted(Comparator.comparingInt(PageVersionHistory::getRevision)
+                                                                            .reversed())
+                                                          .toList());
+        lenient().when(pageVersionHistoryRepository.findByPageIdAndLanguageAndRevision(anyLong(), anyString(), anyInt()))
+                 .thenAnswer(invocation -> storedRevisions.stream()
+                                                          .filter(revision -> revision.getRevision() == (int) invocation.getArgument(2))
+                                                          .findFirst());
+    }
+
+    @Test
+    void revisionsAreReconstructedFromDeltasAndSnapshotsOk() {
+        var pageVersionHistoryService = new PageVersionHistoryService(pageVersionHistoryRepository, true, 3);
+
+        for (var i = 1; i <= 7; i++) {
+            update(pageVersionHistoryService, i);
+        }
+
+        assertEquals(7, storedRevisions.size());
+        verify(pageVersionHistoryRepository, times(7)).lockPage(PAGE_ID);
+        // Every third and the newest revision are stored in full, the rest as deltas which are much smaller than the page
+        for (var revision : storedRevisions) {
+            assertEquals(revision.getRevision() % 3 == 0 || revision.getRevision() == 7, revision.isSnapshot());
+
+            if (!revision.isSnapshot()) {
+                assertTrue(revision.getBody()
+                                   .length() < 100, "Delta was " + revision.getBody());
+            }
+        }
+
+        for (var i = 1; i <= 7; i++) {
+            var pageVersionResponse = pageVersionHistoryService.getRevision(PAGE_ID, "en", i);
+            assertEquals("Title " + (i - 1), pageVersionResponse.getTitle());
+            assertEquals("Ingress", pageVersionResponse.getIngress());
+            assertEquals(body(i - 1), pageVersionResponse.getBody());
+        }
+
+        assertNull(pageVersionHistoryService.getRevision(PAGE_ID, "en", 8));
+    }
+
+    @Test
+    void removedVersionIsStoredAsSnapshotOk() {
+        var pageVersionHistoryService = new PageVersionHistoryService(pageVersionHistoryRepository, true, 10);
+        update(pageVersionHistoryService, 1);
+        pageVersionHistoryService.recordRemoval(pageVersion, USER_ID);
+
+        assertFalse(storedRevisions.get(0)
+                                   .isSnapshot());
+        assertTrue(storedRevisions.get(1)
+                                  .isSnapshot());
+        assertEquals(body(0), pageVersionHistoryService.getRevision(PAGE_ID, "en", 1)
+                                                       .getBody());
+        assertEquals(body(1), pageVersionHistoryService.getRevision(PAGE_ID, "en", 2)
+                                                       .getBody());
+    }
+
+    @Test
+    void editWithoutRevisionKeepsHistoryOk() {
+        var pageVersionHistoryService = new PageVersionHistoryService(pageVersionHistoryRepository, true, 10);
+        update(pageVersionHistoryService, 1);
+        // Edited while the history was disabled
+        pageVersion.setTitle("Title 2");
+        pageVersion.setBody(body(2));
+        update(pageVersionHistoryService, 3);
+
+        assertFalse(storedRevisions.get(0)
+                                   .isSnapshot());
+        assertEquals(body(0), pageVersionHistoryService.getRevision(PAGE_ID, "en", 1)
+                                                       .getBody());
+        assertEquals("Title 2", pageVersionHistoryService.getRevision(PAGE_ID, "en", 2)
+                                                         .getTitle());
+        assertEquals(body(2), pageVersionHistoryService.getRevision(PAGE_ID, "en", 2)
+                                                       .getBody());
+    }
+
+    @Test
+    void brokenDeltaIsNotFoundOk() {
+        var pageVersionHistoryService = new PageVersionHistoryService(pageVersionHistoryRepository, true, 10);
+        update(pageVersionHistoryService, 1);
+        update(pageVersionHistoryService, 2);
+        storedRevisions.get(0)
+                       .setBody("=99999;");
+
+        assertNull(pageVersionHistoryService.getRevision(PAGE_ID, "en", 1));
+        assertEquals(body(1), pageVersionHistoryService.getRevision(PAGE_ID, "en", 2)
+                                                       .getBody());
+    }
+
+    @Test
+    void historyDisabledStoresNothingOk() {
+        var pageVersionHistoryService = new PageVersionHistoryService(pageVersionHistoryRepository, false, 10);
+        update(pageVersionHistoryService, 1);
+        pageVersionHistoryService.recordRemoval(pageVersion, USER_ID);
+
+        verify(pageVersionHistoryRepository, never()).save(any());
+        assertTrue(storedRevisions.isEmpty());
+    }
+
+    private void update(PageVersionHistoryService pageVersionHistoryService, int edit) {
+        pageVersionHistoryService.recordRevision(pageVersion, USER_ID);
+        pageVersion.setTitle("Title " + edit);
+        pageVersion.setBody(body(edit));
+    }
+
+    private String body(int edit) {
+        return PARAGRAPH.repeat(50) + "<p>Edit number " + edit + "</p>\n" + PARAGRAPH.repeat(edit);
+    }
+
+    private PageVersionHistoryEntry toEntry(PageVersionHistory pageVersionHistory) {
+        return new PageVersionHistoryEntry() {
+            @Override
+            public int getRevision() {
+                return pageVersionHistory.getRevision();
+            }
+
+            @Override
+            public boolean getSnapshot() {
+                return pageVersionHistory.isSnapshot();
+            }
+
+            @Override
+            public long getReplacedBy() {
+                return pageVersionHistory.getReplacedBy();
+            }
+
+            @Override
+            public Instant getReplacedAt() {
+                return pageVersionHistory.getReplacedAt();
+            }
+        };
+    }
+}
@@ -0,0 +1,253 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.api.EventStatusEnum;
+import io.oxalate.backend.api.PaymentTypeEnum;
+import io.oxalate.backend.events.EventParticipantsChangedEvent;
+import io.oxalate.backend.events.EventsClosedEvent;
+import io.oxalate.backend.events.EventsReopenedEvent;
+import io.oxalate.backend.events.PaymentCreatedEvent;
+import io.oxalate.backend.events.UserRegisteredEvent;
+import io.oxalate.backend.model.StatsMetric;
+import io.oxalate.backend.model.StatsValue;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+@ExtendWith(MockitoExtension.class)
+class StatsCounterServiceUTC {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private StatsSnapshotService statsSnapshotService;
+
+    private StatsCounterService statsCounterService;
+
+    @BeforeEach
+    void setUp() {
+        statsCounterService = new StatsCounterService(jdbcTemplate, transactionManager, statsSnapshotService);
+        lenient().when(statsSnapshotService.computeValues(any(StatsMetric.class)))
+                 .thenReturn(List.of());
+        lenient().when(statsSnapshotService.computeValues(StatsMetric.REGISTRATIONS))
+                 .thenReturn(List.of(value(2024, "registrations", 5), value(2025, "registrations", 3)));
+        lenient().when(statsSnapshotService.computeValues(StatsMetric.DIVERS))
+                 .thenReturn(List.of(value(2025, "divers", 10)));
+        lenient().when(jdbcTemplate.queryForObject("SELECT pg_current_snapshot()::TEXT", String.class))
+                 .thenReturn("100:105:102,104");
+    }
+
+    @Test
+    void getValuesBeforeRebuildIsEmpty() {
+        assertTrue(statsCounterService.getValues(StatsMetric.REGISTRATIONS)
+                                      .isEmpty());
+        statsCounterService.handleUserRegistered(UserRegisteredEvent.builder()
+                                                                    .registered(Instant.parse("2025-05-01T10:00:00Z"))
+                                                                    .build());
+
+        statsCounterService.rebuild();
+
+        assertEquals(List.of(value(2024, "registrations", 5), value(2025, "registrations", 3)), statsCounterService.getValues(StatsMetric.REGISTRATIONS)
+                                                                                                                  .orElseThrow());
+        // Only the counted metrics are answered from memory
+        assertTrue(statsCounterService.getValues(StatsMetric.ORGANIZERS)
+                                      .isEmpty());
+    }
+
+    @Test
+    void domainEventsUpdateCounters() {
+        statsCounterService.rebuild();
+
+        statsCounterService.handleUserRegistered(UserRegisteredEvent.builder()
+                                                                    .registered(Instant.parse("2025-05-01T10:00:00Z"))
+                                                                    .build());
+        statsCounterService.handlePaymentCreated(PaymentCreatedEvent.builder()
+                                                                    .paymentType(PaymentTypeEnum.PERIODICAL)
+                                                                    .created(Instant.parse("2026-01-01T00:00:00Z"))
+                                                                    .build());
+        statsCounterService.handleEventParticipantsChanged(participantsChanged(EventStatusEnum.HELD, -2));
+        // Participants of the events which are not held yet are not counted
+        statsCounterService.handleEventParticipantsChanged(participantsChanged(EventStatusEnum.PUBLISHED, 4));
+
+        assertEquals(List.of(value(2024, "registrations", 5), value(2025, "registrations", 4)), statsCounterService.getValues(StatsMetric.REGISTRATIONS)
+                                                                                                                  .orElseThrow());
+        assertEquals(List.of(value(2026, "PERIODICAL", 1)), statsCounterService.getValues(StatsMetric.PAYMENTS)
+                                                                              .orElseThrow());
+        assertEquals(List.of(value(2025, "divers", 8)), statsCounterService.getValues(StatsMetric.DIVERS)
+                                                                          .orElseThrow());
+    }
+
+    @Test
+    void eventsClosedCountsEventTypesAndParticipants() throws Exception {
+        statsCounterService.rebuild();
+        var resultSet = mock(ResultSet.class);
+        when(resultSet.getLong("year")).thenReturn(2025L);
+        when(resultSet.getString("type")).thenReturn("Cave");
+        when(resultSet.getLong("participant_count")).thenReturn(6L);
+        doAnswer(invocation -> {
+            RowCallbackHandler rowCallbackHandler = invocation.getArgument(1);
+            rowCallbackHandler.processRow(resultSet);
+            rowCallbackHandler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate)
+          .query(startsWith("SELECT EXTRACT(YEAR FROM e.start_time)"), any(RowCallbackHandler.class), (Object) any());
+
+        statsCounterService.handleEventsClosed(EventsClosedEvent.builder()
+                                                                .eventIds(List.of(1L, 2L))
+                                                                .build());
+
+        assertEquals(List.of(value(2025, "Cave", 2)), statsCounterService.getValues(StatsMetric.EVENT_TYPES)
+                                                                        .orElseThrow());
+        assertEquals(List.of(value(2025, "divers", 22)), statsCounterService.getValues(StatsMetric.DIVERS)
+                                                                           .orElseThrow());
+    }
+
+    @Test
+    void eventsReopenedRemovesEventTypesAndParticipants() throws Exception {
+        statsCounterService.rebuild();
+        var resultSet = mock(ResultSet.class);
+        when(resultSet.getLong("year")).thenReturn(2025L);
+        when(resultSet.getString("type")).thenReturn("Cave");
+        when(resultSet.getLong("participant_count")).thenReturn(4L);
+        doAnswer(invocation -> {
+            RowCallbackHandler rowCallbackHandler = invocation.getArgument(1);
+            rowCallbackHandler.processRow(resultSet);
+            return null;
+        }).when(jdbcTemplate)
+          .query(startsWith("SELECT EXTRACT(YEAR FROM e.start_time)"), any(RowCallbackHandler.class), (Object) any());
+
+        statsCounterService.handleEventsClosed(EventsClosedEvent.builder()
+                                                                .eventIds(List.of(1L))
+                                                                .build());
+        statsCounterService.handleEventsReopened(EventsReopenedEvent.builder()
+                                                                    .eventIds(List.of(1L))
+                                                                    .build());
+
+        assertEquals(List.of(), statsCounterService.getValues(StatsMetric.EVENT_TYPES)
+                                                   .orElseThrow());
+        assertEquals(List.of(value(2025, "divers", 10)), statsCounterService.getValues(StatsMetric.DIVERS)
+                                                                           .orElseThrow());
+    }
+
+    @Test
+    void incrementDuringRebuildIsAppliedToRebuiltCounters() throws Exception {
+        statsCounterService.rebuild();
+        var increment = new CompletableFuture<Void>();
+        when(statsSnapshotService.computeValues(StatsMetric.REGISTRATIONS)).thenAnswer(invocation -> {
+            // The registration is committed while the rebuild reads the values without it
+            increment.completeAsync(() -> {
+                statsCounterService.handleUserRegistered(UserRegisteredEvent.builder()
+                                                                            .registered(Instant.parse("2025-05-01T10:00:00Z"))
+                                                                            .build());
+                return null;
+            });
+            Thread.sleep(200L);
+            return List.of(value(2025, "registrations", 3));
+        });
+
+        statsCounterService.rebuild();
+        increment.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(value(2025, "registrations", 4)), statsCounterService.getValues(StatsMetric.REGISTRATIONS)
+                                                                                  .orElseThrow());
+    }
+
+    @Test
+    void committedChangeSeenByRebuildIsNotCountedAgain() {
+        statsCounterService.rebuild();
+
+        // Transaction 101 had committed when the rebuild read the values, 102 was still running
+        registerInTransaction(101L);
+        registerInTransaction(102L);
+
+        assertEquals(List.of(value(2024, "registrations", 5), value(2025, "registrations", 4)), statsCounterService.getValues(StatsMetric.REGISTRATIONS)
+                                                                                                                  .orElseThrow());
+    }
+
+    @Test
+    void rebuildSnapshotVisibility() {
+        var snapshot = StatsCounterService.RebuildSnapshot.parse("100:105:102,104");
+
+        assertTrue(snapshot.isVisible(99L));
+        assertTrue(snapshot.isVisible(101L));
+        assertFalse(snapshot.isVisible(102L));
+        assertTrue(snapshot.isVisible(103L));
+        assertFalse(snapshot.isVisible(105L));
+        assertFalse(StatsCounterService.RebuildSnapshot.parse("100:100:")
+                                                       .isVisible(100L));
+    }
+
+    @Test
+    void checkpointWritesCountersAndIsNotLoadedOverRebuild() {
+        statsCounterService.checkpoint();
+        verify(jdbcTemplate, never()).batchUpdate(any(String.class), anyList());
+
+        statsCounterService.rebuild();
+        statsCounterService.checkpoint();
+
+        verify(jdbcTemplate).update("DELETE FROM stats_counters");
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO stats_counters"), anyList());
+
+        statsCounterService.loadCheckpoint();
+
+        verify(jdbcTemplate).query(eq("SELECT metric, year, type, value FROM stats_counters"), any(RowCallbackHandler.class));
+        assertEquals(List.of(value(2025, "divers", 10)), statsCounterService.getValues(StatsMetric.DIVERS)
+                                                                           .orElseThrow());
+    }
+
+    private void registerInTransaction(long transactionId) {
+        when(jdbcTemplate.queryForObject("SELECT pg_current_xact_id()::TEXT::BIGINT", Long.class)).thenReturn(transactionId);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            statsCounterService.handleUserRegistered(UserRegisteredEvent.builder()
+                                                                        .registered(Instant.parse("2025-05-01T10:00:00Z"))
+                                                                        .build());
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private EventParticipantsChangedEvent participantsChanged(EventStatusEnum status, long participantDelta) {
+        return EventParticipantsChangedEvent.builder()
+                                            .eventId(1L)
+                                            .status(status)
+                                            .startTime(Instant.parse("2025-06-01T08:00:00Z"))
+                                            .participantDelta(participantDelta)
+                                            .build();
+    }
+
+    private StatsValue value(long year, String type, long value) {
+        return StatsValue.builder()
+                         .year(year)
+                         .type(type)
+                         .value(value)
+                         .build();
+    }
+}
@@ -1,18 +1,50 @@
 package io.oxalate.backend.service;
 
+import static io.oxalate.backend.api.PortalConfigEnum.GENERAL;
+import static io.oxalate.backend.api.PortalConfigEnum.GeneralConfigEnum.TOP_DIVER_LIST_SIZE;
+import io.oxalate.backend.api.response.stats.EventPeriodReportResponse;
+import io.oxalate.backend.api.response.stats.MultiYearValueResponse;
+import io.oxalate.backend.model.StatsCumulation;
+import io.oxalate.backend.model.StatsMetric;
+import io.oxalate.backend.model.StatsValue;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.Year;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
 
 class StatsServiceUTC {
 
     @Test
     void mapToInstantLocalDateTimeOk() throws Exception {
-        var service = new StatsService(null, null);
+        var service = new StatsService(null, null, null, null, null, null, 8, Duration.ofSeconds(10));
         var value = LocalDateTime.of(2026, 3, 11, 16, 53, 1);
 
         var result = invokeMapToInstant(service, value);
@@ -23,7 +55,7 @@ class StatsServiceUTC {
 
     @Test
     void mapToInstantTimestampOk() throws Exception {
-        var service = new StatsService(null, null);
+        var service = new StatsService(null, null, null, null, null, null, 8, Duration.ofSeconds(10));
         var value = Timestamp.from(Instant.parse("2026-03-11T14:53:01Z"));
 
         var result = invokeMapToInstant(service, value);
@@ -33,13 +65,216 @@ class StatsServiceUTC {
 
     @Test
     void mapToInstantUnsupportedTypeOk() throws Exception {
-        var service = new StatsService(null, null);
+        var service = new StatsService(null, null, null, null, null, null, 8, Duration.ofSeconds(10));
 
         var result = invokeMapToInstant(service, 123);
 
         assertNull(result);
     }
 
+    @Test
+    void getYearlyDiversListCachesFinishedYears() {
+        var jdbcTemplate = mock(JdbcTemplate.class);
+        var portalConfigurationService = mock(PortalConfigurationService.class);
+        var statsSnapshotService = mock(StatsSnapshotService.class);
+        var service = new StatsService(jdbcTemplate, null, portalConfigurationService, statsSnapshotService, null, null, 8, Duration.ofSeconds(10));
+        var currentYear = Year.now(ZoneOffset.UTC)
+                              .getValue();
+        when(portalConfigurationService.getNumericConfiguration(GENERAL.group, TOP_DIVER_LIST_SIZE.key)).thenReturn(10L);
+        when(statsSnapshotService.getVersion()).thenReturn(1L);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(currentYear - 2);
+
+        var firstList = service.getYearlyDiversList();
+        var secondList = service.getYearlyDiversList();
+
+        assertEquals(3, firstList.size());
+        assertEquals(currentYear - 2, firstList.getFirst()
+                                               .getYear());
+        assertTrue(firstList.getFirst()
+                            .getDivers()
+                            .isEmpty());
+        assertEquals(firstList, secondList);
+        // The first call ranks all the years, the second only the current year
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(LocalDateTime.of(currentYear - 2, 1, 1, 0, 0)), eq(10L));
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(LocalDateTime.of(currentYear, 1, 1, 0, 0)), eq(10L));
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Integer.class));
+
+        when(statsSnapshotService.getVersion()).thenReturn(2L);
+        service.getYearlyDiversList();
+
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowCallbackHandler.class), eq(LocalDateTime.of(currentYear - 2, 1, 1, 0, 0)), eq(10L));
+    }
+
+    @Test
+    void getEventReportsFillsEmptyPeriodsWithinRange() {
+        var jdbcTemplate = mock(JdbcTemplate.class);
+        var service = new StatsService(jdbcTemplate, null, null, null, null, null, 8, Duration.ofSeconds(10));
+        var from = LocalDate.of(2024, 3, 1);
+        var to = LocalDate.of(2025, 9, 30);
+        doAnswer(invocation -> {
+            RowCallbackHandler rowCallbackHandler = invocation.getArgument(1);
+            rowCallbackHandler.processRow(eventReportRow(LocalDateTime.of(2024, 1, 1, 0, 0), 1L, LocalDateTime.of(2024, 6, 30, 10, 0)));
+            rowCallbackHandler.processRow(eventReportRow(LocalDateTime.of(2025, 7, 1, 0, 0), 2L, LocalDateTime.of(2025, 7, 1, 0, 0)));
+            return null;
+        }).when(jdbcTemplate)
+          .query(anyString(), any(RowCallbackHandler.class), eq(from.atStartOfDay()), eq(LocalDateTime.of(2025, 10, 1, 0, 0)));
+
+        var reports = service.getEventReports(from, to);
+
+        assertEquals(List.of("2024-1", "2024-7", "2025-1", "2025-7"), reports.stream()
+                                                                       .map(EventPeriodReportResponse::getPeriod)
+                                                                       .toList());
+        assertEquals(Instant.parse("2024-07-01T00:00:00Z"), reports.get(1)
+                                                                  .getPeriodStart());
+        assertEquals(1L, reports.getFirst()
+                                .getEvents()
+                                .getFirst()
+                                .getEventId());
+        assertTrue(reports.get(2)
+                          .getEvents()
+                          .isEmpty());
+        assertEquals(2L, reports.getLast()
+                                .getEvents()
+                                .getFirst()
+                                .getEventId());
+    }
+
+    @Test
+    void getEventReportsWithoutEventsOk() {
+        var service = new StatsService(mock(JdbcTemplate.class), null, null, null, null, null, 8, Duration.ofSeconds(10));
+
+        assertTrue(service.getEventReports(null, null)
+                          .isEmpty());
+    }
+
+    @Test
+    void getAggregateDataRunsQueriesConcurrently() {
+        var statsSnapshotService = mock(StatsSnapshotService.class);
+        var statsCounterService = mock(StatsCounterService.class);
+        var service = new StatsService(null, mock(PlatformTransactionManager.class), null, statsSnapshotService, statsCounterService, virtualThreadExecutor(),
+                8, Duration.ofSeconds(10));
+        // Every query waits until all four are running, which only happens when they are run concurrently
+        var running = new CountDownLatch(4);
+        when(statsCounterService.getValues(any(StatsMetric.class))).thenReturn(Optional.empty());
+        when(statsSnapshotService.getValues(any(StatsMetric.class))).thenAnswer(invocation -> {
+            running.countDown();
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            return List.of(new StatsValue(2025, invocation.getArgument(0, StatsMetric.class).key, 1));
+        });
+
+        var aggregateResponse = service.getAggregateData();
+
+        assertEquals(List.of(new MultiYearValueResponse(2025, 1, StatsMetric.DIVERS.key)), aggregateResponse.getDiversPerYear());
+        assertEquals(List.of(new MultiYearValueResponse(2025, 1, StatsMetric.EVENT_TYPES.key)), aggregateResponse.getEventTypesPerYear());
+        assertEquals(Set.of("diversPerYear", "diverTypesPerYear", "eventsPerYear", "eventTypesPerYear"), aggregateResponse.getQueryDurations()
+                                                                                                            .keySet());
+        assertTrue(aggregateResponse.getFailedQueries()
+                                    .isEmpty());
+    }
+
+    @Test
+    void getAggregateDataReturnsOtherAggregatesWhenQueryTimesOut() {
+        var statsSnapshotService = mock(StatsSnapshotService.class);
+        var statsCounterService = mock(StatsCounterService.class);
+        var service = new StatsService(null, mock(PlatformTransactionManager.class), null, statsSnapshotService, statsCounterService, virtualThreadExecutor(),
+                8, Duration.ofMillis(300));
+        when(statsCounterService.getValues(any(StatsMetric.class))).thenReturn(Optional.empty());
+        when(statsSnapshotService.getValues(any(StatsMetric.class))).thenReturn(List.of(new StatsValue(2025, "type", 1)));
+        when(statsSnapshotService.getValues(StatsMetric.EVENTS)).thenAnswer(invocation -> {
+            Thread.sleep(5_000L);
+            return List.of();
+        });
+
+        var start = System.nanoTime();
+        var aggregateResponse = service.getAggregateData();
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        assertTrue(aggregateResponse.getEventsPerYear()
+                                    .isEmpty());
+        assertEquals(1, aggregateResponse.getDiversPerYear()
+                                         .size());
+        assertEquals(Set.of("diversPerYear", "diverTypesPerYear", "eventTypesPerYear"), aggregateResponse.getQueryDurations()
+                                                                                                  .keySet());
+        assertEquals(Map.of("eventsPerYear", StatsService.FAILURE_TIMEOUT), aggregateResponse.getFailedQueries());
+    }
+
+    @Test
+    void getAggregateDataReportsFailedQuery() {
+        var statsSnapshotService = mock(StatsSnapshotService.class);
+        var statsCounterService = mock(StatsCounterService.class);
+        var service = new StatsService(null, mock(PlatformTransactionManager.class), null, statsSnapshotService, statsCounterService, virtualThreadExecutor(),
+                8, Duration.ofSeconds(10));
+        when(statsCounterService.getValues(any(StatsMetric.class))).thenReturn(Optional.empty());
+        when(statsSnapshotService.getValues(any(StatsMetric.class))).thenReturn(List.of(new StatsValue(2025, "type", 1)));
+        when(statsSnapshotService.getValues(StatsMetric.DIVERS)).thenThrow(new IllegalStateException("Query failed"));
+
+        var aggregateResponse = service.getAggregateData();
+
+        assertTrue(aggregateResponse.getDiversPerYear()
+                                    .isEmpty());
+        assertEquals(1, aggregateResponse.getEventsPerYear()
+                                         .size());
+        assertEquals(Map.of("diversPerYear", StatsService.FAILURE_ERROR), aggregateResponse.getFailedQueries());
+    }
+
+    @Test
+    void getAggregateDataWaitsForQuerySlotWithinDeadline() {
+        var statsSnapshotService = mock(StatsSnapshotService.class);
+        var statsCounterService = mock(StatsCounterService.class);
+        // A single query slot which the first query keeps beyond the deadline
+        var service = new StatsService(null, mock(PlatformTransactionManager.class), null, statsSnapshotService, statsCounterService, virtualThreadExecutor(),
+                1, Duration.ofMillis(300));
+        when(statsCounterService.getValues(any(StatsMetric.class))).thenReturn(Optional.empty());
+        when(statsSnapshotService.getValues(any(StatsMetric.class))).thenAnswer(invocation -> {
+            Thread.sleep(5_000L);
+            return List.of();
+        });
+
+        var start = System.nanoTime();
+        var aggregateResponse = service.getAggregateData();
+
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(3));
+        assertTrue(aggregateResponse.getDiversPerYear()
+                                    .isEmpty());
+        assertTrue(aggregateResponse.getEventTypesPerYear()
+                                    .isEmpty());
+        assertTrue(aggregateResponse.getQueryDurations()
+                                    .isEmpty());
+        assertEquals(Map.of("diversPerYear", StatsService.FAILURE_TIMEOUT, "diverTypesPerYear", StatsService.FAILURE_TIMEOUT, "eventsPerYear",
+                StatsService.FAILURE_TIMEOUT, "eventTypesPerYear", StatsService.FAILURE_TIMEOUT), aggregateResponse.getFailedQueries());
+    }
+
+    @Test
+    void toMultiYearValuesCumulationOk() {
+        var statsValues = List.of(new StatsValue(2024, "a", 2), new StatsValue(2024, "b", 1), new StatsValue(2025, "a", 3));
+
+        assertEquals(List.of(new MultiYearValueResponse(2024, 2, "a"), new MultiYearValueResponse(2024, 1, "b"), new MultiYearValueResponse(2025, 3, "a")),
+                StatsService.toMultiYearValues(statsValues, StatsCumulation.NONE));
+        assertEquals(List.of(new MultiYearValueResponse(2024, 2, "a"), new MultiYearValueResponse(2024, 2, "cumulative"),
+                new MultiYearValueResponse(2024, 1, "b"), new MultiYearValueResponse(2024, 3, "cumulative"), new MultiYearValueResponse(2025, 3, "a"),
+                new MultiYearValueResponse(2025, 6, "cumulative")), StatsService.toMultiYearValues(statsValues, StatsCumulation.TOTAL));
+        assertEquals(List.of(new MultiYearValueResponse(2024, 2, "a"), new MultiYearValueResponse(2024, 2, "cumulative-a"),
+                new MultiYearValueResponse(2024, 1, "b"), new MultiYearValueResponse(2024, 1, "cumulative-b"), new MultiYearValueResponse(2025, 3, "a"),
+                new MultiYearValueResponse(2025, 5, "cumulative-a")), StatsService.toMultiYearValues(statsValues, StatsCumulation.PER_TYPE));
+    }
+
+    private SimpleAsyncTaskExecutor virtualThreadExecutor() {
+        var executor = new SimpleAsyncTaskExecutor();
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    private ResultSet eventReportRow(LocalDateTime periodStart, long eventId, LocalDateTime startTime) throws SQLException {
+        var resultSet = mock(ResultSet.class);
+        when(resultSet.getObject("period_start", LocalDateTime.class)).thenReturn(periodStart);
+        when(resultSet.getObject("start_time")).thenReturn(Timestamp.valueOf(startTime));
+        when(resultSet.getLong("id")).thenReturn(eventId);
+        when(resultSet.getString("organizer_name")).thenReturn("Max Mustermann");
+        when(resultSet.getInt("participant_count")).thenReturn(4);
+        when(resultSet.getInt("dive_sum")).thenReturn(8);
+        return resultSet;
+    }
+
     private Instant invokeMapToInstant(StatsService service, Object value) throws Exception {
         var method = StatsService.class.getDeclaredMethod("mapToInstant", Object.class);
         method.setAccessible(true);
@@ -0,0 +1,84 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.model.StatsMetric;
+import io.oxalate.backend.model.StatsValue;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class StatsSnapshotServiceUTC {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StatsSnapshotService statsSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        statsSnapshotService = new StatsSnapshotService(jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void getValuesBeforeRefreshComputesEverything() {
+        when(jdbcTemplate.query(eq(StatsMetric.REGISTRATIONS.query), any(RowMapper.class), eq(StatsSnapshotService.RANGE_START),
+                eq(StatsSnapshotService.RANGE_END))).thenReturn(List.of(value(2024, 5), value(2023, 3)));
+
+        var values = statsSnapshotService.getValues(StatsMetric.REGISTRATIONS);
+
+        assertEquals(List.of(value(2023, 3), value(2024, 5)), values);
+        verify(jdbcTemplate, never()).query(startsWith("SELECT year, type, value FROM stats_snapshots"), any(RowMapper.class), any(), any());
+    }
+
+    @Test
+    void getValuesAfterRefreshMergesSnapshotAndCurrentYear() {
+        var currentYear = Year.now(ZoneOffset.UTC)
+                              .getValue();
+        var snapshotUntil = LocalDateTime.of(currentYear, 1, 1, 0, 0);
+        when(jdbcTemplate.query(startsWith("SELECT year, type, value FROM stats_snapshots"), any(RowMapper.class), eq(StatsMetric.EVENT_TYPES.key),
+                eq(currentYear))).thenReturn(List.of(value(currentYear - 1, 2), value(currentYear - 1, 7), value(currentYear - 2, 1)));
+        when(jdbcTemplate.query(eq(StatsMetric.EVENT_TYPES.query), any(RowMapper.class), eq(snapshotUntil), eq(StatsSnapshotService.RANGE_END)))
+                .thenReturn(List.of(value(currentYear, 4)));
+
+        statsSnapshotService.refresh();
+        var values = statsSnapshotService.getValues(StatsMetric.EVENT_TYPES);
+
+        assertEquals(List.of(value(currentYear - 2, 1), value(currentYear - 1, 7), value(currentYear - 1, 2), value(currentYear, 4)), values);
+    }
+
+    @Test
+    void refreshReplacesSnapshotOfEveryMetric() {
+        statsSnapshotService.refresh();
+
+        verify(jdbcTemplate).update("DELETE FROM stats_snapshots");
+        verify(jdbcTemplate, times(StatsMetric.values().length)).update(startsWith("INSERT INTO stats_snapshots"), anyString(), any(), any());
+        verify(transactionManager).commit(any());
+    }
+
+    private StatsValue value(long year, long value) {
+        return StatsValue.builder()
+                         .year(year)
+                         .type("type")
+                         .value(value)
+                         .build();
+    }
+}
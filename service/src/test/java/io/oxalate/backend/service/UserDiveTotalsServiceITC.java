@@ -0,0 +1,202 @@
+package io.oxalate.backend.service;
+
+import io.oxalate.backend.AbstractIntegrationTest;
+import static io.oxalate.backend.api.DiveTypeEnum.CAVE;
+import io.oxalate.backend.api.EventStatusEnum;
+import static io.oxalate.backend.api.EventStatusEnum.CANCELLED;
+import static io.oxalate.backend.api.EventStatusEnum.HELD;
+import static io.oxalate.backend.api.EventStatusEnum.PUBLISHED;
+import io.oxalate.backend.api.RoleEnum;
+import static io.oxalate.backend.api.RoleEnum.ROLE_ORGANIZER;
+import static io.oxalate.backend.api.RoleEnum.ROLE_USER;
+import static io.oxalate.backend.api.UserStatusEnum.ACTIVE;
+import io.oxalate.backend.api.UserTypeEnum;
+import io.oxalate.backend.model.Event;
+import io.oxalate.backend.model.User;
+import io.oxalate.backend.repository.EventRepository;
+import io.oxalate.backend.repository.RoleRepository;
+import io.oxalate.backend.repository.UserRepository;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.ActiveProfiles;
+
+@Slf4j
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UserDiveTotalsServiceITC extends AbstractIntegrationTest {
+    private static final Instant EVENT_START = Instant.parse("2024-06-15T10:00:00Z");
+
+    @Autowired
+    private UserDiveTotalsService userDiveTotalsService;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User organizer;
+    private User diver;
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        organizer = generateUser("organizer", ROLE_ORGANIZER);
+        diver = generateUser("diver", ROLE_USER);
+        event = generateEvent(EVENT_START, PUBLISHED);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM event_participants WHERE event_id = ?", event.getId());
+        eventRepository.deleteById(event.getId());
+
+        for (var user : List.of(diver, organizer)) {
+            roleRepository.deleteAllUserRolesByUserId(user.getId());
+            userRepository.deleteById(user.getId());
+        }
+    }
+
+    @Test
+    void participantInsertAddsDivesOk() {
+        addParticipant(2);
+
+        assertEquals(2L, eventRepository.countDivesByUserId(diver.getId()));
+        assertEquals(Map.of(2024, 2L), totalsByYear());
+        assertConsistent();
+    }
+
+    @Test
+    void participantDeleteRemovesDivesOk() {
+        addParticipant(2);
+
+        jdbcTemplate.update("DELETE FROM event_participants WHERE event_id = ? AND user_id = ?", event.getId(), diver.getId());
+
+        assertEquals(0L, eventRepository.countDivesByUserId(diver.getId()));
+        assertTrue(totalsByYear().isEmpty());
+        assertFalse(memberDiveCounts().containsKey(diver.getId()));
+        assertConsistent();
+    }
+
+    @Test
+    void diveCountUpdateAdjustsDivesOk() {
+        addParticipant(1);
+
+        jdbcTemplate.update("UPDATE event_participants SET dive_count = ? WHERE event_id = ? AND user_id = ?", 4, event.getId(), diver.getId());
+        assertEquals(4L, eventRepository.countDivesByUserId(diver.getId()));
+        assertEquals(4L, memberDiveCounts().get(diver.getId()));
+
+        jdbcTemplate.update("UPDATE event_participants SET dive_count = ? WHERE event_id = ? AND user_id = ?", 0, event.getId(), diver.getId());
+        assertEquals(0L, eventRepository.countDivesByUserId(diver.getId()));
+        // A participant without dives is still listed as a member
+        assertEquals(0L, memberDiveCounts().get(diver.getId()));
+        assertConsistent();
+    }
+
+    @Test
+    void eventMovedInAndOutOfHeldKeepsDivesOk() {
+        addParticipant(3);
+
+        event.setStatus(HELD);
+        event = eventRepository.save(event);
+        assertEquals(3L, eventRepository.countDivesByUserId(diver.getId()));
+        assertConsistent();
+
+        event.setStatus(CANCELLED);
+        event = eventRepository.save(event);
+        assertEquals(3L, eventRepository.countDivesByUserId(diver.getId()));
+        assertEquals(Map.of(2024, 3L), totalsByYear());
+        assertConsistent();
+    }
+
+    @Test
+    void eventMovedToOtherYearMovesDivesOk() {
+        addParticipant(3);
+
+        event.setStartTime(EVENT_START.minus(365, ChronoUnit.DAYS));
+        event = eventRepository.save(event);
+
+        assertEquals(Map.of(2023, 3L), totalsByYear());
+        assertEquals(3L, eventRepository.countDivesByUserId(diver.getId()));
+        assertConsistent();
+    }
+
+    private void assertConsistent() {
+        assertEquals(0L, userDiveTotalsService.verifyAndRebuild());
+    }
+
+    private void addParticipant(int diveCount) {
+        jdbcTemplate.update("INSERT INTO event_participants (user_id, event_id, dive_count) VALUES (?, ?, ?)", diver.getId(), event.getId(), diveCount);
+    }
+
+    private Map<Integer, Long> totalsByYear() {
+        var totals = new HashMap<Integer, Long>();
+        jdbcTemplate.query("SELECT year, dive_count FROM user_dive_totals WHERE user_id = ?",
+                (RowCallbackHandler) resultSet -> totals.put(resultSet.getInt("year"), resultSet.getLong("dive_count")), diver.getId());
+        return totals;
+    }
+
+    private Map<Long, Long> memberDiveCounts() {
+        var counts = new HashMap<Long, Long>();
+
+        for (var row : eventRepository.getMemberDiveCount()) {
+            counts.put(((Number) row[0]).longValue(), ((Number) row[3]).longValue());
+        }
+
+        return counts;
+    }
+
+    private Event generateEvent(Instant start, EventStatusEnum eventStatus) {
+        return eventRepository.save(Event.builder()
+                                         .type(CAVE)
+                                         .title("Test Event")
+                                         .description("A Test generated event for the dive totals")
+                                         .startTime(start)
+                                         .eventDuration(6)
+                                         .maxDuration(120)
+                                         .maxDepth(40)
+                                         .maxParticipants(12)
+                                         .organizerId(organizer.getId())
+                                         .status(eventStatus)
+                                         .build());
+    }
+
+    private User generateUser(String name, RoleEnum roleEnum) {
+        var user = userRepository.save(User.builder()
+                                           .username(name + "-" + Instant.now()
+                                                                         .toEpochMilli() + "@test.tld")
+                                           .password("password")
+                                           .firstName("Max")
+                                           .lastName("Mustermann")
+                                           .status(ACTIVE)
+                                           .phoneNumber("123456789")
+                                           .privacy(false)
+                                           .nextOfKin("Maxine Mustermann")
+                                           .registered(Instant.now()
+                                                              .minus(1000L, ChronoUnit.DAYS))
+                                           .approvedTerms(true)
+                                           .language("de")
+                                           .primaryUserType(UserTypeEnum.SCUBA_DIVER)
+                                           .build());
+        var role = roleRepository.findByName(roleEnum)
+                                 .orElseThrow();
+        roleRepository.addUserRole(user.getId(), role.getId());
+        return user;
+    }
+}
@@ -0,0 +1,46 @@
+package io.oxalate.backend.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class UserDiveTotalsServiceUTC {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private UserDiveTotalsService userDiveTotalsService;
+
+    @BeforeEach
+    void setUp() {
+        userDiveTotalsService = new UserDiveTotalsService(jdbcTemplate);
+    }
+
+    @Test
+    void verifyAndRebuildConsistentSkipsRebuild() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+
+        assertEquals(0L, userDiveTotalsService.verifyAndRebuild());
+        verify(jdbcTemplate).execute(startsWith("LOCK TABLE user_dive_totals"));
+        verify(jdbcTemplate, never()).update(anyString());
+    }
+
+    @Test
+    void verifyAndRebuildInconsistentRebuilds() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(3L);
+
+        assertEquals(3L, userDiveTotalsService.verifyAndRebuild());
+        verify(jdbcTemplate).update("DELETE FROM user_dive_totals");
+        verify(jdbcTemplate).update(startsWith("INSERT INTO user_dive_totals"));
+    }
+}
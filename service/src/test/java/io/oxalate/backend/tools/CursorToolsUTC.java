@@ -0,0 +1,45 @@
+package io.oxalate.backend.tools;
+
+import io.oxalate.backend.api.AuditLevelEnum;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@Slf4j
+public class CursorToolsUTC {
+    @Test
+    void encodeDecodeRoundTripOk() {
+        var keys = new LinkedHashMap<String, Object>();
+        keys.put("createdAt", Instant.parse("2025-03-01T10:15:30.123456Z"));
+        keys.put("title", "Shark | dive\u001E\u001F 100% + äö");
+        keys.put("rank", 0.0607927F);
+        keys.put("userId", null);
+        keys.put("id", 42L);
+
+        var decoded = CursorTools.decode(CursorTools.encode(keys));
+
+        assertEquals(keys, decoded);
+        assertEquals(List.copyOf(keys.keySet()), List.copyOf(decoded.keySet()));
+    }
+
+    @Test
+    void enumIsDecodedAsNameOk() {
+        var keys = new LinkedHashMap<String, Object>();
+        keys.put("level", AuditLevelEnum.WARN);
+
+        assertEquals("WARN", CursorTools.decode(CursorTools.encode(keys))
+                                        .get("level"));
+    }
+
+    @ValueSource(strings = { "not base64!", "aWQ", "aWQfTGFiYw", " " })
+    @ParameterizedTest
+    void decodeMalformedCursorFail(String cursor) {
+        assertNull(CursorTools.decode(cursor));
+    }
+}
@@ -0,0 +1,78 @@
+package io.oxalate.backend.tools;
+
+import lombok.extern.slf4j.Slf4j;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+@Slf4j
+public class DeltaToolsUTC {
+    @CsvSource(value = {
+            "'<p>Shark dive on Saturday</p>', '<p>Shark dive on Sunday</p>'",
+            "'<p>First</p>\n<p>Second</p>', '<p>Zero</p>\n<p>First</p>\n<p>Second</p>\n<p>Third</p>'",
+            "'', '<p>New page</p>'",
+            "'<p>Old page</p>', ''",
+            "'same text', 'same text'",
+            "'a b c d e f', 'f e d c b a'",
+            "'<a href=\"/x\">link</a> äö  tabs\tand\nlines', '<a href=\"/y\">link</a> ÄÖ  tabs\tand\n\nlines'"
+    })
+    @ParameterizedTest
+    void createAndApplyDeltaRoundTripOk(String source, String target) {
+        var delta = DeltaTools.createDelta(source, target);
+
+        assertNotNull(delta);
+        assertEquals(target, DeltaTools.applyDelta(source, delta));
+    }
+
+    @Test
+    void deltaOfSmallEditIsCompactOk() {
+        var paragraph = "<p>Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore.</p>\n";
+        var source = paragraph.repeat(200);
+        var target = source.replaceFirst("dolor", "dolores") + "<p>Appendix</p>";
+
+        var delta = DeltaTools.createDelta(source, target);
+
+        assertEquals(target, DeltaTools.applyDelta(source, delta));
+        assertTrue(delta.length() < 64, "Delta was " + delta);
+    }
+
+    @Test
+    void nullIsHandledAsEmptyTextOk() {
+        assertEquals("", DeltaTools.createDelta(null, null));
+        assertEquals("text", DeltaTools.applyDelta(null, DeltaTools.createDelta(null, "text")));
+    }
+
+    @Test
+    void createDeltaOfUnrelatedLongTextsFail() {
+        var source = new StringBuilder();
+        var target = new StringBuilder();
+
+        for (var i = 0; i < 1000; i++) {
+            source.append("a")
+                  .append(i)
+                  .append(' ');
+            target.append("b")
+                  .append(i)
+                  .append(' ');
+        }
+
+        assertNull(DeltaTools.createDelta(source.toString(), target.toString()));
+    }
+
+    @CsvSource(value = {
+            "'one two', '=3;'",
+            "'one two', '=1;'",
+            "'one two', 'x1;'",
+            "'one two', '+10:abc'",
+            "'one two', '=1'"
+    })
+    @ParameterizedTest
+    void applyMismatchingDeltaFail(String source, String delta) {
+        assertThrows(IllegalArgumentException.class, () -> DeltaTools.applyDelta(source, delta));
+    }
+}
@@ -0,0 +1,36 @@
+package io.oxalate.backend.tools;
+
+import lombok.extern.slf4j.Slf4j;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+@Slf4j
+public class SearchToolsUTC {
+    @CsvSource(delimiter = '|', value = {
+            "wreck                | wreck:*",
+            "Wreck div            | Wreck:* & div:*",
+            "  sea   bass  2024   | sea:* & bass:* & 2024:*",
+            "cave & !night (dive) | cave:* & night:* & dive:*",
+            "sukellus-äänet       | sukellus:* & äänet:*"
+    })
+    @ParameterizedTest
+    void toPrefixTsQueryOk(String search, String expected) {
+        assertEquals(expected, SearchTools.toPrefixTsQuery(search));
+    }
+
+    @Test
+    void toPrefixTsQueryWithoutWordsOk() {
+        assertNull(SearchTools.toPrefixTsQuery(null));
+        assertNull(SearchTools.toPrefixTsQuery(""));
+        assertNull(SearchTools.toPrefixTsQuery(" &|!:* "));
+    }
+
+    @Test
+    void toContainsLikePatternEscapesWildcardsOk() {
+        assertEquals("%Dive%", SearchTools.toContainsLikePattern("Dive"));
+        assertEquals("%100\\% fun\\_dive\\\\%", SearchTools.toContainsLikePattern("100% fun_dive\\"));
+    }
+}